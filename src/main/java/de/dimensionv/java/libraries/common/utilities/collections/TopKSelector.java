@@ -0,0 +1,510 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.collections;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * <p>
+ * Selects the {@code k} smallest elements of a stream of elements, according to a {@link Comparator}.</p>
+ *
+ * <p>
+ * The selector keeps the smallest elements seen so far in a bounded heap, whose root is the largest of them. Each new
+ * element is compared with the root only, and replaces it if it is smaller. So selecting {@code k} out of {@code n}
+ * elements takes {@code O(n log k)} time and {@code O(k)} memory, instead of {@code O(n log n)} time and
+ * {@code O(n)} memory for sorting all elements. Like a {@link java.util.PriorityQueue}, the heap grows as elements are
+ * added, so a large {@code k} only costs memory for the elements actually selected. To select the {@code k} largest
+ * elements, use the reversed comparator, or {@link #largest(java.lang.Iterable, int, java.util.Comparator)}.</p>
+ *
+ * <p>
+ * The result is the same as the first {@code k} elements after a stable sort: elements that compare equal keep the
+ * order in which they have been added. Any comparator may be used, e.g. the
+ * {@link de.dimensionv.java.libraries.common.utilities.strings.NaturalSortComparator} or the
+ * {@link de.dimensionv.java.libraries.common.utilities.file.comparators.FileSizeComparator}.</p>
+ *
+ * <p>
+ * A {@code TopKSelector} is not thread-safe. For parallel streams, use
+ * {@link #collector(int, java.util.Comparator)}, which merges the selectors of the different threads.</p>
+ *
+ * @param <T> The type of the elements.
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.1
+ * @since API 2.2.0
+ */
+public class TopKSelector<T> implements Consumer<T> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final int k;
+  private final Comparator<? super T> comparator;
+
+  private Object[] elements;
+  private long[] sequences;
+  private int size = 0;
+  private long sequence = 0;
+
+  /**
+   * Creates a new {@code TopKSelector}, which selects the {@code k} smallest elements according to the given
+   * {@code comparator}.
+   *
+   * @param k The number of elements to select.
+   * @param comparator The comparator defining the order of the elements.
+   * @throws InvalidIntegerValueException if {@code k} is negative.
+   * @throws NullPointerException if {@code comparator} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public TopKSelector(int k, Comparator<? super T> comparator) {
+    if (k < 0) {
+      throw new InvalidIntegerValueException(k);
+    }
+    if (comparator == null) {
+      throw new NullPointerException("comparator");
+    }
+    this.k = k;
+    this.comparator = comparator;
+    this.elements = new Object[Math.min(k, INITIAL_CAPACITY)];
+    this.sequences = new long[elements.length];
+  }
+
+  /**
+   * Returns the number of elements to select.
+   *
+   * @return The number of elements to select.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getK() {
+    return k;
+  }
+
+  /**
+   * Returns the number of elements currently selected, which is at most {@code k}.
+   *
+   * @return The number of elements currently selected.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the largest of the elements currently selected. Once {@code k} elements are selected, only elements
+   * smaller than this one can still be selected, so it can be used to skip expensive work for elements that would not
+   * be selected anyway.
+   *
+   * @return The largest element currently selected, or null if no element is selected.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public T getLargest() {
+    return (size == 0) ? null : (T) elements[0];
+  }
+
+  /**
+   * Offers the given element to the selector.
+   *
+   * @param element The element.
+   * @return {@code true} if the element is (for now) among the selected elements, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean add(T element) {
+    return add(element, sequence++);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   * This is the same as {@link #add(java.lang.Object)}.</p>
+   */
+  @Override
+  public void accept(T element) {
+    add(element);
+  }
+
+  /**
+   * Offers all elements of the given {@link Iterable} to the selector.
+   *
+   * @param iterable The elements.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void addAll(Iterable<? extends T> iterable) {
+    for (T element : iterable) {
+      add(element);
+    }
+  }
+
+  /**
+   * Offers all elements selected by the given {@code selector} to this selector. The elements of the other selector are
+   * considered to have been added after the elements of this selector.
+   *
+   * @param selector The other selector.
+   * @return This selector.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public TopKSelector<T> merge(TopKSelector<? extends T> selector) {
+    long offset = sequence;
+    for (int i = 0; i < selector.size; i++) {
+      add((T) selector.elements[i], offset + selector.sequences[i]);
+    }
+    sequence = offset + selector.sequence;
+    return this;
+  }
+
+  /**
+   * Returns the selected elements in ascending order.
+   *
+   * @return A new list of the selected elements.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public List<T> getResult() {
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (indexOne, indexTwo) -> compare(indexOne, indexTwo));
+
+    List<T> result = new ArrayList<T>(size);
+    for (Integer index : order) {
+      result.add((T) elements[index]);
+    }
+    return result;
+  }
+
+  /**
+   * Adds the given element with the given sequence number, which breaks ties between equal elements.
+   *
+   * @param element The element.
+   * @param elementSequence The sequence number of the element.
+   * @return {@code true} if the element is (for now) among the selected elements, {@code false} otherwise.
+   */
+  private boolean add(T element, long elementSequence) {
+    if (size < k) {
+      if (size == elements.length) {
+        grow();
+      }
+      elements[size] = element;
+      sequences[size] = elementSequence;
+      siftUp(size++);
+      return true;
+    }
+
+    if ((k == 0) || (compare(element, elementSequence, 0) >= 0)) {
+      return false;
+    }
+
+    // replace the largest selected element, and restore the heap
+    elements[0] = element;
+    sequences[0] = elementSequence;
+    siftDown(0);
+    return true;
+  }
+
+  /**
+   * Grows the heap by half of its capacity, but not beyond {@code k}.
+   */
+  private void grow() {
+    int capacity = elements.length;
+    int newCapacity = (int) Math.min((long) k, capacity + Math.max(capacity >> 1, INITIAL_CAPACITY));
+    elements = Arrays.copyOf(elements, newCapacity);
+    sequences = Arrays.copyOf(sequences, newCapacity);
+  }
+
+  /**
+   * Moves the element at the given position up the heap, until its parent is larger.
+   *
+   * @param position The position of the element.
+   */
+  private void siftUp(int position) {
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (compare(parent, position) >= 0) {
+        break;
+      }
+      swap(parent, position);
+      position = parent;
+    }
+  }
+
+  /**
+   * Moves the element at the given position down the heap, until both of its children are smaller.
+   *
+   * @param position The position of the element.
+   */
+  private void siftDown(int position) {
+    while (true) {
+      int largest = position;
+      int left = (position << 1) + 1;
+      int right = left + 1;
+      if ((left < size) && (compare(left, largest) > 0)) {
+        largest = left;
+      }
+      if ((right < size) && (compare(right, largest) > 0)) {
+        largest = right;
+      }
+      if (largest == position) {
+        break;
+      }
+      swap(position, largest);
+      position = largest;
+    }
+  }
+
+  /**
+   * Compares the elements at the given positions, breaking ties by their sequence numbers.
+   *
+   * @param positionOne The position of the first element.
+   * @param positionTwo The position of the second element.
+   * @return A negative value, zero, or a positive value as the first element is less than, equal to, or greater than
+   * the second.
+   */
+  @SuppressWarnings("unchecked")
+  private int compare(int positionOne, int positionTwo) {
+    return compare((T) elements[positionOne], sequences[positionOne], positionTwo);
+  }
+
+  /**
+   * Compares the given element with the element at the given position, breaking ties by their sequence numbers.
+   *
+   * @param element The element.
+   * @param elementSequence The sequence number of the element.
+   * @param position The position of the element to compare with.
+   * @return A negative value, zero, or a positive value as the given element is less than, equal to, or greater than
+   * the one at {@code position}.
+   */
+  @SuppressWarnings("unchecked")
+  private int compare(T element, long elementSequence, int position) {
+    int result = comparator.compare(element, (T) elements[position]);
+    return (result != 0) ? result : Long.compare(elementSequence, sequences[position]);
+  }
+
+  /**
+   * Swaps the elements at the given positions.
+   *
+   * @param positionOne The position of the first element.
+   * @param positionTwo The position of the second element.
+   */
+  private void swap(int positionOne, int positionTwo) {
+    Object element = elements[positionOne];
+    elements[positionOne] = elements[positionTwo];
+    elements[positionTwo] = element;
+
+    long elementSequence = sequences[positionOne];
+    sequences[positionOne] = sequences[positionTwo];
+    sequences[positionTwo] = elementSequence;
+  }
+
+  /**
+   * Returns the {@code k} smallest elements of the given {@link Iterable} in ascending order.
+   *
+   * @param <T> The type of the elements.
+   * @param iterable The elements.
+   * @param k The number of elements to select.
+   * @param comparator The comparator defining the order of the elements.
+   * @return A new list of the selected elements.
+   * @throws InvalidIntegerValueException if {@code k} is negative.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static <T> List<T> smallest(Iterable<? extends T> iterable, int k, Comparator<? super T> comparator) {
+    TopKSelector<T> selector = new TopKSelector<T>(k, comparator);
+    selector.addAll(iterable);
+    return selector.getResult();
+  }
+
+  /**
+   * Returns the {@code k} largest elements of the given {@link Iterable} in descending order.
+   *
+   * @param <T> The type of the elements.
+   * @param iterable The elements.
+   * @param k The number of elements to select.
+   * @param comparator The comparator defining the order of the elements.
+   * @return A new list of the selected elements.
+   * @throws InvalidIntegerValueException if {@code k} is negative.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static <T> List<T> largest(Iterable<? extends T> iterable, int k, Comparator<? super T> comparator) {
+    return smallest(iterable, k, Collections.reverseOrder(comparator));
+  }
+
+  /**
+   * Returns a {@link Collector} that collects the {@code k} smallest elements of a stream in ascending order. It may
+   * be used with parallel streams.
+   *
+   * @param <T> The type of the elements.
+   * @param k The number of elements to select.
+   * @param comparator The comparator defining the order of the elements.
+   * @return The collector.
+   * @throws InvalidIntegerValueException if {@code k} is negative.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static <T> Collector<T, ?, List<T>> collector(final int k, final Comparator<? super T> comparator) {
+    // fail early, not only when the stream is processed
+    new TopKSelector<T>(k, comparator);
+    return Collector.<T, TopKSelector<T>, List<T>>of(
+        () -> new TopKSelector<T>(k, comparator), TopKSelector::add, TopKSelector::merge, TopKSelector::getResult);
+  }
+
+  /**
+   * <p>
+   * Rearranges the given array, so that its first {@code k} elements are its {@code k} smallest elements in ascending
+   * order. The remaining elements are left in no particular order.</p>
+   *
+   * <p>
+   * This is a partial quickselect in place, which takes {@code O(n + k log k)} time on average, and no additional
+   * memory apart from sorting the first {@code k} elements. Unlike the selector, it is not stable. Should the
+   * partitioning degenerate, the remaining range is sorted instead.</p>
+   *
+   * @param <T> The type of the elements.
+   * @param array The array.
+   * @param k The number of elements to select. If it exceeds the length of the array, the whole array is sorted.
+   * @param comparator The comparator defining the order of the elements.
+   * @throws InvalidIntegerValueException if {@code k} is negative.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static <T> void select(T[] array, int k, Comparator<? super T> comparator) {
+    if (k < 0) {
+      throw new InvalidIntegerValueException(k);
+    }
+    if (k >= array.length) {
+      Arrays.sort(array, comparator);
+      return;
+    }
+    if (k == 0) {
+      return;
+    }
+
+    int from = 0;
+    int to = array.length; // exclusive
+    int rounds = 2 * (32 - Integer.numberOfLeadingZeros(array.length));
+    while (to - from > 1) {
+      if (rounds-- == 0) {
+        Arrays.sort(array, from, to, comparator);
+        break;
+      }
+
+      int[] bounds = partition(array, from, to, comparator);
+      if (k <= bounds[0]) {
+        to = bounds[0];
+      } else if (k > bounds[1]) {
+        from = bounds[1];
+      } else {
+        break; // the k-th element is among the elements equal to the pivot
+      }
+    }
+
+    Arrays.sort(array, 0, k, comparator);
+  }
+
+  /**
+   * Partitions the given range of the array into elements less than, equal to, and greater than a pivot, which is the
+   * median of the first, middle and last element.
+   *
+   * @param <T> The type of the elements.
+   * @param array The array.
+   * @param from The start of the range.
+   * @param to The end of the range (exclusive).
+   * @param comparator The comparator defining the order of the elements.
+   * @return The start and the end (exclusive) of the elements equal to the pivot.
+   */
+  private static <T> int[] partition(T[] array, int from, int to, Comparator<? super T> comparator) {
+    T first = array[from];
+    T middle = array[(from + to) >>> 1];
+    T last = array[to - 1];
+    T pivot;
+    if (comparator.compare(first, middle) < 0) {
+      pivot = (comparator.compare(middle, last) < 0)
+          ? middle
+          : ((comparator.compare(first, last) < 0) ? last : first);
+    } else {
+      pivot = (comparator.compare(first, last) < 0)
+          ? first
+          : ((comparator.compare(middle, last) < 0) ? last : middle);
+    }
+
+    // three-way partitioning: [from, less) < pivot, [less, i) == pivot, (greater, to) > pivot
+    int less = from;
+    int greater = to - 1;
+    int i = from;
+    while (i <= greater) {
+      int result = comparator.compare(array[i], pivot);
+      if (result < 0) {
+        swap(array, less++, i++);
+      } else if (result > 0) {
+        swap(array, i, greater--);
+      } else {
+        i++;
+      }
+    }
+    return new int[]{less, greater + 1};
+  }
+
+  /**
+   * Swaps two elements of the given array.
+   *
+   * @param array The array.
+   * @param indexOne The index of the first element.
+   * @param indexTwo The index of the second element.
+   */
+  private static void swap(Object[] array, int indexOne, int indexTwo) {
+    Object element = array[indexOne];
+    array[indexOne] = array[indexTwo];
+    array[indexTwo] = element;
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.concurrent;
+
+/**
+ * <p>
+ * Interfaces for flow-controlled components, in which publishers produce items consumed by subscribers, each managed
+ * by a subscription. Subscribers request items from their subscription, and publishers never send more items than
+ * requested, so slow subscribers are never flooded.</p>
+ *
+ * <p>
+ * These interfaces mirror {@code java.util.concurrent.Flow} of Java 9 (and the Reactive Streams specification)
+ * method by method, and obey the very same rules, as this library targets Java 8. On Java 9 and later, a
+ * {@code java.util.concurrent.Flow.Subscriber} is adapted to a {@link Subscriber} by delegating each method, and the
+ * other way round.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class Flow {
+
+  private Flow() {
+    // this ensures that the class cannot be instantiated...
+  }
+
+  /**
+   * A producer of items received by subscribers. Each subscriber receives items in the same order, unless there are
+   * drops or errors.
+   *
+   * @param <T> The type of the items published.
+   */
+  @FunctionalInterface
+  public static interface Publisher<T> {
+
+    /**
+     * Adds the given subscriber. Its {@link Subscriber#onSubscribe(Subscription)} method is called with a new
+     * subscription, which is used to request items.
+     *
+     * @param subscriber The subscriber.
+     * @throws NullPointerException if {@code subscriber} is null.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+  }
+
+  /**
+   * A receiver of items. The methods are called in a strictly sequential order for each subscription.
+   *
+   * @param <T> The type of the items received.
+   */
+  public static interface Subscriber<T> {
+
+    /**
+     * Called before any other method of the subscriber for the given subscription.
+     *
+     * @param subscription The new subscription.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    void onSubscribe(Subscription subscription);
+
+    /**
+     * Called with the next item of the subscription. Called at most as often as items have been requested.
+     *
+     * @param item The item.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    void onNext(T item);
+
+    /**
+     * Called when the subscription failed. No further methods are called for the subscription.
+     *
+     * @param throwable The cause of the failure.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * Called when all items of the subscription have been received. No further methods are called for the
+     * subscription.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    void onComplete();
+  }
+
+  /**
+   * The link between a publisher and a subscriber, through which the subscriber requests items, or cancels.
+   */
+  public static interface Subscription {
+
+    /**
+     * Adds the given number of items to the demand of this subscription. If {@code n} is less than or equal to zero,
+     * the subscriber receives an {@link IllegalArgumentException} through {@link Subscriber#onError(Throwable)}.
+     *
+     * @param n The number of additional items requested. {@link Long#MAX_VALUE} requests an unbounded number of
+     * items.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    void request(long n);
+
+    /**
+     * Stops the subscriber from receiving items, eventually. Items may still be received until the cancellation takes
+     * effect.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    void cancel();
+  }
+}
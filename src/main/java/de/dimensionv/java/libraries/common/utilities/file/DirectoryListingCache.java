@@ -0,0 +1,567 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>
+ * A cache of directory listings, as returned by {@link FileUtils#getFileList(java.lang.String, boolean)}, which is kept
+ * up to date by a {@link WatchService}.</p>
+ *
+ * <p>
+ * Each directory listed is registered with the watch service. When an entry of a cached directory is created,
+ * deleted, or modified, only that entry is read again, and inserted into, removed from, or updated in the sorted
+ * listing. If events have been lost, or a directory can no longer be watched, its listing is dropped. So repeated
+ * listings of the same directory are served from memory, without reading or sorting anything. The lists returned are
+ * unmodifiable, and shared between callers until the directory changes.</p>
+ *
+ * <p>
+ * The total number of entries cached is bounded: when it is exceeded, the listings used least recently are evicted.
+ * Directories that cannot be watched are listed, but not cached. Events are delivered asynchronously, so a listing may
+ * be slightly behind the file system for a short time. The files listed have absolute paths.</p>
+ *
+ * <p>
+ * A directory listed under several paths, e.g. through a symbolic link and through its real path, has a listing for
+ * each of them, with the files under the respective path. The watch service reports the events of such a directory
+ * only once, so they are applied to all of its listings.</p>
+ *
+ * <p>
+ * A {@code DirectoryListingCache} is thread-safe. It runs a daemon thread waiting for events, which is stopped when
+ * the cache is closed.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class DirectoryListingCache implements Closeable {
+
+  private static final String HIDDEN_PREFIX = ".";
+
+  private static final Comparator<Entry> ENTRY_COMPARATOR = (entryOne, entryTwo) -> {
+    if (entryOne.directory != entryTwo.directory) {
+      return entryOne.directory ? -1 : 1;
+    }
+    int result = entryOne.sortKey.compareTo(entryTwo.sortKey);
+    // names are unique within a directory, so they break ties of names differing in case only
+    return (result != 0) ? result : entryOne.name.compareTo(entryTwo.name);
+  };
+
+  private final int maxEntries;
+  private final WatchService watchService;
+  private final Thread watcher;
+
+  // guarded by this
+  private final LinkedHashMap<Path, Listing> listings = new LinkedHashMap<Path, Listing>(16, 0.75f, true);
+  // all listings of the same directory share its key
+  private final Map<WatchKey, List<Listing>> watchedListings = new HashMap<WatchKey, List<Listing>>();
+  private int totalEntries = 0;
+  private boolean closed = false;
+
+  /**
+   * An entry of a directory, with its attributes.
+   */
+  private static final class Entry {
+
+    final File file;
+    final String name;
+    final String sortKey;
+    final boolean directory;
+    final boolean hidden;
+    final BasicFileAttributes attributes;
+
+    /**
+     * Creates a new {@code Entry}.
+     *
+     * @param path The path of the entry.
+     * @param name The name of the entry.
+     * @param hidden Flag whether the entry is hidden.
+     * @param attributes The attributes of the entry.
+     */
+    Entry(Path path, String name, boolean hidden, BasicFileAttributes attributes) {
+      this.file = path.toFile();
+      this.name = name;
+      this.sortKey = name.toLowerCase(Locale.getDefault());
+      this.directory = attributes.isDirectory();
+      this.hidden = hidden;
+      this.attributes = attributes;
+    }
+  }
+
+  /**
+   * The sorted listing of a directory, with the lists handed out, which are created on demand.
+   */
+  private static final class Listing {
+
+    final Path directory;
+    final WatchKey key;
+    // incremented with each event, so loads overlapping with events are not cached
+    int generation = 0;
+    // null while the listing is being loaded
+    List<Entry> entries = null;
+    Map<String, Entry> entriesByName = null;
+    List<File> visibleFiles = null;
+    List<File> allFiles = null;
+
+    /**
+     * Creates a new {@code Listing}, which has yet to be loaded.
+     *
+     * @param directory The directory.
+     * @param key The key of the directory, or null if it is not watched.
+     */
+    Listing(Path directory, WatchKey key) {
+      this.directory = directory;
+      this.key = key;
+    }
+
+    void setEntries(List<Entry> entries) {
+      this.entries = entries;
+      entriesByName = new HashMap<String, Entry>();
+      for (Entry entry : entries) {
+        entriesByName.put(entry.name, entry);
+      }
+    }
+
+    void clearEntries() {
+      entries = null;
+      entriesByName = null;
+      visibleFiles = null;
+      allFiles = null;
+    }
+
+    int size() {
+      return (entries == null) ? 0 : entries.size();
+    }
+
+    /**
+     * Replaces the entry of the given name, returning the change in the number of entries.
+     *
+     * @param name The name of the entry.
+     * @param entry The new entry, or null if the entry was deleted.
+     * @return The change in the number of entries, i.e. -1, 0, or 1.
+     */
+    int replace(String name, Entry entry) {
+      int delta = 0;
+      Entry oldEntry = entriesByName.remove(name);
+      if (oldEntry != null) {
+        entries.remove(Collections.binarySearch(entries, oldEntry, ENTRY_COMPARATOR));
+        delta--;
+      }
+      if (entry != null) {
+        entries.add(-Collections.binarySearch(entries, entry, ENTRY_COMPARATOR) - 1, entry);
+        entriesByName.put(name, entry);
+        delta++;
+      }
+      visibleFiles = null;
+      allFiles = null;
+      return delta;
+    }
+
+    List<File> getFiles(boolean includeHidden) {
+      List<File> files = includeHidden ? allFiles : visibleFiles;
+      if (files == null) {
+        files = new ArrayList<File>(entries.size());
+        for (Entry entry : entries) {
+          if (includeHidden || !entry.hidden) {
+            files.add(entry.file);
+          }
+        }
+        files = Collections.unmodifiableList(files);
+        if (includeHidden) {
+          allFiles = files;
+        } else {
+          visibleFiles = files;
+        }
+      }
+      return files;
+    }
+  }
+
+  /**
+   * Creates a new {@code DirectoryListingCache} for the default file system, and starts its watcher thread.
+   *
+   * @param maxEntries The maximum number of entries cached in all listings together.
+   * @throws InvalidIntegerValueException if {@code maxEntries} is less than 1.
+   * @throws IOException if the watch service cannot be created.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public DirectoryListingCache(int maxEntries) throws IOException {
+    if (maxEntries < 1) {
+      throw new InvalidIntegerValueException(maxEntries);
+    }
+    this.maxEntries = maxEntries;
+    this.watchService = FileSystems.getDefault().newWatchService();
+    this.watcher = new Thread(this::watch, "DirectoryListingCache watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+  }
+
+  /**
+   * Returns the maximum number of entries cached in all listings together.
+   *
+   * @return The maximum number of entries.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Returns the number of entries currently cached in all listings together.
+   *
+   * @return The number of entries cached.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public synchronized int size() {
+    return totalEntries;
+  }
+
+  /**
+   * Get a list of Files in the given path, directories first, each sorted by name, like
+   * {@link FileUtils#getFileList(java.lang.String, boolean)} returns it, but with absolute paths. Names differing in
+   * case only are sorted by their {@code char} values. If the path does not denote a readable directory, an empty
+   * list is returned.
+   *
+   * @param path The path to list the files of.
+   * @param includeHidden Flag whether hidden files should be included or not.
+   * @return Unmodifiable list of files in the given directory.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public List<File> getFileList(String path, boolean includeHidden) {
+    Path directory;
+    try {
+      directory = Paths.get(path).toAbsolutePath().normalize();
+    } catch (InvalidPathException e) {
+      return Collections.emptyList();
+    }
+
+    Listing listing;
+    int generation;
+    synchronized (this) {
+      listing = listings.get(directory);
+      if ((listing != null) && (listing.entries != null)) {
+        return listing.getFiles(includeHidden);
+      }
+      if (listing == null) {
+        listing = register(directory);
+      }
+      generation = listing.generation;
+    }
+
+    List<Entry> entries = readEntries(directory);
+    synchronized (this) {
+      if (listings.get(directory) == listing) {
+        if (entries == null) {
+          remove(listing);
+        } else if (listing.entries != null) {
+          // another thread was faster
+          return listing.getFiles(includeHidden);
+        } else if (listing.generation == generation) {
+          listing.setEntries(entries);
+          totalEntries += entries.size();
+          evict();
+          if (listing.entries != null) {
+            return listing.getFiles(includeHidden);
+          }
+        }
+      }
+    }
+
+    if (entries == null) {
+      return Collections.emptyList();
+    }
+    // the listing could not be cached, or events came in while it was read
+    Listing uncached = new Listing(directory, null);
+    uncached.setEntries(entries);
+    return uncached.getFiles(includeHidden);
+  }
+
+  /**
+   * Returns the cached attributes of the given file, if the listing of its directory is cached.
+   *
+   * @param file The file.
+   * @return The attributes of the file, or null if they are not cached.
+   * @throws NullPointerException if {@code file} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public BasicFileAttributes getAttributes(File file) {
+    Path path = file.toPath().toAbsolutePath().normalize();
+    Path directory = path.getParent();
+    if (directory == null) {
+      return null;
+    }
+    synchronized (this) {
+      Listing listing = listings.get(directory);
+      if ((listing == null) || (listing.entries == null)) {
+        return null;
+      }
+      Entry entry = listing.entriesByName.get(path.getFileName().toString());
+      return (entry == null) ? null : entry.attributes;
+    }
+  }
+
+  /**
+   * Drops the cached listing of the given directory, if there is one.
+   *
+   * @param path The path of the directory.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public synchronized void invalidate(String path) {
+    Listing listing = listings.get(Paths.get(path).toAbsolutePath().normalize());
+    if (listing != null) {
+      remove(listing);
+    }
+  }
+
+  /**
+   * Drops all cached listings, and stops watching the directories.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public synchronized void clear() {
+    for (Listing listing : new ArrayList<Listing>(listings.values())) {
+      remove(listing);
+    }
+  }
+
+  /**
+   * Drops all cached listings, and stops the watcher thread. Afterwards, directories are listed, but no longer cached.
+   *
+   * @throws IOException if the watch service cannot be closed.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      clear();
+      closed = true;
+    }
+    watchService.close();
+  }
+
+  /**
+   * Registers the given directory with the watch service, and adds a new listing for it, which has yet to be loaded.
+   *
+   * @param directory The directory.
+   * @return The new listing, which is not part of the cache if the directory cannot be watched.
+   */
+  private Listing register(Path directory) {
+    WatchKey key = null;
+    if (!closed) {
+      try {
+        key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+      } catch (IOException | UnsupportedOperationException | ClosedWatchServiceException e) {
+        // the directory is listed, but not cached
+      }
+    }
+    Listing listing = new Listing(directory, key);
+    if (key != null) {
+      listings.put(directory, listing);
+      watchedListings.computeIfAbsent(key, watchKey -> new ArrayList<Listing>(1)).add(listing);
+    }
+    return listing;
+  }
+
+  private void remove(Listing listing) {
+    listings.remove(listing.directory);
+    unwatch(listing);
+    totalEntries -= listing.size();
+    listing.clearEntries();
+  }
+
+  /**
+   * Removes the given listing from the listings of its key, and stops watching the directory, if it was the last one.
+   *
+   * @param listing The listing.
+   */
+  private void unwatch(Listing listing) {
+    List<Listing> aliases = watchedListings.get(listing.key);
+    if ((aliases != null) && aliases.remove(listing) && aliases.isEmpty()) {
+      watchedListings.remove(listing.key);
+      listing.key.cancel();
+    }
+  }
+
+  /**
+   * Evicts the listings used least recently, until the total number of entries does not exceed the maximum anymore.
+   */
+  private void evict() {
+    Iterator<Listing> iterator = listings.values().iterator();
+    while ((totalEntries > maxEntries) && iterator.hasNext()) {
+      Listing listing = iterator.next();
+      iterator.remove();
+      unwatch(listing);
+      totalEntries -= listing.size();
+      listing.clearEntries();
+    }
+  }
+
+  /**
+   * Waits for events, and patches the listings accordingly, until the watch service is closed.
+   */
+  private void watch() {
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        List<Listing> aliases;
+        synchronized (this) {
+          // empty if the listings have been evicted meanwhile
+          List<Listing> watched = watchedListings.get(key);
+          aliases = (watched == null) ? Collections.<Listing>emptyList() : new ArrayList<Listing>(watched);
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+          for (Listing listing : aliases) {
+            try {
+              if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                dropEntries(listing);
+              } else {
+                String name = event.context().toString();
+                Entry entry = readEntry(listing.directory.resolve(name), name);
+                synchronized (this) {
+                  listing.generation++;
+                  if (listing.entries != null) {
+                    totalEntries += listing.replace(name, entry);
+                    evict();
+                  }
+                }
+              }
+            } catch (RuntimeException e) {
+              // a single event must not stop the watcher, the listing is read again instead
+              dropEntries(listing);
+            }
+          }
+        }
+        if (!key.reset()) {
+          // the directory is gone, or cannot be watched anymore
+          synchronized (this) {
+            List<Listing> watched = watchedListings.get(key);
+            for (Listing listing : aliases) {
+              if ((watched != null) && watched.contains(listing)) {
+                remove(listing);
+              }
+            }
+          }
+        }
+      }
+    } catch (ClosedWatchServiceException | InterruptedException e) {
+      // the cache has been closed
+    }
+  }
+
+  /**
+   * Drops the entries of the given listing, so it is read again when it is requested the next time.
+   *
+   * @param listing The listing.
+   */
+  private synchronized void dropEntries(Listing listing) {
+    listing.generation++;
+    totalEntries -= listing.size();
+    listing.clearEntries();
+  }
+
+  /**
+   * Reads the entries of the given directory, sorted.
+   *
+   * @param directory The directory.
+   * @return The sorted entries, or null if the directory cannot be read.
+   */
+  private static List<Entry> readEntries(Path directory) {
+    List<Entry> entries = new ArrayList<Entry>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path path : stream) {
+        Entry entry = readEntry(path, path.getFileName().toString());
+        if (entry != null) {
+          entries.add(entry);
+        }
+      }
+    } catch (IOException | DirectoryIteratorException e) {
+      return null;
+    }
+    entries.sort(ENTRY_COMPARATOR);
+    return entries;
+  }
+
+  /**
+   * Reads the given entry.
+   *
+   * @param path The path of the entry.
+   * @param name The name of the entry.
+   * @return The entry, or null if it does not exist, or is neither a directory nor a regular file.
+   */
+  private static Entry readEntry(Path path, String name) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      if (!attributes.isDirectory() && !attributes.isRegularFile()) {
+        return null;
+      }
+      return new Entry(path, name, name.startsWith(HIDDEN_PREFIX) && Files.isHidden(path), attributes);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.utilities.concurrent.Flow;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ * A {@link Flow.Publisher} of the directories and files in a directory, directories first, as listed by
+ * {@link FileUtils#streamFileList(java.lang.String, boolean)}, or sorted as listed by
+ * {@link FileUtils#streamSortedFileList(java.lang.String, boolean, int)}.</p>
+ *
+ * <p>
+ * Each subscriber gets a listing of its own, which is read only as far as the subscriber requested entries, so a slow
+ * subscriber never causes entries to pile up in memory. When the subscriber cancels, the directory is closed. Errors
+ * opening or reading the directory are sent to the subscriber through
+ * {@link Flow.Subscriber#onError(java.lang.Throwable)}.</p>
+ *
+ * <p>
+ * The directory is read, and the signals are sent, by tasks running on the given {@link Executor}, the common
+ * {@link ForkJoinPool} by default.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class DirectoryPublisher implements Flow.Publisher<File> {
+
+  private final File directory;
+  private final boolean includeHidden;
+  private final int batchSize;
+  private final Executor executor;
+
+  /**
+   * The subscription of a single subscriber, with a listing of its own.
+   */
+  private final class DirectorySubscription extends PullSubscription<File> {
+
+    private FileListIterator iterator = null;
+
+    /**
+     * Creates a new {@code DirectorySubscription}.
+     *
+     * @param subscriber The subscriber to send the entries to.
+     */
+    DirectorySubscription(Flow.Subscriber<? super File> subscriber) {
+      super(subscriber, executor);
+    }
+
+    @Override
+    File produce() throws IOException {
+      if (iterator == null) {
+        iterator = new FileListIterator(directory.toPath(), includeHidden, batchSize);
+      }
+      return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    @Override
+    void release() {
+      if (iterator != null) {
+        try {
+          iterator.close();
+        } catch (RuntimeException e) {
+          // nothing left to be done about it
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates a new {@code DirectoryPublisher}, which publishes the entries unsorted, using the common
+   * {@link ForkJoinPool}.
+   *
+   * @param directory The directory to be listed.
+   * @param includeHidden Flag whether hidden entries should be included or not.
+   * @throws NullPointerException if {@code directory} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public DirectoryPublisher(File directory, boolean includeHidden) {
+    this(directory, includeHidden, 0, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a new {@code DirectoryPublisher}.
+   *
+   * @param directory The directory to be listed.
+   * @param includeHidden Flag whether hidden entries should be included or not.
+   * @param batchSize The maximum number of entries sorted at once, or 0 to publish the entries unsorted.
+   * @param executor The executor to read the directory on.
+   * @throws NullPointerException if {@code directory} or {@code executor} is null.
+   * @throws InvalidIntegerValueException if {@code batchSize} is negative.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public DirectoryPublisher(File directory, boolean includeHidden, int batchSize, Executor executor) {
+    if (directory == null) {
+      throw new NullPointerException("directory");
+    }
+    if (executor == null) {
+      throw new NullPointerException("executor");
+    }
+    if (batchSize < 0) {
+      throw new InvalidIntegerValueException(batchSize);
+    }
+    this.directory = directory;
+    this.includeHidden = includeHidden;
+    this.batchSize = batchSize;
+    this.executor = executor;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws NullPointerException if {@code subscriber} is null.
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super File> subscriber) {
+    new DirectorySubscription(subscriber).start();
+  }
+}
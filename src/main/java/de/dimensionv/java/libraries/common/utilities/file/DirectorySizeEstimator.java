@@ -0,0 +1,638 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidDoubleValueException;
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.exceptions.InvalidLongValueException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Estimates the total size and number of files of a directory tree by sampling, for trees too large to be walked
+ * completely, like with {@link DiskUsage}, in the time available.</p>
+ *
+ * <p>
+ * The estimator sends random probes down the tree: each probe starts at the top directory, and descends into a
+ * randomly chosen subdirectory at each level, until it reaches a directory without subdirectories. The files of each
+ * directory on the way are weighted by the product of the numbers of subdirectories of its ancestors, i.e. by the
+ * inverse probability of the probe reaching it, and added up. This is Knuth's estimator of the size of a tree: the sum
+ * of a probe is an unbiased estimate of the total, so the mean of many probes converges to it, and their variance
+ * yields a confidence interval. The directories read are cached, so later probes only read the directories not
+ * visited yet, which are mostly the deeper ones.</p>
+ *
+ * <p>
+ * Probes are sent until the time budget is spent, or the confidence interval is narrow enough, whatever comes first.
+ * A listener can be handed in, which receives the refined estimate in regular intervals, so a first number can be
+ * shown right away. The estimate is the better, the more regular the tree is; few huge directories deep down in an
+ * otherwise small tree widen the confidence interval considerably. Sizes are the apparent sizes of the files; symbolic
+ * links are not followed, and hard links are counted each time they are found.</p>
+ *
+ * <p>
+ * A {@code DirectorySizeEstimator} may be used by one thread at a time only.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class DirectorySizeEstimator {
+
+  private static final LinkOption[] NOFOLLOW_LINK_OPTIONS = new LinkOption[]{LinkOption.NOFOLLOW_LINKS};
+  private static final Path[] NO_PATHS = new Path[0];
+
+  /**
+   * The number of probes sent at least, before the precision is considered.
+   */
+  private static final int MIN_PROBES = 30;
+
+  private long timeBudget = 2000;
+  private long progressInterval = 250;
+  private double confidence = 0.95;
+  private double targetPrecision = 0.01;
+  private int maxCachedDirectories = 100000;
+  private Random random = new Random();
+
+  /**
+   * The files and subdirectories of a directory.
+   */
+  private static final class DirectoryInfo {
+
+    final long size;
+    final long files;
+    final Path[] subdirectories;
+
+    DirectoryInfo(long size, long files, Path[] subdirectories) {
+      this.size = size;
+      this.files = files;
+      this.subdirectories = subdirectories;
+    }
+  }
+
+  /**
+   * The running mean and variance of a series of values, computed with Welford's algorithm.
+   */
+  private static final class Statistics {
+
+    double mean = 0;
+    double squares = 0;
+
+    void add(double value, long count) {
+      double delta = value - mean;
+      mean += delta / count;
+      squares += delta * (value - mean);
+    }
+
+    double standardError(long count) {
+      return (count < 2) ? Double.POSITIVE_INFINITY : Math.sqrt(squares / (count - 1) / count);
+    }
+  }
+
+  /**
+   * <p>
+   * An estimate of the total size and number of files of a directory tree, with the bounds of their confidence
+   * intervals.</p>
+   *
+   * <p>
+   * An {@code Estimate} is immutable and thread-safe.</p>
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static final class Estimate {
+
+    private final long probes;
+    private final long directoriesRead;
+    private final long elapsed;
+    private final double confidence;
+    private final double size;
+    private final double sizeError;
+    private final double files;
+    private final double filesError;
+
+    Estimate(long probes, long directoriesRead, long elapsed, double confidence, double size, double sizeError,
+        double files, double filesError) {
+      this.probes = probes;
+      this.directoriesRead = directoriesRead;
+      this.elapsed = elapsed;
+      this.confidence = confidence;
+      this.size = size;
+      this.sizeError = sizeError;
+      this.files = files;
+      this.filesError = filesError;
+    }
+
+    /**
+     * Returns the number of probes the estimate is based on.
+     *
+     * @return The number of probes.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getProbes() {
+      return probes;
+    }
+
+    /**
+     * Returns the number of directories read so far.
+     *
+     * @return The number of directories.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getDirectoriesRead() {
+      return directoriesRead;
+    }
+
+    /**
+     * Returns the time spent so far.
+     *
+     * @return The time spent in milliseconds.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getElapsedMillis() {
+      return elapsed;
+    }
+
+    /**
+     * Returns the confidence level of the intervals.
+     *
+     * @return The confidence level, e.g. 0.95.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public double getConfidence() {
+      return confidence;
+    }
+
+    /**
+     * Returns the estimated total size of the files.
+     *
+     * @return The estimated size in bytes.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getSize() {
+      return Math.round(size);
+    }
+
+    /**
+     * Returns the lower bound of the confidence interval of the size, which is never negative.
+     *
+     * @return The lower bound in bytes.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getSizeLow() {
+      return Math.max(Math.round(size - sizeError), 0);
+    }
+
+    /**
+     * Returns the upper bound of the confidence interval of the size.
+     *
+     * @return The upper bound in bytes, or {@link Long#MAX_VALUE} if it is unknown yet.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getSizeHigh() {
+      return Math.round(Math.min(size + sizeError, Long.MAX_VALUE));
+    }
+
+    /**
+     * Returns the estimated number of files.
+     *
+     * @return The estimated number of files.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getFileCount() {
+      return Math.round(files);
+    }
+
+    /**
+     * Returns the lower bound of the confidence interval of the number of files, which is never negative.
+     *
+     * @return The lower bound.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getFileCountLow() {
+      return Math.max(Math.round(files - filesError), 0);
+    }
+
+    /**
+     * Returns the upper bound of the confidence interval of the number of files.
+     *
+     * @return The upper bound, or {@link Long#MAX_VALUE} if it is unknown yet.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getFileCountHigh() {
+      return Math.round(Math.min(files + filesError, Long.MAX_VALUE));
+    }
+
+    /**
+     * Returns the half width of the confidence interval of the size, relative to the size.
+     *
+     * @return The relative error, or {@link Double#POSITIVE_INFINITY} if it is unknown yet.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public double getRelativeError() {
+      if (sizeError == 0) {
+        return 0;
+      }
+      return (size > 0) ? sizeError / size : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Formats the estimate, with the sizes formatted by {@link FileUtils#getReadableFileSize(long)}, like
+     * "1.2 GB (1.1 GB - 1.3 GB), 12345 files (12000 - 12690)".
+     *
+     * @return The formatted estimate.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public String format() {
+      StringBuilder builder = new StringBuilder();
+      builder.append(FileUtils.getReadableFileSize(getSize())).append(" (")
+          .append(FileUtils.getReadableFileSize(getSizeLow())).append(" - ")
+          .append(FileUtils.getReadableFileSize(getSizeHigh())).append("), ")
+          .append(getFileCount()).append(" files (").append(getFileCountLow()).append(" - ")
+          .append(getFileCountHigh()).append(')');
+      return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+      return format();
+    }
+  }
+
+  /**
+   * Creates a new {@code DirectorySizeEstimator}, with a time budget of 2 seconds, a confidence level of 95%, and a
+   * target precision of 1%.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public DirectorySizeEstimator() {
+    // nothing to do, the defaults are set already.
+  }
+
+  /**
+   * Returns the time budget of an estimation.
+   *
+   * @return The time budget in milliseconds.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getTimeBudget() {
+    return timeBudget;
+  }
+
+  /**
+   * Sets the time budget of an estimation. At least one probe is sent, regardless of the time it takes.
+   *
+   * @param timeBudget The time budget in milliseconds.
+   * @throws InvalidLongValueException if {@code timeBudget} is less than 1.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setTimeBudget(long timeBudget) {
+    if (timeBudget < 1) {
+      throw new InvalidLongValueException(timeBudget);
+    }
+    this.timeBudget = timeBudget;
+  }
+
+  /**
+   * Returns the interval in which the listener receives refined estimates.
+   *
+   * @return The interval in milliseconds.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getProgressInterval() {
+    return progressInterval;
+  }
+
+  /**
+   * Sets the interval in which the listener receives refined estimates.
+   *
+   * @param progressInterval The interval in milliseconds.
+   * @throws InvalidLongValueException if {@code progressInterval} is less than 1.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setProgressInterval(long progressInterval) {
+    if (progressInterval < 1) {
+      throw new InvalidLongValueException(progressInterval);
+    }
+    this.progressInterval = progressInterval;
+  }
+
+  /**
+   * Returns the confidence level of the intervals.
+   *
+   * @return The confidence level.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public double getConfidence() {
+    return confidence;
+  }
+
+  /**
+   * Sets the confidence level of the intervals, i.e. the probability of the interval containing the true value.
+   *
+   * @param confidence The confidence level, e.g. 0.95.
+   * @throws InvalidDoubleValueException if {@code confidence} is not between 0 and 1, both exclusive.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setConfidence(double confidence) {
+    if (!((confidence > 0) && (confidence < 1))) {
+      throw new InvalidDoubleValueException(confidence);
+    }
+    this.confidence = confidence;
+  }
+
+  /**
+   * Returns the target precision, at which the estimation stops before the time budget is spent.
+   *
+   * @return The target precision, relative to the size.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public double getTargetPrecision() {
+    return targetPrecision;
+  }
+
+  /**
+   * Sets the target precision, at which the estimation stops before the time budget is spent: once the half width of
+   * the confidence interval of the size, relative to the size, is not larger than the target precision.
+   *
+   * @param targetPrecision The target precision, e.g. 0.01, or 0 to spend the whole time budget.
+   * @throws InvalidDoubleValueException if {@code targetPrecision} is negative.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setTargetPrecision(double targetPrecision) {
+    if (!(targetPrecision >= 0)) {
+      throw new InvalidDoubleValueException(targetPrecision);
+    }
+    this.targetPrecision = targetPrecision;
+  }
+
+  /**
+   * Returns the maximum number of directories cached during an estimation.
+   *
+   * @return The maximum number of directories.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getMaxCachedDirectories() {
+    return maxCachedDirectories;
+  }
+
+  /**
+   * Sets the maximum number of directories cached during an estimation. Once it is reached, further directories are
+   * read again each time a probe reaches them.
+   *
+   * @param maxCachedDirectories The maximum number of directories.
+   * @throws InvalidIntegerValueException if {@code maxCachedDirectories} is negative.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setMaxCachedDirectories(int maxCachedDirectories) {
+    if (maxCachedDirectories < 0) {
+      throw new InvalidIntegerValueException(maxCachedDirectories);
+    }
+    this.maxCachedDirectories = maxCachedDirectories;
+  }
+
+  /**
+   * Sets the source of randomness the subdirectories are chosen with, e.g. a {@code Random} with a fixed seed, for
+   * reproducible estimates.
+   *
+   * @param random The source of randomness.
+   * @throws NullPointerException if {@code random} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setRandom(Random random) {
+    if (random == null) {
+      throw new NullPointerException("random");
+    }
+    this.random = random;
+  }
+
+  /**
+   * Estimates the total size and number of files of the tree below the given directory.
+   *
+   * @param directory The directory to start at.
+   * @return The final estimate.
+   * @throws NullPointerException if {@code directory} is null.
+   * @throws NotDirectoryException if {@code directory} is not a directory.
+   * @throws IOException if the starting directory cannot be read.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Estimate estimate(File directory) throws IOException {
+    return estimate(directory, null);
+  }
+
+  /**
+   * Estimates the total size and number of files of the tree below the given directory, handing the refined estimate
+   * to the given listener in regular intervals. The listener is called by the calling thread.
+   *
+   * @param directory The directory to start at.
+   * @param listener The listener, or null.
+   * @return The final estimate, which is handed to the listener as well.
+   * @throws NullPointerException if {@code directory} is null.
+   * @throws NotDirectoryException if {@code directory} is not a directory.
+   * @throws IOException if the starting directory cannot be read.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Estimate estimate(File directory, Consumer<? super Estimate> listener) throws IOException {
+    if (directory == null) {
+      throw new NullPointerException("directory");
+    }
+    Path root = directory.toPath();
+    if (!Files.readAttributes(root, BasicFileAttributes.class).isDirectory()) {
+      throw new NotDirectoryException(directory.getPath());
+    }
+    // fail early, if the directory cannot be read
+    Files.newDirectoryStream(root).close();
+
+    double z = quantile(0.5 + confidence / 2);
+    long start = System.nanoTime();
+    long deadline = start + timeBudget * 1000000L;
+    long nextProgress = start + progressInterval * 1000000L;
+    Map<Path, DirectoryInfo> cache = new HashMap<Path, DirectoryInfo>();
+    long[] directoriesRead = new long[1];
+    Statistics sizes = new Statistics();
+    Statistics files = new Statistics();
+    long probes = 0;
+
+    while (true) {
+      double weight = 1;
+      double size = 0;
+      double count = 0;
+      Path current = root;
+      while (true) {
+        DirectoryInfo info = getInfo(current, cache, directoriesRead);
+        size += weight * info.size;
+        count += weight * info.files;
+        if (info.subdirectories.length == 0) {
+          break;
+        }
+        weight *= info.subdirectories.length;
+        current = info.subdirectories[random.nextInt(info.subdirectories.length)];
+      }
+      probes++;
+      sizes.add(size, probes);
+      files.add(count, probes);
+
+      long now = System.nanoTime();
+      boolean done = (now - deadline >= 0) || ((probes >= MIN_PROBES)
+          && (z * sizes.standardError(probes) <= targetPrecision * sizes.mean)
+          && (z * files.standardError(probes) <= targetPrecision * files.mean));
+      if (done || ((listener != null) && (now - nextProgress >= 0))) {
+        Estimate estimate = new Estimate(probes, directoriesRead[0], (now - start) / 1000000L, confidence, sizes.mean,
+            z * sizes.standardError(probes), files.mean, z * files.standardError(probes));
+        if (listener != null) {
+          listener.accept(estimate);
+          nextProgress = now + progressInterval * 1000000L;
+        }
+        if (done) {
+          return estimate;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the files and subdirectories of the given directory, from the cache if possible.
+   */
+  private DirectoryInfo getInfo(Path directory, Map<Path, DirectoryInfo> cache, long[] directoriesRead) {
+    DirectoryInfo info = cache.get(directory);
+    if (info == null) {
+      info = readDirectory(directory);
+      directoriesRead[0]++;
+      if (cache.size() < maxCachedDirectories) {
+        cache.put(directory, info);
+      }
+    }
+    return info;
+  }
+
+  /**
+   * Reads the files and subdirectories of the given directory. A directory that cannot be read is considered empty.
+   */
+  private static DirectoryInfo readDirectory(Path directory) {
+    long size = 0;
+    long files = 0;
+    List<Path> subdirectories = new ArrayList<Path>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path path : stream) {
+        try {
+          BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class,
+              NOFOLLOW_LINK_OPTIONS);
+          if (attributes.isDirectory()) {
+            subdirectories.add(path);
+          } else {
+            size += attributes.size();
+            files++;
+          }
+        } catch (IOException e) {
+          // the entry vanished meanwhile
+        }
+      }
+    } catch (IOException | DirectoryIteratorException e) {
+      // skip directories that cannot be read
+    }
+    return new DirectoryInfo(size, files, subdirectories.isEmpty() ? NO_PATHS
+        : subdirectories.toArray(new Path[subdirectories.size()]));
+  }
+
+  /**
+   * Returns the quantile of the standard normal distribution for the given probability, using the rational
+   * approximation 26.2.23 of Abramowitz and Stegun, which is accurate to about 4.5e-4.
+   *
+   * @param probability The probability, between 0 and 1, both exclusive.
+   * @return The quantile.
+   */
+  static double quantile(double probability) {
+    double p = (probability < 0.5) ? probability : 1 - probability;
+    double t = Math.sqrt(-2 * Math.log(p));
+    double quantile = t - (2.515517 + 0.802853 * t + 0.010328 * t * t)
+        / (1 + 1.432788 * t + 0.189269 * t * t + 0.001308 * t * t * t);
+    return (probability < 0.5) ? -quantile : quantile;
+  }
+}
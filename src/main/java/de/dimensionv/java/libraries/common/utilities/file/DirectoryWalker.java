@@ -0,0 +1,551 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * <p>
+ * Walks a directory tree recursively, scanning the subdirectories in parallel on a {@link ForkJoinPool}. Each directory
+ * is read by a task of its own, which forks a task for each of its subdirectories, so idle threads steal the work of
+ * busy ones, and large trees are scanned by all cores.</p>
+ *
+ * <p>
+ * The attributes of each entry are read exactly once. The entries reported can be restricted by a {@link FileFilter}
+ * (like the ones of the {@code AbstractFileFilter} family), and by a predicate on the entry and its
+ * {@link BasicFileAttributes}, which is a lot cheaper, as it does not need to ask the file system again. Which
+ * directories are descended into can be restricted by another predicate, and by a maximum depth. Directories are
+ * descended into regardless of whether they are reported or not.</p>
+ *
+ * <p>
+ * Optionally, the entries of each directory are sorted with a comparator, e.g. the {@code FileNameComparator} or a
+ * {@code NaturalSortComparator}. Symbolic links are not followed by default. If they are, each directory is checked
+ * against its ancestors, and a directory which is its own ancestor is reported, but not descended into again.</p>
+ *
+ * <p>
+ * Subdirectories that cannot be read are skipped silently. A {@code DirectoryWalker} may be used by several threads at
+ * once, as long as it is not re-configured meanwhile.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class DirectoryWalker {
+
+  private static final LinkOption[] NO_LINK_OPTIONS = new LinkOption[0];
+  private static final LinkOption[] NOFOLLOW_LINK_OPTIONS = new LinkOption[]{LinkOption.NOFOLLOW_LINKS};
+
+  private FileFilter filter = null;
+  private BiPredicate<? super File, ? super BasicFileAttributes> attributeFilter = null;
+  private BiPredicate<? super File, ? super BasicFileAttributes> directoryFilter = null;
+  private Comparator<? super File> comparator = null;
+  private int maxDepth = Integer.MAX_VALUE;
+  private boolean followLinks = false;
+  private ForkJoinPool pool = null;
+
+  /**
+   * An entry of a directory, together with its attributes.
+   */
+  private static final class Entry {
+
+    final Path path;
+    final File file;
+    final BasicFileAttributes attributes;
+
+    /**
+     * Creates a new {@code Entry}.
+     *
+     * @param path The path of the entry.
+     * @param attributes The attributes of the entry.
+     */
+    Entry(Path path, BasicFileAttributes attributes) {
+      this.path = path;
+      this.file = path.toFile();
+      this.attributes = attributes;
+    }
+  }
+
+  /**
+   * A directory on the way from the starting directory to the current one, identified by its file key or, if the file
+   * system does not provide file keys, by its real path.
+   */
+  private static final class Ancestor {
+
+    final Object key;
+    final Ancestor parent;
+
+    /**
+     * Creates a new {@code Ancestor}.
+     *
+     * @param key The key identifying the directory.
+     * @param parent The ancestor of the directory, or null.
+     */
+    Ancestor(Object key, Ancestor parent) {
+      this.key = key;
+      this.parent = parent;
+    }
+
+    /**
+     * Checks whether this ancestor, or one of its own ancestors, has the given key.
+     *
+     * @param key The key to look for.
+     * @return {@code true} if the key was found, {@code false} otherwise.
+     */
+    boolean contains(Object key) {
+      for (Ancestor ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+        if (ancestor.key.equals(key)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * The task scanning a single directory. If the entries are collected, the task keeps the accepted entries of its
+   * directory, interleaved with the tasks of the subdirectories, so the tree can be flattened in order afterwards.
+   */
+  private final class WalkTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Path directory;
+    private final int depth;
+    private final Ancestor ancestor;
+    private final BiConsumer<? super File, ? super BasicFileAttributes> visitor;
+    private final List<Object> results;
+
+    /**
+     * Creates a new {@code WalkTask}.
+     *
+     * @param directory The directory to be scanned.
+     * @param depth The depth of the directory's entries.
+     * @param ancestor The directory itself as an ancestor of its subdirectories, or null if links are not followed.
+     * @param visitor The visitor of accepted entries, or null if they shall be collected.
+     */
+    WalkTask(Path directory, int depth, Ancestor ancestor,
+        BiConsumer<? super File, ? super BasicFileAttributes> visitor) {
+      this.directory = directory;
+      this.depth = depth;
+      this.ancestor = ancestor;
+      this.visitor = visitor;
+      this.results = (visitor == null) ? new ArrayList<Object>() : null;
+    }
+
+    @Override
+    protected void compute() {
+      List<Entry> entries = readDirectory(directory);
+      if (comparator != null) {
+        entries.sort((entryOne, entryTwo) -> comparator.compare(entryOne.file, entryTwo.file));
+      }
+
+      List<WalkTask> subtasks = new ArrayList<WalkTask>();
+      for (Entry entry : entries) {
+        if (accept(entry)) {
+          if (visitor != null) {
+            visitor.accept(entry.file, entry.attributes);
+          } else {
+            results.add(entry.file);
+          }
+        }
+
+        if ((depth < maxDepth) && entry.attributes.isDirectory()
+            && ((directoryFilter == null) || directoryFilter.test(entry.file, entry.attributes))) {
+          Ancestor subdirectory = null;
+          if (followLinks) {
+            Object key = getKey(entry.path, entry.attributes);
+            if ((key == null) || ancestor.contains(key)) {
+              // a cycle, or the directory vanished
+              continue;
+            }
+            subdirectory = new Ancestor(key, ancestor);
+          }
+          WalkTask subtask = new WalkTask(entry.path, depth + 1, subdirectory, visitor);
+          subtasks.add(subtask);
+          if (results != null) {
+            results.add(subtask);
+          }
+        }
+      }
+
+      invokeAll(subtasks);
+    }
+  }
+
+  /**
+   * Creates a new {@code DirectoryWalker}, which reports all entries of all levels, in the order of the file system,
+   * without following symbolic links, on the common {@link ForkJoinPool}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public DirectoryWalker() {
+    // nothing to do, the defaults are set already.
+  }
+
+  /**
+   * Returns the filter that decides which entries are reported.
+   *
+   * @return The filter, or null if it is not set.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public FileFilter getFilter() {
+    return filter;
+  }
+
+  /**
+   * Sets the filter that decides which entries are reported. As it works on a {@link File}, it may have to ask the file
+   * system for attributes again, so the attribute filter should be preferred where possible.
+   *
+   * @param filter The filter, or null to report all entries.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setFilter(FileFilter filter) {
+    this.filter = filter;
+  }
+
+  /**
+   * Returns the predicate on an entry and its attributes that decides which entries are reported.
+   *
+   * @return The predicate, or null if it is not set.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public BiPredicate<? super File, ? super BasicFileAttributes> getAttributeFilter() {
+    return attributeFilter;
+  }
+
+  /**
+   * Sets the predicate on an entry and its attributes that decides which entries are reported. If a filter is set as
+   * well, entries are reported only if both accept them, and this predicate is tested first.
+   *
+   * @param attributeFilter The predicate, or null to report all entries.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setAttributeFilter(BiPredicate<? super File, ? super BasicFileAttributes> attributeFilter) {
+    this.attributeFilter = attributeFilter;
+  }
+
+  /**
+   * Returns the predicate on a directory and its attributes that decides which directories are descended into.
+   *
+   * @return The predicate, or null if it is not set.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public BiPredicate<? super File, ? super BasicFileAttributes> getDirectoryFilter() {
+    return directoryFilter;
+  }
+
+  /**
+   * Sets the predicate on a directory and its attributes that decides which directories are descended into.
+   *
+   * @param directoryFilter The predicate, or null to descend into all directories.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setDirectoryFilter(BiPredicate<? super File, ? super BasicFileAttributes> directoryFilter) {
+    this.directoryFilter = directoryFilter;
+  }
+
+  /**
+   * Returns the comparator the entries of each directory are sorted with.
+   *
+   * @return The comparator, or null if the entries are not sorted.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Comparator<? super File> getComparator() {
+    return comparator;
+  }
+
+  /**
+   * Sets the comparator the entries of each directory are sorted with.
+   *
+   * @param comparator The comparator, or null to keep the order of the file system.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setComparator(Comparator<? super File> comparator) {
+    this.comparator = comparator;
+  }
+
+  /**
+   * Returns the maximum depth of the entries reported.
+   *
+   * @return The maximum depth.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Sets the maximum depth of the entries reported. The entries of the starting directory have the depth 1, the entries
+   * of its subdirectories have the depth 2, and so on.
+   *
+   * @param maxDepth The maximum depth.
+   * @throws InvalidIntegerValueException if {@code maxDepth} is less than 1.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setMaxDepth(int maxDepth) {
+    if (maxDepth < 1) {
+      throw new InvalidIntegerValueException(maxDepth);
+    }
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Returns whether symbolic links are followed.
+   *
+   * @return {@code true} if symbolic links are followed, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean isFollowLinks() {
+    return followLinks;
+  }
+
+  /**
+   * Sets whether symbolic links are followed. If they are, the attributes reported are the ones of the link targets,
+   * and links to directories are descended into. Otherwise, links are reported as links.
+   *
+   * @param followLinks {@code true} to follow symbolic links, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setFollowLinks(boolean followLinks) {
+    this.followLinks = followLinks;
+  }
+
+  /**
+   * Returns the pool the directories are scanned on.
+   *
+   * @return The pool, or null if the common pool is used.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  /**
+   * Sets the pool the directories are scanned on.
+   *
+   * @param pool The pool, or null to use the common pool.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Walks the tree below the given directory, and returns the entries accepted. The entries of a directory are
+   * followed by the entries of its subdirectories, each right after the subdirectory itself. The starting directory is
+   * not part of the result.
+   *
+   * @param directory The directory to start at.
+   * @return The entries accepted.
+   * @throws NullPointerException if {@code directory} is null.
+   * @throws NotDirectoryException if {@code directory} is not a directory.
+   * @throws IOException if the starting directory cannot be read.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public List<File> walk(File directory) throws IOException {
+    WalkTask task = createTask(directory, null);
+    invoke(task);
+
+    List<File> files = new ArrayList<File>();
+    Deque<Iterator<Object>> stack = new ArrayDeque<Iterator<Object>>();
+    stack.push(task.results.iterator());
+    while (!stack.isEmpty()) {
+      Iterator<Object> iterator = stack.peek();
+      if (!iterator.hasNext()) {
+        stack.pop();
+        continue;
+      }
+      Object result = iterator.next();
+      if (result instanceof WalkTask) {
+        stack.push(((WalkTask) result).results.iterator());
+      } else {
+        files.add((File) result);
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Walks the tree below the given directory, and hands each entry accepted to the given visitor, together with its
+   * attributes. The visitor is called by the threads of the pool concurrently, so it has to be thread-safe. The
+   * entries of each directory are handed over in order, but the directories are scanned in no particular order. The
+   * starting directory is not handed over.
+   *
+   * @param directory The directory to start at.
+   * @param visitor The visitor of the entries accepted.
+   * @throws NullPointerException if {@code directory} or {@code visitor} is null.
+   * @throws NotDirectoryException if {@code directory} is not a directory.
+   * @throws IOException if the starting directory cannot be read.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void walk(File directory, BiConsumer<? super File, ? super BasicFileAttributes> visitor) throws IOException {
+    if (visitor == null) {
+      throw new NullPointerException("visitor");
+    }
+    invoke(createTask(directory, visitor));
+  }
+
+  /**
+   * Creates the task for the starting directory, after checking that it is a readable directory.
+   *
+   * @param directory The directory to start at.
+   * @param visitor The visitor of accepted entries, or null if they shall be collected.
+   * @return The task for the starting directory.
+   * @throws IOException if the starting directory is not a directory, or cannot be read.
+   */
+  private WalkTask createTask(File directory, BiConsumer<? super File, ? super BasicFileAttributes> visitor)
+      throws IOException {
+    if (directory == null) {
+      throw new NullPointerException("directory");
+    }
+    Path path = directory.toPath();
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    if (!attributes.isDirectory()) {
+      throw new NotDirectoryException(directory.getPath());
+    }
+    // fail early, if the directory cannot be read
+    Files.newDirectoryStream(path).close();
+
+    Ancestor ancestor = followLinks ? new Ancestor(getKey(path, attributes), null) : null;
+    return new WalkTask(path, 1, ancestor, visitor);
+  }
+
+  private void invoke(WalkTask task) {
+    ((pool == null) ? ForkJoinPool.commonPool() : pool).invoke(task);
+  }
+
+  /**
+   * Reads the entries of the given directory, together with their attributes. Entries whose attributes cannot be read,
+   * e.g. because they vanished meanwhile, are left out, as are all entries of a directory that cannot be read.
+   *
+   * @param directory The directory to read.
+   * @return The entries of the directory.
+   */
+  private List<Entry> readDirectory(Path directory) {
+    List<Entry> entries = new ArrayList<Entry>();
+    LinkOption[] options = followLinks ? NO_LINK_OPTIONS : NOFOLLOW_LINK_OPTIONS;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+      for (Path path : stream) {
+        try {
+          entries.add(new Entry(path, Files.readAttributes(path, BasicFileAttributes.class, options)));
+        } catch (IOException e) {
+          if (followLinks) {
+            // a dangling link, which is reported as link
+            try {
+              BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class,
+                  NOFOLLOW_LINK_OPTIONS);
+              entries.add(new Entry(path, attributes));
+            } catch (IOException ex) {
+              // the entry vanished meanwhile
+            }
+          }
+        }
+      }
+    } catch (IOException | DirectoryIteratorException e) {
+      // skip directories that cannot be read
+    }
+    return entries;
+  }
+
+  private boolean accept(Entry entry) {
+    return ((attributeFilter == null) || attributeFilter.test(entry.file, entry.attributes))
+        && ((filter == null) || filter.accept(entry.file));
+  }
+
+  /**
+   * Returns the key identifying the given directory, which is its file key or, if the file system does not provide
+   * file keys, its real path.
+   *
+   * @param directory The directory to identify.
+   * @param attributes The attributes of the directory.
+   * @return The key of the directory, or null if it vanished meanwhile.
+   */
+  private static Object getKey(Path directory, BasicFileAttributes attributes) {
+    Object key = attributes.fileKey();
+    if (key == null) {
+      try {
+        key = directory.toRealPath();
+      } catch (IOException e) {
+        return null;
+      }
+    }
+    return key;
+  }
+}
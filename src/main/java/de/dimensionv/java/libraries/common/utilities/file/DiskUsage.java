@@ -0,0 +1,537 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Computes the disk usage of a directory tree, like {@code du} does, scanning the subdirectories in parallel on a
+ * {@link ForkJoinPool}.</p>
+ *
+ * <p>
+ * Each directory is read by a task of its own, which forks a task for each of its subdirectories, and adds up the sizes
+ * and counts of its subdirectories once their tasks have completed, so the totals are aggregated bottom-up, without
+ * any locking. The attributes of each entry are read exactly once. Sizes are the apparent sizes of the files, i.e.
+ * their length in bytes; symbolic links are not followed, and count with the size of the link itself. On file systems
+ * that provide the number of links and the inode of files, like the ones of Unix-like systems, files with several hard
+ * links are counted once only, regardless of how many of their links are found.</p>
+ *
+ * <p>
+ * The result is a {@link Report}, which keeps the totals of the directories in primitive arrays, and formats them with
+ * {@link FileUtils#getReadableFileSize(long)}, largest first. To keep the report small for huge trees, the depth up to
+ * which directories are reported can be limited; deeper directories are still counted in the totals of their
+ * ancestors. Subdirectories that cannot be read are skipped silently. A {@code DiskUsage} may be used by several
+ * threads at once, as long as it is not re-configured meanwhile.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class DiskUsage {
+
+  private static final LinkOption[] NOFOLLOW_LINK_OPTIONS = new LinkOption[]{LinkOption.NOFOLLOW_LINKS};
+  private static final boolean UNIX_ATTRIBUTES
+      = FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+  private static final String UNIX_ATTRIBUTE_NAMES = "unix:size,isDirectory,nlink,ino,dev";
+  private static final String TAB = "\t";
+  private static final String NEWLINE = "\n";
+
+  private int reportDepth = Integer.MAX_VALUE;
+  private ForkJoinPool pool = null;
+
+  /**
+   * The identity of a file with several hard links.
+   */
+  private static final class Inode {
+
+    final long device;
+    final long inode;
+
+    Inode(long device, long inode) {
+      this.device = device;
+      this.inode = inode;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof Inode)) {
+        return false;
+      }
+      Inode other = (Inode) object;
+      return (device == other.device) && (inode == other.inode);
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(device) * 31 + Long.hashCode(inode);
+    }
+  }
+
+  /**
+   * The task scanning a single directory, which holds the totals of its tree once it has completed.
+   */
+  private final class UsageTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    final Path directory;
+    final UsageTask parent;
+    final int depth;
+    private final Set<Inode> linkedFiles;
+    // the tasks of the subdirectories, kept only if they are reported
+    List<UsageTask> children = null;
+    long size = 0;
+    long files = 0;
+    long directories = 0;
+    // the index in the report
+    int index = -1;
+
+    /**
+     * Creates a new {@code UsageTask}.
+     *
+     * @param directory The directory to be scanned.
+     * @param parent The task of the parent directory, or null for the starting directory.
+     * @param linkedFiles The files with several hard links found so far.
+     */
+    UsageTask(Path directory, UsageTask parent, Set<Inode> linkedFiles) {
+      this.directory = directory;
+      this.parent = parent;
+      this.depth = (parent == null) ? 0 : parent.depth + 1;
+      this.linkedFiles = linkedFiles;
+    }
+
+    @Override
+    protected void compute() {
+      List<UsageTask> subtasks = new ArrayList<UsageTask>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+        for (Path path : stream) {
+          try {
+            if (UNIX_ATTRIBUTES) {
+              readUnixAttributes(path, subtasks);
+            } else {
+              readBasicAttributes(path, subtasks);
+            }
+          } catch (IOException e) {
+            // the entry vanished meanwhile
+          }
+        }
+      } catch (IOException | DirectoryIteratorException e) {
+        // skip directories that cannot be read
+      }
+
+      invokeAll(subtasks);
+      for (UsageTask subtask : subtasks) {
+        size += subtask.size;
+        files += subtask.files;
+        directories += subtask.directories + 1;
+      }
+      if (depth < reportDepth) {
+        children = subtasks;
+      }
+    }
+
+    private void readUnixAttributes(Path path, List<UsageTask> subtasks) throws IOException {
+      Map<String, Object> attributes = Files.readAttributes(path, UNIX_ATTRIBUTE_NAMES, NOFOLLOW_LINK_OPTIONS);
+      if ((Boolean) attributes.get("isDirectory")) {
+        subtasks.add(new UsageTask(path, this, linkedFiles));
+      } else if (((Integer) attributes.get("nlink") <= 1)
+          || linkedFiles.add(new Inode((Long) attributes.get("dev"), (Long) attributes.get("ino")))) {
+        size += (Long) attributes.get("size");
+        files++;
+      }
+    }
+
+    private void readBasicAttributes(Path path, List<UsageTask> subtasks) throws IOException {
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINK_OPTIONS);
+      if (attributes.isDirectory()) {
+        subtasks.add(new UsageTask(path, this, linkedFiles));
+      } else {
+        size += attributes.size();
+        files++;
+      }
+    }
+  }
+
+  /**
+   * <p>
+   * The disk usage of a directory tree. The directories reported are numbered in pre-order, i.e. each directory is
+   * followed by its subdirectories, with the starting directory at index 0. For each of them, the report holds the
+   * total size and the number of files and subdirectories of its whole tree.</p>
+   *
+   * <p>
+   * A {@code Report} is immutable and thread-safe.</p>
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static final class Report {
+
+    private final File[] paths;
+    private final int[] parents;
+    private final int[] depths;
+    private final long[] sizes;
+    private final long[] files;
+    private final long[] directories;
+
+    /**
+     * Creates a new {@code Report} from the completed task of the starting directory.
+     *
+     * @param root The task of the starting directory.
+     */
+    private Report(UsageTask root) {
+      List<UsageTask> tasks = new ArrayList<UsageTask>();
+      Deque<UsageTask> stack = new ArrayDeque<UsageTask>();
+      stack.push(root);
+      while (!stack.isEmpty()) {
+        UsageTask task = stack.pop();
+        task.index = tasks.size();
+        tasks.add(task);
+        if (task.children != null) {
+          for (int i = task.children.size() - 1; i >= 0; i--) {
+            stack.push(task.children.get(i));
+          }
+        }
+      }
+
+      int count = tasks.size();
+      paths = new File[count];
+      parents = new int[count];
+      depths = new int[count];
+      sizes = new long[count];
+      files = new long[count];
+      directories = new long[count];
+      for (int i = 0; i < count; i++) {
+        UsageTask task = tasks.get(i);
+        paths[i] = task.directory.toFile();
+        parents[i] = (task.parent == null) ? -1 : task.parent.index;
+        depths[i] = task.depth;
+        sizes[i] = task.size;
+        files[i] = task.files;
+        directories[i] = task.directories;
+      }
+    }
+
+    /**
+     * Returns the number of directories reported, including the starting directory.
+     *
+     * @return The number of directories.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public int getDirectoryCount() {
+      return paths.length;
+    }
+
+    /**
+     * Returns the directory of the given index.
+     *
+     * @param index The index of the directory.
+     * @return The directory.
+     * @throws IndexOutOfBoundsException if {@code index} is out of range.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public File getDirectory(int index) {
+      return paths[index];
+    }
+
+    /**
+     * Returns the index of the parent of the given directory.
+     *
+     * @param index The index of the directory.
+     * @return The index of its parent, or -1 for the starting directory.
+     * @throws IndexOutOfBoundsException if {@code index} is out of range.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public int getParent(int index) {
+      return parents[index];
+    }
+
+    /**
+     * Returns the depth of the given directory, 0 for the starting directory.
+     *
+     * @param index The index of the directory.
+     * @return The depth of the directory.
+     * @throws IndexOutOfBoundsException if {@code index} is out of range.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public int getDepth(int index) {
+      return depths[index];
+    }
+
+    /**
+     * Returns the total size of the files in the tree of the given directory.
+     *
+     * @param index The index of the directory.
+     * @return The total size in bytes.
+     * @throws IndexOutOfBoundsException if {@code index} is out of range.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getSize(int index) {
+      return sizes[index];
+    }
+
+    /**
+     * Returns the number of files in the tree of the given directory.
+     *
+     * @param index The index of the directory.
+     * @return The number of files.
+     * @throws IndexOutOfBoundsException if {@code index} is out of range.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getFileCount(int index) {
+      return files[index];
+    }
+
+    /**
+     * Returns the number of subdirectories in the tree of the given directory.
+     *
+     * @param index The index of the directory.
+     * @return The number of subdirectories.
+     * @throws IndexOutOfBoundsException if {@code index} is out of range.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getSubdirectoryCount(int index) {
+      return directories[index];
+    }
+
+    /**
+     * Returns the total size of the files in the whole tree.
+     *
+     * @return The total size in bytes.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getTotalSize() {
+      return sizes[0];
+    }
+
+    /**
+     * Returns the number of files in the whole tree.
+     *
+     * @return The number of files.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getTotalFileCount() {
+      return files[0];
+    }
+
+    /**
+     * Returns the indices of the directories, sorted by their total size, largest first. Directories of the same size
+     * keep their pre-order.
+     *
+     * @return The sorted indices.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public int[] getIndicesBySize() {
+      int[] indices = new int[sizes.length];
+      for (int i = 0; i < indices.length; i++) {
+        indices[i] = i;
+      }
+      int[] buffer = new int[indices.length];
+      // bottom-up merge sort, which is stable, and needs no boxing
+      for (int width = 1; width < indices.length; width *= 2) {
+        for (int start = 0; start < indices.length; start += 2 * width) {
+          int middle = Math.min(start + width, indices.length);
+          int end = Math.min(start + 2 * width, indices.length);
+          int left = start;
+          int right = middle;
+          for (int i = start; i < end; i++) {
+            if ((left < middle) && ((right >= end) || (sizes[indices[left]] >= sizes[indices[right]]))) {
+              buffer[i] = indices[left++];
+            } else {
+              buffer[i] = indices[right++];
+            }
+          }
+        }
+        int[] swap = indices;
+        indices = buffer;
+        buffer = swap;
+      }
+      return indices;
+    }
+
+    /**
+     * Formats the largest directories, one per line, largest first. Each line holds the total size, formatted with
+     * {@link FileUtils#getReadableFileSize(long)}, the number of files, and the path of the directory, separated by
+     * tabs.
+     *
+     * @param limit The maximum number of directories to format.
+     * @return The formatted report.
+     * @throws InvalidIntegerValueException if {@code limit} is negative.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public String format(int limit) {
+      if (limit < 0) {
+        throw new InvalidIntegerValueException(limit);
+      }
+      int[] indices = getIndicesBySize();
+      StringBuilder builder = new StringBuilder();
+      for (int i = 0; i < Math.min(limit, indices.length); i++) {
+        int index = indices[i];
+        builder.append(FileUtils.getReadableFileSize(sizes[index])).append(TAB).append(files[index]).append(TAB)
+            .append(paths[index].getPath()).append(NEWLINE);
+      }
+      return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+      return format(paths.length);
+    }
+  }
+
+  /**
+   * Creates a new {@code DiskUsage}, which reports all directories, on the common {@link ForkJoinPool}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public DiskUsage() {
+    // nothing to do, the defaults are set already.
+  }
+
+  /**
+   * Returns the maximum depth of the directories reported.
+   *
+   * @return The maximum depth.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getReportDepth() {
+    return reportDepth;
+  }
+
+  /**
+   * Sets the maximum depth of the directories reported. The starting directory has the depth 0, its subdirectories
+   * have the depth 1, and so on. Deeper directories are counted in the totals of their ancestors nevertheless.
+   *
+   * @param reportDepth The maximum depth.
+   * @throws InvalidIntegerValueException if {@code reportDepth} is negative.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setReportDepth(int reportDepth) {
+    if (reportDepth < 0) {
+      throw new InvalidIntegerValueException(reportDepth);
+    }
+    this.reportDepth = reportDepth;
+  }
+
+  /**
+   * Returns the pool the directories are scanned on.
+   *
+   * @return The pool, or null if the common pool is used.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  /**
+   * Sets the pool the directories are scanned on.
+   *
+   * @param pool The pool, or null to use the common pool.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Computes the disk usage of the tree below the given directory.
+   *
+   * @param directory The directory to start at.
+   * @return The report of the disk usage.
+   * @throws NullPointerException if {@code directory} is null.
+   * @throws NotDirectoryException if {@code directory} is not a directory.
+   * @throws IOException if the starting directory cannot be read.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Report analyze(File directory) throws IOException {
+    if (directory == null) {
+      throw new NullPointerException("directory");
+    }
+    Path path = directory.toPath();
+    if (!Files.readAttributes(path, BasicFileAttributes.class).isDirectory()) {
+      throw new NotDirectoryException(directory.getPath());
+    }
+    // fail early, if the directory cannot be read
+    Files.newDirectoryStream(path).close();
+
+    UsageTask task = new UsageTask(path, null, ConcurrentHashMap.<Inode>newKeySet());
+    ((pool == null) ? ForkJoinPool.commonPool() : pool).invoke(task);
+    return new Report(task);
+  }
+}
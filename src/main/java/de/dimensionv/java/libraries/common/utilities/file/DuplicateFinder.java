@@ -0,0 +1,519 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.exceptions.InvalidLongValueException;
+import de.dimensionv.java.libraries.common.utilities.file.comparators.FileEntryComparators;
+import de.dimensionv.java.libraries.common.utilities.strings.StringUtils;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Finds files with identical content, while reading as few bytes as possible.</p>
+ *
+ * <p>
+ * The files are narrowed down in stages, each of which only passes on the files that still have a potential
+ * duplicate:</p>
+ * <ol>
+ * <li>The files are grouped by size, which is known without reading them, and files with a unique size are
+ * discarded.</li>
+ * <li>Of each remaining file, the first and the last few kilobytes are read and hashed, and files with a unique
+ * partial hash within their size are discarded. Files not larger than the two chunks are read completely in this
+ * stage already, so their partial hash is their full hash.</li>
+ * <li>The remaining files are hashed completely, and grouped by their full hash.</li>
+ * </ol>
+ *
+ * <p>
+ * The files of each stage are hashed in parallel on a {@link ForkJoinPool}. All hashes are SHA-1 hashes, computed by
+ * {@link StringUtils#sha1Hash(InputStream)}. Files that cannot be read are left out. Empty files are left out by
+ * default, as all of them are trivially identical, see {@link #setMinSize(long)}.</p>
+ *
+ * <p>
+ * Hard links to the same file take no extra space, so they are not duplicates of each other. On file systems that
+ * provide file keys, like the ones of Unix-like systems, all links with the same {@link FileEntry#getFileKey()} are
+ * collapsed into the one with the smallest path, which is then hashed and reported as any other file.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class DuplicateFinder {
+
+  private int chunkSize = 4096;
+  private long minSize = 1;
+  private ForkJoinPool pool = null;
+
+  /**
+   * Hashes a range of files in parallel, by splitting the range in halves until single files are left.
+   */
+  private final class HashTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FileEntry[] files;
+    private final String[] hashes;
+    private final int from;
+    private final int to;
+    private final boolean full;
+    private final AtomicLong bytesRead;
+
+    HashTask(FileEntry[] files, String[] hashes, int from, int to, boolean full, AtomicLong bytesRead) {
+      this.files = files;
+      this.hashes = hashes;
+      this.from = from;
+      this.to = to;
+      this.full = full;
+      this.bytesRead = bytesRead;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new HashTask(files, hashes, from, middle, full, bytesRead),
+            new HashTask(files, hashes, middle, to, full, bytesRead));
+        return;
+      }
+      try {
+        hashes[from] = full ? fullHash(files[from], bytesRead) : partialHash(files[from], bytesRead);
+      } catch (IOException e) {
+        // the file cannot be read, so it is left out
+        hashes[from] = null;
+      }
+    }
+  }
+
+  /**
+   * <p>
+   * The groups of identical files found, with some statistics.</p>
+   *
+   * <p>
+   * A {@code Result} is immutable and thread-safe.</p>
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static final class Result {
+
+    private final List<List<FileEntry>> groups;
+    private final long totalSize;
+    private final long bytesRead;
+    private final long wastedSize;
+
+    Result(List<List<FileEntry>> groups, long totalSize, long bytesRead) {
+      long wasted = 0;
+      for (List<FileEntry> group : groups) {
+        wasted += group.get(0).getSize() * (group.size() - 1);
+      }
+      this.groups = Collections.unmodifiableList(groups);
+      this.totalSize = totalSize;
+      this.bytesRead = bytesRead;
+      this.wastedSize = wasted;
+    }
+
+    /**
+     * Returns the groups of identical files, each with at least two files. The files of each group are sorted by
+     * path, and the groups are sorted by the space wasted by them, largest first.
+     *
+     * @return The unmodifiable list of groups.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public List<List<FileEntry>> getGroups() {
+      return groups;
+    }
+
+    /**
+     * Returns the total size of the files examined.
+     *
+     * @return The total size in bytes.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getTotalSize() {
+      return totalSize;
+    }
+
+    /**
+     * Returns the number of bytes read to find the duplicates.
+     *
+     * @return The number of bytes read.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getBytesRead() {
+      return bytesRead;
+    }
+
+    /**
+     * Returns the space wasted by duplicates, i.e. the size of all files except one of each group.
+     *
+     * @return The wasted space in bytes.
+     *
+     * @since Class 1.0
+     * @since API 2.2.0
+     */
+    public long getWastedSize() {
+      return wastedSize;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder();
+      for (List<FileEntry> group : groups) {
+        builder.append(FileUtils.getReadableFileSize(group.get(0).getSize())).append(" x ").append(group.size())
+            .append('\n');
+        for (FileEntry entry : group) {
+          builder.append('\t').append(entry.getPath()).append('\n');
+        }
+      }
+      return builder.toString();
+    }
+  }
+
+  /**
+   * Creates a new {@code DuplicateFinder}, which reads chunks of 4 KB in the partial stage, and leaves out empty
+   * files.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public DuplicateFinder() {
+    // nothing to do, the defaults are set already.
+  }
+
+  /**
+   * Returns the size of the chunks read from the start and the end of each file in the partial stage.
+   *
+   * @return The chunk size in bytes.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * Sets the size of the chunks read from the start and the end of each file in the partial stage. Files not larger
+   * than twice the chunk size are read completely in the partial stage.
+   *
+   * @param chunkSize The chunk size in bytes.
+   * @throws InvalidIntegerValueException if {@code chunkSize} is less than 1, or larger than 16 MB.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setChunkSize(int chunkSize) {
+    if ((chunkSize < 1) || (chunkSize > (1 << 24))) {
+      throw new InvalidIntegerValueException(chunkSize);
+    }
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Returns the size files need to have at least, to be examined.
+   *
+   * @return The minimum size in bytes.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getMinSize() {
+    return minSize;
+  }
+
+  /**
+   * Sets the size files need to have at least, to be examined. Use 0 to report empty files as duplicates, too.
+   *
+   * @param minSize The minimum size in bytes.
+   * @throws InvalidLongValueException if {@code minSize} is negative.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setMinSize(long minSize) {
+    if (minSize < 0) {
+      throw new InvalidLongValueException(minSize);
+    }
+    this.minSize = minSize;
+  }
+
+  /**
+   * Returns the pool the directories are scanned and the files are hashed on.
+   *
+   * @return The pool, or null if the common pool is used.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public ForkJoinPool getPool() {
+    return pool;
+  }
+
+  /**
+   * Sets the pool the directories are scanned and the files are hashed on.
+   *
+   * @param pool The pool, or null to use the common pool.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setPool(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Finds the identical regular files in the tree below the given directory. Symbolic links are not followed.
+   *
+   * @param directory The directory to start at.
+   * @return The groups of identical files.
+   * @throws NullPointerException if {@code directory} is null.
+   * @throws NotDirectoryException if {@code directory} is not a directory.
+   * @throws IOException if the starting directory cannot be read.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Result find(File directory) throws IOException {
+    final Queue<FileEntry> entries = new ConcurrentLinkedQueue<FileEntry>();
+    DirectoryWalker walker = new DirectoryWalker();
+    walker.setPool(pool);
+    walker.walk(directory, (file, attributes) -> {
+      if (attributes.isRegularFile()) {
+        entries.add(FileEntry.of(file.toPath(), attributes));
+      }
+    });
+    return find(entries);
+  }
+
+  /**
+   * Finds the identical files among the given entries. Entries that are not regular files are ignored, as are
+   * entries appearing more than once, and all but one hard link of the same file.
+   *
+   * @param entries The entries to examine.
+   * @return The groups of identical files.
+   * @throws NullPointerException if {@code entries} is null, or contains null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Result find(Collection<FileEntry> entries) {
+    if (entries == null) {
+      throw new NullPointerException("entries");
+    }
+    FileEntry[] files = new FileEntry[entries.size()];
+    int count = 0;
+    long totalSize = 0;
+    for (FileEntry entry : entries) {
+      if (entry.isRegularFile() && (entry.getSize() >= minSize)) {
+        files[count++] = entry;
+        totalSize += entry.getSize();
+      }
+    }
+    AtomicLong bytesRead = new AtomicLong();
+
+    // stage 1: group by size
+    Arrays.sort(files, 0, count, FileEntryComparators.bySize());
+    List<List<FileEntry>> sizeGroups = new ArrayList<List<FileEntry>>();
+    for (int start = 0, end; start < count; start = end) {
+      end = start + 1;
+      while ((end < count) && (files[end].getSize() == files[start].getSize())) {
+        end++;
+      }
+      if (end - start > 1) {
+        List<FileEntry> group = distinct(files, start, end);
+        if (group.size() > 1) {
+          sizeGroups.add(group);
+        }
+      }
+    }
+
+    // stage 2: group by the hash of the first and the last chunk
+    List<List<FileEntry>> partialGroups = groupByHash(sizeGroups, false, bytesRead);
+    List<List<FileEntry>> groups = new ArrayList<List<FileEntry>>();
+    List<List<FileEntry>> candidates = new ArrayList<List<FileEntry>>();
+    for (List<FileEntry> group : partialGroups) {
+      // the partial hash of small files is their full hash already
+      (isReadCompletely(group.get(0)) ? groups : candidates).add(group);
+    }
+
+    // stage 3: group the remaining candidates by their full hash
+    groups.addAll(groupByHash(candidates, true, bytesRead));
+
+    for (List<FileEntry> group : groups) {
+      group.sort((entryA, entryB) -> entryA.getPath().compareTo(entryB.getPath()));
+    }
+    groups.sort((groupA, groupB) -> Long.compare(groupB.get(0).getSize() * (groupB.size() - 1),
+        groupA.get(0).getSize() * (groupA.size() - 1)));
+    return new Result(groups, totalSize, bytesRead.get());
+  }
+
+  /**
+   * Returns the entries of the given range, with entries of the same file left out. Entries are the same file if
+   * they have the same file key, i.e. are hard links to the same file, or the same path if they have no file key. Of
+   * each file, the entry with the smallest path is kept.
+   */
+  private static List<FileEntry> distinct(FileEntry[] files, int start, int end) {
+    Map<Object, FileEntry> byFile = new LinkedHashMap<Object, FileEntry>();
+    for (int index = start; index < end; index++) {
+      FileEntry entry = files[index];
+      Object key = (entry.getFileKey() == null) ? entry.getPath() : entry.getFileKey();
+      byFile.merge(key, entry, (kept, other) -> (other.getPath().compareTo(kept.getPath()) < 0) ? other : kept);
+    }
+    return new ArrayList<FileEntry>(byFile.values());
+  }
+
+  /**
+   * Hashes the files of all given groups in parallel, splits each group by hash, and returns the resulting groups with
+   * more than one file.
+   */
+  private List<List<FileEntry>> groupByHash(List<List<FileEntry>> groups, boolean full, AtomicLong bytesRead) {
+    int count = 0;
+    for (List<FileEntry> group : groups) {
+      count += group.size();
+    }
+    if (count == 0) {
+      return new ArrayList<List<FileEntry>>();
+    }
+    FileEntry[] files = new FileEntry[count];
+    int index = 0;
+    for (List<FileEntry> group : groups) {
+      for (FileEntry entry : group) {
+        files[index++] = entry;
+      }
+    }
+    String[] hashes = new String[count];
+    ((pool == null) ? ForkJoinPool.commonPool() : pool).invoke(new HashTask(files, hashes, 0, count, full, bytesRead));
+
+    List<List<FileEntry>> result = new ArrayList<List<FileEntry>>();
+    index = 0;
+    for (List<FileEntry> group : groups) {
+      Map<String, List<FileEntry>> byHash = new LinkedHashMap<String, List<FileEntry>>();
+      for (int end = index + group.size(); index < end; index++) {
+        if (hashes[index] != null) {
+          byHash.computeIfAbsent(hashes[index], hash -> new ArrayList<FileEntry>(2)).add(files[index]);
+        }
+      }
+      for (List<FileEntry> split : byHash.values()) {
+        if (split.size() > 1) {
+          result.add(split);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns whether the given file is read completely in the partial stage.
+   */
+  private boolean isReadCompletely(FileEntry entry) {
+    return entry.getSize() <= 2L * chunkSize;
+  }
+
+  /**
+   * Hashes the first and the last chunk of the given file, or the whole file, if it is not larger than both chunks.
+   */
+  private String partialHash(FileEntry entry, AtomicLong bytesRead) throws IOException {
+    long size = entry.getSize();
+    boolean complete = isReadCompletely(entry);
+    ByteBuffer buffer = ByteBuffer.allocate(complete ? (int) size : 2 * chunkSize);
+    try (FileChannel channel = FileChannel.open(entry.getPath(), StandardOpenOption.READ)) {
+      if (channel.size() != size) {
+        throw new IOException("The file was modified: " + entry.getPath());
+      }
+      if (complete) {
+        readFully(channel, buffer, 0);
+      } else {
+        buffer.limit(chunkSize);
+        readFully(channel, buffer, 0);
+        buffer.limit(2 * chunkSize);
+        readFully(channel, buffer, size - chunkSize);
+      }
+    }
+    bytesRead.addAndGet(buffer.position());
+    return sha1Hash(new ByteArrayInputStream(buffer.array(), 0, buffer.position()));
+  }
+
+  /**
+   * Hashes the whole content of the given file.
+   */
+  private static String fullHash(FileEntry entry, AtomicLong bytesRead) throws IOException {
+    try (InputStream input = Files.newInputStream(entry.getPath())) {
+      String hash = sha1Hash(input);
+      bytesRead.addAndGet(entry.getSize());
+      return hash;
+    }
+  }
+
+  /**
+   * Reads from the given position until the buffer's limit is reached.
+   */
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of file");
+      }
+      position += read;
+    }
+  }
+
+  private static String sha1Hash(InputStream input) throws IOException {
+    try {
+      return StringUtils.sha1Hash(input);
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-1
+      throw new IllegalStateException(e);
+    }
+  }
+}
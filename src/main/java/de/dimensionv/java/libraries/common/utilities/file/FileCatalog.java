@@ -0,0 +1,747 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.utilities.strings.StringUtils;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * <p>
+ * A read-only catalog of the entries of a directory tree, stored in a compact file, which is memory-mapped when it is
+ * opened. So a service can answer queries about a large tree right after starting, instead of scanning it first.</p>
+ *
+ * <p>
+ * The catalog lists the path relative to the top directory, the size, the time of the last modification and the
+ * {@link FileEntry.Type type} of each entry, and optionally the SHA-1 hash of each regular file. The entries are
+ * sorted by the UTF-8 bytes of their paths, so an entry is found by a binary search, and the entries of a directory are
+ * stored next to each other. Paths use '/' as separator on all systems. The file consists of these sections, with all
+ * numbers stored in big-endian order:</p>
+ * <ol>
+ * <li>A header, with the number of entries, the offsets of the sections, and the top directory.</li>
+ * <li>The sizes and the times of the last modification, in milliseconds, as arrays of longs, and the types as an array
+ * of bytes, with the highest bit set if a hash is present.</li>
+ * <li>The hashes, as an array of 20-byte values, if the catalog contains hashes.</li>
+ * <li>The paths, front-coded in blocks of 16: the first path of each block is stored completely, each following one as
+ * the length of the prefix it shares with the previous one, followed by the rest. All lengths are stored as unsigned
+ * LEB128 variable-length integers.</li>
+ * <li>The offsets of the blocks, as an array of ints.</li>
+ * </ol>
+ *
+ * <p>
+ * A catalog is created by a scan of the tree with the {@link DirectoryWalker}, which does not follow symbolic links,
+ * and written to a temporary file first, which then replaces the catalog file. A catalog is refreshed by scanning the
+ * tree again: the hashes of the files that did not change are taken from the previous catalog, so only changed files
+ * are read. The previous catalog can still be queried while it is refreshed, e.g. on a background thread, and
+ * afterwards, as its mapping stays valid, on systems that allow replacing mapped files. A catalog file is limited to 2
+ * GB, which is enough for about 40 million entries with hashes.</p>
+ *
+ * <p>
+ * A {@code FileCatalog} is immutable and thread-safe. Its mapping is released when it is garbage-collected.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class FileCatalog {
+
+  private static final int MAGIC = 0x46434154;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 52;
+  private static final int BLOCK_SIZE = 16;
+  private static final int HASH_LENGTH = 20;
+  private static final int TYPE_MASK = 0x7f;
+  private static final int HAS_HASH = 0x80;
+  private static final FileEntry.Type[] TYPES = FileEntry.Type.values();
+
+  private final File catalogFile;
+  private final ByteBuffer buffer;
+  private final File root;
+  private final long scanTime;
+  private final int count;
+  private final int hashLength;
+  private final int sizesOffset;
+  private final int lastModifiedOffset;
+  private final int typesOffset;
+  private final int hashesOffset;
+  private final int blockIndexOffset;
+
+  /**
+   * An entry found while scanning the tree, to be written to a new catalog.
+   */
+  private static final class Item {
+
+    final byte[] path;
+    final long size;
+    final long lastModified;
+    final FileEntry.Type type;
+    byte[] hash = null;
+
+    Item(byte[] path, BasicFileAttributes attributes) {
+      this.path = path;
+      this.size = attributes.size();
+      this.lastModified = attributes.lastModifiedTime().toMillis();
+      if (attributes.isDirectory()) {
+        this.type = FileEntry.Type.DIRECTORY;
+      } else if (attributes.isRegularFile()) {
+        this.type = FileEntry.Type.REGULAR_FILE;
+      } else if (attributes.isSymbolicLink()) {
+        this.type = FileEntry.Type.SYMBOLIC_LINK;
+      } else {
+        this.type = FileEntry.Type.OTHER;
+      }
+    }
+  }
+
+  /**
+   * Decodes the front-coded paths one after the other, starting at the beginning of a block. Each cursor has its own
+   * view of the mapping, so cursors can be used by several threads at the same time.
+   */
+  private final class Cursor {
+
+    final ByteBuffer view = buffer.duplicate();
+    byte[] bytes = new byte[256];
+    int length = 0;
+    int index = -1;
+
+    /**
+     * Moves the cursor to the first path of the given block.
+     */
+    void seek(int block) {
+      view.position(buffer.getInt(blockIndexOffset + (block << 2)));
+      read(0, readVarint());
+      index = block * BLOCK_SIZE;
+    }
+
+    /**
+     * Moves the cursor to the path with the given index.
+     */
+    void moveTo(int target) {
+      if ((target <= index) || (index < 0) || (target / BLOCK_SIZE != index / BLOCK_SIZE)) {
+        seek(target / BLOCK_SIZE);
+      }
+      while (index < target) {
+        next();
+      }
+    }
+
+    /**
+     * Moves the cursor to the next path of the same block.
+     */
+    void next() {
+      int shared = readVarint();
+      read(shared, readVarint());
+      index++;
+    }
+
+    /**
+     * Compares the current path with the given one, byte by byte, treating bytes as unsigned.
+     */
+    int compareTo(byte[] key) {
+      return compare(bytes, length, key, key.length);
+    }
+
+    String getPath() {
+      return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void read(int offset, int suffix) {
+      length = offset + suffix;
+      if (length > bytes.length) {
+        byte[] grown = new byte[Math.max(length, bytes.length << 1)];
+        System.arraycopy(bytes, 0, grown, 0, offset);
+        bytes = grown;
+      }
+      view.get(bytes, offset, suffix);
+    }
+
+    private int readVarint() {
+      int value = 0;
+      for (int shift = 0;; shift += 7) {
+        int b = view.get();
+        value |= (b & 0x7f) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+    }
+  }
+
+  private FileCatalog(File catalogFile, ByteBuffer buffer) throws IOException {
+    this.catalogFile = catalogFile;
+    this.buffer = buffer;
+    if ((buffer.capacity() < HEADER_SIZE) || (buffer.getInt(0) != MAGIC)) {
+      throw new IOException("Not a file catalog: " + catalogFile);
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported file catalog version " + buffer.getInt(4) + ": " + catalogFile);
+    }
+    count = buffer.getInt(8);
+    hashLength = buffer.getInt(12);
+    scanTime = buffer.getLong(16);
+    long stringsOffset = buffer.getLong(24);
+    long blockIndex = buffer.getLong(32);
+    int rootLength = buffer.getInt(40);
+    sizesOffset = HEADER_SIZE + rootLength;
+    lastModifiedOffset = sizesOffset + (count << 3);
+    typesOffset = lastModifiedOffset + (count << 3);
+    hashesOffset = typesOffset + count;
+    if ((count < 0) || (rootLength < 0) || (stringsOffset != hashesOffset + (long) hashLength * count)
+        || (blockIndex + 4L * ((count + BLOCK_SIZE - 1) / BLOCK_SIZE) != buffer.capacity())) {
+      throw new IOException("Corrupt file catalog: " + catalogFile);
+    }
+    blockIndexOffset = (int) blockIndex;
+    byte[] rootBytes = new byte[rootLength];
+    ByteBuffer view = buffer.duplicate();
+    view.position(HEADER_SIZE);
+    view.get(rootBytes);
+    root = new File(new String(rootBytes, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Opens the given catalog file, by mapping it into memory.
+   *
+   * @param catalogFile The catalog file.
+   * @return The catalog.
+   * @throws NullPointerException if {@code catalogFile} is null.
+   * @throws IOException if the file cannot be read, or is not a valid catalog.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FileCatalog open(File catalogFile) throws IOException {
+    if (catalogFile == null) {
+      throw new NullPointerException("catalogFile");
+    }
+    try (FileChannel channel = FileChannel.open(catalogFile.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Not a file catalog: " + catalogFile);
+      }
+      // the mapping stays valid after the channel is closed
+      return new FileCatalog(catalogFile, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Scans the tree below the given directory, writes the catalog of its entries to the given file, and opens it.
+   *
+   * @param directory The directory to start at.
+   * @param catalogFile The catalog file, which is replaced if it exists.
+   * @param hashes {@code true} to include the SHA-1 hashes of the regular files, {@code false} otherwise.
+   * @return The new catalog.
+   * @throws NullPointerException if {@code directory} or {@code catalogFile} is null.
+   * @throws NotDirectoryException if {@code directory} is not a directory.
+   * @throws IOException if the starting directory cannot be read, or the catalog cannot be written.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FileCatalog create(File directory, File catalogFile, boolean hashes) throws IOException {
+    if (directory == null) {
+      throw new NullPointerException("directory");
+    } else if (catalogFile == null) {
+      throw new NullPointerException("catalogFile");
+    }
+    return build(directory.getAbsoluteFile(), catalogFile, hashes, null);
+  }
+
+  /**
+   * Scans the tree again, and replaces the catalog file with the catalog of its current entries, including hashes if
+   * this catalog includes them. The hashes of the files whose size and time of the last modification did not change
+   * are taken from this catalog. This catalog stays unchanged.
+   *
+   * @return The new catalog.
+   * @throws NotDirectoryException if the top directory is no longer a directory.
+   * @throws IOException if the top directory cannot be read, or the catalog cannot be written.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public FileCatalog refresh() throws IOException {
+    return build(root, catalogFile, hasHashes(), this);
+  }
+
+  /**
+   * Returns the top directory of the tree.
+   *
+   * @return The top directory, as an absolute path.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public File getRoot() {
+    return root;
+  }
+
+  /**
+   * Returns the time the scan of the tree started at.
+   *
+   * @return The time in milliseconds since the epoch.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getScanTime() {
+    return scanTime;
+  }
+
+  /**
+   * Returns whether the catalog includes the hashes of the regular files.
+   *
+   * @return {@code true} if the catalog includes hashes, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean hasHashes() {
+    return hashLength > 0;
+  }
+
+  /**
+   * Returns the number of entries.
+   *
+   * @return The number of entries.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Searches for the entry with the given path, using a binary search.
+   *
+   * @param path The path relative to the top directory, with '/' as separator.
+   * @return The index of the entry if it is found, otherwise {@code (-(insertion point) - 1)}, like
+   * {@link java.util.Arrays#binarySearch(int[], int)}.
+   * @throws NullPointerException if {@code path} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int indexOf(String path) {
+    if (path == null) {
+      throw new NullPointerException("path");
+    }
+    return search(new Cursor(), path.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Returns the paths of the entries directly within the given directory, in the order of the catalog.
+   *
+   * @param directory The path of the directory relative to the top directory, with '/' as separator, or an empty
+   * string for the top directory itself.
+   * @return The paths of the entries, relative to the top directory.
+   * @throws NullPointerException if {@code directory} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public List<String> list(String directory) {
+    if (directory == null) {
+      throw new NullPointerException("directory");
+    }
+    byte[] prefix = (directory.isEmpty() ? directory : directory + '/').getBytes(StandardCharsets.UTF_8);
+    List<String> paths = new ArrayList<String>();
+    Cursor cursor = new Cursor();
+    int index = search(cursor, prefix);
+    index = (index < 0) ? -index - 1 : index;
+    while (index < count) {
+      cursor.moveTo(index);
+      if (!startsWith(cursor.bytes, cursor.length, prefix)) {
+        break;
+      }
+      int separator = prefix.length;
+      while ((separator < cursor.length) && (cursor.bytes[separator] != '/')) {
+        separator++;
+      }
+      if (separator == cursor.length) {
+        paths.add(cursor.getPath());
+        index++;
+      } else {
+        // skip the entries below the subdirectory: '0' follows '/', and no other path lies in between
+        byte[] next = new byte[separator + 1];
+        System.arraycopy(cursor.bytes, 0, next, 0, separator);
+        next[separator] = '/' + 1;
+        int found = search(cursor, next);
+        index = (found < 0) ? -found - 1 : found;
+      }
+    }
+    return paths;
+  }
+
+  /**
+   * Returns the path of the entry at the given index.
+   *
+   * @param index The index of the entry.
+   * @return The path relative to the top directory, with '/' as separator.
+   * @throws IndexOutOfBoundsException if {@code index} is out of range.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public String getPath(int index) {
+    checkIndex(index);
+    Cursor cursor = new Cursor();
+    cursor.moveTo(index);
+    return cursor.getPath();
+  }
+
+  /**
+   * Returns the entry at the given index as a file.
+   *
+   * @param index The index of the entry.
+   * @return The file, with an absolute path.
+   * @throws IndexOutOfBoundsException if {@code index} is out of range.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public File getFile(int index) {
+    return new File(root, getPath(index).replace('/', File.separatorChar));
+  }
+
+  /**
+   * Returns the size of the entry at the given index.
+   *
+   * @param index The index of the entry.
+   * @return The size in bytes.
+   * @throws IndexOutOfBoundsException if {@code index} is out of range.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getSize(int index) {
+    checkIndex(index);
+    return buffer.getLong(sizesOffset + (index << 3));
+  }
+
+  /**
+   * Returns the time of the last modification of the entry at the given index.
+   *
+   * @param index The index of the entry.
+   * @return The time in milliseconds since the epoch.
+   * @throws IndexOutOfBoundsException if {@code index} is out of range.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getLastModified(int index) {
+    checkIndex(index);
+    return buffer.getLong(lastModifiedOffset + (index << 3));
+  }
+
+  /**
+   * Returns the type of the entry at the given index.
+   *
+   * @param index The index of the entry.
+   * @return The type.
+   * @throws IndexOutOfBoundsException if {@code index} is out of range.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public FileEntry.Type getType(int index) {
+    checkIndex(index);
+    return TYPES[buffer.get(typesOffset + index) & TYPE_MASK];
+  }
+
+  /**
+   * Returns the SHA-1 hash of the entry at the given index.
+   *
+   * @param index The index of the entry.
+   * @return The hash as a string of hexadecimal numbers, or null if the catalog does not include hashes, the entry is
+   * no regular file, or the file could not be read.
+   * @throws IndexOutOfBoundsException if {@code index} is out of range.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public String getHash(int index) {
+    byte[] hash = getHashBytes(index);
+    return (hash == null) ? null : StringUtils.bytesToHex(hash);
+  }
+
+  private byte[] getHashBytes(int index) {
+    checkIndex(index);
+    if ((buffer.get(typesOffset + index) & HAS_HASH) == 0) {
+      return null;
+    }
+    byte[] hash = new byte[hashLength];
+    ByteBuffer view = buffer.duplicate();
+    view.position(hashesOffset + index * hashLength);
+    view.get(hash);
+    return hash;
+  }
+
+  private void checkIndex(int index) {
+    if ((index < 0) || (index >= count)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+    }
+  }
+
+  /**
+   * Searches for the given path: first for the last block starting with a smaller or equal path, then within it.
+   */
+  private int search(Cursor cursor, byte[] key) {
+    int low = 0;
+    int high = (count + BLOCK_SIZE - 1) / BLOCK_SIZE - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      cursor.seek(middle);
+      if (cursor.compareTo(key) <= 0) {
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    if (high < 0) {
+      return -1;
+    }
+    cursor.seek(high);
+    int end = Math.min(cursor.index + BLOCK_SIZE, count);
+    while (true) {
+      int comparison = cursor.compareTo(key);
+      if (comparison == 0) {
+        return cursor.index;
+      } else if (comparison > 0) {
+        return -cursor.index - 1;
+      } else if (cursor.index + 1 == end) {
+        return -end - 1;
+      }
+      cursor.next();
+    }
+  }
+
+  /**
+   * Scans the tree, and writes and opens the new catalog.
+   */
+  private static FileCatalog build(File directory, File catalogFile, boolean hashes, FileCatalog previous)
+      throws IOException {
+    final Path root = directory.toPath();
+    long scanTime = System.currentTimeMillis();
+    Queue<Item> found = new ConcurrentLinkedQueue<Item>();
+    new DirectoryWalker().walk(directory, (file, attributes) -> {
+      String path = root.relativize(file.toPath()).toString();
+      if (File.separatorChar != '/') {
+        path = path.replace(File.separatorChar, '/');
+      }
+      Item item = new Item(path.getBytes(StandardCharsets.UTF_8), attributes);
+      if (hashes && (item.type == FileEntry.Type.REGULAR_FILE)) {
+        item.hash = (previous == null) ? null : previous.findHash(item);
+        if (item.hash == null) {
+          item.hash = hash(file.toPath());
+        }
+      }
+      found.add(item);
+    });
+    List<Item> items = new ArrayList<Item>(found);
+    items.sort((itemA, itemB) -> compare(itemA.path, itemA.path.length, itemB.path, itemB.path.length));
+    write(catalogFile.toPath(), directory.getPath(), scanTime, items, hashes);
+    return open(catalogFile);
+  }
+
+  /**
+   * Returns the hash of the given item from this catalog, if its size, time of modification and type are unchanged.
+   */
+  private byte[] findHash(Item item) {
+    int index = search(new Cursor(), item.path);
+    if ((index >= 0) && (getSize(index) == item.size) && (getLastModified(index) == item.lastModified)
+        && (getType(index) == item.type)) {
+      return getHashBytes(index);
+    }
+    return null;
+  }
+
+  /**
+   * Computes the SHA-1 hash of the given file, or returns null if it cannot be read.
+   */
+  private static byte[] hash(Path path) {
+    try (InputStream input = Files.newInputStream(path)) {
+      return StringUtils.hexToBytes(StringUtils.sha1Hash(input));
+    } catch (IOException e) {
+      return null;
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform is required to support SHA-1
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Writes the given sorted items to a temporary file, which then replaces the catalog file.
+   */
+  private static void write(Path catalogFile, String root, long scanTime, List<Item> items, boolean hashes)
+      throws IOException {
+    int count = items.size();
+    int hashLength = hashes ? HASH_LENGTH : 0;
+    byte[] rootBytes = root.getBytes(StandardCharsets.UTF_8);
+    long stringsOffset = HEADER_SIZE + rootBytes.length + (17L + hashLength) * count;
+
+    // the offsets of the blocks are needed for the header, so the paths are measured first
+    int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    long[] blockOffsets = new long[blocks];
+    long offset = stringsOffset;
+    for (int index = 0; index < count; index++) {
+      byte[] path = items.get(index).path;
+      if (index % BLOCK_SIZE == 0) {
+        blockOffsets[index / BLOCK_SIZE] = offset;
+        offset += varintLength(path.length) + path.length;
+      } else {
+        int shared = sharedPrefix(items.get(index - 1).path, path);
+        offset += varintLength(shared) + varintLength(path.length - shared) + path.length - shared;
+      }
+    }
+    long blockIndexOffset = offset;
+    if (blockIndexOffset + 4L * blocks > Integer.MAX_VALUE) {
+      throw new IOException("The catalog exceeds 2 GB: " + catalogFile);
+    }
+
+    Path directory = catalogFile.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(directory, catalogFile.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+          Files.newOutputStream(temporary), 65536))) {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(count);
+        output.writeInt(hashLength);
+        output.writeLong(scanTime);
+        output.writeLong(stringsOffset);
+        output.writeLong(blockIndexOffset);
+        output.writeInt(rootBytes.length);
+        output.writeInt(0);
+        output.writeInt(0);
+        output.write(rootBytes);
+        for (Item item : items) {
+          output.writeLong(item.size);
+        }
+        for (Item item : items) {
+          output.writeLong(item.lastModified);
+        }
+        for (Item item : items) {
+          output.writeByte(item.type.ordinal() | ((item.hash != null) ? HAS_HASH : 0));
+        }
+        if (hashes) {
+          byte[] none = new byte[HASH_LENGTH];
+          for (Item item : items) {
+            output.write((item.hash != null) ? item.hash : none);
+          }
+        }
+        for (int index = 0; index < count; index++) {
+          byte[] path = items.get(index).path;
+          int shared = (index % BLOCK_SIZE == 0) ? 0 : sharedPrefix(items.get(index - 1).path, path);
+          if (index % BLOCK_SIZE != 0) {
+            writeVarint(output, shared);
+          }
+          writeVarint(output, path.length - shared);
+          output.write(path, shared, path.length - shared);
+        }
+        for (long blockOffset : blockOffsets) {
+          output.writeInt((int) blockOffset);
+        }
+      }
+      try {
+        Files.move(temporary, catalogFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, catalogFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private static int sharedPrefix(byte[] previous, byte[] path) {
+    int limit = Math.min(previous.length, path.length);
+    int shared = 0;
+    while ((shared < limit) && (previous[shared] == path[shared])) {
+      shared++;
+    }
+    return shared;
+  }
+
+  private static int varintLength(int value) {
+    int length = 1;
+    while ((value >>>= 7) != 0) {
+      length++;
+    }
+    return length;
+  }
+
+  private static void writeVarint(DataOutputStream output, int value) throws IOException {
+    while ((value & ~0x7f) != 0) {
+      output.writeByte((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    output.writeByte(value);
+  }
+
+  private static boolean startsWith(byte[] bytes, int length, byte[] prefix) {
+    if (length < prefix.length) {
+      return false;
+    }
+    for (int index = 0; index < prefix.length; index++) {
+      if (bytes[index] != prefix[index]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compares two byte sequences lexicographically, treating bytes as unsigned, which orders UTF-8 encoded strings by
+   * code point.
+   */
+  private static int compare(byte[] bytesA, int lengthA, byte[] bytesB, int lengthB) {
+    int limit = Math.min(lengthA, lengthB);
+    for (int index = 0; index < limit; index++) {
+      int difference = (bytesA[index] & 0xff) - (bytesB[index] & 0xff);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return lengthA - lengthB;
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.utilities.concurrent.Flow;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ * A {@link Flow.Publisher} of the content of a file, in chunks of a fixed size. Each chunk is a new {@link ByteBuffer},
+ * ready to be read, which belongs to the subscriber. All chunks are full, except for the last one.</p>
+ *
+ * <p>
+ * Each subscriber reads the file on its own, and only as far as it requested chunks, so nothing is read ahead of the
+ * subscriber's demand, and a slow subscriber never causes chunks to pile up in memory. When the
+ * subscriber cancels, the file is closed. Errors opening or reading the file are sent to the subscriber through
+ * {@link Flow.Subscriber#onError(java.lang.Throwable)}.</p>
+ *
+ * <p>
+ * The file is read, and the signals are sent, by tasks running on the given {@link Executor}, the common
+ * {@link ForkJoinPool} by default.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class FileChunkPublisher implements Flow.Publisher<ByteBuffer> {
+
+  /**
+   * The default size of a chunk, 64 KiB.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+  private final File file;
+  private final int chunkSize;
+  private final Executor executor;
+
+  /**
+   * The subscription of a single subscriber, with a channel of its own.
+   */
+  private final class ChunkSubscription extends PullSubscription<ByteBuffer> {
+
+    private FileChannel channel = null;
+
+    /**
+     * Creates a new {@code ChunkSubscription}.
+     *
+     * @param subscriber The subscriber to send the chunks to.
+     */
+    ChunkSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+      super(subscriber, executor);
+    }
+
+    @Override
+    ByteBuffer produce() throws IOException {
+      if (channel == null) {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      }
+      ByteBuffer chunk = ByteBuffer.allocate(chunkSize);
+      while (chunk.hasRemaining() && (channel.read(chunk) >= 0)) {
+        // fill the chunk, unless the end of the file has been reached
+      }
+      chunk.flip();
+      return chunk.hasRemaining() ? chunk : null;
+    }
+
+    @Override
+    void release() {
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          // nothing left to be done about it
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates a new {@code FileChunkPublisher}, which publishes chunks of the default size, using the common
+   * {@link ForkJoinPool}.
+   *
+   * @param file The file to be read.
+   * @throws NullPointerException if {@code file} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public FileChunkPublisher(File file) {
+    this(file, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a new {@code FileChunkPublisher}.
+   *
+   * @param file The file to be read.
+   * @param chunkSize The size of a chunk in bytes.
+   * @param executor The executor to read the file on.
+   * @throws NullPointerException if {@code file} or {@code executor} is null.
+   * @throws InvalidIntegerValueException if {@code chunkSize} is less than 1.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public FileChunkPublisher(File file, int chunkSize, Executor executor) {
+    if (file == null) {
+      throw new NullPointerException("file");
+    }
+    if (executor == null) {
+      throw new NullPointerException("executor");
+    }
+    if (chunkSize < 1) {
+      throw new InvalidIntegerValueException(chunkSize);
+    }
+    this.file = file;
+    this.chunkSize = chunkSize;
+    this.executor = executor;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws NullPointerException if {@code subscriber} is null.
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+    new ChunkSubscription(subscriber).start();
+  }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+
+/**
+ * An immutable snapshot of a file: its path, name, size, time of last modification, type, and file key, captured once.
+ *
+ * <p>
+ * In contrast to {@link File}, whose {@code length()} or {@code isDirectory()} ask the file system on every call, a
+ * {@code FileEntry} answers from memory, so sorting a listing of entries, e.g. with the comparators of
+ * {@link de.dimensionv.java.libraries.common.utilities.file.comparators.FileEntryComparators}, does not touch the file
+ * system at all. In turn, it does not reflect changes to the file after it has been created.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class FileEntry {
+
+  private static final char EXTENSION_SEPARATOR = '.';
+
+  /**
+   * The type of a file.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public enum Type {
+    /**
+     * A directory.
+     */
+    DIRECTORY,
+    /**
+     * A regular file.
+     */
+    REGULAR_FILE,
+    /**
+     * A symbolic link, if the attributes were read without following links.
+     */
+    SYMBOLIC_LINK,
+    /**
+     * Anything else, like a device or a named pipe.
+     */
+    OTHER
+  }
+
+  private final Path path;
+  private final String name;
+  private final long size;
+  private final long lastModified;
+  private final Type type;
+  private final Object fileKey;
+  // computed on demand; racy, but always computed to the same value
+  private String sortKey;
+
+  /**
+   * Creates a new {@code FileEntry}.
+   *
+   * @param path The path of the file.
+   * @param attributes The attributes of the file.
+   */
+  private FileEntry(Path path, BasicFileAttributes attributes) {
+    Path fileName = path.getFileName();
+    this.path = path;
+    this.name = (fileName == null) ? path.toString() : fileName.toString();
+    this.size = attributes.size();
+    this.lastModified = attributes.lastModifiedTime().toMillis();
+    if (attributes.isDirectory()) {
+      this.type = Type.DIRECTORY;
+    } else if (attributes.isRegularFile()) {
+      this.type = Type.REGULAR_FILE;
+    } else if (attributes.isSymbolicLink()) {
+      this.type = Type.SYMBOLIC_LINK;
+    } else {
+      this.type = Type.OTHER;
+    }
+    this.fileKey = attributes.fileKey();
+  }
+
+  /**
+   * Creates a snapshot of the given file, following symbolic links.
+   *
+   * @param path The path of the file.
+   * @return The snapshot.
+   * @throws IOException if the attributes of the file cannot be read.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FileEntry of(Path path) throws IOException {
+    return new FileEntry(path, Files.readAttributes(path, BasicFileAttributes.class));
+  }
+
+  /**
+   * Creates a snapshot of the given file, following symbolic links.
+   *
+   * @param file The file.
+   * @return The snapshot.
+   * @throws IOException if the attributes of the file cannot be read.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FileEntry of(File file) throws IOException {
+    return of(file.toPath());
+  }
+
+  /**
+   * Creates a snapshot of the given file from attributes read already, e.g. while walking a tree.
+   *
+   * @param path The path of the file.
+   * @param attributes The attributes of the file.
+   * @return The snapshot.
+   * @throws NullPointerException if {@code path} or {@code attributes} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FileEntry of(Path path, BasicFileAttributes attributes) {
+    if (path == null) {
+      throw new NullPointerException("path");
+    } else if (attributes == null) {
+      throw new NullPointerException("attributes");
+    }
+    return new FileEntry(path, attributes);
+  }
+
+  /**
+   * Returns the path of the file.
+   *
+   * @return The path.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Returns a {@code File} object for the path of the file.
+   *
+   * @return A new {@code File} object.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public File toFile() {
+    return path.toFile();
+  }
+
+  /**
+   * Returns the name of the file, i.e. the last element of its path.
+   *
+   * @return The name.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the name of the file, converted to lower case using the system's default {@code Locale}, like the
+   * {@link de.dimensionv.java.libraries.common.utilities.file.comparators.FileNameComparator} compares it. It is
+   * computed once, when needed first.
+   *
+   * @return The lower case name.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public String getSortKey() {
+    String key = sortKey;
+    if (key == null) {
+      key = name.toLowerCase(Locale.getDefault());
+      sortKey = key;
+    }
+    return key;
+  }
+
+  /**
+   * Returns the extension of the file name, without the dot, like "png" or "gz". A name starting with its only dot has
+   * no extension.
+   *
+   * @return The extension; "" if there is no extension.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public String getExtension() {
+    int dot = name.lastIndexOf(EXTENSION_SEPARATOR);
+    return (dot > 0) ? name.substring(dot + 1) : "";
+  }
+
+  /**
+   * Returns the size of the file in bytes, at the time the snapshot was taken.
+   *
+   * @return The size.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the time the file was last modified, at the time the snapshot was taken.
+   *
+   * @return The time of last modification, in milliseconds since the epoch.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  /**
+   * Returns the type of the file, at the time the snapshot was taken.
+   *
+   * @return The type.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Returns the key uniquely identifying the file within its file system, as given by
+   * {@link BasicFileAttributes#fileKey()}. Hard links to the same file have equal keys.
+   *
+   * @return The file key, or null if the file system does not provide file keys.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Object getFileKey() {
+    return fileKey;
+  }
+
+  /**
+   * Returns whether the file is a directory.
+   *
+   * @return {@code true} if the file is a directory, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean isDirectory() {
+    return type == Type.DIRECTORY;
+  }
+
+  /**
+   * Returns whether the file is a regular file.
+   *
+   * @return {@code true} if the file is a regular file, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean isRegularFile() {
+    return type == Type.REGULAR_FILE;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    } else if (!(object instanceof FileEntry)) {
+      return false;
+    }
+    FileEntry other = (FileEntry) object;
+    return path.equals(other.path) && (size == other.size) && (lastModified == other.lastModified)
+        && (type == other.type);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = path.hashCode();
+    hash = 31 * hash + Long.hashCode(size);
+    hash = 31 * hash + Long.hashCode(lastModified);
+    return 31 * hash + type.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return path.toString();
+  }
+}
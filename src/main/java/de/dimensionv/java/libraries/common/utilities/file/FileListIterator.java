@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.utilities.collections.TopKSelector;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * Lists the directories and files of a directory lazily, directories first, like
+ * {@link FileUtils#getFileList(java.lang.String, boolean)} does, but without keeping the whole listing in memory.</p>
+ *
+ * <p>
+ * In unsorted mode, the directory is read twice: once for the directories, and once for the files, so the memory
+ * needed is constant. In sorted mode, the directory is read once for each batch of entries: each pass selects the
+ * next {@code batchSize} entries in order with a {@link TopKSelector}, so the memory needed is bounded by the batch
+ * size. The attributes of an entry are only read if its name may be part of the current batch.</p>
+ *
+ * <p>
+ * Entries added to or removed from the directory while it is listed may or may not be listed.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+final class FileListIterator implements Iterator<File>, Closeable {
+
+  private static final String HIDDEN_PREFIX = ".";
+
+  private static final Comparator<Candidate> CANDIDATE_COMPARATOR = (candidateOne, candidateTwo) -> {
+    int result = candidateOne.sortKey.compareTo(candidateTwo.sortKey);
+    // names are unique within a directory, so they break ties of names differing in case only
+    return (result != 0) ? result : candidateOne.name.compareTo(candidateTwo.name);
+  };
+
+  private final Path directory;
+  private final boolean includeHidden;
+  private final int batchSize;
+  private final Locale locale = Locale.getDefault();
+
+  private DirectoryStream<Path> stream;
+  private boolean unread = true;
+  private Iterator<Path> entries = null;
+  private boolean listingDirectories = true;
+  private boolean closed = false;
+  private File next = null;
+
+  // sorted mode only
+  private Iterator<Candidate> batch = null;
+  private boolean lastBatch = false;
+  private Candidate last = null;
+
+  /**
+   * An entry that may become part of the current batch, together with the key it is sorted by.
+   */
+  private static final class Candidate {
+
+    final Path path;
+    final String name;
+    final String sortKey;
+
+    /**
+     * Creates a new {@code Candidate}.
+     *
+     * @param path The path of the entry.
+     * @param name The name of the entry.
+     * @param sortKey The key to sort the entry by.
+     */
+    Candidate(Path path, String name, String sortKey) {
+      this.path = path;
+      this.name = name;
+      this.sortKey = sortKey;
+    }
+  }
+
+  /**
+   * Creates a new {@code FileListIterator}, and opens the directory.
+   *
+   * @param directory The directory to be listed.
+   * @param includeHidden Flag whether hidden entries should be included or not.
+   * @param batchSize The number of entries sorted at once, or 0 to list the entries unsorted.
+   * @throws IOException if the directory cannot be opened.
+   */
+  FileListIterator(Path directory, boolean includeHidden, int batchSize) throws IOException {
+    this.directory = directory;
+    this.includeHidden = includeHidden;
+    this.batchSize = batchSize;
+    this.stream = Files.newDirectoryStream(directory);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException if the directory cannot be read.
+   */
+  @Override
+  public boolean hasNext() {
+    if ((next == null) && !closed) {
+      next = (batchSize == 0) ? findNext() : findNextSorted();
+      if (next == null) {
+        close();
+      }
+    }
+    return (next != null);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws UncheckedIOException if the directory cannot be read.
+   */
+  @Override
+  public File next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    File file = next;
+    next = null;
+    return file;
+  }
+
+  /**
+   * Closes the directory. Further calls to {@link #hasNext()} return {@code false}.
+   *
+   * @throws UncheckedIOException if the directory cannot be closed.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    entries = null;
+    batch = null;
+    if (stream != null) {
+      try {
+        stream.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        stream = null;
+      }
+    }
+  }
+
+  /**
+   * Finds the next entry in unsorted mode.
+   *
+   * @return The next entry, or null if there is none.
+   */
+  private File findNext() {
+    while (true) {
+      if (entries == null) {
+        startPass();
+      }
+      while (hasNextEntry()) {
+        Path path = entries.next();
+        if (!isSkipped(path, path.getFileName().toString()) && isOfCurrentType(path)) {
+          return path.toFile();
+        }
+      }
+      if (!listingDirectories) {
+        return null;
+      }
+      listingDirectories = false;
+      entries = null;
+    }
+  }
+
+  /**
+   * Finds the next entry in sorted mode.
+   *
+   * @return The next entry, or null if there is none.
+   */
+  private File findNextSorted() {
+    while ((batch == null) || !batch.hasNext()) {
+      if (lastBatch) {
+        if (!listingDirectories) {
+          return null;
+        }
+        listingDirectories = false;
+        lastBatch = false;
+        last = null;
+      }
+      selectBatch();
+    }
+    last = batch.next();
+    return last.path.toFile();
+  }
+
+  /**
+   * Reads the directory once, and selects the next batch of entries of the current type, in order.
+   */
+  private void selectBatch() {
+    startPass();
+    TopKSelector<Candidate> selector = new TopKSelector<Candidate>(batchSize, CANDIDATE_COMPARATOR);
+    while (hasNextEntry()) {
+      Path path = entries.next();
+      String name = path.getFileName().toString();
+      Candidate candidate = new Candidate(path, name, name.toLowerCase(locale));
+      // check the names first, and only ask the file system for entries that would be selected
+      if (((last == null) || (CANDIDATE_COMPARATOR.compare(candidate, last) > 0))
+          && ((selector.size() < batchSize) || (CANDIDATE_COMPARATOR.compare(candidate, selector.getLargest()) < 0))
+          && !isSkipped(path, name) && isOfCurrentType(path)) {
+        selector.add(candidate);
+      }
+    }
+    lastBatch = (selector.size() < batchSize);
+    batch = selector.getResult().iterator();
+  }
+
+  /**
+   * Starts reading the directory from its beginning, re-opening it if it has been read already.
+   *
+   * @throws UncheckedIOException if the directory cannot be opened.
+   */
+  private void startPass() {
+    if (!unread) {
+      try {
+        stream.close();
+        stream = Files.newDirectoryStream(directory);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    unread = false;
+    entries = stream.iterator();
+  }
+
+  private boolean hasNextEntry() {
+    try {
+      return entries.hasNext();
+    } catch (DirectoryIteratorException e) {
+      throw new UncheckedIOException(e.getCause());
+    }
+  }
+
+  /**
+   * Checks whether the given entry is to be skipped, because it is hidden, or it cannot be checked whether it is.
+   *
+   * @param path The path of the entry.
+   * @param name The name of the entry.
+   * @return {@code true} if the entry is to be skipped, {@code false} otherwise.
+   */
+  private boolean isSkipped(Path path, String name) {
+    try {
+      // check the name first, which does not require to ask the file system in most cases
+      return !includeHidden && name.startsWith(HIDDEN_PREFIX) && Files.isHidden(path);
+    } catch (IOException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Checks whether the given entry is a directory while listing directories, or a regular file while listing files.
+   * Entries whose attributes cannot be read, e.g. dangling symbolic links, are neither.
+   *
+   * @param path The path of the entry.
+   * @return {@code true} if the entry is of the type currently listed, {@code false} otherwise.
+   */
+  private boolean isOfCurrentType(Path path) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      return listingDirectories ? attributes.isDirectory() : attributes.isRegularFile();
+    } catch (IOException e) {
+      return false;
+    }
+  }
+}
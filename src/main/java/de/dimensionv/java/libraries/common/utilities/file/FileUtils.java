@@ -25,21 +25,30 @@
  */
 package de.dimensionv.java.libraries.common.utilities.file;
 
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
 import de.dimensionv.java.libraries.common.exceptions.InvalidValueException;
+import de.dimensionv.java.libraries.common.utilities.file.comparators.FileEntryComparators;
 import de.dimensionv.java.libraries.common.utilities.file.comparators.FileNameComparator;
-import de.dimensionv.java.libraries.common.utilities.file.filefilters.AbstractFileFilter;
-import de.dimensionv.java.libraries.common.utilities.file.filefilters.DirectoryFileFilter;
-import de.dimensionv.java.libraries.common.utilities.file.filefilters.FileFileFilter;
+import de.dimensionv.java.libraries.common.utilities.file.filefilters.ExtensionSet;
 import de.dimensionv.java.libraries.common.utilities.strings.StringUtils;
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class is a collection of useful routines regarding files, directories and URIs.
@@ -50,7 +59,7 @@ import java.util.Locale;
  *
  * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
  *
- * @version 1.0
+ * @version 1.2
  * @since API 1.3.0
  */
 public class FileUtils {
@@ -64,29 +73,32 @@ public class FileUtils {
 
   private static final String[] UNITS = new String[]{UNIT_KB, UNIT_MB, UNIT_GB};
 
-  /**
-   * File and folder comparator.
-   *
-   * @since Class 1.0
-   * @since API 1.3.0
-   */
-  private static final Comparator<File> comparator = new FileNameComparator();
+  private static final String HIDDEN_PREFIX = ".";
 
   /**
-   * File (not directories) filter.
-   *
-   * @since Class 1.0
-   * @since API 1.3.0
+   * An entry of a directory listing, together with the key it is sorted by.
    */
-  private static final AbstractFileFilter fileFilter = new FileFileFilter();
+  private static final class ListEntry implements Comparable<ListEntry> {
 
-  /**
-   * Folder (directories) filter.
-   *
-   * @since Class 1.0
-   * @since API 1.3.0
-   */
-  private static final AbstractFileFilter directoryFilter = new DirectoryFileFilter();
+    final Path path;
+    final String sortKey;
+
+    /**
+     * Creates a new {@code ListEntry}.
+     *
+     * @param path The path of the entry.
+     * @param sortKey The key to sort the entry by.
+     */
+    ListEntry(Path path, String sortKey) {
+      this.path = path;
+      this.sortKey = sortKey;
+    }
+
+    @Override
+    public int compareTo(ListEntry other) {
+      return sortKey.compareTo(other.sortKey);
+    }
+  }
 
   /**
    * Checks whether the URI represented by the <code>String</code> <code>uri</code> is a local one.
@@ -127,6 +139,26 @@ public class FileUtils {
     }
   }
 
+  /**
+   * Checks whether the file name of the given path has any of the given extensions, ignoring case.
+   *
+   * <p>
+   * In contrast to comparing the result of {@link #getExtension(java.lang.String)}, nothing is allocated, extensions
+   * with several dots, like ".tar.gz", are supported, and the check takes the same time for any number of
+   * extensions.</p>
+   *
+   * @param path The path to check. Can also be a <code>String</code>-representation of a URI.
+   * @param extensions The extensions to check for.
+   *
+   * @return <code>true</code> if the file name has any of the extensions, <code>false</code> otherwise.
+   *
+   * @since Class 1.2
+   * @since API 2.2.0
+   */
+  public static boolean hasExtension(String path, ExtensionSet extensions) {
+    return extensions.matches(path);
+  }
+
   /**
    * Returns the path only (without file name).
    *
@@ -256,6 +288,17 @@ public class FileUtils {
   /**
    * Get a list of Files in the give path.
    *
+   * <p>
+   * The list contains the directories first, followed by the files, each sorted by name like the
+   * {@link FileNameComparator} sorts them. Entries that are neither directories nor regular files (e.g. dangling
+   * symbolic links) are left out, as are hidden entries, unless {@code includeHidden} is {@code true}. An entry is
+   * hidden if its name starts with a dot, and the file system considers it hidden.</p>
+   *
+   * <p>
+   * The directory is read in a single pass, with the attributes of each entry being read only once, and each name being
+   * converted to lower case only once for sorting. This method is thread-safe. If the path does not denote a readable
+   * directory, an empty list is returned.</p>
+   *
    * @param path The path to list the files of.
    * @param includeHidden Flag whether hidden files should be included or not.
    *
@@ -265,31 +308,154 @@ public class FileUtils {
    * @since API 1.3.0
    */
   public static List<File> getFileList(String path, boolean includeHidden) {
-    List<File> list = new ArrayList<File>();
+    List<ListEntry> directories = new ArrayList<ListEntry>();
+    List<ListEntry> files = new ArrayList<ListEntry>();
+    Locale locale = Locale.getDefault();
 
-    // Current directory File instance
-    final File pathDir = new File(path);
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(path))) {
+      for (Path entry : stream) {
+        String name = entry.getFileName().toString();
+        BasicFileAttributes attributes;
+        try {
+          // check the name first, which does not require to ask the file system in most cases
+          if (!includeHidden && name.startsWith(HIDDEN_PREFIX) && Files.isHidden(entry)) {
+            continue;
+          }
+          attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+        } catch (IOException e) {
+          // the entry vanished in the meantime, or it is a dangling symbolic link
+          continue;
+        }
 
-    // List file in this directory with the directory filter
-    directoryFilter.setShowHidden(includeHidden);
-    final File[] dirs = pathDir.listFiles(FileUtils.directoryFilter);
-    if (dirs != null) {
-      // Sort the folders alphabetically
-      Arrays.sort(dirs, FileUtils.comparator);
-      // Add each folder to the File list for the list adapter
-      Collections.addAll(list, dirs);
+        if (attributes.isDirectory()) {
+          directories.add(new ListEntry(entry, name.toLowerCase(locale)));
+        } else if (attributes.isRegularFile()) {
+          files.add(new ListEntry(entry, name.toLowerCase(locale)));
+        }
+      }
+    } catch (IOException | DirectoryIteratorException | InvalidPathException e) {
+      return new ArrayList<File>();
     }
 
-    // List file in this directory with the file filter
-    directoryFilter.setShowHidden(includeHidden);
-    final File[] files = pathDir.listFiles(FileUtils.fileFilter);
-    if (files != null) {
-      // Sort the files alphabetically
-      Arrays.sort(files, FileUtils.comparator);
-      // Add each file to the File list for the list adapter
-      Collections.addAll(list, files);
-    }
+    directories.sort(null);
+    files.sort(null);
 
+    List<File> list = new ArrayList<File>(directories.size() + files.size());
+    for (ListEntry entry : directories) {
+      list.add(entry.path.toFile());
+    }
+    for (ListEntry entry : files) {
+      list.add(entry.path.toFile());
+    }
     return list;
   }
+
+  /**
+   * Get a list of snapshots of the entries in the given path, in the order of the file system.
+   *
+   * <p>
+   * The same entries as with {@link #getFileList(java.lang.String, boolean)} are listed, with the attributes of each
+   * entry being read once, in a single pass. As the entries carry their size, time of last modification and type, the
+   * list can be sorted by any of the comparators of {@link FileEntryComparators} without asking the file system again.
+   * This method is thread-safe. If the path does not denote a readable directory, an empty list is returned.</p>
+   *
+   * @param path The path to list the entries of.
+   * @param includeHidden Flag whether hidden entries should be included or not.
+   *
+   * @return List of entries in the given directory.
+   *
+   * @since Class 1.2
+   * @since API 2.2.0
+   */
+  public static List<FileEntry> getFileEntries(String path, boolean includeHidden) {
+    List<FileEntry> entries = new ArrayList<FileEntry>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(path))) {
+      for (Path entry : stream) {
+        BasicFileAttributes attributes;
+        try {
+          if (!includeHidden && entry.getFileName().toString().startsWith(HIDDEN_PREFIX) && Files.isHidden(entry)) {
+            continue;
+          }
+          attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+        } catch (IOException e) {
+          // the entry vanished in the meantime, or it is a dangling symbolic link
+          continue;
+        }
+        if (attributes.isDirectory() || attributes.isRegularFile()) {
+          entries.add(FileEntry.of(entry, attributes));
+        }
+      }
+    } catch (IOException | DirectoryIteratorException | InvalidPathException e) {
+      return new ArrayList<FileEntry>();
+    }
+    return entries;
+  }
+
+  /**
+   * Get a lazily populated stream of the Files in the given path, directories first, in the order of the file system.
+   *
+   * <p>
+   * In contrast to {@link #getFileList(java.lang.String, boolean)}, the entries are not sorted, and the stream needs a
+   * constant amount of memory only, regardless of the size of the directory, so processing can start right away. To
+   * list the directories first, the directory is read twice: once for the directories, and once for the files. The
+   * same entries as with {@code getFileList} are listed.</p>
+   *
+   * <p>
+   * The stream keeps the directory open, so it should be closed, e.g. with a try-with-resources statement. Errors
+   * reading the directory after the stream has been created are thrown as {@link java.io.UncheckedIOException}s.</p>
+   *
+   * @param path The path to list the files of.
+   * @param includeHidden Flag whether hidden files should be included or not.
+   *
+   * @return Stream of files in the given directory.
+   *
+   * @throws IOException if the directory cannot be opened.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public static Stream<File> streamFileList(String path, boolean includeHidden) throws IOException {
+    return createStream(new FileListIterator(Paths.get(path), includeHidden, 0));
+  }
+
+  /**
+   * Get a lazily populated stream of the Files in the given path, directories first, each sorted by name like
+   * {@link #getFileList(java.lang.String, boolean)} sorts them. Names differing in case only are sorted by their
+   * {@code char} values.
+   *
+   * <p>
+   * The memory needed is bounded by the {@code batchSize}: the directory is read once for each batch of entries, and
+   * each pass selects the next {@code batchSize} directories or files in order. The larger the batch size, the fewer
+   * passes over the directory are needed. The attributes of an entry are only read in a pass if its name may be part
+   * of the current batch.</p>
+   *
+   * <p>
+   * The stream keeps the directory open, so it should be closed, e.g. with a try-with-resources statement. Errors
+   * reading the directory after the stream has been created are thrown as {@link java.io.UncheckedIOException}s.</p>
+   *
+   * @param path The path to list the files of.
+   * @param includeHidden Flag whether hidden files should be included or not.
+   * @param batchSize The maximum number of entries kept in memory at once.
+   *
+   * @return Sorted stream of files in the given directory.
+   *
+   * @throws InvalidIntegerValueException if {@code batchSize} is less than 1.
+   * @throws IOException if the directory cannot be opened.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public static Stream<File> streamSortedFileList(String path, boolean includeHidden, int batchSize)
+      throws IOException {
+    if (batchSize < 1) {
+      throw new InvalidIntegerValueException(batchSize);
+    }
+    return createStream(new FileListIterator(Paths.get(path), includeHidden, batchSize));
+  }
+
+  private static Stream<File> createStream(FileListIterator iterator) {
+    int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false)
+        .onClose(iterator::close);
+  }
 }
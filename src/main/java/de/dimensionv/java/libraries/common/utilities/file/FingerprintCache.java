@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.utilities.strings.StringUtils;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * A cache of the fingerprints of files, i.e. the SHA-1 hashes of their contents, as computed by
+ * {@link StringUtils#sha1Hash(java.io.InputStream)}.</p>
+ *
+ * <p>
+ * Each fingerprint is cached together with the size, the time of the last modification, and the file key (on most
+ * systems the device and the inode) the file had when it was hashed. A fingerprint requested again is served from the
+ * cache, as long as all of them are unchanged, so only files that changed are read again. Fingerprints that are not
+ * cached are computed by a bounded number of worker threads, and requests for a file already being hashed share that
+ * computation. A file that changes while it is hashed is hashed again, up to three times.</p>
+ *
+ * <p>
+ * The number of fingerprints cached is bounded: when it is exceeded, the fingerprint used least recently is evicted.
+ * A change that keeps the size, the time of modification and the file key is not detected, e.g. if the time of
+ * modification is reset on purpose, or its granularity is too coarse for changes following the hashing quickly.</p>
+ *
+ * <p>
+ * A {@code FingerprintCache} is thread-safe. Its worker threads are daemon threads, which are stopped when they are
+ * idle for a while, or when the cache is closed.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class FingerprintCache implements Closeable {
+
+  /**
+   * The number of times a file is hashed at most, if it changes while it is hashed.
+   */
+  private static final int MAX_ATTEMPTS = 3;
+
+  private final int maxEntries;
+  private final int parallelism;
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * The fingerprints, with the least recently used first.
+   */
+  private final LinkedHashMap<Path, Fingerprint> fingerprints = new LinkedHashMap<Path, Fingerprint>(16, 0.75f, true);
+
+  /**
+   * The computations not finished yet.
+   */
+  private final Map<Path, Computation> computations = new HashMap<Path, Computation>();
+
+  private long hits = 0;
+  private long misses = 0;
+  private boolean closed = false;
+
+  /**
+   * The attributes a fingerprint is valid for.
+   */
+  private static final class Stamp {
+
+    final long size;
+    final FileTime lastModified;
+    final Object fileKey;
+
+    Stamp(BasicFileAttributes attributes) {
+      this.size = attributes.size();
+      this.lastModified = attributes.lastModifiedTime();
+      this.fileKey = attributes.fileKey();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof Stamp)) {
+        return false;
+      }
+      Stamp other = (Stamp) object;
+      return (size == other.size) && lastModified.equals(other.lastModified) && Objects.equals(fileKey, other.fileKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) (size ^ (size >>> 32)) * 31 + lastModified.hashCode();
+    }
+  }
+
+  /**
+   * A fingerprint, with the attributes it is valid for.
+   */
+  private static final class Fingerprint {
+
+    final Stamp stamp;
+    final String hash;
+
+    Fingerprint(Stamp stamp, String hash) {
+      this.stamp = stamp;
+      this.hash = hash;
+    }
+  }
+
+  /**
+   * The computation of a fingerprint, shared by all requests for the same file with the same attributes.
+   */
+  private final class Computation implements Runnable {
+
+    final Path path;
+    final Stamp stamp;
+    final CompletableFuture<String> future = new CompletableFuture<String>();
+
+    Computation(Path path, Stamp stamp) {
+      this.path = path;
+      this.stamp = stamp;
+    }
+
+    @Override
+    public void run() {
+      try {
+        Fingerprint fingerprint = compute(path, stamp);
+        synchronized (FingerprintCache.this) {
+          if (computations.get(path) == this) {
+            computations.remove(path);
+            if (!closed) {
+              fingerprints.put(path, fingerprint);
+              evict();
+            }
+          }
+        }
+        future.complete(fingerprint.hash);
+      } catch (IOException | RuntimeException e) {
+        synchronized (FingerprintCache.this) {
+          computations.remove(path, this);
+        }
+        future.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Creates a new {@code FingerprintCache}, which computes fingerprints on as many threads as processors are available.
+   *
+   * @param maxEntries The maximum number of fingerprints cached.
+   * @throws InvalidIntegerValueException if {@code maxEntries} is less than 1.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public FingerprintCache(int maxEntries) {
+    this(maxEntries, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a new {@code FingerprintCache}.
+   *
+   * @param maxEntries The maximum number of fingerprints cached.
+   * @param parallelism The maximum number of fingerprints computed at the same time.
+   * @throws InvalidIntegerValueException if {@code maxEntries} or {@code parallelism} is less than 1.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public FingerprintCache(int maxEntries, int parallelism) {
+    if (maxEntries < 1) {
+      throw new InvalidIntegerValueException(maxEntries);
+    }
+    if (parallelism < 1) {
+      throw new InvalidIntegerValueException(parallelism);
+    }
+    this.maxEntries = maxEntries;
+    this.parallelism = parallelism;
+    this.executor = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), runnable -> {
+          Thread thread = new Thread(runnable, "FingerprintCache worker");
+          thread.setDaemon(true);
+          return thread;
+        });
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Returns the maximum number of fingerprints cached.
+   *
+   * @return The maximum number of fingerprints.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Returns the maximum number of fingerprints computed at the same time.
+   *
+   * @return The maximum number of computations.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Returns the fingerprint of the given file, from the cache if the file is unchanged, and computes it otherwise. The
+   * calling thread waits until the fingerprint is computed.
+   *
+   * @param file The file.
+   * @return The fingerprint, as a string of hexadecimal numbers.
+   * @throws NullPointerException if {@code file} is null.
+   * @throws IOException if the file is not a regular file, or cannot be read.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public String getFingerprint(File file) throws IOException {
+    return join(getFingerprintAsync(file));
+  }
+
+  /**
+   * Returns the fingerprint of the given file, from the cache if the file is unchanged, and starts computing it
+   * otherwise. Only the attributes of the file are read by the calling thread.
+   *
+   * @param file The file.
+   * @return The future fingerprint, as a string of hexadecimal numbers, which completes exceptionally with an
+   * {@code IOException} if the file cannot be read.
+   * @throws NullPointerException if {@code file} is null.
+   * @throws IOException if the file is not a regular file, or its attributes cannot be read.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public CompletableFuture<String> getFingerprintAsync(File file) throws IOException {
+    if (file == null) {
+      throw new NullPointerException("file");
+    }
+    Path path = file.toPath().toAbsolutePath();
+    Stamp stamp = readStamp(path);
+    Computation computation;
+    synchronized (this) {
+      Fingerprint fingerprint = fingerprints.get(path);
+      if ((fingerprint != null) && fingerprint.stamp.equals(stamp)) {
+        hits++;
+        return CompletableFuture.completedFuture(fingerprint.hash);
+      }
+      computation = computations.get(path);
+      if ((computation != null) && computation.stamp.equals(stamp)) {
+        hits++;
+        return computation.future;
+      }
+      misses++;
+      computation = new Computation(path, stamp);
+      if (!closed) {
+        computations.put(path, computation);
+        executor.execute(computation);
+        return computation.future;
+      }
+    }
+    // the cache has been closed, so the fingerprint is computed right here
+    computation.run();
+    return computation.future;
+  }
+
+  /**
+   * Returns the fingerprints of the given files, computing those that are not cached in parallel. The calling thread
+   * waits until all of them are computed. Files that are not regular files, or cannot be read, are left out.
+   *
+   * @param files The files.
+   * @return The fingerprints by file, in the order of the files given.
+   * @throws NullPointerException if {@code files} is null, or contains null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Map<File, String> getFingerprints(Collection<File> files) {
+    if (files == null) {
+      throw new NullPointerException("files");
+    }
+    List<CompletableFuture<String>> futures = new ArrayList<CompletableFuture<String>>(files.size());
+    for (File file : files) {
+      try {
+        futures.add(getFingerprintAsync(file));
+      } catch (IOException e) {
+        futures.add(null);
+      }
+    }
+    Map<File, String> result = new LinkedHashMap<File, String>();
+    int index = 0;
+    for (File file : files) {
+      CompletableFuture<String> future = futures.get(index++);
+      if (future != null) {
+        try {
+          result.put(file, join(future));
+        } catch (IOException e) {
+          // the file cannot be read, so it is left out
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Removes the fingerprint of the given file from the cache.
+   *
+   * @param file The file.
+   * @throws NullPointerException if {@code file} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public synchronized void invalidate(File file) {
+    if (file == null) {
+      throw new NullPointerException("file");
+    }
+    fingerprints.remove(file.toPath().toAbsolutePath());
+  }
+
+  /**
+   * Removes all fingerprints from the cache.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public synchronized void clear() {
+    fingerprints.clear();
+  }
+
+  /**
+   * Returns the number of fingerprints cached.
+   *
+   * @return The number of fingerprints.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public synchronized int size() {
+    return fingerprints.size();
+  }
+
+  /**
+   * Returns the number of requests served from the cache, or by a computation already running.
+   *
+   * @return The number of hits.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public synchronized long getHitCount() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of requests that started a computation.
+   *
+   * @return The number of misses.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public synchronized long getMissCount() {
+    return misses;
+  }
+
+  /**
+   * Drops all fingerprints, cancels the computations not started yet, and stops the worker threads. Afterwards,
+   * fingerprints are computed by the calling thread, but no longer cached.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @Override
+  public void close() {
+    List<Runnable> cancelled;
+    synchronized (this) {
+      clear();
+      closed = true;
+      cancelled = executor.shutdownNow();
+      computations.clear();
+    }
+    for (Runnable runnable : cancelled) {
+      ((Computation) runnable).future.cancel(false);
+    }
+  }
+
+  /**
+   * Evicts the fingerprints used least recently, until the maximum number of fingerprints is no longer exceeded.
+   */
+  private void evict() {
+    while (fingerprints.size() > maxEntries) {
+      fingerprints.remove(fingerprints.keySet().iterator().next());
+    }
+  }
+
+  /**
+   * Reads the attributes of the given file, which have to be those of a regular file.
+   */
+  private static Stamp readStamp(Path path) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    if (!attributes.isRegularFile()) {
+      throw new IOException("Not a regular file: " + path);
+    }
+    return new Stamp(attributes);
+  }
+
+  /**
+   * Hashes the given file, until its attributes stay the same while it is hashed.
+   *
+   * @param path The file.
+   * @param stamp The attributes of the file before it is hashed the first time.
+   * @return The fingerprint, with the attributes it is valid for.
+   * @throws IOException if the file cannot be read, or keeps changing.
+   */
+  private static Fingerprint compute(Path path, Stamp stamp) throws IOException {
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      String hash;
+      try (InputStream input = Files.newInputStream(path)) {
+        hash = StringUtils.sha1Hash(input);
+      } catch (NoSuchAlgorithmException e) {
+        // every Java platform is required to support SHA-1
+        throw new IllegalStateException(e);
+      }
+      Stamp after = readStamp(path);
+      if (after.equals(stamp)) {
+        return new Fingerprint(stamp, hash);
+      }
+      stamp = after;
+    }
+    throw new IOException("The file keeps changing: " + path);
+  }
+
+  /**
+   * Waits for the given future fingerprint, and unwraps the exception it completed with.
+   */
+  private static String join(CompletableFuture<String> future) throws IOException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw e;
+    } catch (CancellationException e) {
+      throw new IOException("The cache has been closed", e);
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.utilities.concurrent.Flow;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * A {@link Flow.Subscription} that produces its items on demand: an item is only produced after it has been requested,
+ * so nothing is read ahead of the subscriber's demand, and nothing is buffered.</p>
+ *
+ * <p>
+ * All signals to the subscriber are sent by a drain loop running on the given {@link Executor}, which is scheduled
+ * whenever the subscription is requested or cancelled, and which runs at most once at a time, so the signals are
+ * strictly sequential. Requesting items from within {@link Flow.Subscriber#onNext(java.lang.Object)} just adds to the
+ * demand, which the running loop picks up.</p>
+ *
+ * @param <T> The type of the items produced.
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+abstract class PullSubscription<T> implements Flow.Subscription, Runnable {
+
+  private final Flow.Subscriber<? super T> subscriber;
+  private final Executor executor;
+
+  private final AtomicLong demand = new AtomicLong();
+  private final AtomicInteger scheduled = new AtomicInteger();
+  private volatile boolean cancelled = false;
+  private volatile IllegalArgumentException invalidRequest = null;
+
+  // only accessed by the drain loop
+  private boolean subscribed = false;
+  private boolean terminated = false;
+
+  /**
+   * Creates a new {@code PullSubscription}.
+   *
+   * @param subscriber The subscriber to send the items to.
+   * @param executor The executor to run the drain loop on.
+   * @throws NullPointerException if {@code subscriber} is null.
+   */
+  PullSubscription(Flow.Subscriber<? super T> subscriber, Executor executor) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    }
+    this.subscriber = subscriber;
+    this.executor = executor;
+  }
+
+  /**
+   * Produces the next item.
+   *
+   * @return The next item, or null if there are no more items.
+   * @throws IOException if the item cannot be produced.
+   */
+  abstract T produce() throws IOException;
+
+  /**
+   * Releases the resources of this subscription. Called exactly once, when the subscription terminates or is
+   * cancelled.
+   */
+  abstract void release();
+
+  /**
+   * Starts this subscription, by calling the subscriber's {@link Flow.Subscriber#onSubscribe(Flow.Subscription)}
+   * method.
+   */
+  final void start() {
+    schedule();
+  }
+
+  @Override
+  public final void request(long n) {
+    if (n <= 0) {
+      invalidRequest = new IllegalArgumentException("non-positive request: " + n);
+      cancelled = true;
+    } else {
+      long current;
+      long updated;
+      do {
+        current = demand.get();
+        updated = current + n;
+        if (updated < 0) {
+          // the demand is unbounded
+          updated = Long.MAX_VALUE;
+        }
+      } while (!demand.compareAndSet(current, updated));
+    }
+    schedule();
+  }
+
+  @Override
+  public final void cancel() {
+    cancelled = true;
+    schedule();
+  }
+
+  @Override
+  public final void run() {
+    int missed = 1;
+    do {
+      drain();
+      missed = scheduled.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void schedule() {
+    if (scheduled.getAndIncrement() == 0) {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        // the drain loop is not running, so the signals can be sent right here
+        if (!terminated) {
+          terminate();
+          if (!subscribed) {
+            subscribed = true;
+            subscriber.onSubscribe(this);
+          }
+          subscriber.onError(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sends as many items as requested, or the signal that terminates the subscription.
+   */
+  private void drain() {
+    if (terminated) {
+      return;
+    }
+    if (!subscribed) {
+      subscribed = true;
+      subscriber.onSubscribe(this);
+    }
+
+    while (true) {
+      if (cancelled) {
+        terminate();
+        IllegalArgumentException exception = invalidRequest;
+        if (exception != null) {
+          subscriber.onError(exception);
+        }
+        return;
+      }
+      if (demand.get() == 0) {
+        return;
+      }
+
+      T item;
+      try {
+        item = produce();
+      } catch (IOException | RuntimeException e) {
+        terminate();
+        subscriber.onError(((e instanceof UncheckedIOException) && (e.getCause() != null)) ? e.getCause() : e);
+        return;
+      }
+      if (item == null) {
+        terminate();
+        subscriber.onComplete();
+        return;
+      }
+
+      try {
+        subscriber.onNext(item);
+      } catch (RuntimeException e) {
+        // a subscriber must not throw, so consider the subscription cancelled
+        terminate();
+        throw e;
+      }
+      if (demand.get() != Long.MAX_VALUE) {
+        demand.decrementAndGet();
+      }
+    }
+  }
+
+  private void terminate() {
+    if (!terminated) {
+      terminated = true;
+      cancelled = true;
+      release();
+    }
+  }
+}
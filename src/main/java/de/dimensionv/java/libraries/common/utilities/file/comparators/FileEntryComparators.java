@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.comparators;
+
+import de.dimensionv.java.libraries.common.utilities.file.FileEntry;
+import de.dimensionv.java.libraries.common.utilities.strings.NaturalSortComparator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <code>Comparator</code>s for {@link FileEntry} objects, which compare the values captured in the entries, and never
+ * ask the file system.
+ *
+ * <p>
+ * The comparators are shared, stateless and thread-safe. They can be combined to a single comparator with
+ * {@link #comparing(java.util.Comparator...)}, e.g. {@code comparing(byType(), byName())} orders entries like
+ * {@link de.dimensionv.java.libraries.common.utilities.file.FileUtils#getFileList(java.lang.String, boolean)} does,
+ * and reversed with {@link Comparator#reversed()}.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class FileEntryComparators {
+
+  private static final char EXTENSION_SEPARATOR = '.';
+
+  private static final Comparator<FileEntry> BY_NAME
+      = (entryOne, entryTwo) -> entryOne.getSortKey().compareTo(entryTwo.getSortKey());
+
+  private static final Comparator<FileEntry> BY_NATURAL_NAME
+      = new NaturalSortComparator<FileEntry>(FileEntry::getName, false, true);
+
+  private static final Comparator<FileEntry> BY_SIZE
+      = (entryOne, entryTwo) -> Long.compare(entryOne.getSize(), entryTwo.getSize());
+
+  private static final Comparator<FileEntry> BY_LAST_MODIFIED
+      = (entryOne, entryTwo) -> Long.compare(entryOne.getLastModified(), entryTwo.getLastModified());
+
+  private static final Comparator<FileEntry> BY_TYPE
+      = (entryOne, entryTwo) -> entryOne.getType().compareTo(entryTwo.getType());
+
+  private static final Comparator<FileEntry> BY_EXTENSION = FileEntryComparators::compareExtensions;
+
+  private FileEntryComparators() {
+    // this ensures that the class cannot be instantiated...
+  }
+
+  /**
+   * Returns a comparator ordering entries by name, ignoring case like the {@link FileNameComparator}. The lower case
+   * name is computed once per entry.
+   *
+   * @return The comparator.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static Comparator<FileEntry> byName() {
+    return BY_NAME;
+  }
+
+  /**
+   * Returns a comparator ordering entries by name in natural order, ignoring case, so "file2" comes before "file10".
+   *
+   * @return The comparator.
+   *
+   * @see NaturalSortComparator
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static Comparator<FileEntry> byNaturalName() {
+    return BY_NATURAL_NAME;
+  }
+
+  /**
+   * Returns a comparator ordering entries by size, smallest first.
+   *
+   * @return The comparator.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static Comparator<FileEntry> bySize() {
+    return BY_SIZE;
+  }
+
+  /**
+   * Returns a comparator ordering entries by the time of their last modification, oldest first.
+   *
+   * @return The comparator.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static Comparator<FileEntry> byLastModified() {
+    return BY_LAST_MODIFIED;
+  }
+
+  /**
+   * Returns a comparator ordering entries by their extension, ignoring case, with entries without extension first.
+   *
+   * @return The comparator.
+   *
+   * @see FileEntry#getExtension()
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static Comparator<FileEntry> byExtension() {
+    return BY_EXTENSION;
+  }
+
+  /**
+   * Returns a comparator ordering entries by type, in the order of {@link FileEntry.Type}, so directories come first.
+   *
+   * @return The comparator.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static Comparator<FileEntry> byType() {
+    return BY_TYPE;
+  }
+
+  /**
+   * Returns a comparator ordering entries by the given keys: the first comparator decides, unless it considers the
+   * entries equal, in which case the next one decides, and so on.
+   *
+   * @param keys The comparators for the keys, most significant first.
+   * @return The combined comparator.
+   * @throws NullPointerException if any of the comparators is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @SafeVarargs
+  public static Comparator<FileEntry> comparing(Comparator<? super FileEntry>... keys) {
+    // copy the keys, so the varargs array does not escape
+    final List<Comparator<? super FileEntry>> comparators = new ArrayList<Comparator<? super FileEntry>>(keys.length);
+    for (Comparator<? super FileEntry> comparator : keys) {
+      if (comparator == null) {
+        throw new NullPointerException("keys");
+      }
+      comparators.add(comparator);
+    }
+    final int count = comparators.size();
+    return (entryOne, entryTwo) -> {
+      for (int i = 0; i < count; i++) {
+        int result = comparators.get(i).compare(entryOne, entryTwo);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return 0;
+    };
+  }
+
+  /**
+   * Compares the extensions of the lower case names in place, without extracting them.
+   */
+  private static int compareExtensions(FileEntry entryOne, FileEntry entryTwo) {
+    String keyOne = entryOne.getSortKey();
+    String keyTwo = entryTwo.getSortKey();
+    int dotOne = keyOne.lastIndexOf(EXTENSION_SEPARATOR);
+    int dotTwo = keyTwo.lastIndexOf(EXTENSION_SEPARATOR);
+    // a name starting with its only dot has no extension
+    int startOne = (dotOne > 0) ? dotOne + 1 : keyOne.length();
+    int startTwo = (dotTwo > 0) ? dotTwo + 1 : keyTwo.length();
+    int lengthOne = keyOne.length() - startOne;
+    int lengthTwo = keyTwo.length() - startTwo;
+    int length = Math.min(lengthOne, lengthTwo);
+    for (int i = 0; i < length; i++) {
+      char charOne = keyOne.charAt(startOne + i);
+      char charTwo = keyTwo.charAt(startTwo + i);
+      if (charOne != charTwo) {
+        return charOne - charTwo;
+      }
+    }
+    return lengthOne - lengthTwo;
+  }
+}
@@ -25,6 +25,8 @@
  */
 package de.dimensionv.java.libraries.common.utilities.file.comparators;
 
+import de.dimensionv.java.libraries.common.utilities.strings.NaturalSortComparator;
+import de.dimensionv.java.libraries.common.utilities.strings.StringUtils;
 import java.io.File;
 import java.util.Comparator;
 import java.util.Locale;
@@ -33,20 +35,124 @@ import java.util.Locale;
  * A <code>Comparator</code> implementation to compare to <code>File</code>-objects by name.
  *
  * <p>
- * Both filenames are converted to lower case using the system's default <code>Locale</code> before they are actually
- * compared with each other.</p>
+ * How the names are compared depends on the {@link Mode}. By default, both filenames are converted to lower case using
+ * the system's default <code>Locale</code> before they are actually compared with each other. In
+ * {@link Mode#CASE_FOLDED} mode, the names are compared character by character in place, with the case of each
+ * character folded like {@link String#CASE_INSENSITIVE_ORDER} does, so no strings are created at all. In
+ * {@link Mode#NATURAL} mode, the names are compared in natural order, ignoring case, like the
+ * {@link NaturalSortComparator} compares them, so "file2" comes before "file10".</p>
  *
  * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
  *
- * @version 1.0
+ * @version 1.1
  * @since API 1.3.0
  */
 public class FileNameComparator implements Comparator<File> {
 
+  private static final NaturalSortComparator<File> NATURAL_COMPARATOR
+      = new NaturalSortComparator<File>(File::getName, false, true);
+
+  /**
+   * The ways to compare names.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public enum Mode {
+    /**
+     * Compare the names converted to lower case using the system's default {@code Locale}.
+     */
+    LOWER_CASE,
+    /**
+     * Compare the names in place, character by character, ignoring case.
+     */
+    CASE_FOLDED,
+    /**
+     * Compare the names in natural order, ignoring case.
+     */
+    NATURAL
+  }
+
+  private final Mode mode;
+
+  /**
+   * Creates a new {@code FileNameComparator}, which compares the names converted to lower case using the system's
+   * default {@code Locale}.
+   *
+   * @since Class 1.0
+   * @since API 1.3.0
+   */
+  public FileNameComparator() {
+    this(Mode.LOWER_CASE);
+  }
+
+  /**
+   * Creates a new {@code FileNameComparator}, which compares the names in the given mode.
+   *
+   * @param mode The way to compare names.
+   * @throws NullPointerException if {@code mode} is null.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public FileNameComparator(Mode mode) {
+    if (mode == null) {
+      throw new NullPointerException("mode");
+    }
+    this.mode = mode;
+  }
+
+  /**
+   * Returns the way this comparator compares names.
+   *
+   * @return The mode.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public Mode getMode() {
+    return mode;
+  }
+
   @Override
   public int compare(File f1, File f2) {
-    // Sort alphabetically by lower case, which is much cleaner, and assume the system's default
-    // locale...
-    return f1.getName().toLowerCase(Locale.getDefault()).compareTo(f2.getName().toLowerCase(Locale.getDefault()));
+    switch (mode) {
+      case CASE_FOLDED:
+        return compareFolded(f1.getPath(), f2.getPath());
+      case NATURAL:
+        return NATURAL_COMPARATOR.compare(f1, f2);
+      default:
+        // Sort alphabetically by lower case, which is much cleaner, and assume the system's default
+        // locale...
+        return f1.getName().toLowerCase(Locale.getDefault()).compareTo(f2.getName().toLowerCase(Locale.getDefault()));
+    }
+  }
+
+  /**
+   * Compares the names at the end of the given paths in place, ignoring case.
+   *
+   * @param pathOne The first path.
+   * @param pathTwo The second path.
+   * @return A negative integer, zero, or a positive integer as the first name is less than, equal to, or greater than
+   * the second.
+   */
+  private static int compareFolded(String pathOne, String pathTwo) {
+    // the name starts after the last separator, as with File.getName()
+    int indexOne = pathOne.lastIndexOf(File.separatorChar) + 1;
+    int indexTwo = pathTwo.lastIndexOf(File.separatorChar) + 1;
+    int lengthOne = pathOne.length();
+    int lengthTwo = pathTwo.length();
+    while ((indexOne < lengthOne) && (indexTwo < lengthTwo)) {
+      char charOne = pathOne.charAt(indexOne++);
+      char charTwo = pathTwo.charAt(indexTwo++);
+      if (charOne != charTwo) {
+        charOne = StringUtils.foldCase(charOne);
+        charTwo = StringUtils.foldCase(charTwo);
+        if (charOne != charTwo) {
+          return charOne - charTwo;
+        }
+      }
+    }
+    return (lengthOne - indexOne) - (lengthTwo - indexTwo);
   }
 }
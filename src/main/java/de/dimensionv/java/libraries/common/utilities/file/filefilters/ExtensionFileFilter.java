@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.filefilters;
+
+import java.io.File;
+
+/**
+ * A FileFilter that allows files whose name has any of a set of extensions, ignoring case.
+ * <p>
+ * The extension is checked first, as it does not require to ask the file system. Depending on how it's initialized, it
+ * can also show hidden files. The default behavior is to not show hidden files.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class ExtensionFileFilter extends AbstractFileFilter {
+
+  private final ExtensionSet extensions;
+
+  /**
+   * Creates a new {@code ExtensionFileFilter} object for the given extensions, with the default behavior, meaning
+   * hidden files will not be shown.
+   *
+   * @param extensions The extensions, with or without leading dot.
+   * @throws NullPointerException if any of the extensions is null.
+   * @throws de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException if any of the extensions is
+   * empty.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public ExtensionFileFilter(String... extensions) {
+    this(false, new ExtensionSet(extensions));
+  }
+
+  /**
+   * Creates a new {@code ExtensionFileFilter} object for the given set of extensions, with the behavior regarding
+   * hidden files defined by the parameter {@code showHidden}.
+   *
+   * @param showHidden Defines whether to show hidden files or not.
+   * @param extensions The set of extensions.
+   * @throws NullPointerException if {@code extensions} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public ExtensionFileFilter(boolean showHidden, ExtensionSet extensions) {
+    super(showHidden);
+    if (extensions == null) {
+      throw new NullPointerException("extensions");
+    }
+    this.extensions = extensions;
+  }
+
+  /**
+   * Returns the set of extensions the names are checked against.
+   *
+   * @return The set of extensions.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public ExtensionSet getExtensions() {
+    return extensions;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param file The {@code File} object to check
+   * @return {@literal true} if the name of the file has any of the extensions, {@literal false} otherwise.
+   */
+  @Override
+  public boolean accept(File file) {
+    if (!extensions.matches(file.getName())) {
+      return false;
+    }
+    return showHidden || isFileHidden(file);
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.filefilters;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException;
+import de.dimensionv.java.libraries.common.utilities.strings.StringUtils;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A set of file name extensions, matched case-insensitively against the end of file names without allocating.
+ *
+ * <p>
+ * Extensions may contain dots themselves, like {@code tar.gz}, and may be given with or without the leading dot. A
+ * name has an extension if it ends with a dot followed by the extension, and the dot is not its first character, so
+ * {@code .gz} is a hidden file without extension, while {@code backup.tar.gz} has both the extensions {@code gz} and
+ * {@code tar.gz}.</p>
+ *
+ * <p>
+ * The extensions are stored in a hash table, keyed by a case-folded hash. To check a name, it is scanned backwards
+ * from its end, at most as far as the longest extension reaches, while the hash of the part scanned is updated with
+ * each character; at each dot, that hash is looked up in the table. So checking a name costs a few nanoseconds,
+ * regardless of the number of extensions in the set.</p>
+ *
+ * <p>
+ * An {@code ExtensionSet} is immutable and thread-safe.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class ExtensionSet {
+
+  private static final char EXTENSION_SEPARATOR = '.';
+  private static final int HASH_MULTIPLIER = 31;
+
+  private final List<String> extensions;
+  private final int[] hashes;
+  private final String[] table;
+  private final int mask;
+  private final int maxLength;
+
+  /**
+   * Creates a new {@code ExtensionSet} of the given extensions.
+   *
+   * @param extensions The extensions, with or without leading dot.
+   * @throws NullPointerException if any of the extensions is null.
+   * @throws InvalidStringValueException if any of the extensions is empty, or contains a path separator.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public ExtensionSet(String... extensions) {
+    this(Arrays.asList(extensions));
+  }
+
+  /**
+   * Creates a new {@code ExtensionSet} of the given extensions.
+   *
+   * @param extensions The extensions, with or without leading dot.
+   * @throws NullPointerException if any of the extensions is null.
+   * @throws InvalidStringValueException if any of the extensions is empty, or contains a path separator.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public ExtensionSet(Collection<String> extensions) {
+    List<String> normalized = new ArrayList<String>(extensions.size());
+    int longest = 0;
+    for (String extension : extensions) {
+      String stripped = (extension.indexOf(EXTENSION_SEPARATOR) == 0) ? extension.substring(1) : extension;
+      if (stripped.isEmpty() || (stripped.charAt(0) == EXTENSION_SEPARATOR) || isSeparator(stripped)) {
+        throw new InvalidStringValueException(extension);
+      }
+      stripped = stripped.toLowerCase(Locale.ROOT);
+      if (!normalized.contains(stripped)) {
+        normalized.add(stripped);
+        longest = Math.max(longest, stripped.length());
+      }
+    }
+
+    int capacity = Integer.highestOneBit(Math.max(normalized.size(), 1) * 2) * 2;
+    this.extensions = Collections.unmodifiableList(normalized);
+    this.hashes = new int[capacity];
+    this.table = new String[capacity];
+    this.mask = capacity - 1;
+    this.maxLength = longest;
+    for (String extension : normalized) {
+      int hash = hash(extension);
+      int slot = hash & mask;
+      while (table[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      hashes[slot] = hash;
+      table[slot] = extension;
+    }
+  }
+
+  private static boolean isSeparator(String extension) {
+    return (extension.indexOf('/') >= 0) || (extension.indexOf(File.separatorChar) >= 0);
+  }
+
+  private static int hash(String extension) {
+    int hash = 0;
+    for (int i = extension.length() - 1; i >= 0; i--) {
+      hash = hash * HASH_MULTIPLIER + StringUtils.foldCase(extension.charAt(i));
+    }
+    return hash;
+  }
+
+  /**
+   * Checks whether the given name ends with any of the extensions. Only the part after the last path separator is
+   * considered, so the name may be a path as well.
+   *
+   * @param name The file name or path.
+   * @return {@code true} if the name has any of the extensions, {@code false} otherwise.
+   * @throws NullPointerException if {@code name} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean matches(String name) {
+    return find(name, false) >= 0;
+  }
+
+  /**
+   * Returns the index of the dot starting the longest extension of the set the given name ends with, e.g. to strip
+   * the extension.
+   *
+   * @param name The file name or path.
+   * @return The index of the dot, or -1 if the name has none of the extensions.
+   * @throws NullPointerException if {@code name} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int indexOfExtension(String name) {
+    return find(name, true);
+  }
+
+  private int find(String name, boolean longest) {
+    int length = name.length();
+    // the dot must not be the first character of the name, and no extension is longer than the longest one
+    int stop = Math.max(length - maxLength - 1, 1);
+    int found = -1;
+    int hash = 0;
+    for (int i = length - 1; i >= stop; i--) {
+      char c = name.charAt(i);
+      if (isSeparatorChar(c)) {
+        break;
+      }
+      if ((c == EXTENSION_SEPARATOR) && (i < length - 1) && !isSeparatorChar(name.charAt(i - 1))
+          && contains(name, i + 1, hash)) {
+        if (!longest) {
+          return i;
+        }
+        found = i;
+      }
+      hash = hash * HASH_MULTIPLIER + StringUtils.foldCase(c);
+    }
+    return found;
+  }
+
+  private static boolean isSeparatorChar(char c) {
+    return (c == '/') || (c == File.separatorChar);
+  }
+
+  private boolean contains(String name, int start, int hash) {
+    int length = name.length() - start;
+    for (int slot = hash & mask; table[slot] != null; slot = (slot + 1) & mask) {
+      String extension = table[slot];
+      if ((hashes[slot] == hash) && (extension.length() == length)
+          && name.regionMatches(true, start, extension, 0, length)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the extensions of this set, lower-cased and without leading dot.
+   *
+   * @return Unmodifiable list of the extensions.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public List<String> getExtensions() {
+    return extensions;
+  }
+
+  /**
+   * Returns the number of extensions in this set.
+   *
+   * @return The number of extensions.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int size() {
+    return extensions.size();
+  }
+
+  @Override
+  public String toString() {
+    return extensions.toString();
+  }
+}
@@ -0,0 +1,654 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.filefilters;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidLongValueException;
+import de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable predicate on files, which can be combined with others to complex filters.
+ *
+ * <p>
+ * Predicates are created by the static factory methods, and combined with {@link #and(FilePredicate...)},
+ * {@link #or(FilePredicate...)} and {@link #not(FilePredicate)}. When combining them, the predicates checking the
+ * name only are moved in front of those requiring the attributes of a file, so the attributes are read only if the
+ * name does not decide already. The attributes are read at most once per file, regardless of how many predicates
+ * check them, and not at all if none does. Files that cannot be read, or that vanished, are never accepted, if their
+ * attributes are required.</p>
+ *
+ * <p>
+ * A {@code FilePredicate} can be used as a {@link FileFilter}, as a {@link DirectoryStream.Filter}, and as a
+ * {@link BiPredicate} on a file and its attributes, e.g. with the
+ * {@link de.dimensionv.java.libraries.common.utilities.file.DirectoryWalker}, which hands in the attributes it has
+ * read anyway. Being immutable, a {@code FilePredicate} is thread-safe.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public abstract class FilePredicate implements FileFilter, DirectoryStream.Filter<Path>,
+    BiPredicate<File, BasicFileAttributes> {
+
+  private static final String HIDDEN_PREFIX = ".";
+
+  // on Unix-like file systems, a file is hidden if its name starts with a dot, so no attributes are needed
+  private static final boolean NAME_HIDES = File.separatorChar == '/';
+
+  /**
+   * Cost of checking the name with a few comparisons.
+   */
+  private static final int COST_NAME = 0;
+  /**
+   * Cost of matching the name against a pattern.
+   */
+  private static final int COST_PATTERN = 1;
+  /**
+   * Cost of checking the attributes, which need to be read from the file system.
+   */
+  private static final int COST_ATTRIBUTES = 2;
+
+  private static final Comparator<FilePredicate> COST_COMPARATOR
+      = (predicateOne, predicateTwo) -> Integer.compare(predicateOne.cost, predicateTwo.cost);
+
+  private static final FilePredicate ALL = new FilePredicate(COST_NAME) {
+    @Override
+    boolean matches(Candidate candidate) {
+      return true;
+    }
+  };
+
+  private static final FilePredicate NONE = new FilePredicate(COST_NAME) {
+    @Override
+    boolean matches(Candidate candidate) {
+      return false;
+    }
+  };
+
+  private final int cost;
+
+  /**
+   * A file being checked, whose attributes are read on demand.
+   */
+  static final class Candidate {
+
+    final String name;
+    private final File file;
+    private Path path;
+    private BasicFileAttributes attributes;
+    private boolean missing = false;
+
+    Candidate(String name, File file, Path path, BasicFileAttributes attributes) {
+      this.name = name;
+      this.file = file;
+      this.path = path;
+      this.attributes = attributes;
+    }
+
+    /**
+     * Returns the attributes of the file, reading them if necessary.
+     *
+     * @return The attributes, or null if they cannot be read.
+     */
+    BasicFileAttributes getAttributes() {
+      if ((attributes == null) && !missing) {
+        try {
+          if (path == null) {
+            path = file.toPath();
+          }
+          attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+          missing = true;
+        }
+      }
+      return attributes;
+    }
+  }
+
+  /**
+   * Creates a new {@code FilePredicate}.
+   *
+   * @param cost The cost of evaluating the predicate.
+   */
+  FilePredicate(int cost) {
+    this.cost = cost;
+  }
+
+  /**
+   * Checks the given candidate.
+   *
+   * @param candidate The candidate.
+   * @return {@code true} if the candidate matches, {@code false} otherwise.
+   */
+  abstract boolean matches(Candidate candidate);
+
+  /**
+   * Returns whether evaluating this predicate may require the attributes of a file.
+   *
+   * @return {@code true} if the attributes may be required, {@code false} if the name is sufficient.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean requiresAttributes() {
+    return cost >= COST_ATTRIBUTES;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param file The {@code File} object to check.
+   * @return {@code true} if the file matches, {@code false} otherwise.
+   */
+  @Override
+  public boolean accept(File file) {
+    return evaluate(new Candidate(file.getName(), file, null, null));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param path The {@code Path} object to check.
+   * @return {@code true} if the path matches, {@code false} otherwise.
+   */
+  @Override
+  public boolean accept(Path path) {
+    Path fileName = path.getFileName();
+    return evaluate(new Candidate((fileName == null) ? "" : fileName.toString(), null, path, null));
+  }
+
+  /**
+   * Checks the given file, using the given attributes instead of reading them.
+   *
+   * @param file The {@code File} object to check.
+   * @param attributes The attributes of the file, or null if they should be read when required.
+   * @return {@code true} if the file matches, {@code false} otherwise.
+   */
+  @Override
+  public boolean test(File file, BasicFileAttributes attributes) {
+    return evaluate(new Candidate(file.getName(), file, null, attributes));
+  }
+
+  private boolean evaluate(Candidate candidate) {
+    return matches(candidate) && !candidate.missing;
+  }
+
+  /**
+   * Returns a predicate matching if both this and the given predicate match.
+   *
+   * @param other The other predicate.
+   * @return The combined predicate.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public FilePredicate and(FilePredicate other) {
+    return and(this, other);
+  }
+
+  /**
+   * Returns a predicate matching if this or the given predicate match.
+   *
+   * @param other The other predicate.
+   * @return The combined predicate.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public FilePredicate or(FilePredicate other) {
+    return or(this, other);
+  }
+
+  /**
+   * Returns a predicate matching if this predicate does not match.
+   *
+   * @return The negated predicate.
+   */
+  @Override
+  public FilePredicate negate() {
+    return not(this);
+  }
+
+  /**
+   * Returns a predicate matching all files.
+   *
+   * @return The predicate.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate all() {
+    return ALL;
+  }
+
+  /**
+   * Returns a predicate matching no file at all.
+   *
+   * @return The predicate.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate none() {
+    return NONE;
+  }
+
+  /**
+   * Returns a predicate matching if all the given predicates match. The predicates are evaluated in the order of their
+   * cost, cheap name checks first, and only until one does not match.
+   *
+   * @param predicates The predicates.
+   * @return The combined predicate.
+   * @throws NullPointerException if any of the predicates is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate and(FilePredicate... predicates) {
+    final FilePredicate[] operands = flatten(predicates, AndPredicate.class, ALL, NONE);
+    if (operands == null) {
+      return NONE;
+    }
+    return (operands.length == 0) ? ALL : (operands.length == 1) ? operands[0] : new AndPredicate(operands);
+  }
+
+  /**
+   * Returns a predicate matching if any of the given predicates matches. The predicates are evaluated in the order of
+   * their cost, cheap name checks first, and only until one matches.
+   *
+   * @param predicates The predicates.
+   * @return The combined predicate.
+   * @throws NullPointerException if any of the predicates is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate or(FilePredicate... predicates) {
+    final FilePredicate[] operands = flatten(predicates, OrPredicate.class, NONE, ALL);
+    if (operands == null) {
+      return ALL;
+    }
+    return (operands.length == 0) ? NONE : (operands.length == 1) ? operands[0] : new OrPredicate(operands);
+  }
+
+  /**
+   * Returns a predicate matching if the given predicate does not match.
+   *
+   * @param predicate The predicate to negate.
+   * @return The negated predicate.
+   * @throws NullPointerException if {@code predicate} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate not(FilePredicate predicate) {
+    if (predicate == null) {
+      throw new NullPointerException("predicate");
+    }
+    if (predicate == ALL) {
+      return NONE;
+    } else if (predicate == NONE) {
+      return ALL;
+    } else if (predicate instanceof NotPredicate) {
+      return ((NotPredicate) predicate).operand;
+    }
+    return new NotPredicate(predicate);
+  }
+
+  /**
+   * Returns a predicate matching regular files.
+   *
+   * @return The predicate.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate regularFile() {
+    return new FilePredicate(COST_ATTRIBUTES) {
+      @Override
+      boolean matches(Candidate candidate) {
+        BasicFileAttributes attributes = candidate.getAttributes();
+        return (attributes != null) && attributes.isRegularFile();
+      }
+    };
+  }
+
+  /**
+   * Returns a predicate matching directories.
+   *
+   * @return The predicate.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate directory() {
+    return new FilePredicate(COST_ATTRIBUTES) {
+      @Override
+      boolean matches(Candidate candidate) {
+        BasicFileAttributes attributes = candidate.getAttributes();
+        return (attributes != null) && attributes.isDirectory();
+      }
+    };
+  }
+
+  /**
+   * Returns a predicate matching hidden files, i.e. files whose name starts with a dot, and which the file system
+   * considers hidden.
+   *
+   * @return The predicate.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate hidden() {
+    return new FilePredicate(NAME_HIDES ? COST_NAME : COST_ATTRIBUTES) {
+      @Override
+      boolean matches(Candidate candidate) {
+        if (!candidate.name.startsWith(HIDDEN_PREFIX)) {
+          return false;
+        }
+        if (NAME_HIDES) {
+          return true;
+        }
+        BasicFileAttributes attributes = candidate.getAttributes();
+        return (attributes instanceof DosFileAttributes) && ((DosFileAttributes) attributes).isHidden();
+      }
+    };
+  }
+
+  /**
+   * Returns a predicate matching files with any of the given extensions, ignoring case. An extension may contain dots
+   * itself, like {@code "tar.gz"}, and may be given with or without the leading dot.
+   *
+   * @param extensions The extensions.
+   * @return The predicate.
+   * @throws NullPointerException if any of the extensions is null.
+   * @throws InvalidStringValueException if any of the extensions is empty.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate extension(String... extensions) {
+    return extension(new ExtensionSet(extensions));
+  }
+
+  /**
+   * Returns a predicate matching files with any of the extensions of the given set.
+   *
+   * @param extensions The set of extensions.
+   * @return The predicate.
+   * @throws NullPointerException if {@code extensions} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate extension(final ExtensionSet extensions) {
+    if (extensions == null) {
+      throw new NullPointerException("extensions");
+    }
+    return new FilePredicate(COST_NAME) {
+      @Override
+      boolean matches(Candidate candidate) {
+        return extensions.matches(candidate.name);
+      }
+    };
+  }
+
+  /**
+   * Returns a predicate matching files whose name matches the given glob pattern, as described in {@link Glob}.
+   *
+   * @param glob The glob pattern.
+   * @return The predicate.
+   * @throws NullPointerException if {@code glob} is null.
+   * @throws InvalidStringValueException if the pattern is malformed.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate glob(String glob) {
+    final Glob compiled = Glob.compile(glob);
+    return new FilePredicate(COST_PATTERN) {
+      @Override
+      boolean matches(Candidate candidate) {
+        return compiled.matches(candidate.name);
+      }
+    };
+  }
+
+  /**
+   * Returns a predicate matching files whose whole name matches the given regular expression.
+   *
+   * @param regex The regular expression.
+   * @return The predicate.
+   * @throws java.util.regex.PatternSyntaxException if the expression is invalid.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate nameMatches(String regex) {
+    return nameMatches(Pattern.compile(regex));
+  }
+
+  /**
+   * Returns a predicate matching files whose whole name matches the given pattern.
+   *
+   * @param pattern The pattern.
+   * @return The predicate.
+   * @throws NullPointerException if {@code pattern} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate nameMatches(final Pattern pattern) {
+    if (pattern == null) {
+      throw new NullPointerException("pattern");
+    }
+    return new FilePredicate(COST_PATTERN) {
+      @Override
+      boolean matches(Candidate candidate) {
+        return pattern.matcher(candidate.name).matches();
+      }
+    };
+  }
+
+  /**
+   * Returns a predicate matching files whose size is within the given range, both limits included.
+   *
+   * @param minimum The minimum size in bytes.
+   * @param maximum The maximum size in bytes.
+   * @return The predicate.
+   * @throws InvalidLongValueException if {@code maximum} is less than {@code minimum}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate sizeBetween(final long minimum, final long maximum) {
+    if (maximum < minimum) {
+      throw new InvalidLongValueException(maximum);
+    }
+    return new FilePredicate(COST_ATTRIBUTES) {
+      @Override
+      boolean matches(Candidate candidate) {
+        BasicFileAttributes attributes = candidate.getAttributes();
+        if (attributes == null) {
+          return false;
+        }
+        long size = attributes.size();
+        return (size >= minimum) && (size <= maximum);
+      }
+    };
+  }
+
+  /**
+   * Returns a predicate matching files last modified within the given range, both limits included.
+   *
+   * @param from The start of the range, in milliseconds since the epoch.
+   * @param to The end of the range, in milliseconds since the epoch.
+   * @return The predicate.
+   * @throws InvalidLongValueException if {@code to} is before {@code from}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static FilePredicate modifiedBetween(final long from, final long to) {
+    if (to < from) {
+      throw new InvalidLongValueException(to);
+    }
+    return new FilePredicate(COST_ATTRIBUTES) {
+      @Override
+      boolean matches(Candidate candidate) {
+        BasicFileAttributes attributes = candidate.getAttributes();
+        if (attributes == null) {
+          return false;
+        }
+        long modified = attributes.lastModifiedTime().toMillis();
+        return (modified >= from) && (modified <= to);
+      }
+    };
+  }
+
+  /**
+   * Flattens nested operations of the same kind, drops neutral operands, and sorts the operands by their cost.
+   *
+   * @param predicates The operands.
+   * @param type The type of the operation.
+   * @param neutral The operand not affecting the result.
+   * @param dominant The operand deciding the result.
+   * @return The operands, or null if the dominant operand is among them.
+   */
+  private static FilePredicate[] flatten(FilePredicate[] predicates, Class<? extends CompositePredicate> type,
+      FilePredicate neutral, FilePredicate dominant) {
+    List<FilePredicate> operands = new ArrayList<FilePredicate>(predicates.length);
+    for (FilePredicate predicate : predicates) {
+      if (predicate == null) {
+        throw new NullPointerException("predicate");
+      } else if (predicate == dominant) {
+        return null;
+      } else if (type.isInstance(predicate)) {
+        operands.addAll(Arrays.asList(((CompositePredicate) predicate).operands));
+      } else if (predicate != neutral) {
+        operands.add(predicate);
+      }
+    }
+    FilePredicate[] result = operands.toArray(new FilePredicate[operands.size()]);
+    // stable, so operands of equal cost keep the order given
+    Arrays.sort(result, COST_COMPARATOR);
+    return result;
+  }
+
+  private static int maximumCost(FilePredicate[] operands) {
+    int cost = COST_NAME;
+    for (FilePredicate operand : operands) {
+      cost = Math.max(cost, operand.cost);
+    }
+    return cost;
+  }
+
+  /**
+   * A predicate combining several others.
+   */
+  private abstract static class CompositePredicate extends FilePredicate {
+
+    final FilePredicate[] operands;
+
+    CompositePredicate(FilePredicate[] operands) {
+      super(maximumCost(operands));
+      this.operands = operands;
+    }
+  }
+
+  /**
+   * A predicate matching if all of its operands match.
+   */
+  private static final class AndPredicate extends CompositePredicate {
+
+    AndPredicate(FilePredicate[] operands) {
+      super(operands);
+    }
+
+    @Override
+    boolean matches(Candidate candidate) {
+      for (FilePredicate operand : operands) {
+        if (!operand.matches(candidate)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * A predicate matching if any of its operands matches.
+   */
+  private static final class OrPredicate extends CompositePredicate {
+
+    OrPredicate(FilePredicate[] operands) {
+      super(operands);
+    }
+
+    @Override
+    boolean matches(Candidate candidate) {
+      for (FilePredicate operand : operands) {
+        if (operand.matches(candidate)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A predicate matching if its operand does not match.
+   */
+  private static final class NotPredicate extends FilePredicate {
+
+    final FilePredicate operand;
+
+    NotPredicate(FilePredicate operand) {
+      super(operand.cost);
+      this.operand = operand;
+    }
+
+    @Override
+    boolean matches(Candidate candidate) {
+      return !operand.matches(candidate);
+    }
+  }
+}
@@ -0,0 +1,544 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.filefilters;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compiled glob pattern, matching file names or relative paths without regular expressions.
+ *
+ * <p>
+ * The following constructs are supported:</p>
+ * <ul>
+ * <li>{@code *} matches any number of characters, except the separator {@code /}.</li>
+ * <li>{@code **} matches any number of characters, including the separator {@code /}.</li>
+ * <li>{@code ?} matches exactly one character, except the separator.</li>
+ * <li>{@code [abc]}, {@code [a-z]} match one of the characters or ranges given, {@code [!a-z]} or {@code [^a-z]} one
+ * character not given. They never match the separator.</li>
+ * <li>{@code {a,b}} matches any of the comma-separated alternatives, which may contain all other constructs, including
+ * further alternatives.</li>
+ * <li>{@code \} escapes the following character, so it is matched literally.</li>
+ * </ul>
+ *
+ * <p>
+ * Alternatives are expanded when compiling, into branches without alternatives. Each branch is classified by its
+ * shape: a literal is compared as a whole, and a literal prefix and suffix around a single star are compared directly.
+ * Only the part of a branch between its literal prefix and suffix is matched by a small automaton, which keeps the
+ * set of its active states in a bit set, so a match takes linear time, and allocates nothing for patterns of less
+ * than 64 constructs.</p>
+ *
+ * <p>
+ * A {@code Glob} is immutable and thread-safe. To match a name against many patterns at once, use a
+ * {@link GlobSet}.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class Glob {
+
+  /**
+   * The maximum number of branches the alternatives of a pattern may expand to.
+   */
+  private static final int MAX_BRANCHES = 4096;
+
+  static final char SEPARATOR = '/';
+
+  static final int LITERAL = 0;
+  static final int ANY = 1;
+  static final int CLASS = 2;
+  static final int STAR = 3;
+  static final int DOUBLE_STAR = 4;
+
+  private final String pattern;
+  private final boolean ignoreCase;
+  final Branch[] branches;
+
+  /**
+   * A single construct of a pattern.
+   */
+  static final class Token {
+
+    final int kind;
+    final char character;
+    // pairs of inclusive bounds, for character classes
+    final char[] ranges;
+    final boolean negated;
+
+    Token(int kind, char character, char[] ranges, boolean negated) {
+      this.kind = kind;
+      this.character = character;
+      this.ranges = ranges;
+      this.negated = negated;
+    }
+
+    boolean isStar() {
+      return (kind == STAR) || (kind == DOUBLE_STAR);
+    }
+
+    /**
+     * Checks whether this token, if it is neither a star nor a literal, matches the given character.
+     */
+    boolean matches(char c, boolean ignoreCase) {
+      if (c == SEPARATOR) {
+        return false;
+      } else if (kind == ANY) {
+        return true;
+      }
+      boolean found = inRanges(c) || (ignoreCase && (inRanges(Character.toUpperCase(c))
+          || inRanges(Character.toLowerCase(c))));
+      return found != negated;
+    }
+
+    private boolean inRanges(char c) {
+      for (int i = 0; i < ranges.length; i += 2) {
+        if ((c >= ranges[i]) && (c <= ranges[i + 1])) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A pattern without alternatives, split into its literal prefix and suffix, and the constructs in between.
+   */
+  static final class Branch {
+
+    final String prefix;
+    final String suffix;
+    // the constructs between prefix and suffix, null if the branch is a literal
+    final Token[] tokens;
+    private final boolean ignoreCase;
+    private final int minimumLength;
+    private final long starMask;
+
+    Branch(List<Token> tokens, boolean ignoreCase) {
+      int start = 0;
+      int end = tokens.size();
+      while ((start < end) && (tokens.get(start).kind == LITERAL)) {
+        start++;
+      }
+      while ((end > start) && (tokens.get(end - 1).kind == LITERAL)) {
+        end--;
+      }
+      this.prefix = literal(tokens.subList(0, start));
+      this.suffix = literal(tokens.subList(end, tokens.size()));
+      this.tokens = (start == end) ? null : tokens.subList(start, end).toArray(new Token[end - start]);
+      this.ignoreCase = ignoreCase;
+
+      int length = prefix.length() + suffix.length();
+      long mask = 0;
+      if (this.tokens != null) {
+        for (int i = 0; i < this.tokens.length; i++) {
+          if (this.tokens[i].isStar()) {
+            mask |= (i < Long.SIZE) ? (1L << i) : 0;
+          } else {
+            length++;
+          }
+        }
+      }
+      this.minimumLength = length;
+      this.starMask = mask;
+    }
+
+    private static String literal(List<Token> tokens) {
+      StringBuilder builder = new StringBuilder(tokens.size());
+      for (Token token : tokens) {
+        builder.append(token.character);
+      }
+      return builder.toString();
+    }
+
+    /**
+     * Returns whether the branch is a literal prefix and suffix around a single star.
+     */
+    boolean isStarOnly() {
+      return (tokens != null) && (tokens.length == 1) && tokens[0].isStar();
+    }
+
+    boolean isDoubleStar() {
+      return tokens[0].kind == DOUBLE_STAR;
+    }
+
+    boolean matches(String name) {
+      int length = name.length();
+      if ((tokens == null) ? (length != minimumLength) : (length < minimumLength)) {
+        return false;
+      }
+      if (!name.regionMatches(ignoreCase, 0, prefix, 0, prefix.length())
+          || !name.regionMatches(ignoreCase, length - suffix.length(), suffix, 0, suffix.length())) {
+        return false;
+      }
+      if (tokens == null) {
+        return true;
+      }
+      int from = prefix.length();
+      int to = length - suffix.length();
+      if (isStarOnly()) {
+        return isDoubleStar() || (name.lastIndexOf(SEPARATOR, to - 1) < from);
+      }
+      return (tokens.length < Long.SIZE) ? matchSmall(name, from, to) : matchLarge(name, from, to);
+    }
+
+    /**
+     * Runs the automaton over the given region, with the states kept in a single long.
+     */
+    private boolean matchSmall(String name, int from, int to) {
+      long active = closure(1L);
+      for (int i = from; (i < to) && (active != 0); i++) {
+        char c = name.charAt(i);
+        long next = 0;
+        for (long bits = active; bits != 0; bits &= bits - 1) {
+          int state = Long.numberOfTrailingZeros(bits);
+          if (state < tokens.length) {
+            next |= step(tokens[state], c) ? (1L << (state + 1)) : 0;
+            next |= stay(tokens[state], c) ? (1L << state) : 0;
+          }
+        }
+        active = closure(next);
+      }
+      return (active & (1L << tokens.length)) != 0;
+    }
+
+    private long closure(long active) {
+      long result = active;
+      long previous;
+      do {
+        previous = result;
+        // a star may match nothing, so the state following it is active as well
+        result |= (result & starMask) << 1;
+      } while (result != previous);
+      return result;
+    }
+
+    /**
+     * Runs the automaton over the given region, with the states kept in a bit set of any size.
+     */
+    private boolean matchLarge(String name, int from, int to) {
+      boolean[] active = new boolean[tokens.length + 1];
+      boolean[] next = new boolean[tokens.length + 1];
+      active[0] = true;
+      closure(active);
+      for (int i = from; i < to; i++) {
+        char c = name.charAt(i);
+        boolean any = false;
+        Arrays.fill(next, false);
+        for (int state = 0; state < tokens.length; state++) {
+          if (active[state]) {
+            if (step(tokens[state], c)) {
+              next[state + 1] = true;
+              any = true;
+            }
+            if (stay(tokens[state], c)) {
+              next[state] = true;
+              any = true;
+            }
+          }
+        }
+        if (!any) {
+          return false;
+        }
+        boolean[] swap = active;
+        active = next;
+        next = swap;
+        closure(active);
+      }
+      return active[tokens.length];
+    }
+
+    private void closure(boolean[] active) {
+      for (int state = 0; state < tokens.length; state++) {
+        if (active[state] && tokens[state].isStar()) {
+          active[state + 1] = true;
+        }
+      }
+    }
+
+    /**
+     * Checks whether the given token consumes the character and advances.
+     */
+    private boolean step(Token token, char c) {
+      switch (token.kind) {
+        case LITERAL:
+          return (token.character == c) || (ignoreCase && equalsIgnoreCase(token.character, c));
+        case STAR:
+        case DOUBLE_STAR:
+          return false;
+        default:
+          return token.matches(c, ignoreCase);
+      }
+    }
+
+    /**
+     * Checks whether the given token consumes the character and stays, which only stars do.
+     */
+    private static boolean stay(Token token, char c) {
+      return (token.kind == DOUBLE_STAR) || ((token.kind == STAR) && (c != SEPARATOR));
+    }
+  }
+
+  /**
+   * Creates a new {@code Glob}.
+   *
+   * @param pattern The pattern.
+   * @param ignoreCase Flag whether to ignore case when matching.
+   */
+  private Glob(String pattern, boolean ignoreCase) {
+    this.pattern = pattern;
+    this.ignoreCase = ignoreCase;
+    Parser parser = new Parser(pattern);
+    List<List<Token>> expansions = parser.parseSequence(false);
+    if (parser.position < pattern.length()) {
+      throw new InvalidStringValueException(pattern);
+    }
+    branches = new Branch[expansions.size()];
+    for (int i = 0; i < branches.length; i++) {
+      branches[i] = new Branch(expansions.get(i), ignoreCase);
+    }
+  }
+
+  /**
+   * Compiles the given glob pattern, matching case-sensitively.
+   *
+   * @param pattern The pattern.
+   * @return The compiled pattern.
+   * @throws NullPointerException if {@code pattern} is null.
+   * @throws InvalidStringValueException if the pattern is malformed, e.g. has an unclosed bracket or brace.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static Glob compile(String pattern) {
+    return compile(pattern, false);
+  }
+
+  /**
+   * Compiles the given glob pattern.
+   *
+   * @param pattern The pattern.
+   * @param ignoreCase Flag whether to ignore case when matching.
+   * @return The compiled pattern.
+   * @throws NullPointerException if {@code pattern} is null.
+   * @throws InvalidStringValueException if the pattern is malformed, e.g. has an unclosed bracket or brace, or expands
+   * to too many alternatives.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static Glob compile(String pattern, boolean ignoreCase) {
+    if (pattern == null) {
+      throw new NullPointerException("pattern");
+    }
+    return new Glob(pattern, ignoreCase);
+  }
+
+  /**
+   * Checks whether the given name matches this pattern as a whole.
+   *
+   * @param name The file name, or relative path with {@code /} as separator.
+   * @return {@code true} if the name matches, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean matches(String name) {
+    for (Branch branch : branches) {
+      if (branch.matches(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the pattern this glob was compiled from.
+   *
+   * @return The pattern.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public String getPattern() {
+    return pattern;
+  }
+
+  /**
+   * Returns whether case is ignored when matching.
+   *
+   * @return {@code true} if case is ignored, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean isIgnoreCase() {
+    return ignoreCase;
+  }
+
+  @Override
+  public String toString() {
+    return pattern;
+  }
+
+  static boolean equalsIgnoreCase(char charOne, char charTwo) {
+    char upperOne = Character.toUpperCase(charOne);
+    char upperTwo = Character.toUpperCase(charTwo);
+    return (upperOne == upperTwo) || (Character.toLowerCase(upperOne) == Character.toLowerCase(upperTwo));
+  }
+
+  /**
+   * A recursive descent parser, expanding alternatives into separate token lists.
+   */
+  private static final class Parser {
+
+    private final String pattern;
+    int position = 0;
+
+    Parser(String pattern) {
+      this.pattern = pattern;
+    }
+
+    /**
+     * Parses a sequence, up to its end, or up to the next comma or closing brace within alternatives.
+     */
+    List<List<Token>> parseSequence(boolean inAlternatives) {
+      List<List<Token>> expansions = new ArrayList<List<Token>>();
+      expansions.add(new ArrayList<Token>());
+      while (position < pattern.length()) {
+        char c = pattern.charAt(position);
+        if (inAlternatives && ((c == ',') || (c == '}'))) {
+          break;
+        }
+        position++;
+        switch (c) {
+          case '*':
+            if ((position < pattern.length()) && (pattern.charAt(position) == '*')) {
+              while ((position < pattern.length()) && (pattern.charAt(position) == '*')) {
+                position++;
+              }
+              append(expansions, new Token(DOUBLE_STAR, c, null, false));
+            } else {
+              append(expansions, new Token(STAR, c, null, false));
+            }
+            break;
+          case '?':
+            append(expansions, new Token(ANY, c, null, false));
+            break;
+          case '[':
+            append(expansions, parseClass());
+            break;
+          case '{':
+            expansions = combine(expansions, parseAlternatives());
+            break;
+          case '\\':
+            append(expansions, new Token(LITERAL, next(), null, false));
+            break;
+          default:
+            append(expansions, new Token(LITERAL, c, null, false));
+        }
+      }
+      return expansions;
+    }
+
+    private List<List<Token>> parseAlternatives() {
+      List<List<Token>> alternatives = new ArrayList<List<Token>>();
+      while (true) {
+        alternatives.addAll(parseSequence(true));
+        char c = next();
+        if (c == '}') {
+          return alternatives;
+        }
+      }
+    }
+
+    private Token parseClass() {
+      boolean negated = false;
+      if ((position < pattern.length()) && ((pattern.charAt(position) == '!') || (pattern.charAt(position) == '^'))) {
+        negated = true;
+        position++;
+      }
+      StringBuilder ranges = new StringBuilder();
+      boolean first = true;
+      while (true) {
+        char c = next();
+        if ((c == ']') && !first) {
+          break;
+        }
+        first = false;
+        if (c == '\\') {
+          c = next();
+        }
+        char upper = c;
+        if ((position + 1 < pattern.length()) && (pattern.charAt(position) == '-')
+            && (pattern.charAt(position + 1) != ']')) {
+          position++;
+          upper = next();
+          if (upper == '\\') {
+            upper = next();
+          }
+          if (upper < c) {
+            throw new InvalidStringValueException(pattern);
+          }
+        }
+        ranges.append(c).append(upper);
+      }
+      return new Token(CLASS, '[', ranges.toString().toCharArray(), negated);
+    }
+
+    private char next() {
+      if (position >= pattern.length()) {
+        throw new InvalidStringValueException(pattern);
+      }
+      return pattern.charAt(position++);
+    }
+
+    private static void append(List<List<Token>> expansions, Token token) {
+      for (List<Token> expansion : expansions) {
+        expansion.add(token);
+      }
+    }
+
+    private List<List<Token>> combine(List<List<Token>> heads, List<List<Token>> tails) {
+      if ((long) heads.size() * tails.size() > MAX_BRANCHES) {
+        throw new InvalidStringValueException(pattern);
+      }
+      List<List<Token>> result = new ArrayList<List<Token>>(heads.size() * tails.size());
+      for (List<Token> head : heads) {
+        for (List<Token> tail : tails) {
+          List<Token> combined = new ArrayList<Token>(head.size() + tail.size());
+          combined.addAll(head);
+          combined.addAll(tail);
+          result.add(combined);
+        }
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.filefilters;
+
+import java.io.File;
+
+/**
+ * A FileFilter that allows files and directories whose name matches any of a set of glob patterns.
+ * <p>
+ * The name is checked first, as it does not require to ask the file system. Depending on how it's initialized, it can
+ * also show hidden files and directories. The default behavior is to not show hidden ones.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class GlobFileFilter extends AbstractFileFilter {
+
+  private final GlobSet globs;
+
+  /**
+   * Creates a new {@code GlobFileFilter} object for the given patterns, matching case-sensitively, with the default
+   * behavior, meaning hidden files will not be shown.
+   *
+   * @param patterns The glob patterns.
+   * @throws NullPointerException if any of the patterns is null.
+   * @throws de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException if any of the patterns is
+   * malformed.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public GlobFileFilter(String... patterns) {
+    this(false, new GlobSet(patterns));
+  }
+
+  /**
+   * Creates a new {@code GlobFileFilter} object for the given set of patterns, with the behavior regarding hidden files
+   * defined by the parameter {@code showHidden}.
+   *
+   * @param showHidden Defines whether to show hidden files or not.
+   * @param globs The set of glob patterns.
+   * @throws NullPointerException if {@code globs} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public GlobFileFilter(boolean showHidden, GlobSet globs) {
+    super(showHidden);
+    if (globs == null) {
+      throw new NullPointerException("globs");
+    }
+    this.globs = globs;
+  }
+
+  /**
+   * Returns the set of glob patterns the names are matched against.
+   *
+   * @return The set of glob patterns.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public GlobSet getGlobs() {
+    return globs;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param file The {@code File} object to check
+   * @return {@literal true} if the name of the file matches any of the patterns, {@literal false} otherwise.
+   */
+  @Override
+  public boolean accept(File file) {
+    if (!globs.matches(file.getName())) {
+      return false;
+    }
+    return showHidden || isFileHidden(file);
+  }
+}
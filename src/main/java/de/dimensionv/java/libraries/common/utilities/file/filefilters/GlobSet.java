@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.filefilters;
+
+import de.dimensionv.java.libraries.common.utilities.file.filefilters.Glob.Branch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A set of glob patterns, as supported by {@link Glob}, checking a name against all of them at once.
+ *
+ * <p>
+ * The patterns are split into their branches, which are sorted by shape: literals, and literal prefixes followed by a
+ * star (like {@code README*}) are stored in a trie, which is walked forwards along the name once. Literal suffixes
+ * preceded by a star (like {@code *.txt}) are stored in a second trie, which is walked backwards along the name once.
+ * So checking a name against hundreds of such patterns costs about as much as checking it against a single one. Only
+ * the branches of other shapes are checked one after another.</p>
+ *
+ * <p>
+ * A {@code GlobSet} is immutable and thread-safe.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class GlobSet {
+
+  private static final int EXACT = 1;
+  private static final int STAR = 2;
+  private static final int DOUBLE_STAR = 4;
+
+  private final List<String> patterns;
+  private final boolean ignoreCase;
+  private final Node prefixes = new Node();
+  private final Node suffixes = new Node();
+  private final Branch[] others;
+
+  /**
+   * A node of a trie, with its children sorted by their character.
+   */
+  private static final class Node {
+
+    private char[] keys = new char[0];
+    private Node[] children = new Node[0];
+    int flags = 0;
+
+    Node child(char key) {
+      int index = Arrays.binarySearch(keys, key);
+      return (index < 0) ? null : children[index];
+    }
+
+    Node addChild(char key) {
+      int index = Arrays.binarySearch(keys, key);
+      if (index >= 0) {
+        return children[index];
+      }
+      index = -index - 1;
+      char[] newKeys = new char[keys.length + 1];
+      Node[] newChildren = new Node[keys.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, index);
+      System.arraycopy(children, 0, newChildren, 0, index);
+      System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+      System.arraycopy(children, index, newChildren, index + 1, keys.length - index);
+      newKeys[index] = key;
+      newChildren[index] = new Node();
+      keys = newKeys;
+      children = newChildren;
+      return newChildren[index];
+    }
+  }
+
+  /**
+   * Creates a new {@code GlobSet} of the given patterns, matching case-sensitively.
+   *
+   * @param patterns The patterns.
+   * @throws NullPointerException if any of the patterns is null.
+   * @throws de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException if any of the patterns is
+   * malformed.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public GlobSet(String... patterns) {
+    this(false, patterns);
+  }
+
+  /**
+   * Creates a new {@code GlobSet} of the given patterns.
+   *
+   * @param ignoreCase Flag whether to ignore case when matching.
+   * @param patterns The patterns.
+   * @throws NullPointerException if any of the patterns is null.
+   * @throws de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException if any of the patterns is
+   * malformed.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public GlobSet(boolean ignoreCase, String... patterns) {
+    this.ignoreCase = ignoreCase;
+    this.patterns = Collections.unmodifiableList(new ArrayList<String>(Arrays.asList(patterns)));
+    List<Branch> remaining = new ArrayList<Branch>();
+    for (String pattern : patterns) {
+      for (Branch branch : Glob.compile(pattern, ignoreCase).branches) {
+        if (branch.tokens == null) {
+          addForwards(branch.prefix).flags |= EXACT;
+        } else if (branch.isStarOnly() && branch.suffix.isEmpty()) {
+          addForwards(branch.prefix).flags |= branch.isDoubleStar() ? DOUBLE_STAR : STAR;
+        } else if (branch.isStarOnly() && branch.prefix.isEmpty()) {
+          addBackwards(branch.suffix).flags |= branch.isDoubleStar() ? DOUBLE_STAR : STAR;
+        } else {
+          remaining.add(branch);
+        }
+      }
+    }
+    others = remaining.toArray(new Branch[remaining.size()]);
+  }
+
+  private Node addForwards(String literal) {
+    Node node = prefixes;
+    for (int i = 0; i < literal.length(); i++) {
+      node = node.addChild(key(literal.charAt(i)));
+    }
+    return node;
+  }
+
+  private Node addBackwards(String literal) {
+    Node node = suffixes;
+    for (int i = literal.length() - 1; i >= 0; i--) {
+      node = node.addChild(key(literal.charAt(i)));
+    }
+    return node;
+  }
+
+  private char key(char c) {
+    return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+  }
+
+  /**
+   * Checks whether the given name matches any of the patterns as a whole.
+   *
+   * @param name The file name, or relative path with {@code /} as separator.
+   * @return {@code true} if the name matches, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean matches(String name) {
+    int length = name.length();
+
+    // literals and prefixes: the rest of the name is matched by the star, if any
+    int lastSeparator = name.lastIndexOf(Glob.SEPARATOR);
+    Node node = prefixes;
+    int index = 0;
+    while (node != null) {
+      int flags = node.flags;
+      if ((flags != 0) && (((flags & DOUBLE_STAR) != 0) || (((flags & STAR) != 0) && (lastSeparator < index))
+          || (((flags & EXACT) != 0) && (index == length)))) {
+        return true;
+      }
+      node = (index < length) ? node.child(key(name.charAt(index++))) : null;
+    }
+
+    // suffixes: the start of the name is matched by the star
+    int firstSeparator = name.indexOf(Glob.SEPARATOR);
+    node = suffixes;
+    index = length;
+    while (node != null) {
+      int flags = node.flags;
+      if ((flags != 0) && (((flags & DOUBLE_STAR) != 0)
+          || (((flags & STAR) != 0) && ((firstSeparator < 0) || (firstSeparator >= index))))) {
+        return true;
+      }
+      node = (index > 0) ? node.child(key(name.charAt(--index))) : null;
+    }
+
+    for (Branch branch : others) {
+      if (branch.matches(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the patterns of this set.
+   *
+   * @return Unmodifiable list of the patterns.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public List<String> getPatterns() {
+    return patterns;
+  }
+
+  /**
+   * Returns whether case is ignored when matching.
+   *
+   * @return {@code true} if case is ignored, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean isIgnoreCase() {
+    return ignoreCase;
+  }
+
+  @Override
+  public String toString() {
+    return patterns.toString();
+  }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.text.CollationElementIterator;
+import java.text.Collator;
+import java.text.RuleBasedCollator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * The collation elements of all ASCII characters for a {@link RuleBasedCollator}, pre-computed once, so that pure
+ * ASCII text can be compared without going through the (synchronized) collator and its
+ * {@link CollationElementIterator}s.</p>
+ *
+ * <p>
+ * The comparison follows the same algorithm as {@link RuleBasedCollator#compare(java.lang.String, java.lang.String)},
+ * and therefore yields the same results. A table can only be created if each ASCII character maps to exactly one
+ * collation element, and no two ASCII characters form a contraction (like "ch" in traditional Spanish). Otherwise,
+ * {@link #create(java.text.Collator)} returns {@code null}, and the collator has to be used directly.</p>
+ *
+ * <p>
+ * Space characters are skipped in the text to be compared, just like the {@link NaturalSortComparator} ignores
+ * them.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+final class AsciiCollationTable {
+
+  private static final int ASCII_LIMIT = 0x80;
+  private static final int NULLORDER = CollationElementIterator.NULLORDER;
+
+  /**
+   * Characters the probe strings are built of: letters in both cases and some punctuation, which usually has an
+   * ignorable primary order. These suffice to tell apart the normal and the french secondary ordering.
+   */
+  private static final String PROBE_CHARACTERS = "aA-";
+  private static final int PROBE_LENGTH = 3;
+
+  private final int[] orders;
+  private final boolean checkSecondary;
+  private final boolean checkTertiary;
+  private final boolean identical;
+  private final boolean frenchSecondary;
+
+  /**
+   * A position within the text to be compared.
+   */
+  private static final class Cursor {
+
+    final CharSequence text;
+    final int end;
+    int index;
+
+    /**
+     * Creates a new {@code Cursor} for the range {@code [start, end)} of the given {@code text}.
+     *
+     * @param text The text to be compared.
+     * @param start The index of the first character to be compared.
+     * @param end The index after the last character to be compared.
+     */
+    Cursor(CharSequence text, int start, int end) {
+      this.text = text;
+      this.index = start;
+      this.end = end;
+    }
+
+    /**
+     * Returns the next character, skipping space characters.
+     *
+     * @return the next character, or {@literal 0} at the end of the range.
+     */
+    char nextCharacter() {
+      while (index < end) {
+        char character = text.charAt(index++);
+        if (!Character.isSpaceChar(character)) {
+          return character;
+        }
+      }
+      return 0;
+    }
+  }
+
+  /**
+   * Creates a new {@code AsciiCollationTable}.
+   *
+   * @param orders The collation elements of all ASCII characters.
+   * @param strength The strength of the collator.
+   * @param frenchSecondary {@code true} if secondary differences are ordered backwards, like in french.
+   */
+  private AsciiCollationTable(int[] orders, int strength, boolean frenchSecondary) {
+    this.orders = orders;
+    this.checkSecondary = (strength >= Collator.SECONDARY);
+    this.checkTertiary = (strength >= Collator.TERTIARY);
+    this.identical = (strength == Collator.IDENTICAL);
+    this.frenchSecondary = frenchSecondary;
+  }
+
+  /**
+   * Creates the {@code AsciiCollationTable} for the given {@code collator}.
+   *
+   * <p>
+   * The collator must not be modified afterwards, because the table reflects its strength at the time of
+   * creation.</p>
+   *
+   * @param collator The collator to create the table for.
+   * @return The table, or {@code null} if ASCII text cannot be compared by means of a table for this collator.
+   */
+  static AsciiCollationTable create(Collator collator) {
+    if (!(collator instanceof RuleBasedCollator)) {
+      return null;
+    }
+    RuleBasedCollator ruleBasedCollator = (RuleBasedCollator) collator;
+
+    // the iterator already masks the orders according to the strength of the collator
+    int[] orders = new int[ASCII_LIMIT];
+    CollationElementIterator iterator = ruleBasedCollator.getCollationElementIterator("");
+    for (char character = 1; character < ASCII_LIMIT; character++) {
+      iterator.setText(String.valueOf(character));
+      orders[character] = iterator.next();
+      if ((orders[character] == NULLORDER) || (iterator.next() != NULLORDER)) {
+        return null; // not exactly one collation element
+      }
+    }
+
+    char[] pair = new char[2];
+    for (pair[0] = 1; pair[0] < ASCII_LIMIT; pair[0]++) {
+      for (pair[1] = 1; pair[1] < ASCII_LIMIT; pair[1]++) {
+        iterator.setText(new String(pair));
+        if ((iterator.next() != orders[pair[0]])
+            || (iterator.next() != orders[pair[1]])
+            || (iterator.next() != NULLORDER)) {
+          return null; // a contraction
+        }
+      }
+    }
+
+    // whether the collator orders secondary differences backwards cannot be queried, so probe for it
+    int strength = collator.getStrength();
+    AsciiCollationTable normal = new AsciiCollationTable(orders, strength, false);
+    AsciiCollationTable french = new AsciiCollationTable(orders, strength, true);
+    boolean normalMatches = true;
+    boolean frenchMatches = true;
+
+    List<String> probes = createProbes();
+    for (String probeOne : probes) {
+      for (String probeTwo : probes) {
+        int expected = Integer.signum(collator.compare(probeOne, probeTwo));
+        normalMatches &= (normal.compare(probeOne, 0, probeOne.length(), probeTwo, 0, probeTwo.length()) == expected);
+        frenchMatches &= (french.compare(probeOne, 0, probeOne.length(), probeTwo, 0, probeTwo.length()) == expected);
+      }
+    }
+
+    if (normalMatches) {
+      return normal;
+    }
+    return frenchMatches ? french : null;
+  }
+
+  /**
+   * Creates all strings of up to {@link #PROBE_LENGTH} characters from the {@link #PROBE_CHARACTERS}.
+   *
+   * @return The probe strings.
+   */
+  private static List<String> createProbes() {
+    List<String> probes = new ArrayList<>();
+    probes.add("");
+
+    int start = 0;
+    for (int length = 1; length <= PROBE_LENGTH; length++) {
+      int end = probes.size();
+      for (int i = start; i < end; i++) {
+        for (int j = 0; j < PROBE_CHARACTERS.length(); j++) {
+          probes.add(probes.get(i) + PROBE_CHARACTERS.charAt(j));
+        }
+      }
+      start = end;
+    }
+    return probes;
+  }
+
+  /**
+   * Checks whether the given range of {@code text} consists of ASCII characters only.
+   *
+   * @param text The text to check.
+   * @param start The index of the first character to check.
+   * @param end The index after the last character to check.
+   * @return {@code true} if all characters are ASCII characters, {@code false} otherwise.
+   */
+  static boolean isAscii(CharSequence text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (text.charAt(i) >= ASCII_LIMIT) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compares two ranges of ASCII text, skipping space characters.
+   *
+   * @param textOne The first text.
+   * @param startOne The index of the first character of the first text.
+   * @param endOne The index after the last character of the first text.
+   * @param textTwo The second text.
+   * @param startTwo The index of the first character of the second text.
+   * @param endTwo The index after the last character of the second text.
+   * @return -1, 0, or 1 as the first text is less than, equal to, or greater than the second.
+   */
+  int compare(CharSequence textOne, int startOne, int endOne, CharSequence textTwo, int startTwo, int endTwo) {
+    Cursor one = new Cursor(textOne, startOne, endOne);
+    Cursor two = new Cursor(textTwo, startTwo, endTwo);
+
+    int result = 0;
+    boolean secondary = checkSecondary;
+    boolean tertiary = checkTertiary;
+
+    int orderOne = 0;
+    int orderTwo = 0;
+    boolean nextOne = true;
+    boolean nextTwo = true;
+
+    while (true) {
+      if (nextOne) {
+        orderOne = nextOrder(one);
+      } else {
+        nextOne = true;
+      }
+      if (nextTwo) {
+        orderTwo = nextOrder(two);
+      } else {
+        nextTwo = true;
+      }
+
+      if ((orderOne == NULLORDER) || (orderTwo == NULLORDER)) {
+        break;
+      }
+
+      int primaryOne = CollationElementIterator.primaryOrder(orderOne);
+      int primaryTwo = CollationElementIterator.primaryOrder(orderTwo);
+
+      if (orderOne == orderTwo) {
+        if (frenchSecondary && (primaryOne != 0) && !secondary) {
+          // a secondary difference further to the right is stronger, but tertiary differences remain irrelevant
+          secondary = checkSecondary;
+          tertiary = false;
+        }
+      } else if (primaryOne != primaryTwo) {
+        if (orderOne == 0) {
+          nextTwo = false; // completely ignorable
+        } else if (orderTwo == 0) {
+          nextOne = false;
+        } else if (primaryOne == 0) {
+          // an ignorable primary order counts as a secondary difference
+          if (secondary) {
+            result = 1;
+            secondary = false;
+          }
+          nextTwo = false;
+        } else if (primaryTwo == 0) {
+          if (secondary) {
+            result = -1;
+            secondary = false;
+          }
+          nextOne = false;
+        } else {
+          return (primaryOne < primaryTwo) ? -1 : 1;
+        }
+      } else if (secondary) {
+        short secondaryOne = CollationElementIterator.secondaryOrder(orderOne);
+        short secondaryTwo = CollationElementIterator.secondaryOrder(orderTwo);
+        if (secondaryOne != secondaryTwo) {
+          result = (secondaryOne < secondaryTwo) ? -1 : 1;
+          secondary = false;
+        } else if (tertiary) {
+          short tertiaryOne = CollationElementIterator.tertiaryOrder(orderOne);
+          short tertiaryTwo = CollationElementIterator.tertiaryOrder(orderTwo);
+          if (tertiaryOne != tertiaryTwo) {
+            result = (tertiaryOne < tertiaryTwo) ? -1 : 1;
+            tertiary = false;
+          }
+        }
+      }
+    }
+
+    // additional elements in one of the texts: base characters decide, secondary ones only count if still relevant
+    int remainder = (orderOne != NULLORDER) ? 1 : -1;
+    int order = (orderOne != NULLORDER) ? orderOne : orderTwo;
+    Cursor cursor = (orderOne != NULLORDER) ? one : two;
+    while (order != NULLORDER) {
+      if (CollationElementIterator.primaryOrder(order) != 0) {
+        return remainder;
+      } else if (secondary && (CollationElementIterator.secondaryOrder(order) != 0)) {
+        result = remainder;
+        secondary = false;
+      }
+      order = nextOrder(cursor);
+    }
+
+    if ((result == 0) && identical) {
+      result = compareCharacters(new Cursor(textOne, startOne, endOne), new Cursor(textTwo, startTwo, endTwo));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the collation element of the next character of the given {@code cursor}.
+   *
+   * @param cursor The cursor to read from.
+   * @return The collation element, or {@link CollationElementIterator#NULLORDER} at the end of the text.
+   */
+  private int nextOrder(Cursor cursor) {
+    char character = cursor.nextCharacter();
+    return (character != 0) ? orders[character] : NULLORDER;
+  }
+
+  /**
+   * Compares the characters of two texts by their values, which is what an identical-strength collator falls back to
+   * for (already normalized) ASCII text.
+   *
+   * @param one The first text.
+   * @param two The second text.
+   * @return -1, 0, or 1 as the first text is less than, equal to, or greater than the second.
+   */
+  private static int compareCharacters(Cursor one, Cursor two) {
+    char characterOne;
+    char characterTwo;
+    do {
+      characterOne = one.nextCharacter();
+      characterTwo = two.nextCharacter();
+      if (characterOne != characterTwo) {
+        return (characterOne < characterTwo) ? -1 : 1;
+      }
+    } while (characterOne != 0);
+    return 0;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * An element of an array, decorated with the key it is sorted by, so the key is computed only once per element for
+ * the duration of a sort, instead of once per comparison.</p>
+ *
+ * @param <K> The type of the keys.
+ * @param <T> The type of the elements.
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+final class DecoratedElement<K, T> {
+
+  final K key;
+  final T element;
+
+  /**
+   * Creates a new {@code DecoratedElement}.
+   *
+   * @param key The key of the {@code element}.
+   * @param element The element itself.
+   */
+  DecoratedElement(K key, T element) {
+    this.key = key;
+    this.element = element;
+  }
+
+  /**
+   * Sorts the given array by the keys of its elements, computing the key of each element only once. The sort is
+   * stable.
+   *
+   * @param <K> The type of the keys.
+   * @param <T> The type of the elements.
+   * @param array The array to be sorted.
+   * @param decorator The function computing the key of an element.
+   * @param comparator The comparator of the keys.
+   */
+  static <K, T> void sort(T[] array, Function<? super T, ? extends K> decorator, Comparator<? super K> comparator) {
+    @SuppressWarnings("unchecked")
+    DecoratedElement<K, T>[] elements = (DecoratedElement<K, T>[]) new DecoratedElement<?, ?>[array.length];
+    for (int i = 0; i < array.length; i++) {
+      elements[i] = new DecoratedElement<K, T>(decorator.apply(array[i]), array[i]);
+    }
+
+    Arrays.sort(elements, (elementOne, elementTwo) -> comparator.compare(elementOne.key, elementTwo.key));
+
+    for (int i = 0; i < elements.length; i++) {
+      array[i] = elements[i].element;
+    }
+  }
+}
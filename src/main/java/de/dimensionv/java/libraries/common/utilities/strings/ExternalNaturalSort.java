@@ -0,0 +1,577 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.exceptions.InvalidLongValueException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * Sorts the lines of text files in natural order, even if they are too large to fit into memory.</p>
+ *
+ * <p>
+ * The input is read in chunks that fit into half of the memory limit. Each chunk is sorted with
+ * {@link NaturalSort#parallelSort(java.lang.Object[])} and written to a temporary file (a "run") on the common
+ * {@link ForkJoinPool}, while the next chunk is read. Finally, the runs are merged with a heap of their current lines,
+ * comparing pre-computed {@link NaturalSortKey}s. If there are more runs than the merge factor, groups of runs are
+ * merged into larger runs first. If the whole input fits into a single chunk, it is sorted in memory and no temporary
+ * files are written at all.</p>
+ *
+ * <p>
+ * The memory needed is about the memory limit while reading the input, and the merge factor times the buffer size
+ * (times two, as characters take two bytes) while merging. The sort is stable: lines that are equal in natural order
+ * keep their order of the input. Each line of the output is terminated by the platform's line separator.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class ExternalNaturalSort {
+
+  /**
+   * The default memory limit, 64 MiB.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static final long DEFAULT_MEMORY_LIMIT = 64L << 20;
+
+  /**
+   * The default size of the buffers for reading and writing files, 64 Ki characters.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * The default number of runs merged at once.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static final int DEFAULT_MERGE_FACTOR = 64;
+
+  /**
+   * The estimated memory needed for a line besides its characters: the {@code String} and its array, the natural sort
+   * key with its array, and the references to them while sorting.
+   */
+  private static final int LINE_OVERHEAD = 128;
+
+  /**
+   * The estimated memory needed per character of a line: two bytes in the {@code String}, and about one in its key.
+   */
+  private static final int BYTES_PER_CHARACTER = 3;
+
+  private static final String TEMPORARY_FILE_PREFIX = "natural-sort-";
+  private static final String TEMPORARY_FILE_SUFFIX = ".run";
+
+  private long memoryLimit = DEFAULT_MEMORY_LIMIT;
+  private int bufferSize = DEFAULT_BUFFER_SIZE;
+  private int mergeFactor = DEFAULT_MERGE_FACTOR;
+  private Charset charset = StandardCharsets.UTF_8;
+  private Path temporaryDirectory = null;
+
+  /**
+   * Reads the input in chunks of lines, looking ahead one line to detect the end of the input.
+   */
+  private static final class ChunkReader {
+
+    final BufferedReader reader;
+    String nextLine;
+
+    /**
+     * Creates a new {@code ChunkReader}.
+     *
+     * @param reader The reader to read the lines from.
+     * @throws IOException if reading the first line fails.
+     */
+    ChunkReader(BufferedReader reader) throws IOException {
+      this.reader = reader;
+      this.nextLine = reader.readLine();
+    }
+
+    /**
+     * Checks whether there are more lines to read.
+     *
+     * @return {@code true} if there are more lines, {@code false} otherwise.
+     */
+    boolean hasNext() {
+      return nextLine != null;
+    }
+
+    /**
+     * Reads lines until their estimated memory exceeds the given limit, or the input ends. At least one line is read,
+     * if there is one.
+     *
+     * @param limit The memory limit for the chunk in bytes.
+     * @return The lines of the chunk.
+     * @throws IOException if reading fails.
+     */
+    String[] read(long limit) throws IOException {
+      List<String> lines = new ArrayList<String>();
+      long size = 0;
+      while ((nextLine != null) && ((size < limit) || lines.isEmpty())) {
+        lines.add(nextLine);
+        size += LINE_OVERHEAD + ((long) BYTES_PER_CHARACTER * nextLine.length());
+        nextLine = reader.readLine();
+      }
+      return lines.toArray(new String[lines.size()]);
+    }
+  }
+
+  /**
+   * The reader of a run during merging, holding the current line and its key.
+   */
+  private static final class RunReader implements Comparable<RunReader> {
+
+    final BufferedReader reader;
+    final int index;
+    String line;
+    byte[] key;
+
+    /**
+     * Creates a new {@code RunReader}.
+     *
+     * @param reader The reader to read the run from.
+     * @param index The index of the run, which keeps the merge stable.
+     */
+    RunReader(BufferedReader reader, int index) {
+      this.reader = reader;
+      this.index = index;
+    }
+
+    /**
+     * Reads the next line of the run.
+     *
+     * @return {@code true} if there was another line, {@code false} at the end of the run.
+     * @throws IOException if reading fails.
+     */
+    boolean advance() throws IOException {
+      line = reader.readLine();
+      key = (line != null) ? NaturalSortKey.encode(line) : null;
+      return line != null;
+    }
+
+    @Override
+    public int compareTo(RunReader other) {
+      int result = NaturalSortKey.compare(key, other.key);
+      return (result != 0) ? result : Integer.compare(index, other.index);
+    }
+  }
+
+  /**
+   * Returns the memory limit.
+   *
+   * @return The memory limit in bytes.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * Sets the (estimated) memory limit for the lines held in memory. Half of it is used for the chunk being read, the
+   * other half for the chunk being sorted and written.
+   *
+   * @param memoryLimit The memory limit in bytes.
+   * @throws InvalidLongValueException if {@code memoryLimit} is not positive.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setMemoryLimit(long memoryLimit) {
+    if (memoryLimit <= 0) {
+      throw new InvalidLongValueException(memoryLimit);
+    }
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * Returns the size of the buffers for reading and writing files.
+   *
+   * @return The buffer size in characters.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Sets the size of the buffers for reading and writing files.
+   *
+   * @param bufferSize The buffer size in characters.
+   * @throws InvalidIntegerValueException if {@code bufferSize} is not positive.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setBufferSize(int bufferSize) {
+    if (bufferSize <= 0) {
+      throw new InvalidIntegerValueException(bufferSize);
+    }
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Returns the number of runs merged at once.
+   *
+   * @return The merge factor.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getMergeFactor() {
+    return mergeFactor;
+  }
+
+  /**
+   * Sets the number of runs merged at once, which is also the number of files opened at once while merging.
+   *
+   * @param mergeFactor The merge factor.
+   * @throws InvalidIntegerValueException if {@code mergeFactor} is less than 2.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setMergeFactor(int mergeFactor) {
+    if (mergeFactor < 2) {
+      throw new InvalidIntegerValueException(mergeFactor);
+    }
+    this.mergeFactor = mergeFactor;
+  }
+
+  /**
+   * Returns the character set of the files.
+   *
+   * @return The character set.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Charset getCharset() {
+    return charset;
+  }
+
+  /**
+   * Sets the character set of the files, which is UTF-8 by default.
+   *
+   * @param charset The character set.
+   * @throws NullPointerException if {@code charset} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setCharset(Charset charset) {
+    if (charset == null) {
+      throw new NullPointerException("charset");
+    }
+    this.charset = charset;
+  }
+
+  /**
+   * Returns the directory for the temporary files.
+   *
+   * @return The directory, or {@code null} if the default temporary directory is used.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Path getTemporaryDirectory() {
+    return temporaryDirectory;
+  }
+
+  /**
+   * Sets the directory for the temporary files.
+   *
+   * @param temporaryDirectory The directory, or {@code null} to use the default temporary directory.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void setTemporaryDirectory(Path temporaryDirectory) {
+    this.temporaryDirectory = temporaryDirectory;
+  }
+
+  /**
+   * Sorts the lines of the {@code input} file in natural order, and writes them to the {@code output} file. Both may
+   * be the same file. All temporary files are deleted before this method returns, even if it fails.
+   *
+   * @param input The file to sort.
+   * @param output The file to write the sorted lines to.
+   * @throws IOException if reading, writing or creating a file fails.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void sort(Path input, Path output) throws IOException {
+    Set<Path> temporaryFiles = new LinkedHashSet<Path>();
+    try {
+      List<Path> runs = createRuns(input, output, temporaryFiles);
+      if (runs == null) {
+        return; // sorted in memory
+      }
+
+      while (runs.size() > mergeFactor) {
+        List<Path> mergedRuns = new ArrayList<Path>();
+        for (int i = 0; i < runs.size(); i += mergeFactor) {
+          List<Path> group = runs.subList(i, Math.min(i + mergeFactor, runs.size()));
+          if (group.size() == 1) {
+            mergedRuns.add(group.get(0));
+          } else {
+            Path run = createTemporaryFile(temporaryFiles);
+            merge(group, run);
+            deleteTemporaryFiles(group, temporaryFiles);
+            mergedRuns.add(run);
+          }
+        }
+        runs = mergedRuns;
+      }
+
+      merge(runs, output);
+    } finally {
+      deleteTemporaryFiles(new ArrayList<Path>(temporaryFiles), temporaryFiles);
+    }
+  }
+
+  /**
+   * Reads the {@code input} in chunks, and writes each sorted chunk to a run. If the input consists of a single chunk,
+   * it is written to the {@code output} directly.
+   *
+   * @param input The file to sort.
+   * @param output The file to write the sorted lines to.
+   * @param temporaryFiles The set to register created temporary files in.
+   * @return The runs in the order of the input, or {@code null} if the input has been written to {@code output}.
+   * @throws IOException if reading, writing or creating a file fails.
+   */
+  private List<Path> createRuns(Path input, Path output, final Set<Path> temporaryFiles) throws IOException {
+    // one chunk is read while the previous one is sorted and written
+    long chunkLimit = Math.max(1, memoryLimit / 2);
+    List<Path> runs = new ArrayList<Path>();
+    Future<Path> pendingRun = null;
+    String[] singleChunk = null;
+
+    try (BufferedReader reader = openReader(input)) {
+      ChunkReader chunkReader = new ChunkReader(reader);
+      String[] chunk = chunkReader.read(chunkLimit);
+      if (!chunkReader.hasNext()) {
+        // sorted and written once the input is closed
+        singleChunk = chunk;
+        chunk = null;
+      }
+
+      while (chunk != null) {
+        final String[] lines = chunk;
+        final Path run = createTemporaryFile(temporaryFiles);
+        Future<Path> nextRun = ForkJoinPool.commonPool().submit(() -> {
+          NaturalSort.parallelSort(lines);
+          writeLines(lines, run);
+          return run;
+        });
+
+        if (pendingRun != null) {
+          runs.add(await(pendingRun));
+        }
+        pendingRun = nextRun;
+        chunk = chunkReader.hasNext() ? chunkReader.read(chunkLimit) : null;
+      }
+
+      if (pendingRun != null) {
+        runs.add(await(pendingRun));
+        pendingRun = null;
+      }
+    } finally {
+      if (pendingRun != null) {
+        // don't leave a task behind that still writes to a temporary file
+        try {
+          await(pendingRun);
+        } catch (IOException ex) {
+          // the exception that got us here is more important
+        }
+      }
+    }
+
+    if (singleChunk != null) {
+      NaturalSort.parallelSort(singleChunk);
+      writeLines(singleChunk, output);
+      return null;
+    }
+    return runs;
+  }
+
+  /**
+   * Merges the given sorted runs into the {@code target} file.
+   *
+   * @param runs The runs to merge, in the order of the input.
+   * @param target The file to write the merged lines to.
+   * @throws IOException if reading or writing a file fails.
+   */
+  private void merge(List<Path> runs, Path target) throws IOException {
+    PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(runs.size());
+    List<BufferedReader> readers = new ArrayList<BufferedReader>(runs.size());
+    try {
+      for (int i = 0; i < runs.size(); i++) {
+        BufferedReader reader = openReader(runs.get(i));
+        readers.add(reader);
+        RunReader runReader = new RunReader(reader, i);
+        if (runReader.advance()) {
+          queue.add(runReader);
+        }
+      }
+
+      try (BufferedWriter writer = openWriter(target)) {
+        while (!queue.isEmpty()) {
+          RunReader runReader = queue.poll();
+          writer.write(runReader.line);
+          writer.newLine();
+          if (runReader.advance()) {
+            queue.add(runReader);
+          }
+        }
+      }
+    } finally {
+      for (BufferedReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  /**
+   * Writes the given lines to the {@code target} file.
+   *
+   * @param lines The lines to write.
+   * @param target The file to write to.
+   * @throws IOException if writing fails.
+   */
+  private void writeLines(String[] lines, Path target) throws IOException {
+    try (BufferedWriter writer = openWriter(target)) {
+      for (String line : lines) {
+        writer.write(line);
+        writer.newLine();
+      }
+    }
+  }
+
+  /**
+   * Opens the given file for reading, with the configured character set and buffer size.
+   *
+   * @param file The file to open.
+   * @return The reader.
+   * @throws IOException if the file cannot be opened.
+   */
+  private BufferedReader openReader(Path file) throws IOException {
+    return new BufferedReader(new InputStreamReader(Files.newInputStream(file), charset), bufferSize);
+  }
+
+  /**
+   * Opens the given file for writing, with the configured character set and buffer size.
+   *
+   * @param file The file to open.
+   * @return The writer.
+   * @throws IOException if the file cannot be opened.
+   */
+  private BufferedWriter openWriter(Path file) throws IOException {
+    return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), charset), bufferSize);
+  }
+
+  /**
+   * Creates a new temporary file, and registers it for deletion.
+   *
+   * @param temporaryFiles The set of temporary files to register the new file in.
+   * @return The new temporary file.
+   * @throws IOException if the file cannot be created.
+   */
+  private Path createTemporaryFile(Set<Path> temporaryFiles) throws IOException {
+    Path file = (temporaryDirectory != null)
+        ? Files.createTempFile(temporaryDirectory, TEMPORARY_FILE_PREFIX, TEMPORARY_FILE_SUFFIX)
+        : Files.createTempFile(TEMPORARY_FILE_PREFIX, TEMPORARY_FILE_SUFFIX);
+    temporaryFiles.add(file);
+    return file;
+  }
+
+  /**
+   * Deletes the given temporary files, and unregisters them.
+   *
+   * @param files The files to delete.
+   * @param temporaryFiles The set of registered temporary files.
+   * @throws IOException if a file cannot be deleted.
+   */
+  private static void deleteTemporaryFiles(List<Path> files, Set<Path> temporaryFiles) throws IOException {
+    for (Path file : files) {
+      Files.deleteIfExists(file);
+      temporaryFiles.remove(file);
+    }
+  }
+
+  /**
+   * Waits for the given run to be written.
+   *
+   * @param run The future of the run.
+   * @return The run.
+   * @throws IOException if writing the run failed, or waiting has been interrupted.
+   */
+  private static Path await(Future<Path> run) throws IOException {
+    try {
+      return run.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A collection of routines that sort arrays and lists in natural order, using all available cores.</p>
+ *
+ * <p>
+ * Each element is converted into its {@link NaturalSortKey} exactly once, in parallel. The keys are then sorted with a
+ * parallel merge sort on the common {@link java.util.concurrent.ForkJoinPool}, just like
+ * {@link Arrays#parallelSort(java.lang.Object[], java.util.Comparator)} does. Inputs with less than
+ * {@link #PARALLEL_THRESHOLD} elements are sorted on the calling thread, as splitting them up costs more than it
+ * gains.</p>
+ *
+ * <p>
+ * Alternatively, the {@code radixSort}-methods sort the keys with a most-significant-digit radix sort on the calling
+ * thread. As the keys encode numbers by their count of digits first, followed by the digits themselves, this works
+ * without any comparisons at all, apart from an insertion sort for small buckets. Its running time grows (nearly)
+ * linear with the number of elements, and it needs a single auxiliary buffer of the size of the input.</p>
+ *
+ * <p>
+ * The resulting order is the one of the {@link NaturalSortComparator}, and the sort is stable. See
+ * {@link NaturalSortKey} for the (rare) cases in which the keys deviate from the comparator.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.1
+ * @since API 2.2.0
+ */
+public final class NaturalSort {
+
+  /**
+   * The minimum number of elements for which sorting is done in parallel.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  /**
+   * Buckets of the radix sort up to this size are sorted with an insertion sort.
+   */
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  /**
+   * The number of different values of a key's byte.
+   */
+  private static final int RADIX = 256;
+
+  private NaturalSort() {
+    // this ensures that the class cannot be instantiated...
+  }
+
+  /**
+   * Sorts the given array in natural order of its elements' {@link Object#toString()} representation.
+   *
+   * @param <T> The type of the elements.
+   * @param array The array to be sorted.
+   * @throws NullPointerException if an element of {@code array} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static <T> void parallelSort(T[] array) {
+    parallelSort(array, Object::toString);
+  }
+
+  /**
+   * Sorts the given array in natural order of the keys returned by the given {@code keyExtractor}.
+   *
+   * @param <T> The type of the elements.
+   * @param array The array to be sorted.
+   * @param keyExtractor The function that extracts the key to sort by from an element.
+   * @throws NullPointerException if an element of {@code array} or its key is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> void parallelSort(T[] array, Function<? super T, ? extends CharSequence> keyExtractor) {
+    NaturalSortKey.Entry[] entries = sortEntries(array, keyExtractor);
+
+    if (entries.length < PARALLEL_THRESHOLD) {
+      for (int i = 0; i < entries.length; i++) {
+        array[i] = (T) entries[i].element;
+      }
+    } else {
+      Arrays.parallelSetAll(array, i -> (T) entries[i].element);
+    }
+  }
+
+  /**
+   * Sorts the given {@link List} in natural order of its elements' {@link Object#toString()} representation.
+   *
+   * @param <T> The type of the elements.
+   * @param list The list to be sorted.
+   * @throws NullPointerException if an element of {@code list} is null.
+   * @throws UnsupportedOperationException if the {@code list}'s iterator does not support the {@code set}-operation.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static <T> void parallelSort(List<T> list) {
+    parallelSort(list, Object::toString);
+  }
+
+  /**
+   * Sorts the given {@link List} in natural order of the keys returned by the given {@code keyExtractor}.
+   *
+   * @param <T> The type of the elements.
+   * @param list The list to be sorted.
+   * @param keyExtractor The function that extracts the key to sort by from an element.
+   * @throws NullPointerException if an element of {@code list} or its key is null.
+   * @throws UnsupportedOperationException if the {@code list}'s iterator does not support the {@code set}-operation.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> void parallelSort(List<T> list, Function<? super T, ? extends CharSequence> keyExtractor) {
+    NaturalSortKey.Entry[] entries = sortEntries((T[]) list.toArray(), keyExtractor);
+
+    ListIterator<T> iterator = list.listIterator();
+    for (NaturalSortKey.Entry entry : entries) {
+      iterator.next();
+      iterator.set((T) entry.element);
+    }
+  }
+
+  /**
+   * Sorts the given array in natural order of its elements' {@link Object#toString()} representation, using a radix
+   * sort.
+   *
+   * @param <T> The type of the elements.
+   * @param array The array to be sorted.
+   * @throws NullPointerException if an element of {@code array} is null.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public static <T> void radixSort(T[] array) {
+    radixSort(array, Object::toString);
+  }
+
+  /**
+   * Sorts the given array in natural order of the keys returned by the given {@code keyExtractor}, using a radix
+   * sort.
+   *
+   * @param <T> The type of the elements.
+   * @param array The array to be sorted.
+   * @param keyExtractor The function that extracts the key to sort by from an element.
+   * @throws NullPointerException if an element of {@code array} or its key is null.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> void radixSort(T[] array, Function<? super T, ? extends CharSequence> keyExtractor) {
+    NaturalSortKey.Entry[] entries = radixSortEntries(array, keyExtractor);
+    for (int i = 0; i < entries.length; i++) {
+      array[i] = (T) entries[i].element;
+    }
+  }
+
+  /**
+   * Sorts the given {@link List} in natural order of its elements' {@link Object#toString()} representation, using a
+   * radix sort.
+   *
+   * @param <T> The type of the elements.
+   * @param list The list to be sorted.
+   * @throws NullPointerException if an element of {@code list} is null.
+   * @throws UnsupportedOperationException if the {@code list}'s iterator does not support the {@code set}-operation.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public static <T> void radixSort(List<T> list) {
+    radixSort(list, Object::toString);
+  }
+
+  /**
+   * Sorts the given {@link List} in natural order of the keys returned by the given {@code keyExtractor}, using a
+   * radix sort.
+   *
+   * @param <T> The type of the elements.
+   * @param list The list to be sorted.
+   * @param keyExtractor The function that extracts the key to sort by from an element.
+   * @throws NullPointerException if an element of {@code list} or its key is null.
+   * @throws UnsupportedOperationException if the {@code list}'s iterator does not support the {@code set}-operation.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> void radixSort(List<T> list, Function<? super T, ? extends CharSequence> keyExtractor) {
+    NaturalSortKey.Entry[] entries = radixSortEntries((T[]) list.toArray(), keyExtractor);
+
+    ListIterator<T> iterator = list.listIterator();
+    for (NaturalSortKey.Entry entry : entries) {
+      iterator.next();
+      iterator.set((T) entry.element);
+    }
+  }
+
+  /**
+   * Decorates each element of the given array with its natural sort key, and sorts the decorated elements.
+   *
+   * @param <T> The type of the elements.
+   * @param array The elements to be sorted.
+   * @param keyExtractor The function that extracts the key to sort by from an element.
+   * @return The sorted, decorated elements.
+   */
+  private static <T> NaturalSortKey.Entry[] sortEntries(T[] array,
+      Function<? super T, ? extends CharSequence> keyExtractor) {
+    NaturalSortKey.Entry[] entries = new NaturalSortKey.Entry[array.length];
+
+    if (array.length < PARALLEL_THRESHOLD) {
+      for (int i = 0; i < array.length; i++) {
+        entries[i] = new NaturalSortKey.Entry(NaturalSortKey.encode(keyExtractor.apply(array[i])), array[i]);
+      }
+      Arrays.sort(entries);
+    } else {
+      Arrays.parallelSetAll(entries,
+          i -> new NaturalSortKey.Entry(NaturalSortKey.encode(keyExtractor.apply(array[i])), array[i]));
+      Arrays.parallelSort(entries);
+    }
+
+    return entries;
+  }
+
+  /**
+   * Decorates each element of the given array with its natural sort key, and sorts the decorated elements with a radix
+   * sort.
+   *
+   * @param <T> The type of the elements.
+   * @param array The elements to be sorted.
+   * @param keyExtractor The function that extracts the key to sort by from an element.
+   * @return The sorted, decorated elements.
+   */
+  private static <T> NaturalSortKey.Entry[] radixSortEntries(T[] array,
+      Function<? super T, ? extends CharSequence> keyExtractor) {
+    NaturalSortKey.Entry[] entries = new NaturalSortKey.Entry[array.length];
+    for (int i = 0; i < array.length; i++) {
+      entries[i] = new NaturalSortKey.Entry(NaturalSortKey.encode(keyExtractor.apply(array[i])), array[i]);
+    }
+    radixSort(entries);
+    return entries;
+  }
+
+  /**
+   * <p>
+   * Sorts the given decorated elements with a stable most-significant-digit radix sort on their keys.</p>
+   *
+   * <p>
+   * Instead of recursing into each bucket, the buckets still to be sorted are kept on an explicit stack of
+   * {@code (start, end, depth)}-triples, so that long common prefixes cannot overflow the call stack. The auxiliary
+   * buffer and the counters are allocated only once and are reused for all buckets.</p>
+   *
+   * @param entries The decorated elements to be sorted.
+   */
+  private static void radixSort(NaturalSortKey.Entry[] entries) {
+    NaturalSortKey.Entry[] buffer = new NaturalSortKey.Entry[entries.length];
+    int[] counts = new int[RADIX + 2];
+    int[] stack = new int[3 * RADIX];
+    int size = 0;
+
+    stack[size++] = 0;
+    stack[size++] = entries.length;
+    stack[size++] = 0;
+
+    while (size > 0) {
+      int depth = stack[--size];
+      int end = stack[--size];
+      int start = stack[--size];
+
+      if (end - start <= INSERTION_SORT_THRESHOLD) {
+        insertionSort(entries, start, end, depth);
+        continue;
+      }
+
+      // count the occurrences of each byte value, with the end of a key (-1) counted at index 1.
+      Arrays.fill(counts, 0);
+      for (int i = start; i < end; i++) {
+        counts[byteAt(entries[i].key, depth) + 2]++;
+      }
+      for (int r = 0; r <= RADIX; r++) {
+        counts[r + 1] += counts[r];
+      }
+      for (int i = start; i < end; i++) {
+        buffer[counts[byteAt(entries[i].key, depth) + 1]++] = entries[i];
+      }
+      System.arraycopy(buffer, 0, entries, start, end - start);
+
+      // counts[r] is now the start of the bucket for byte value r, relative to start. Keys that end at this depth are
+      // equal, so only the buckets of actual byte values need to be sorted any further.
+      for (int r = 0; r < RADIX; r++) {
+        if (counts[r + 1] - counts[r] > 1) {
+          if (size + 3 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length << 1);
+          }
+          stack[size++] = start + counts[r];
+          stack[size++] = start + counts[r + 1];
+          stack[size++] = depth + 1;
+        }
+      }
+    }
+  }
+
+  /**
+   * Sorts a small range of decorated elements with a stable insertion sort, comparing their keys from the given
+   * {@code depth} onwards.
+   *
+   * @param entries The decorated elements.
+   * @param start The first index of the range to be sorted (inclusive).
+   * @param end The last index of the range to be sorted (exclusive).
+   * @param depth The number of leading bytes all keys in the range have in common.
+   */
+  private static void insertionSort(NaturalSortKey.Entry[] entries, int start, int end, int depth) {
+    for (int i = start + 1; i < end; i++) {
+      NaturalSortKey.Entry entry = entries[i];
+      int j = i;
+      while ((j > start) && (compareFrom(entry.key, entries[j - 1].key, depth) < 0)) {
+        entries[j] = entries[j - 1];
+        j--;
+      }
+      entries[j] = entry;
+    }
+  }
+
+  /**
+   * Compares two keys byte by byte, starting at the given {@code depth}.
+   *
+   * @param keyOne The first key to be compared.
+   * @param keyTwo The second key to be compared.
+   * @param depth The number of leading bytes both keys have in common.
+   * @return a negative value, zero, or a positive value as the first key is less than, equal to, or greater than the
+   * second.
+   */
+  private static int compareFrom(byte[] keyOne, byte[] keyTwo, int depth) {
+    int length = Math.min(keyOne.length, keyTwo.length);
+    for (int i = depth; i < length; i++) {
+      int delta = (keyOne[i] & 0xFF) - (keyTwo[i] & 0xFF);
+      if (delta != 0) {
+        return delta;
+      }
+    }
+    return keyOne.length - keyTwo.length;
+  }
+
+  /**
+   * Returns the unsigned value of the key's byte at position {@code depth}, or {@literal -1} if the key is shorter.
+   *
+   * @param key The key to read from.
+   * @param depth The position of the byte to read.
+   * @return The unsigned value of the byte, or {@literal -1}.
+   */
+  private static int byteAt(byte[] key, int depth) {
+    return (depth < key.length) ? (key[depth] & 0xFF) : -1;
+  }
+}
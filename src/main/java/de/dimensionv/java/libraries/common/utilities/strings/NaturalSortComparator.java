@@ -25,42 +25,84 @@
  */
 package de.dimensionv.java.libraries.common.utilities.strings;
 
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.function.Function;
 
 /**
  * <p>
- * This is a {@link Comparator} that explicitly uses plain {@link Object} as input and utilizes the
- * {@link Object#toString()} to create {@link String} objects for sorting.</p>
+ * This is a {@link Comparator} that sorts arbitrary objects in natural order. By default, it utilizes the
+ * {@link Object#toString()} method to create {@link String} objects for sorting. Alternatively, a key extractor can be
+ * given, which returns the {@link CharSequence} to sort by for each object.</p>
  *
  * <p>
  * The algorithm used here in this implementation is optimized to avoid unnecessary check-cycles.</p>
  *
+ * <p>
+ * When an instance is created in decorating mode, its {@link #sort(java.util.List)} and
+ * {@link #sort(java.lang.Object[])} methods extract the key of each element only once, and keep it for the duration of
+ * the sort, instead of extracting both keys again in each and every comparison.</p>
+ *
+ * <p>
+ * By default, characters are compared by their {@code char} values, so upper case letters sort before lower case
+ * letters. A case-insensitive comparator folds the case of each character on the fly, which does not allocate anything
+ * and is plain arithmetic for ASCII characters. A collating comparator compares the text between numbers with a
+ * {@link Collator}, which sorts according to the rules of a {@link Locale}. For text consisting of ASCII characters
+ * only, the collation elements are pre-computed once (if the collator allows that), so the collator itself is only
+ * called for text containing other characters. When collating, numbers sort before text.</p>
+ *
+ * @param <T> The type of objects that may be compared by this comparator.
+ *
  * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
  *
- * @version 1.0
+ * @version 1.2
  * @since API 2.0
  */
-public final class NaturalSortComparator implements Comparator {
+public final class NaturalSortComparator<T> implements Comparator<T> {
+
+  private static NaturalSortComparator<Object> INSTANCE = null;
+  private static NaturalSortComparator<Object> CASE_INSENSITIVE_INSTANCE = null;
 
-  private static NaturalSortComparator INSTANCE = null;
+  private final Function<? super T, ? extends CharSequence> keyExtractor;
+  private final boolean decorating;
+  private final boolean ignoreCase;
+  private final Collator collator;
+  private final AsciiCollationTable asciiCollationTable;
 
   /**
-   * Meta-data for the actual {@link String} object that should be compared.
+   * Meta-data for the actual {@link CharSequence} object that should be compared.
    */
-  private final class SortingBean {
+  private static final class SortingBean {
 
-    int index = 0;
+    int index;
     int leadingZeros = 0;
     char character;
-    final String string;
+    final CharSequence string;
+
+    /**
+     * Creates a new instance of the {@code SortingBean} with the given {@link CharSequence} {@code string}.
+     *
+     * @param string The {@code CharSequence} that shall be compared.
+     */
+    SortingBean(CharSequence string) {
+      this(string, 0);
+    }
 
     /**
-     * Creates a new instance of the {@code SortingBean} with the given {@link String} {@code string}.
+     * Creates a new instance of the {@code SortingBean} with the given {@link CharSequence} {@code string}, starting
+     * at the given {@code index}.
      *
-     * @param string The {@code String} that shall be compared.
+     * @param string The {@code CharSequence} that shall be compared.
+     * @param index The position within {@code string} to start at.
      */
-    SortingBean(String string) {
+    SortingBean(CharSequence string, int index) {
       this.string = string;
+      this.index = index;
     }
   }
 
@@ -85,12 +127,164 @@ public final class NaturalSortComparator implements Comparator {
     }
   }
 
+  /**
+   * Creates a new {@code NaturalSortComparator} that compares objects by their {@link Object#toString()}
+   * representation.
+   *
+   * @since Class 1.0
+   * @since API 2.0
+   */
+  public NaturalSortComparator() {
+    this(Object::toString);
+  }
+
+  /**
+   * Creates a new {@code NaturalSortComparator} that compares objects by the {@link CharSequence} returned by the
+   * given {@code keyExtractor}.
+   *
+   * @param keyExtractor The function that extracts the key to sort by from an object.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public NaturalSortComparator(Function<? super T, ? extends CharSequence> keyExtractor) {
+    this(keyExtractor, false);
+  }
+
+  /**
+   * Creates a new {@code NaturalSortComparator} that compares objects by the {@link CharSequence} returned by the
+   * given {@code keyExtractor}, optionally in decorating mode.
+   *
+   * @param keyExtractor The function that extracts the key to sort by from an object.
+   * @param decorating {@code true} if the {@code sort}-methods shall extract the key of each element only once,
+   * {@code false} otherwise.
+   * @throws NullPointerException if {@code keyExtractor} is null.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public NaturalSortComparator(Function<? super T, ? extends CharSequence> keyExtractor, boolean decorating) {
+    this(keyExtractor, decorating, false);
+  }
+
+  /**
+   * Creates a new {@code NaturalSortComparator} that compares objects by the {@link CharSequence} returned by the
+   * given {@code keyExtractor}, optionally in decorating mode, and optionally ignoring the case of the characters.
+   *
+   * @param keyExtractor The function that extracts the key to sort by from an object.
+   * @param decorating {@code true} if the {@code sort}-methods shall extract the key of each element only once,
+   * {@code false} otherwise.
+   * @param ignoreCase {@code true} if the case of characters shall be ignored, {@code false} otherwise.
+   * @throws NullPointerException if {@code keyExtractor} is null.
+   *
+   * @since Class 1.2
+   * @since API 2.2.0
+   */
+  public NaturalSortComparator(Function<? super T, ? extends CharSequence> keyExtractor, boolean decorating,
+      boolean ignoreCase) {
+    this(keyExtractor, decorating, ignoreCase, null);
+  }
+
+  /**
+   * Creates a new {@code NaturalSortComparator} that compares objects by the {@link CharSequence} returned by the
+   * given {@code keyExtractor}, optionally in decorating mode, and compares the text between numbers with the given
+   * {@code collator}.
+   *
+   * <p>
+   * The comparator works on its own copy of the {@code collator}, so later changes to the {@code collator} have no
+   * effect. Creating a collating comparator is comparatively expensive, so instances should be reused.</p>
+   *
+   * @param keyExtractor The function that extracts the key to sort by from an object.
+   * @param decorating {@code true} if the {@code sort}-methods shall extract the key of each element only once,
+   * {@code false} otherwise.
+   * @param collator The collator to compare text with.
+   * @throws NullPointerException if {@code keyExtractor} or {@code collator} is null.
+   *
+   * @since Class 1.2
+   * @since API 2.2.0
+   */
+  public NaturalSortComparator(Function<? super T, ? extends CharSequence> keyExtractor, boolean decorating,
+      Collator collator) {
+    this(keyExtractor, decorating, false, cloneCollator(collator));
+  }
+
+  /**
+   * Creates a new {@code NaturalSortComparator}.
+   *
+   * @param keyExtractor The function that extracts the key to sort by from an object.
+   * @param decorating {@code true} if the {@code sort}-methods shall extract the key of each element only once.
+   * @param ignoreCase {@code true} if the case of characters shall be ignored.
+   * @param collator The collator to compare text with, or {@code null} to compare by {@code char} values.
+   * @throws NullPointerException if {@code keyExtractor} is null.
+   */
+  private NaturalSortComparator(Function<? super T, ? extends CharSequence> keyExtractor, boolean decorating,
+      boolean ignoreCase, Collator collator) {
+    if (keyExtractor == null) {
+      throw new NullPointerException("keyExtractor");
+    }
+    this.keyExtractor = keyExtractor;
+    this.decorating = decorating;
+    this.ignoreCase = ignoreCase;
+    this.collator = collator;
+    this.asciiCollationTable = (collator != null) ? AsciiCollationTable.create(collator) : null;
+  }
+
+  /**
+   * Creates a copy of the given {@code collator}.
+   *
+   * @param collator The collator to copy.
+   * @return The copy.
+   * @throws NullPointerException if {@code collator} is null.
+   */
+  private static Collator cloneCollator(Collator collator) {
+    if (collator == null) {
+      throw new NullPointerException("collator");
+    }
+    return (Collator) collator.clone();
+  }
+
+  /**
+   * Returns whether this comparator's {@code sort}-methods extract the key of each element only once.
+   *
+   * @return {@code true} if this comparator is in decorating mode, {@code false} otherwise.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public boolean isDecorating() {
+    return decorating;
+  }
+
+  /**
+   * Returns whether this comparator ignores the case of characters.
+   *
+   * @return {@code true} if this comparator is case-insensitive, {@code false} otherwise.
+   *
+   * @since Class 1.2
+   * @since API 2.2.0
+   */
+  public boolean isIgnoringCase() {
+    return ignoreCase;
+  }
+
+  /**
+   * Returns a copy of the collator this comparator compares text with.
+   *
+   * @return The collator, or {@code null} if this comparator compares characters by their {@code char} values.
+   *
+   * @since Class 1.2
+   * @since API 2.2.0
+   */
+  public Collator getCollator() {
+    return (collator != null) ? (Collator) collator.clone() : null;
+  }
+
   /**
    * {@inheritDoc}
    *
    * <p>
    * This implementation sorts arbitrary {@link Object}s in natural order. Only prerequisite is a properly implemented
-   * {@link Object#toString()} method. Also helpful are proper implementations of
+   * {@link Object#toString()} method, or a key extractor. Also helpful are proper implementations of
    * {@link Object#equals(java.lang.Object)} and {@link Object#hashCode()}, though neither of these two methods are used
    * directly by this {@code Comparator} implementation. However, they might be used indirectly.</p>
    *
@@ -113,12 +307,82 @@ public final class NaturalSortComparator implements Comparator {
    * @param o1 The first object to be compared.
    * @param o2 The second object to be compared.
    * @return -1, 0, or 1 as the first argument is less than, equal to, or greater than the second.
-   * @throws NullPointerException if an argument (i.e. {@code o1} or {@code o1}) is null
+   * @throws NullPointerException if an argument (i.e. {@code o1} or {@code o1}) or its key is null
    */
   @Override
-  public final int compare(Object o1, Object o2) {
-    SortingBean beanOne = new SortingBean(o1.toString());
-    SortingBean beanTwo = new SortingBean(o2.toString());
+  public final int compare(T o1, T o2) {
+    return compareKeys(keyExtractor.apply(o1), keyExtractor.apply(o2));
+  }
+
+  /**
+   * Sorts the given {@link List} in natural order.
+   *
+   * <p>
+   * In decorating mode, the key of each element is extracted only once. Otherwise, this is the same as calling
+   * {@link Collections#sort(java.util.List, java.util.Comparator)} with this comparator. The sort is stable.</p>
+   *
+   * @param list The list to be sorted.
+   * @throws NullPointerException if an element of {@code list} or its key is null.
+   * @throws UnsupportedOperationException if the {@code list}'s iterator does not support the {@code set}-operation.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public void sort(List<T> list) {
+    if (!decorating) {
+      Collections.sort(list, this);
+      return;
+    }
+
+    Object[] array = list.toArray();
+    sort((T[]) array);
+
+    ListIterator<T> iterator = list.listIterator();
+    for (Object element : array) {
+      iterator.next();
+      iterator.set((T) element);
+    }
+  }
+
+  /**
+   * Sorts the given array in natural order.
+   *
+   * <p>
+   * In decorating mode, the key of each element is extracted only once. Otherwise, this is the same as calling
+   * {@link Arrays#sort(java.lang.Object[], java.util.Comparator)} with this comparator. The sort is stable.</p>
+   *
+   * @param array The array to be sorted.
+   * @throws NullPointerException if an element of {@code array} or its key is null.
+   *
+   * @since Class 1.1
+   * @since API 2.2.0
+   */
+  public void sort(T[] array) {
+    if (!decorating) {
+      Arrays.sort(array, this);
+      return;
+    }
+
+    DecoratedElement.<CharSequence, T>sort(array, element -> {
+      CharSequence key = keyExtractor.apply(element);
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      return key;
+    }, this::compareKeys);
+  }
+
+  /**
+   * Compares two keys in natural order.
+   *
+   * @param keyOne The first key to be compared.
+   * @param keyTwo The second key to be compared.
+   * @return -1, 0, or 1 as the first key is less than, equal to, or greater than the second.
+   */
+  private int compareKeys(CharSequence keyOne, CharSequence keyTwo) {
+    SortingBean beanOne = new SortingBean(keyOne);
+    SortingBean beanTwo = new SortingBean(keyTwo);
 
     int result = 0;
 
@@ -131,8 +395,8 @@ public final class NaturalSortComparator implements Comparator {
 
       // check if both characters are digits
       if (Character.isDigit(beanOne.character) && Character.isDigit(beanTwo.character)) {
-        SortingBean beanOneNumbers = new SortingBean(beanOne.string.substring(beanOne.index));
-        SortingBean beanTwoNumbers = new SortingBean(beanTwo.string.substring(beanTwo.index));
+        SortingBean beanOneNumbers = new SortingBean(beanOne.string, beanOne.index);
+        SortingBean beanTwoNumbers = new SortingBean(beanTwo.string, beanTwo.index);
         DigitCompareResult digitCompareResult = compareDigits(beanOneNumbers, beanTwoNumbers);
 
         if (digitCompareResult.result != 0) {
@@ -153,12 +417,10 @@ public final class NaturalSortComparator implements Comparator {
         // return the evaluation of leading zeros, normalized to the values -1, 0 and 1
         result = evaluateLeadingZeroDelta(beanOne, beanTwo);
         break;
-      }
-
-      if (beanOne.character < beanTwo.character) {
-        result = -1;
-      } else if (beanOne.character > beanTwo.character) {
-        result = 1;
+      } else if ((collator != null) && isText(beanOne.character) && isText(beanTwo.character)) {
+        result = compareText(beanOne, beanTwo);
+      } else {
+        result = compareCharacters(beanOne.character, beanTwo.character);
       }
 
       beanOne.index++;
@@ -168,6 +430,147 @@ public final class NaturalSortComparator implements Comparator {
     return result;
   }
 
+  /**
+   * Compares two characters by their {@code char} values, ignoring their case if requested. When collating, numbers
+   * sort before text.
+   *
+   * @param characterOne The first character.
+   * @param characterTwo The second character.
+   * @return -1, 0, or 1 as the first character is less than, equal to, or greater than the second.
+   */
+  private int compareCharacters(char characterOne, char characterTwo) {
+    if ((collator != null) && (characterOne != 0) && (characterTwo != 0)) {
+      boolean digitOne = Character.isDigit(characterOne);
+      if (digitOne != Character.isDigit(characterTwo)) {
+        return digitOne ? -1 : 1;
+      }
+    }
+
+    if (ignoreCase && (characterOne != characterTwo)) {
+      characterOne = StringUtils.foldCase(characterOne);
+      characterTwo = StringUtils.foldCase(characterTwo);
+    }
+
+    if (characterOne < characterTwo) {
+      return -1;
+    } else if (characterOne > characterTwo) {
+      return 1;
+    }
+    return 0;
+  }
+
+  /**
+   * Checks whether the given character is part of a text, i.e. neither a digit, nor the end of the string.
+   *
+   * @param character The character to check.
+   * @return {@code true} if the character is part of a text, {@code false} otherwise.
+   */
+  private static boolean isText(char character) {
+    return (character != 0) && !Character.isDigit(character);
+  }
+
+  /**
+   * <p>
+   * Compares the text, up to the next number or the end of the string, at the current positions of the given
+   * {@link SortingBean}s with the collator. Space characters within the text are ignored.</p>
+   * <p>
+   * Texts that are equal are skipped without collating them at all. Texts consisting of ASCII characters only are
+   * compared with the pre-computed {@link AsciiCollationTable}, if there is one. Only other texts are handed to the
+   * collator itself. Afterwards, both beans are positioned at the last character of their text.</p>
+   *
+   * @param beanOne Meta-data for the first {@code String} object
+   * @param beanTwo Meta-data for the second {@code String} object
+   * @return -1, 0, or 1 as the first text is less than, equal to, or greater than the second.
+   */
+  private int compareText(SortingBean beanOne, SortingBean beanTwo) {
+    int endOne = findEndOfText(beanOne);
+    int endTwo = findEndOfText(beanTwo);
+
+    int result;
+    if (isEqualText(beanOne.string, beanOne.index, endOne, beanTwo.string, beanTwo.index, endTwo)) {
+      result = 0;
+    } else if ((asciiCollationTable != null)
+        && AsciiCollationTable.isAscii(beanOne.string, beanOne.index, endOne)
+        && AsciiCollationTable.isAscii(beanTwo.string, beanTwo.index, endTwo)) {
+      result = asciiCollationTable.compare(beanOne.string, beanOne.index, endOne,
+          beanTwo.string, beanTwo.index, endTwo);
+    } else {
+      result = Integer.signum(collator.compare(
+          removeSpaces(beanOne.string, beanOne.index, endOne),
+          removeSpaces(beanTwo.string, beanTwo.index, endTwo)));
+    }
+
+    // subtract 1, because at the end of the loop, this will be added again.
+    beanOne.index = endOne - 1;
+    beanTwo.index = endTwo - 1;
+
+    return result;
+  }
+
+  /**
+   * Finds the end of the text starting at the current position of the given {@link SortingBean}.
+   *
+   * @param bean Meta-data for the {@code String} object
+   * @return The index of the next digit, or of the end of the string.
+   */
+  private static int findEndOfText(SortingBean bean) {
+    int index = bean.index;
+    while ((index < bean.string.length()) && isText(bean.string.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Checks whether two texts consist of the same characters, ignoring space characters.
+   *
+   * @param textOne The first text.
+   * @param startOne The index of the first character of the first text.
+   * @param endOne The index after the last character of the first text.
+   * @param textTwo The second text.
+   * @param startTwo The index of the first character of the second text.
+   * @param endTwo The index after the last character of the second text.
+   * @return {@code true} if both texts are equal, {@code false} otherwise.
+   */
+  private static boolean isEqualText(CharSequence textOne, int startOne, int endOne, CharSequence textTwo,
+      int startTwo, int endTwo) {
+    int indexOne = startOne;
+    int indexTwo = startTwo;
+    while (true) {
+      while ((indexOne < endOne) && Character.isSpaceChar(textOne.charAt(indexOne))) {
+        indexOne++;
+      }
+      while ((indexTwo < endTwo) && Character.isSpaceChar(textTwo.charAt(indexTwo))) {
+        indexTwo++;
+      }
+      if ((indexOne == endOne) || (indexTwo == endTwo)) {
+        return (indexOne == endOne) && (indexTwo == endTwo);
+      }
+      if (textOne.charAt(indexOne++) != textTwo.charAt(indexTwo++)) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Copies the given range of {@code text} into a {@link String}, leaving out space characters.
+   *
+   * @param text The text to copy.
+   * @param start The index of the first character to copy.
+   * @param end The index after the last character to copy.
+   * @return The copy without space characters.
+   */
+  private static String removeSpaces(CharSequence text, int start, int end) {
+    StringBuilder builder = new StringBuilder(end - start);
+    for (int i = start; i < end; i++) {
+      char character = text.charAt(i);
+      if (!Character.isSpaceChar(character)) {
+        builder.append(character);
+      }
+    }
+    return builder.toString();
+  }
+
   /**
    * Evaluates the delta of the leading zero meta information stored in each given {@link SortingBean} object, and
    * returns either -1, 0 or 1 to indicate that beanOne is either less than, equal to or even greater than beanTwo.
@@ -200,6 +603,8 @@ public final class NaturalSortComparator implements Comparator {
    * @return A {@link DigitCompareResult} object containing the result and offset information.
    */
   private static final DigitCompareResult compareDigits(SortingBean beanOne, SortingBean beanTwo) {
+    final int startOne = beanOne.index;
+    final int startTwo = beanTwo.index;
     int result = 0;
 
     do {
@@ -230,8 +635,8 @@ public final class NaturalSortComparator implements Comparator {
 
     // Estimate the lower number of digist, because that's the number of digits encountered
     // in both strings, and that at least can be skipped, no matter what the actual result is...
-    // To enable skipping the numbers, hand back the index as offset
-    int offset = Math.min(beanOne.index, beanTwo.index);
+    // To enable skipping the numbers, hand back the number of digits as offset
+    int offset = Math.min(beanOne.index - startOne, beanTwo.index - startTwo);
 
     return new DigitCompareResult(result, offset);
   }
@@ -259,12 +664,12 @@ public final class NaturalSortComparator implements Comparator {
 
   /**
    * <p>
-   * Specialized helper-method, which retrieves a specific requested {@code char} from the {@link String} in the given
-   * {@link SortingBean}. The requested {@code char} is defined by the {@code index} member variable of the given
+   * Specialized helper-method, which retrieves a specific requested {@code char} from the {@link CharSequence} in the
+   * given {@link SortingBean}. The requested {@code char} is defined by the {@code index} member variable of the given
    * {@code SortBean}.</p>
    * <p>
    * If {@code SortBean.index} is within the bounds of the {@code SortBean.string}, this method will return
-   * {@link String#charAt(int)}, otherwise it will return a {@literal 0}.<br />
+   * {@link CharSequence#charAt(int)}, otherwise it will return a {@literal 0}.<br />
    * Please note that this is an actual {@literal 0}, not a {@literal '0'}.</p>
    *
    * <p>
@@ -284,10 +689,56 @@ public final class NaturalSortComparator implements Comparator {
     return sortBean.character;
   }
 
-  public static final NaturalSortComparator getInstance() {
+  /**
+   * Returns a shared {@code NaturalSortComparator} instance, which compares objects by their {@link Object#toString()}
+   * representation.
+   *
+   * @param <T> The type of objects that may be compared by the comparator.
+   * @return The shared {@code NaturalSortComparator} instance.
+   *
+   * @since Class 1.0
+   * @since API 2.0
+   */
+  @SuppressWarnings("unchecked")
+  public static final <T> NaturalSortComparator<T> getInstance() {
     if (INSTANCE == null) {
-      INSTANCE = new NaturalSortComparator();
+      INSTANCE = new NaturalSortComparator<Object>();
     }
-    return INSTANCE;
+    // the shared instance only relies on Object.toString(), so it can compare any type of objects.
+    return (NaturalSortComparator<T>) INSTANCE;
+  }
+
+  /**
+   * Returns a shared, case-insensitive {@code NaturalSortComparator} instance, which compares objects by their
+   * {@link Object#toString()} representation.
+   *
+   * @param <T> The type of objects that may be compared by the comparator.
+   * @return The shared, case-insensitive {@code NaturalSortComparator} instance.
+   *
+   * @since Class 1.2
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public static final <T> NaturalSortComparator<T> getCaseInsensitiveInstance() {
+    if (CASE_INSENSITIVE_INSTANCE == null) {
+      CASE_INSENSITIVE_INSTANCE = new NaturalSortComparator<Object>(Object::toString, false, true);
+    }
+    return (NaturalSortComparator<T>) CASE_INSENSITIVE_INSTANCE;
+  }
+
+  /**
+   * Returns a new {@code NaturalSortComparator} instance, which compares objects by their {@link Object#toString()}
+   * representation, and the text between numbers according to the rules of the given {@code locale}.
+   *
+   * @param <T> The type of objects that may be compared by the comparator.
+   * @param locale The locale whose rules shall be used.
+   * @return A new, collating {@code NaturalSortComparator} instance.
+   * @throws NullPointerException if {@code locale} is null.
+   *
+   * @since Class 1.2
+   * @since API 2.2.0
+   */
+  public static final <T> NaturalSortComparator<T> getInstance(Locale locale) {
+    return new NaturalSortComparator<T>(Object::toString, false, Collator.getInstance(locale));
   }
 }
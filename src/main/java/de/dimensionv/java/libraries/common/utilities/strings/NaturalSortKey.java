@@ -0,0 +1,544 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * <p>
+ * A pre-computed sort key for the natural order implemented by {@link NaturalSortComparator}.</p>
+ *
+ * <p>
+ * The {@code NaturalSortComparator} has to parse numbers, leading zeros and spaces on each and every comparison, which
+ * means that sorting {@code n} elements parses each element about {@code log(n)} times. A {@code NaturalSortKey} does
+ * this parsing only once, and stores the result as a compact {@code byte}-array. Comparing two of these arrays
+ * byte-by-byte (unsigned, like {@code memcmp}) yields the same order as the {@code NaturalSortComparator} does for the
+ * original strings.</p>
+ *
+ * <p>
+ * The key is a sequence of tokens, one for each step the {@code NaturalSortComparator} takes through a string:</p>
+ * <ul>
+ * <li>A character is written in an UTF-8 like, order-preserving encoding of its {@code char} value.</li>
+ * <li>A number is written as the zero-digit of its script (in the same encoding as characters), followed by the count
+ * of digits, the digit values packed into nibbles, and finally the inverted count of leading zeros.</li>
+ * <li>The end of the string is written as a {@literal 0}-byte, followed by the inverted count of trailing zeros.</li>
+ * </ul>
+ *
+ * <p>
+ * The order of the keys is identical to the order of the {@code NaturalSortComparator} for all strings, as long as
+ * numbers at the same position are written in the same script (e.g. ASCII-digits only). The comparator itself is not
+ * transitive for numbers of different scripts, so those are ordered by script first.</p>
+ *
+ * <p>
+ * Keys can be encoded from UTF-8 encoded bytes directly as well, without decoding them into a {@code String} first
+ * (see {@link #encodeUtf8(byte[], int, int)}).</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class NaturalSortKey implements Comparable<NaturalSortKey> {
+
+  private static final char END_OF_STRING = 0;
+  private static final char ZERO = '0';
+
+  private static final int SHORT_LENGTH_LIMIT = 0xFF;
+  private static final int LONG_LENGTH_MARKER = 0xFF;
+  private static final int SHORT_ZEROS_LIMIT = 0xFE;
+  private static final int LONG_ZEROS_MARKER = 0x01;
+
+  /**
+   * Maximum size of a character (three bytes), or of the end-of-string token (one byte plus five bytes for the zeros).
+   */
+  private static final int MAX_TOKEN_SIZE = 6;
+  /**
+   * Maximum size of a number token without its digits: three bytes for the script, five for the length and another
+   * five for the leading zeros.
+   */
+  private static final int MAX_NUMBER_OVERHEAD = 13;
+
+  private final String string;
+  private final byte[] key;
+
+  /**
+   * An element of an array or list that is to be sorted, decorated with its natural sort key.
+   */
+  static final class Entry implements Comparable<Entry> {
+
+    final byte[] key;
+    final Object element;
+
+    /**
+     * Creates a new {@code Entry} for the given {@code element}, using its {@link Object#toString()} representation.
+     *
+     * @param element The element to be sorted.
+     */
+    Entry(Object element) {
+      this(encode(element.toString()), element);
+    }
+
+    /**
+     * Creates a new {@code Entry} for the given {@code element} with an already encoded key.
+     *
+     * @param key The encoded key of the {@code element}.
+     * @param element The element to be sorted.
+     */
+    Entry(byte[] key, Object element) {
+      this.key = key;
+      this.element = element;
+    }
+
+    @Override
+    public int compareTo(Entry other) {
+      return compare(key, other.key);
+    }
+  }
+
+  /**
+   * Creates a new {@code NaturalSortKey} for the given {@link String} {@code string}.
+   *
+   * @param string The {@code String} to create the key for.
+   * @throws NullPointerException if {@code string} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public NaturalSortKey(String string) {
+    this(string, encode(string));
+  }
+
+  /**
+   * Creates a new {@code NaturalSortKey} for the given {@link String} {@code string} with an already encoded key.
+   *
+   * @param string The {@code String} the key has been created for.
+   * @param key The encoded key.
+   */
+  NaturalSortKey(String string, byte[] key) {
+    this.key = key;
+    this.string = string;
+  }
+
+  /**
+   * Returns the {@link String} this key has been created for.
+   *
+   * @return The original {@code String}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public String getString() {
+    return string;
+  }
+
+  /**
+   * Returns a copy of the encoded key.
+   *
+   * @return The encoded key as {@code byte}-array.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public byte[] getKey() {
+    return key.clone();
+  }
+
+  @Override
+  public int compareTo(NaturalSortKey other) {
+    return compare(key, other.key);
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    return (object instanceof NaturalSortKey) && Arrays.equals(key, ((NaturalSortKey) object).key);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(key);
+  }
+
+  @Override
+  public String toString() {
+    return string;
+  }
+
+  /**
+   * Compares two encoded keys byte by byte, treating each byte as unsigned value.
+   *
+   * @param keyOne The first key to be compared.
+   * @param keyTwo The second key to be compared.
+   * @return -1, 0, or 1 as the first key is less than, equal to, or greater than the second.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static int compare(byte[] keyOne, byte[] keyTwo) {
+    int length = Math.min(keyOne.length, keyTwo.length);
+    for (int i = 0; i < length; i++) {
+      int delta = (keyOne[i] & 0xFF) - (keyTwo[i] & 0xFF);
+      if (delta != 0) {
+        return (delta < 0) ? -1 : 1;
+      }
+    }
+    return (keyOne.length == keyTwo.length) ? 0 : ((keyOne.length < keyTwo.length) ? -1 : 1);
+  }
+
+  /**
+   * Encodes the given {@link CharSequence} into its natural sort key.
+   *
+   * @param string The {@code CharSequence} to encode.
+   * @return The encoded key as {@code byte}-array.
+   * @throws NullPointerException if {@code string} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static byte[] encode(CharSequence string) {
+    return encode(string, true);
+  }
+
+  /**
+   * Encodes the given {@link CharSequence} into a prefix of natural sort keys. This is the natural sort key without
+   * the end-of-string token, so the keys of all strings starting with the same tokens as {@code string} start with the
+   * returned bytes.
+   *
+   * @param string The {@code CharSequence} to encode.
+   * @return The encoded prefix as {@code byte}-array.
+   * @throws NullPointerException if {@code string} is null.
+   */
+  static byte[] encodePrefix(CharSequence string) {
+    return encode(string, false);
+  }
+
+  /**
+   * Encodes the given range of UTF-8 encoded bytes into its natural sort key. For valid UTF-8, the key is the same as
+   * the key of the decoded string.
+   *
+   * @param utf8 The array containing the UTF-8 encoded string.
+   * @param offset The index of the first byte of the string.
+   * @param length The number of bytes of the string.
+   * @return The encoded key as {@code byte}-array.
+   * @throws IndexOutOfBoundsException if the range does not lie within the array.
+   *
+   * @see Utf8NaturalSortComparator
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static byte[] encodeUtf8(byte[] utf8, int offset, int length) {
+    return encode(new Utf8Cursor(utf8, offset, length), length);
+  }
+
+  /**
+   * Encodes the remaining bytes of the given {@link ByteBuffer} into its natural sort key. The position of the buffer
+   * is not changed.
+   *
+   * @param utf8 The buffer containing the UTF-8 encoded string.
+   * @return The encoded key as {@code byte}-array.
+   *
+   * @see #encodeUtf8(byte[], int, int)
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static byte[] encodeUtf8(ByteBuffer utf8) {
+    return encode(new Utf8Cursor(utf8), utf8.remaining());
+  }
+
+  /**
+   * Encodes the string decoded by the given {@link Utf8Cursor} into its natural sort key, in the very same way
+   * {@link #encode(java.lang.CharSequence)} does.
+   *
+   * @param cursor The cursor decoding the string.
+   * @param length The number of bytes of the encoded string.
+   * @return The encoded key as {@code byte}-array.
+   */
+  private static byte[] encode(Utf8Cursor cursor, int length) {
+    byte[] buffer = new byte[length + MAX_TOKEN_SIZE];
+    int position = 0;
+
+    while (true) {
+      char character = cursor.current();
+
+      int leadingZeros = 0;
+      while (Character.isSpaceChar(character) || (character == ZERO)) {
+        leadingZeros = (character == ZERO) ? leadingZeros + 1 : 0;
+        cursor.advance();
+        character = cursor.current();
+      }
+
+      if (character == END_OF_STRING) {
+        buffer = ensureCapacity(buffer, position + MAX_TOKEN_SIZE);
+        position = writeCharacter(buffer, position, END_OF_STRING);
+        position = writeLeadingZeros(buffer, position, leadingZeros);
+        break;
+      }
+
+      if (Character.isDigit(character)) {
+        // count the digits first, as the count is written before them.
+        cursor.mark();
+        int digits = 0;
+        while (Character.isDigit(cursor.current())) {
+          digits++;
+          cursor.advance();
+        }
+        cursor.reset();
+
+        buffer = ensureCapacity(buffer, position + MAX_NUMBER_OVERHEAD + ((digits + 1) >> 1));
+        position = writeCharacter(buffer, position, (char) (character - Character.digit(character, 10)));
+        position = writeLength(buffer, position, digits);
+        for (int i = 0; i < digits; i += 2) {
+          int high = Character.digit(cursor.current(), 10);
+          cursor.advance();
+          int low = 0;
+          if (i + 1 < digits) {
+            low = Character.digit(cursor.current(), 10);
+            cursor.advance();
+          }
+          buffer[position++] = (byte) ((high << 4) | low);
+        }
+        position = writeLeadingZeros(buffer, position, leadingZeros);
+      } else {
+        buffer = ensureCapacity(buffer, position + MAX_TOKEN_SIZE);
+        position = writeCharacter(buffer, position, character);
+        cursor.advance();
+      }
+    }
+
+    return Arrays.copyOf(buffer, position);
+  }
+
+  /**
+   * Encodes the given {@link CharSequence} into its natural sort key, optionally omitting the end-of-string token.
+   *
+   * @param string The {@code CharSequence} to encode.
+   * @param terminate {@code true} if the end-of-string token shall be written, {@code false} otherwise.
+   * @return The encoded key as {@code byte}-array.
+   */
+  private static byte[] encode(CharSequence string, boolean terminate) {
+    int length = string.length();
+    // most strings are (mostly) ASCII, which takes about one byte per char.
+    byte[] buffer = new byte[length + MAX_TOKEN_SIZE];
+    int position = 0;
+    int index = 0;
+
+    while (true) {
+      char character = charAt(string, index);
+
+      // skip over leading spaces or zeros, exactly like the NaturalSortComparator does.
+      int leadingZeros = 0;
+      while (Character.isSpaceChar(character) || (character == ZERO)) {
+        leadingZeros = (character == ZERO) ? leadingZeros + 1 : 0;
+        character = charAt(string, ++index);
+      }
+
+      if (character == END_OF_STRING) {
+        if (terminate) {
+          buffer = ensureCapacity(buffer, position + MAX_TOKEN_SIZE);
+          position = writeCharacter(buffer, position, END_OF_STRING);
+          position = writeLeadingZeros(buffer, position, leadingZeros);
+        }
+        break;
+      }
+
+      if (Character.isDigit(character)) {
+        int end = index + 1;
+        while ((end < length) && Character.isDigit(string.charAt(end))) {
+          end++;
+        }
+        buffer = ensureCapacity(buffer, position + MAX_NUMBER_OVERHEAD + ((end - index + 1) >> 1));
+        position = writeCharacter(buffer, position, (char) (character - Character.digit(character, 10)));
+        position = writeLength(buffer, position, end - index);
+        for (int i = index; i < end; i += 2) {
+          int high = Character.digit(string.charAt(i), 10);
+          int low = (i + 1 < end) ? Character.digit(string.charAt(i + 1), 10) : 0;
+          buffer[position++] = (byte) ((high << 4) | low);
+        }
+        position = writeLeadingZeros(buffer, position, leadingZeros);
+        index = end;
+      } else {
+        buffer = ensureCapacity(buffer, position + MAX_TOKEN_SIZE);
+        position = writeCharacter(buffer, position, character);
+        index++;
+      }
+    }
+
+    return Arrays.copyOf(buffer, position);
+  }
+
+  /**
+   * Sorts the given array in natural order, encoding each element only once.
+   *
+   * <p>
+   * The result is the same as sorting the array with the {@link NaturalSortComparator}. Like the comparator, the
+   * elements are compared by their {@link Object#toString()} representation. The sort is stable.</p>
+   *
+   * @param <T> The type of the elements.
+   * @param array The array to be sorted.
+   * @throws NullPointerException if an element of {@code array} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static <T> void sort(T[] array) {
+    Entry[] entries = new Entry[array.length];
+    for (int i = 0; i < array.length; i++) {
+      entries[i] = new Entry(array[i]);
+    }
+
+    Arrays.sort(entries);
+
+    Object[] target = array;
+    for (int i = 0; i < entries.length; i++) {
+      target[i] = entries[i].element;
+    }
+  }
+
+  /**
+   * Sorts the given {@link List} in natural order, encoding each element only once.
+   *
+   * @param <T> The type of the elements.
+   * @param list The list to be sorted.
+   * @throws NullPointerException if an element of {@code list} is null.
+   * @throws UnsupportedOperationException if the {@code list}'s iterator does not support the {@code set}-operation.
+   *
+   * @see #sort(java.lang.Object[])
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> void sort(List<T> list) {
+    Object[] array = list.toArray();
+    sort(array);
+
+    ListIterator<T> iterator = list.listIterator();
+    for (Object element : array) {
+      iterator.next();
+      iterator.set((T) element);
+    }
+  }
+
+  /**
+   * Returns the {@code char} at position {@code index}, or {@literal 0} if {@code index} is outside of the
+   * {@code string}'s range, just like the {@code NaturalSortComparator} reads its characters.
+   *
+   * @param string The {@code CharSequence} to read from.
+   * @param index The position of the {@code char} to read.
+   * @return The {@code char} at position {@code index}, or {@literal 0}.
+   */
+  private static char charAt(CharSequence string, int index) {
+    return (index < string.length()) ? string.charAt(index) : END_OF_STRING;
+  }
+
+  /**
+   * Makes sure the given {@code buffer} can hold at least {@code capacity} bytes, by replacing it with a larger copy if
+   * necessary.
+   *
+   * @param buffer The buffer to check.
+   * @param capacity The required capacity.
+   * @return Either the given {@code buffer}, or a larger copy of it.
+   */
+  private static byte[] ensureCapacity(byte[] buffer, int capacity) {
+    return (capacity <= buffer.length) ? buffer : Arrays.copyOf(buffer, Math.max(capacity, buffer.length << 1));
+  }
+
+  /**
+   * Writes a {@code char} value in an order-preserving, UTF-8 like encoding of one to three bytes.
+   *
+   * @param buffer The buffer to write to.
+   * @param position The position within the buffer to write to.
+   * @param character The {@code char} value to write.
+   * @return The position after the written bytes.
+   */
+  private static int writeCharacter(byte[] buffer, int position, char character) {
+    if (character < 0x80) {
+      buffer[position++] = (byte) character;
+    } else if (character < 0x800) {
+      buffer[position++] = (byte) (0xC0 | (character >>> 6));
+      buffer[position++] = (byte) (0x80 | (character & 0x3F));
+    } else {
+      buffer[position++] = (byte) (0xE0 | (character >>> 12));
+      buffer[position++] = (byte) (0x80 | ((character >>> 6) & 0x3F));
+      buffer[position++] = (byte) (0x80 | (character & 0x3F));
+    }
+    return position;
+  }
+
+  /**
+   * Writes the count of digits of a number. Counts below {@code 0xFF} take a single byte, all others are written as
+   * {@code 0xFF}, followed by the four bytes of the count.
+   *
+   * @param buffer The buffer to write to.
+   * @param position The position within the buffer to write to.
+   * @param length The count of digits to write.
+   * @return The position after the written bytes.
+   */
+  private static int writeLength(byte[] buffer, int position, int length) {
+    if (length < SHORT_LENGTH_LIMIT) {
+      buffer[position++] = (byte) length;
+      return position;
+    }
+    buffer[position++] = (byte) LONG_LENGTH_MARKER;
+    return writeInt(buffer, position, length);
+  }
+
+  /**
+   * Writes the count of leading zeros inverted, as more leading zeros sort first. Counts below {@code 0xFE} take a
+   * single byte (from {@code 0xFF} downwards), all others are written as {@code 0x01}, followed by the four bytes of
+   * the inverted count.
+   *
+   * @param buffer The buffer to write to.
+   * @param position The position within the buffer to write to.
+   * @param leadingZeros The count of leading zeros to write.
+   * @return The position after the written bytes.
+   */
+  private static int writeLeadingZeros(byte[] buffer, int position, int leadingZeros) {
+    if (leadingZeros < SHORT_ZEROS_LIMIT) {
+      buffer[position++] = (byte) (0xFF - leadingZeros);
+      return position;
+    }
+    buffer[position++] = (byte) LONG_ZEROS_MARKER;
+    return writeInt(buffer, position, ~leadingZeros);
+  }
+
+  /**
+   * Writes the four bytes of an {@code int} value in big-endian order.
+   *
+   * @param buffer The buffer to write to.
+   * @param position The position within the buffer to write to.
+   * @param value The value to write.
+   * @return The position after the written bytes.
+   */
+  private static int writeInt(byte[] buffer, int position, int value) {
+    buffer[position++] = (byte) (value >>> 24);
+    buffer[position++] = (byte) (value >>> 16);
+    buffer[position++] = (byte) (value >>> 8);
+    buffer[position++] = (byte) value;
+    return position;
+  }
+}
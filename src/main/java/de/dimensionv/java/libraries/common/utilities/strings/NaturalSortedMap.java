@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * A {@link SortedMap} with {@link String} keys in natural order, backed by pre-computed {@link NaturalSortKey}s.</p>
+ *
+ * <p>
+ * A {@link java.util.TreeMap} with a {@link NaturalSortComparator} parses both keys on each and every level of the
+ * tree. This map encodes a key only once when it is put into the map, and once per lookup. Within the map, keys are
+ * compared byte by byte. The entries are held in a {@link ConcurrentSkipListMap}, so any number of threads may read
+ * the map while others modify it. Like with the skip list, iterators and views are weakly consistent: they never throw
+ * a {@link java.util.ConcurrentModificationException}, and reflect some of the modifications made after their
+ * creation.</p>
+ *
+ * <p>
+ * Besides the range views of a {@code SortedMap}, the map supports prefix scans in natural order (see
+ * {@link #prefixMap(java.lang.String)}).</p>
+ *
+ * <p>
+ * Keys that are equal in natural order (like "item5" and "item 5") are the same key. When putting a value for a key
+ * that is already present, the key that has been put first is kept. Neither keys nor values may be {@code null}.</p>
+ *
+ * @param <V> The type of the values.
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class NaturalSortedMap<V> extends AbstractMap<String, V> implements SortedMap<String, V> {
+
+  private final ConcurrentNavigableMap<NaturalSortKey, V> map;
+  private final AtomicInteger count;
+  private final boolean view;
+
+  private Set<Map.Entry<String, V>> entrySet = null;
+
+  /**
+   * The set of entries of the map, which translates the {@link NaturalSortKey}s back into their {@link String}s.
+   */
+  private final class EntrySet extends AbstractSet<Map.Entry<String, V>> {
+
+    @Override
+    public Iterator<Map.Entry<String, V>> iterator() {
+      final Iterator<Map.Entry<NaturalSortKey, V>> iterator = map.entrySet().iterator();
+
+      return new Iterator<Map.Entry<String, V>>() {
+        private NaturalSortKey last = null;
+
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, V> next() {
+          Map.Entry<NaturalSortKey, V> entry = iterator.next();
+          last = entry.getKey();
+          return new AbstractMap.SimpleImmutableEntry<String, V>(last.getString(), entry.getValue());
+        }
+
+        @Override
+        public void remove() {
+          if (last == null) {
+            throw new IllegalStateException();
+          }
+          removeKey(last);
+          last = null;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return NaturalSortedMap.this.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return NaturalSortedMap.this.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+      NaturalSortedMap.this.clear();
+    }
+  }
+
+  /**
+   * Creates a new, empty {@code NaturalSortedMap}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public NaturalSortedMap() {
+    this(new ConcurrentSkipListMap<NaturalSortKey, V>(), new AtomicInteger(), false);
+  }
+
+  /**
+   * Creates a new {@code NaturalSortedMap} containing all entries of the given {@code map}.
+   *
+   * @param map The map whose entries shall be put into the new map.
+   * @throws NullPointerException if {@code map} or one of its keys or values is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public NaturalSortedMap(Map<? extends String, ? extends V> map) {
+    this();
+    putAll(map);
+  }
+
+  /**
+   * Creates a new {@code NaturalSortedMap} on top of the given skip list.
+   *
+   * @param map The skip list holding the entries.
+   * @param count The number of entries in the whole map, shared by all of its views.
+   * @param view {@code true} if the map is a view of a part of another map, {@code false} otherwise.
+   */
+  private NaturalSortedMap(ConcurrentNavigableMap<NaturalSortKey, V> map, AtomicInteger count, boolean view) {
+    this.map = map;
+    this.count = count;
+    this.view = view;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   * For the whole map, this is a constant-time operation. For views, the entries have to be counted.</p>
+   */
+  @Override
+  public int size() {
+    return view ? map.size() : count.get();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return map.containsKey(createKey(key));
+  }
+
+  @Override
+  public V get(Object key) {
+    return map.get(createKey(key));
+  }
+
+  @Override
+  public V put(String key, V value) {
+    V previous = map.put(new NaturalSortKey(key), value);
+    if (previous == null) {
+      count.incrementAndGet();
+    }
+    return previous;
+  }
+
+  @Override
+  public V remove(Object key) {
+    return removeKey(createKey(key));
+  }
+
+  @Override
+  public void clear() {
+    for (NaturalSortKey key : map.keySet()) {
+      removeKey(key);
+    }
+  }
+
+  @Override
+  public Set<Map.Entry<String, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   * The keys are ordered like the {@link NaturalSortComparator} orders them, as long as numbers at the same position
+   * are written in the same script (see {@link NaturalSortKey}).</p>
+   */
+  @Override
+  public Comparator<? super String> comparator() {
+    return NaturalSortComparator.getInstance();
+  }
+
+  @Override
+  public String firstKey() {
+    return map.firstKey().getString();
+  }
+
+  @Override
+  public String lastKey() {
+    return map.lastKey().getString();
+  }
+
+  @Override
+  public NaturalSortedMap<V> subMap(String fromKey, String toKey) {
+    return createView(map.subMap(new NaturalSortKey(fromKey), new NaturalSortKey(toKey)));
+  }
+
+  @Override
+  public NaturalSortedMap<V> headMap(String toKey) {
+    return createView(map.headMap(new NaturalSortKey(toKey)));
+  }
+
+  @Override
+  public NaturalSortedMap<V> tailMap(String fromKey) {
+    return createView(map.tailMap(new NaturalSortKey(fromKey)));
+  }
+
+  /**
+   * <p>
+   * Returns a view of the part of this map whose keys start with the given {@code prefix} in natural order.</p>
+   *
+   * <p>
+   * In natural order, a key starts with the {@code prefix} if it starts with the same characters and numbers. A number
+   * in the {@code prefix} only matches the very same number with the same count of leading zeros, e.g. "item1"
+   * matches "item1", "item 1" and "item1a", but neither "item10" nor "item01". Spaces and zeros at the end of the
+   * {@code prefix} are ignored, since they only count in relation to what follows them.</p>
+   *
+   * <p>
+   * Like with the other views, changes to the view are reflected in this map and vice versa.</p>
+   *
+   * @param prefix The prefix of the keys.
+   * @return A view of the part of this map whose keys start with {@code prefix}.
+   * @throws NullPointerException if {@code prefix} is null.
+   * @throws IllegalArgumentException if this map is a view itself, and keys with the given {@code prefix} lie outside
+   * of its range.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public NaturalSortedMap<V> prefixMap(String prefix) {
+    byte[] fromKey = NaturalSortKey.encodePrefix(prefix);
+    byte[] toKey = createSuccessor(fromKey);
+
+    NaturalSortKey from = new NaturalSortKey(prefix, fromKey);
+    if (toKey == null) {
+      return createView(map.tailMap(from, true));
+    }
+    return createView(map.subMap(from, true, new NaturalSortKey(prefix, toKey), false));
+  }
+
+  /**
+   * Creates a view of this map.
+   *
+   * @param subMap The part of the skip list to create the view for.
+   * @return The view.
+   */
+  private NaturalSortedMap<V> createView(ConcurrentNavigableMap<NaturalSortKey, V> subMap) {
+    return new NaturalSortedMap<V>(subMap, count, true);
+  }
+
+  /**
+   * Removes the entry with the given key, and keeps the count of entries up to date.
+   *
+   * @param key The key of the entry to remove.
+   * @return The value of the removed entry, or {@code null} if there was none.
+   */
+  private V removeKey(NaturalSortKey key) {
+    V previous = map.remove(key);
+    if (previous != null) {
+      count.decrementAndGet();
+    }
+    return previous;
+  }
+
+  /**
+   * Creates the {@link NaturalSortKey} for a key given as {@link Object}.
+   *
+   * @param key The key.
+   * @return The {@code NaturalSortKey} for the key.
+   * @throws ClassCastException if {@code key} is not a {@link String}.
+   * @throws NullPointerException if {@code key} is null.
+   */
+  private static NaturalSortKey createKey(Object key) {
+    return new NaturalSortKey((String) key);
+  }
+
+  /**
+   * Creates the smallest key that is greater than all keys starting with the given {@code prefix}.
+   *
+   * @param prefix The encoded prefix.
+   * @return The successor of the prefix, or {@code null} if there is none.
+   */
+  private static byte[] createSuccessor(byte[] prefix) {
+    for (int i = prefix.length - 1; i >= 0; i--) {
+      if (prefix[i] != (byte) 0xFF) {
+        byte[] successor = Arrays.copyOf(prefix, i + 1);
+        successor[i]++;
+        return successor;
+      }
+    }
+    return null;
+  }
+}
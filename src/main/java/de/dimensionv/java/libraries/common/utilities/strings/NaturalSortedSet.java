@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.SortedSet;
+
+/**
+ * <p>
+ * A {@link SortedSet} of {@link String}s in natural order, backed by a {@link NaturalSortedMap}.</p>
+ *
+ * <p>
+ * Like the {@code NaturalSortedMap}, the set compares pre-computed {@link NaturalSortKey}s instead of parsing the
+ * strings on each comparison, supports prefix scans (see {@link #prefixSet(java.lang.String)}), and may be read by
+ * any number of threads while others modify it. Strings that are equal in natural order (like "item5" and "item 5")
+ * are the same element. The set does not permit {@code null} elements.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public class NaturalSortedSet extends AbstractSet<String> implements SortedSet<String> {
+
+  private static final Object PRESENT = Boolean.TRUE;
+
+  private final NaturalSortedMap<Object> map;
+
+  /**
+   * Creates a new, empty {@code NaturalSortedSet}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public NaturalSortedSet() {
+    this(new NaturalSortedMap<Object>());
+  }
+
+  /**
+   * Creates a new {@code NaturalSortedSet} containing all elements of the given {@code collection}.
+   *
+   * @param collection The collection whose elements shall be added to the new set.
+   * @throws NullPointerException if {@code collection} or one of its elements is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public NaturalSortedSet(Collection<? extends String> collection) {
+    this();
+    addAll(collection);
+  }
+
+  /**
+   * Creates a new {@code NaturalSortedSet} backed by the given {@code map}.
+   *
+   * @param map The map holding the elements as keys.
+   */
+  private NaturalSortedSet(NaturalSortedMap<Object> map) {
+    this.map = map;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return map.keySet().iterator();
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public boolean contains(Object object) {
+    return map.containsKey(object);
+  }
+
+  @Override
+  public boolean add(String element) {
+    return map.put(element, PRESENT) == null;
+  }
+
+  @Override
+  public boolean remove(Object object) {
+    return map.remove(object) != null;
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see NaturalSortedMap#comparator()
+   */
+  @Override
+  public Comparator<? super String> comparator() {
+    return map.comparator();
+  }
+
+  @Override
+  public String first() {
+    return map.firstKey();
+  }
+
+  @Override
+  public String last() {
+    return map.lastKey();
+  }
+
+  @Override
+  public NaturalSortedSet subSet(String fromElement, String toElement) {
+    return new NaturalSortedSet(map.subMap(fromElement, toElement));
+  }
+
+  @Override
+  public NaturalSortedSet headSet(String toElement) {
+    return new NaturalSortedSet(map.headMap(toElement));
+  }
+
+  @Override
+  public NaturalSortedSet tailSet(String fromElement) {
+    return new NaturalSortedSet(map.tailMap(fromElement));
+  }
+
+  /**
+   * Returns a view of the part of this set whose elements start with the given {@code prefix} in natural order.
+   *
+   * @param prefix The prefix of the elements.
+   * @return A view of the part of this set whose elements start with {@code prefix}.
+   * @throws NullPointerException if {@code prefix} is null.
+   * @throws IllegalArgumentException if this set is a view itself, and elements with the given {@code prefix} lie
+   * outside of its range.
+   *
+   * @see NaturalSortedMap#prefixMap(java.lang.String)
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public NaturalSortedSet prefixSet(String prefix) {
+    return new NaturalSortedSet(map.prefixMap(prefix));
+  }
+}
@@ -34,6 +34,8 @@
 package de.dimensionv.java.libraries.common.utilities.strings;
 
 import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -45,7 +47,7 @@ import java.util.regex.Pattern;
  *
  * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
  *
- * @version 1.4
+ * @version 1.5
  * @since API 1.0.0
  */
 public class StringUtils {
@@ -54,9 +56,12 @@ public class StringUtils {
 
   private static final String HASH_SHA1 = "SHA-1";
   private static final String HASH_MD5 = "MD5";
+  private static final int HASH_BUFFER_SIZE = 65536;
 
   private static final String SHORTEN_STRING = "...";
 
+  private static final char ASCII_LIMIT = 0x80;
+
   public static final int SHORTEN_START = 1;
   public static final int SHORTEN_MIDDLE = 2;
   public static final int SHORTEN_END = 3;
@@ -234,6 +239,38 @@ public class StringUtils {
     return truncateHashToLong(computeHash(text, HASH_MD5));
   }
 
+  /**
+   * Compute the SHA-1 hash of the remaining content of a stream, and return it as a string of hexadecimal numbers. The
+   * content is read in chunks, so streams of any size can be hashed. The stream is read to its end, but not closed.
+   *
+   * @param input Stream to compute the SHA-1 hash of
+   * @return the hexadecimal representation of the hash
+   * @throws NoSuchAlgorithmException thrown if the SHA-1 algorithm cannot be found
+   * @throws IOException thrown if the stream cannot be read
+   *
+   * @since Class 1.5
+   * @since API 2.2.0
+   */
+  public static String sha1Hash(InputStream input) throws NoSuchAlgorithmException, IOException {
+    return bytesToHex(computeHash(input, HASH_SHA1));
+  }
+
+  /**
+   * Compute the MD-5 hash of the remaining content of a stream, and return it as a string of hexadecimal numbers. The
+   * content is read in chunks, so streams of any size can be hashed. The stream is read to its end, but not closed.
+   *
+   * @param input Stream to compute the MD-5 hash of
+   * @return the hexadecimal representation of the hash
+   * @throws NoSuchAlgorithmException thrown if the MD-5 algorithm cannot be found
+   * @throws IOException thrown if the stream cannot be read
+   *
+   * @since Class 1.5
+   * @since API 2.2.0
+   */
+  public static String md5Hash(InputStream input) throws NoSuchAlgorithmException, IOException {
+    return bytesToHex(computeHash(input, HASH_MD5));
+  }
+
   /**
    * Computes a truncated code from the given hash-value and returns it as int-variable.
    *
@@ -304,6 +341,16 @@ public class StringUtils {
     return md.digest();
   }
 
+  private static byte[] computeHash(InputStream input, String algorithm) throws NoSuchAlgorithmException, IOException {
+    MessageDigest md = MessageDigest.getInstance(algorithm);
+    byte[] buffer = new byte[HASH_BUFFER_SIZE];
+    int read;
+    while ((read = input.read(buffer)) >= 0) {
+      md.update(buffer, 0, read);
+    }
+    return md.digest();
+  }
+
   /**
    * Shortens a given String "text" down to size length, indicating the shortening by three dots ("..."). Mode
    * determines the position of the dots and where the text will be cut off.
@@ -459,4 +506,22 @@ public class StringUtils {
 
     return strings;
   }
+
+  /**
+   * Folds the case of the given character, in the same way {@link String#CASE_INSENSITIVE_ORDER} does, so two
+   * characters are equal ignoring case if their folded characters are equal. ASCII characters are folded
+   * arithmetically, all others by converting them to upper and then to lower case.
+   *
+   * @param character The character to fold.
+   * @return The folded character.
+   *
+   * @since Class 1.5
+   * @since API 2.2.0
+   */
+  public static char foldCase(char character) {
+    if (character < ASCII_LIMIT) {
+      return ((character >= 'A') && (character <= 'Z')) ? (char) (character + ('a' - 'A')) : character;
+    }
+    return Character.toLowerCase(Character.toUpperCase(character));
+  }
 }
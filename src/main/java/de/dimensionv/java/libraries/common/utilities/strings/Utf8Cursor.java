@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * A forward-only cursor, which decodes UTF-8 encoded bytes into {@code char}s on the fly, exactly like
+ * {@link String#String(byte[], java.nio.charset.Charset)} would for valid UTF-8: characters outside of the Basic
+ * Multilingual Plane yield a surrogate pair. Malformed input yields one replacement character (U+FFFD) for each
+ * maximal part of a valid sequence, or for each offending byte, as recommended by the Unicode standard.</p>
+ *
+ * <p>
+ * Beyond the end of the input, the cursor returns {@literal 0}, just like the {@link NaturalSortComparator} reads
+ * characters beyond the end of a string.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+final class Utf8Cursor {
+
+  private static final char END_OF_INPUT = 0;
+  private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+
+  private final byte[] array;
+  private final ByteBuffer buffer;
+  private final int limit;
+
+  private int position;
+  private char current;
+  private char lowSurrogate = 0;
+
+  private int markedPosition;
+  private char markedCurrent;
+  private char markedLowSurrogate;
+
+  /**
+   * Creates a new {@code Utf8Cursor} for the given range of the {@code array}.
+   *
+   * @param array The UTF-8 encoded bytes.
+   * @param offset The index of the first byte.
+   * @param length The number of bytes.
+   * @throws IndexOutOfBoundsException if the range does not lie within the {@code array}.
+   */
+  Utf8Cursor(byte[] array, int offset, int length) {
+    if ((offset < 0) || (length < 0) || (offset > array.length - length)) {
+      throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", size " + array.length);
+    }
+    this.array = array;
+    this.buffer = null;
+    this.position = offset;
+    this.limit = offset + length;
+    decode();
+  }
+
+  /**
+   * Creates a new {@code Utf8Cursor} for the remaining bytes of the given {@code buffer}. The position of the
+   * {@code buffer} is not changed.
+   *
+   * @param buffer The UTF-8 encoded bytes.
+   */
+  Utf8Cursor(ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      this.array = buffer.array();
+      this.buffer = null;
+      this.position = buffer.arrayOffset() + buffer.position();
+      this.limit = buffer.arrayOffset() + buffer.limit();
+    } else {
+      this.array = null;
+      this.buffer = buffer;
+      this.position = buffer.position();
+      this.limit = buffer.limit();
+    }
+    decode();
+  }
+
+  /**
+   * Returns the current character.
+   *
+   * @return The current character, or {@literal 0} at the end of the input.
+   */
+  char current() {
+    return current;
+  }
+
+  /**
+   * Moves on to the next character.
+   */
+  void advance() {
+    if (lowSurrogate != 0) {
+      current = lowSurrogate;
+      lowSurrogate = 0;
+    } else {
+      decode();
+    }
+  }
+
+  /**
+   * Remembers the current position, so that it can be restored by {@link #reset()}.
+   */
+  void mark() {
+    markedPosition = position;
+    markedCurrent = current;
+    markedLowSurrogate = lowSurrogate;
+  }
+
+  /**
+   * Returns to the position remembered by {@link #mark()}.
+   */
+  void reset() {
+    position = markedPosition;
+    current = markedCurrent;
+    lowSurrogate = markedLowSurrogate;
+  }
+
+  /**
+   * Decodes the character at the current position, and moves the position behind it.
+   */
+  private void decode() {
+    if (position >= limit) {
+      current = END_OF_INPUT;
+      return;
+    }
+
+    int first = byteAt(position);
+    if (first < 0x80) {
+      current = (char) first;
+      position++;
+      return;
+    }
+
+    int codePoint = REPLACEMENT_CHARACTER;
+    int length = 1;
+    if ((first >= 0xC2) && (first <= 0xDF)) {
+      int second = continuationAt(position + 1);
+      if (second >= 0) {
+        codePoint = ((first & 0x1F) << 6) | second;
+        length = 2;
+      }
+    } else if ((first >= 0xE0) && (first <= 0xEF)) {
+      int second = continuationAt(position + 1);
+      // neither overlong encodings, nor surrogates
+      if ((second >= 0) && ((first != 0xE0) || (second >= 0x20)) && ((first != 0xED) || (second < 0x20))) {
+        int third = continuationAt(position + 2);
+        length = 2; // the maximal valid part of the sequence makes up a single replacement character
+        if (third >= 0) {
+          codePoint = ((first & 0x0F) << 12) | (second << 6) | third;
+          length = 3;
+        }
+      }
+    } else if ((first >= 0xF0) && (first <= 0xF4)) {
+      int second = continuationAt(position + 1);
+      // neither overlong encodings, nor code points beyond U+10FFFF
+      if ((second >= 0) && ((first != 0xF0) || (second >= 0x10)) && ((first != 0xF4) || (second < 0x10))) {
+        int third = continuationAt(position + 2);
+        int fourth = continuationAt(position + 3);
+        length = (third >= 0) ? 3 : 2;
+        if ((third >= 0) && (fourth >= 0)) {
+          codePoint = ((first & 0x07) << 18) | (second << 12) | (third << 6) | fourth;
+          length = 4;
+        }
+      }
+    }
+
+    position += length;
+    if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+      current = Character.highSurrogate(codePoint);
+      lowSurrogate = Character.lowSurrogate(codePoint);
+    } else {
+      current = (char) codePoint;
+    }
+  }
+
+  /**
+   * Returns the payload of the continuation byte at the given index.
+   *
+   * @param index The index of the byte.
+   * @return The lower six bits of the byte, or {@literal -1} if there is no continuation byte at {@code index}.
+   */
+  private int continuationAt(int index) {
+    if (index >= limit) {
+      return -1;
+    }
+    int value = byteAt(index);
+    return ((value & 0xC0) == 0x80) ? (value & 0x3F) : -1;
+  }
+
+  /**
+   * Returns the byte at the given index as unsigned value.
+   *
+   * @param index The index of the byte.
+   * @return The unsigned value of the byte.
+   */
+  private int byteAt(int index) {
+    return ((array != null) ? array[index] : buffer.get(index)) & 0xFF;
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+
+/**
+ * <p>
+ * A {@link Comparator} that sorts UTF-8 encoded strings in natural order, without decoding them into {@link String}s
+ * first.</p>
+ *
+ * <p>
+ * The bytes are decoded on the fly, while comparing. For valid UTF-8, the order is exactly the same as the order of
+ * the {@link NaturalSortComparator} for the decoded strings. Besides whole {@code byte}-arrays, ranges of arrays and
+ * the remaining bytes of {@link ByteBuffer}s (direct ones as well) can be compared. To sort large amounts of encoded
+ * strings, consider encoding them into natural sort keys once with
+ * {@link NaturalSortKey#encodeUtf8(byte[], int, int)} instead.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class Utf8NaturalSortComparator implements Comparator<byte[]> {
+
+  private static final Utf8NaturalSortComparator INSTANCE = new Utf8NaturalSortComparator();
+
+  private static final char END_OF_STRING = 0;
+  private static final char ZERO = '0';
+
+  /**
+   * Creates a new {@code Utf8NaturalSortComparator}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Utf8NaturalSortComparator() {
+    // nothing to do, the comparator has no state.
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param utf8One The first UTF-8 encoded string.
+   * @param utf8Two The second UTF-8 encoded string.
+   * @return -1, 0, or 1 as the first string is less than, equal to, or greater than the second.
+   * @throws NullPointerException if an argument is null.
+   */
+  @Override
+  public int compare(byte[] utf8One, byte[] utf8Two) {
+    return compare(new Utf8Cursor(utf8One, 0, utf8One.length), new Utf8Cursor(utf8Two, 0, utf8Two.length));
+  }
+
+  /**
+   * Compares two ranges of UTF-8 encoded bytes in natural order.
+   *
+   * @param utf8One The array containing the first string.
+   * @param offsetOne The index of the first byte of the first string.
+   * @param lengthOne The number of bytes of the first string.
+   * @param utf8Two The array containing the second string.
+   * @param offsetTwo The index of the first byte of the second string.
+   * @param lengthTwo The number of bytes of the second string.
+   * @return -1, 0, or 1 as the first string is less than, equal to, or greater than the second.
+   * @throws IndexOutOfBoundsException if a range does not lie within its array.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int compare(byte[] utf8One, int offsetOne, int lengthOne, byte[] utf8Two, int offsetTwo, int lengthTwo) {
+    return compare(new Utf8Cursor(utf8One, offsetOne, lengthOne), new Utf8Cursor(utf8Two, offsetTwo, lengthTwo));
+  }
+
+  /**
+   * Compares the remaining bytes of two {@link ByteBuffer}s in natural order. The positions of the buffers are not
+   * changed.
+   *
+   * @param utf8One The buffer containing the first string.
+   * @param utf8Two The buffer containing the second string.
+   * @return -1, 0, or 1 as the first string is less than, equal to, or greater than the second.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int compare(ByteBuffer utf8One, ByteBuffer utf8Two) {
+    return compare(new Utf8Cursor(utf8One), new Utf8Cursor(utf8Two));
+  }
+
+  /**
+   * Compares two decoded strings in natural order, in the very same steps the {@link NaturalSortComparator} takes.
+   *
+   * @param one The cursor of the first string.
+   * @param two The cursor of the second string.
+   * @return -1, 0, or 1 as the first string is less than, equal to, or greater than the second.
+   */
+  private static int compare(Utf8Cursor one, Utf8Cursor two) {
+    while (true) {
+      int leadingZerosOne = skipLeadingZeros(one);
+      int leadingZerosTwo = skipLeadingZeros(two);
+
+      char characterOne = one.current();
+      char characterTwo = two.current();
+
+      if (Character.isDigit(characterOne) && Character.isDigit(characterTwo)) {
+        int result = compareDigits(one, two);
+        if (result == 0) {
+          result = compareLeadingZeros(leadingZerosOne, leadingZerosTwo);
+        }
+        if (result != 0) {
+          return result;
+        }
+        // both numbers are equal, and the cursors are positioned behind them.
+        continue;
+      } else if ((characterOne == END_OF_STRING) && (characterTwo == END_OF_STRING)) {
+        return compareLeadingZeros(leadingZerosOne, leadingZerosTwo);
+      }
+
+      if (characterOne != characterTwo) {
+        return (characterOne < characterTwo) ? -1 : 1;
+      }
+
+      one.advance();
+      two.advance();
+    }
+  }
+
+  /**
+   * Compares the numbers at the current positions of both cursors. If they are equal, both cursors are moved behind
+   * them.
+   *
+   * @param one The cursor of the first string.
+   * @param two The cursor of the second string.
+   * @return -1, 0, or 1 as the first number is less than, equal to, or greater than the second.
+   */
+  private static int compareDigits(Utf8Cursor one, Utf8Cursor two) {
+    int result = 0;
+
+    while (true) {
+      boolean digitOne = Character.isDigit(one.current());
+      boolean digitTwo = Character.isDigit(two.current());
+
+      if (!digitOne && !digitTwo) {
+        return result;
+      } else if (!digitOne) {
+        return -1; // the first number is shorter
+      } else if (!digitTwo) {
+        return 1;
+      } else if (result == 0) {
+        // only the first differing digit counts
+        char characterOne = one.current();
+        char characterTwo = two.current();
+        if (characterOne != characterTwo) {
+          result = (characterOne < characterTwo) ? -1 : 1;
+        }
+      }
+
+      one.advance();
+      two.advance();
+    }
+  }
+
+  /**
+   * Skips over spaces and zeros, counting the consecutive zeros.
+   *
+   * @param cursor The cursor to move.
+   * @return The number of consecutive zeros skipped last.
+   */
+  private static int skipLeadingZeros(Utf8Cursor cursor) {
+    int leadingZeros = 0;
+    char character = cursor.current();
+    while (Character.isSpaceChar(character) || (character == ZERO)) {
+      leadingZeros = (character == ZERO) ? leadingZeros + 1 : 0;
+      cursor.advance();
+      character = cursor.current();
+    }
+    return leadingZeros;
+  }
+
+  /**
+   * Compares two counts of leading zeros. The more zeros, the lower the result.
+   *
+   * @param leadingZerosOne The count of leading zeros of the first string.
+   * @param leadingZerosTwo The count of leading zeros of the second string.
+   * @return -1, 0, or 1 as the first string is less than, equal to, or greater than the second.
+   */
+  private static int compareLeadingZeros(int leadingZerosOne, int leadingZerosTwo) {
+    return Integer.compare(leadingZerosTwo, leadingZerosOne);
+  }
+
+  /**
+   * Returns a shared {@code Utf8NaturalSortComparator} instance.
+   *
+   * @return The shared instance.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static Utf8NaturalSortComparator getInstance() {
+    return INSTANCE;
+  }
+}
@@ -0,0 +1,504 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * <p>
+ * An immutable, parsed version string, like {@code 1.10.0-rc2} or {@code 2.0.1-SNAPSHOT}. The string is parsed only
+ * once, into its numeric components and the rank of its qualifier, so comparing two versions boils down to comparing
+ * primitives. For up to four numeric components below 65536 without leading zeros (which covers most version strings
+ * in the wild), the components are packed into a single {@code long}, and two versions differing in those components
+ * are compared in constant time.</p>
+ *
+ * <p>
+ * A version string consists of an optional {@code v} or {@code V}, followed by numeric components separated by dots,
+ * an optional qualifier, and optional build metadata:</p>
+ *
+ * <pre>  [v]&lt;number&gt;{.&lt;number&gt;}[[-|_|.]&lt;qualifier&gt;][+&lt;build metadata&gt;]</pre>
+ *
+ * <p>
+ * Numeric components are compared by their values. If all components of one version are equal to the first
+ * components of the other version, the version with fewer components sorts first. Leading zeros only decide between
+ * versions that are equal otherwise: then the version with more leading zeros in the first component where they differ
+ * sorts first. Like in the {@link NaturalSortComparator}, a component consisting of zeros only has no leading zeros,
+ * unless it is the last one. So versions consisting of numeric components only are sorted like the
+ * {@link NaturalSortComparator} sorts them, except that the comparator already lets leading zeros decide in the first
+ * component where they differ, e.g. it sorts {@code 1.01.2} before {@code 1.1.1}.</p>
+ *
+ * <p>
+ * Versions with equal numeric components are ordered by their qualifiers. A qualifier starts with a keyword, which is
+ * optionally followed by a number and further text, e.g. {@code rc2} or {@code beta-3}. Keywords are case-insensitive,
+ * and are ranked as follows:</p>
+ *
+ * <ol>
+ * <li>{@code alpha} (or {@code a}, if directly followed by a number)</li>
+ * <li>{@code beta} (or {@code b}, if directly followed by a number)</li>
+ * <li>{@code milestone} (or {@code m}, if directly followed by a number)</li>
+ * <li>{@code rc}, {@code cr}, {@code pre}, {@code preview}</li>
+ * <li>{@code snapshot}</li>
+ * <li>no qualifier, {@code ga}, {@code final}, {@code release}, or a qualifier starting with a number</li>
+ * <li>{@code sp}</li>
+ * <li>any other keyword, in alphabetical order</li>
+ * </ol>
+ *
+ * <p>
+ * Qualifiers of the same rank are ordered by their numbers (no number sorts first), and finally by their remaining
+ * text, in case-insensitive natural order. Build metadata does not take part in the ordering, as specified by Semantic
+ * Versioning.</p>
+ *
+ * <p>
+ * The natural ordering of versions is consistent with {@link #equals(java.lang.Object)}: {@code 1.0}, {@code 1.0-GA}
+ * and {@code 1.0+build.5} are equal versions. The original string is available through {@link #toString()}.</p>
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class Version implements Comparable<Version> {
+
+  private static final int RANK_ALPHA = 0;
+  private static final int RANK_BETA = 1;
+  private static final int RANK_MILESTONE = 2;
+  private static final int RANK_RELEASE_CANDIDATE = 3;
+  private static final int RANK_SNAPSHOT = 4;
+  private static final int RANK_RELEASE = 5;
+  private static final int RANK_SERVICE_PACK = 6;
+  private static final int RANK_UNKNOWN = 7;
+
+  private static final int PACKED_COMPONENTS = 4;
+  private static final int PACKED_BITS = 16;
+  private static final long PACKED_LIMIT = 1L << PACKED_BITS;
+
+  private static final long NO_NUMBER = -1;
+
+  private final String version;
+  private final long[] components;
+  // null if none of the components has leading zeros
+  private final int[] leadingZeros;
+  // only valid if packable is true
+  private final long packedComponents;
+  private final boolean packable;
+  private final int rank;
+  // only set for RANK_UNKNOWN, in lower case
+  private final String keyword;
+  private final long qualifierNumber;
+  private final String qualifierText;
+  private final String buildMetadata;
+
+  /**
+   * Parses the given version string.
+   *
+   * @param version The version string to be parsed.
+   * @throws NullPointerException if {@code version} is null.
+   * @throws InvalidStringValueException if {@code version} is not a valid version string, or a number in it does
+   * not fit into a {@code long}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public Version(CharSequence version) {
+    if (version == null) {
+      throw new NullPointerException("version");
+    }
+    this.version = version.toString();
+
+    String string = this.version;
+    int length = string.length();
+    int index = 0;
+    if ((length > 0) && ((string.charAt(0) == 'v') || (string.charAt(0) == 'V'))) {
+      index++;
+    }
+
+    // numeric components
+    long[] parsedComponents = new long[4];
+    int[] parsedLeadingZeros = null;
+    int count = 0;
+    while (true) {
+      int start = index;
+      while ((index < length) && isDigit(string.charAt(index))) {
+        index++;
+      }
+      if (start == index) {
+        throw new InvalidStringValueException(this.version);
+      }
+      int digits = start;
+      while ((digits < index - 1) && (string.charAt(digits) == '0')) {
+        digits++;
+      }
+      // like in the NaturalSortComparator, a number consisting of zeros only has no leading zeros, unless it ends the
+      // version; its weight is reduced by one then, so common versions like 2.0 can still be packed
+      int zeros = digits - start;
+      if ((string.charAt(digits) == '0') && (index < length) && (string.charAt(index) != '+')) {
+        zeros = 0;
+      }
+      if (count == parsedComponents.length) {
+        parsedComponents = Arrays.copyOf(parsedComponents, count * 2);
+        if (parsedLeadingZeros != null) {
+          parsedLeadingZeros = Arrays.copyOf(parsedLeadingZeros, count * 2);
+        }
+      }
+      if (zeros > 0) {
+        if (parsedLeadingZeros == null) {
+          parsedLeadingZeros = new int[parsedComponents.length];
+        }
+        parsedLeadingZeros[count] = zeros;
+      }
+      parsedComponents[count++] = parseNumber(string, digits, index);
+
+      if ((index + 1 >= length) || (string.charAt(index) != '.') || !isDigit(string.charAt(index + 1))) {
+        break;
+      }
+      index++;
+    }
+    components = Arrays.copyOf(parsedComponents, count);
+    leadingZeros = (parsedLeadingZeros == null) ? null : Arrays.copyOf(parsedLeadingZeros, count);
+
+    // pack the first components, if possible
+    long packed = 0;
+    boolean canPack = (leadingZeros == null);
+    for (int i = 0; canPack && (i < PACKED_COMPONENTS); i++) {
+      long component = (i < count) ? components[i] : 0;
+      canPack = (component < PACKED_LIMIT);
+      packed = (packed << PACKED_BITS) | component;
+    }
+    packable = canPack;
+    packedComponents = packed;
+
+    // build metadata
+    int end = string.indexOf('+', index);
+    if (end < 0) {
+      end = length;
+      buildMetadata = null;
+    } else {
+      buildMetadata = string.substring(end + 1);
+    }
+
+    // qualifier
+    if ((index < end) && isSeparator(string.charAt(index))) {
+      index++;
+      if (index == end) {
+        throw new InvalidStringValueException(this.version);
+      }
+    }
+    int keywordStart = index;
+    while ((index < end) && Character.isLetter(string.charAt(index))) {
+      index++;
+    }
+    int keywordEnd = index;
+    boolean numbered = (index < end) && isDigit(string.charAt(index));
+    if ((keywordStart < keywordEnd) && (index + 1 < end) && isSeparator(string.charAt(index))
+        && isDigit(string.charAt(index + 1))) {
+      index++;
+      numbered = true;
+    }
+    if (numbered) {
+      int start = index;
+      while ((index < end) && isDigit(string.charAt(index))) {
+        index++;
+      }
+      qualifierNumber = parseNumber(string, start, index);
+    } else {
+      qualifierNumber = NO_NUMBER;
+    }
+    qualifierText = string.substring(index, end);
+
+    if ((keywordStart == keywordEnd) && !numbered && !qualifierText.isEmpty()) {
+      // the qualifier neither starts with a letter, nor with a number
+      throw new InvalidStringValueException(this.version);
+    }
+    String lowerCaseKeyword = string.substring(keywordStart, keywordEnd).toLowerCase(Locale.ROOT);
+    rank = rankKeyword(lowerCaseKeyword, numbered);
+    keyword = (rank == RANK_UNKNOWN) ? lowerCaseKeyword : null;
+  }
+
+  /**
+   * Parses the given version string. This is the same as calling {@link #Version(java.lang.CharSequence)}.
+   *
+   * @param version The version string to be parsed.
+   * @return The parsed version.
+   * @throws NullPointerException if {@code version} is null.
+   * @throws InvalidStringValueException if {@code version} is not a valid version string, or a number in it does
+   * not fit into a {@code long}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public static Version parse(CharSequence version) {
+    return new Version(version);
+  }
+
+  /**
+   * Returns the number of numeric components of this version, e.g. 3 for {@code 1.10.0-rc2}.
+   *
+   * @return The number of numeric components.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public int getComponentCount() {
+    return components.length;
+  }
+
+  /**
+   * Returns the value of the numeric component at the given index, e.g. 10 for the index 1 of {@code 1.10.0-rc2}.
+   *
+   * @param index The index of the component.
+   * @return The value of the component.
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or not less than {@link #getComponentCount()}.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getComponent(int index) {
+    return components[index];
+  }
+
+  /**
+   * Returns the major version, i.e. the value of the first numeric component.
+   *
+   * @return The major version.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getMajor() {
+    return components[0];
+  }
+
+  /**
+   * Returns the minor version, i.e. the value of the second numeric component, or 0 if there is none.
+   *
+   * @return The minor version.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getMinor() {
+    return (components.length > 1) ? components[1] : 0;
+  }
+
+  /**
+   * Returns the patch version, i.e. the value of the third numeric component, or 0 if there is none.
+   *
+   * @return The patch version.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public long getPatch() {
+    return (components.length > 2) ? components[2] : 0;
+  }
+
+  /**
+   * Checks whether this is a pre-release version, i.e. whether its qualifier ranks below a release.
+   *
+   * @return {@code true} if this is a pre-release version, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public boolean isPreRelease() {
+    return (rank < RANK_RELEASE);
+  }
+
+  /**
+   * Returns the build metadata, i.e. everything after the {@code +}, or null if there is none.
+   *
+   * @return The build metadata, or null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public String getBuildMetadata() {
+    return buildMetadata;
+  }
+
+  /**
+   * Compares this version to another one, as described in the class documentation.
+   *
+   * @param other The version to be compared to.
+   * @return -1, 0, or 1 as this version is less than, equal to, or greater than the {@code other} version.
+   * @throws NullPointerException if {@code other} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @Override
+  public int compareTo(Version other) {
+    if (packable && other.packable && (packedComponents != other.packedComponents)) {
+      // the packed components are unsigned
+      return ((packedComponents + Long.MIN_VALUE) < (other.packedComponents + Long.MIN_VALUE)) ? -1 : 1;
+    }
+
+    int count = Math.min(components.length, other.components.length);
+    for (int i = 0; i < count; i++) {
+      if (components[i] != other.components[i]) {
+        return (components[i] < other.components[i]) ? -1 : 1;
+      }
+    }
+    if (components.length != other.components.length) {
+      return (components.length < other.components.length) ? -1 : 1;
+    }
+
+    if (rank != other.rank) {
+      return (rank < other.rank) ? -1 : 1;
+    }
+    if (qualifierNumber != other.qualifierNumber) {
+      return (qualifierNumber < other.qualifierNumber) ? -1 : 1;
+    }
+    if (keyword != null) {
+      int result = keyword.compareTo(other.keyword);
+      if (result != 0) {
+        return (result < 0) ? -1 : 1;
+      }
+    }
+    if (!qualifierText.equals(other.qualifierText)) {
+      int result = NaturalSortComparator.getCaseInsensitiveInstance().compare(qualifierText, other.qualifierText);
+      if (result != 0) {
+        return result;
+      }
+    }
+
+    // leading zeros only decide between versions that are equal otherwise
+    if ((leadingZeros != null) || (other.leadingZeros != null)) {
+      for (int i = 0; i < count; i++) {
+        int result = Integer.compare(other.getLeadingZeros(i), getLeadingZeros(i));
+        if (result != 0) {
+          return result;
+        }
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Checks whether the given object is a version equal to this one, i.e. whether {@link #compareTo(Version)} returns
+   * 0.
+   *
+   * @param obj The object to be checked.
+   * @return {@code true} if {@code obj} is an equal version, {@code false} otherwise.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @Override
+  public boolean equals(Object obj) {
+    return (obj == this) || ((obj instanceof Version) && (compareTo((Version) obj) == 0));
+  }
+
+  /**
+   * Returns the hash code of this version, which is calculated from its numeric components and its qualifier's rank
+   * and number.
+   *
+   * @return The hash code.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @Override
+  public int hashCode() {
+    int hash = Arrays.hashCode(components);
+    hash = 31 * hash + Arrays.hashCode(leadingZeros);
+    hash = 31 * hash + rank;
+    hash = 31 * hash + Long.hashCode(qualifierNumber);
+    return 31 * hash + ((keyword == null) ? 0 : keyword.hashCode());
+  }
+
+  /**
+   * Returns the original version string.
+   *
+   * @return The original version string.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @Override
+  public String toString() {
+    return version;
+  }
+
+  private int getLeadingZeros(int index) {
+    return (leadingZeros == null) ? 0 : leadingZeros[index];
+  }
+
+  private long parseNumber(String string, int start, int end) {
+    long value = 0;
+    for (int i = start; i < end; i++) {
+      int digit = string.charAt(i) - '0';
+      if (value > (Long.MAX_VALUE - digit) / 10) {
+        throw new InvalidStringValueException(version);
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static boolean isDigit(char character) {
+    return (character >= '0') && (character <= '9');
+  }
+
+  private static boolean isSeparator(char character) {
+    return (character == '-') || (character == '_') || (character == '.');
+  }
+
+  private static int rankKeyword(String keyword, boolean numbered) {
+    switch (keyword) {
+      case "alpha":
+        return RANK_ALPHA;
+      case "beta":
+        return RANK_BETA;
+      case "milestone":
+        return RANK_MILESTONE;
+      case "a":
+        return numbered ? RANK_ALPHA : RANK_UNKNOWN;
+      case "b":
+        return numbered ? RANK_BETA : RANK_UNKNOWN;
+      case "m":
+        return numbered ? RANK_MILESTONE : RANK_UNKNOWN;
+      case "rc":
+      case "cr":
+      case "pre":
+      case "preview":
+        return RANK_RELEASE_CANDIDATE;
+      case "snapshot":
+        return RANK_SNAPSHOT;
+      case "":
+      case "ga":
+      case "final":
+      case "release":
+        return RANK_RELEASE;
+      case "sp":
+        return RANK_SERVICE_PACK;
+      default:
+        return RANK_UNKNOWN;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * This is a {@link Comparator} that sorts arbitrary objects by the {@link Version} they denote. By default, it utilizes
+ * the {@link Object#toString()} method to create the version strings. Alternatively, a key extractor can be given,
+ * which returns the version string for each object.</p>
+ *
+ * <p>
+ * The {@link #compare(java.lang.Object, java.lang.Object)} method has to parse both version strings in each and every
+ * comparison. The {@link #sort(java.util.List)} and {@link #sort(java.lang.Object[])} methods parse the version string
+ * of each element only once, and compare the parsed {@link Version}s for the duration of the sort. When many
+ * comparisons are to be made otherwise, the version strings should be parsed into {@link Version}s up front, which
+ * can be compared directly.</p>
+ *
+ * @param <T> The type of objects that may be compared by this comparator.
+ *
+ * @author Volkmar Seifert &lt;vs@DimensionV.de&gt;
+ *
+ * @version 1.0
+ * @since API 2.2.0
+ */
+public final class VersionComparator<T> implements Comparator<T> {
+
+  private static VersionComparator<Object> INSTANCE = null;
+
+  private final Function<? super T, ? extends CharSequence> keyExtractor;
+
+  /**
+   * Creates a new {@code VersionComparator} that compares objects by their {@link Object#toString()} representation.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public VersionComparator() {
+    this(Object::toString);
+  }
+
+  /**
+   * Creates a new {@code VersionComparator} that compares objects by the version string returned by the given
+   * {@code keyExtractor}.
+   *
+   * @param keyExtractor The function that extracts the version string from an object.
+   * @throws NullPointerException if {@code keyExtractor} is null.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public VersionComparator(Function<? super T, ? extends CharSequence> keyExtractor) {
+    if (keyExtractor == null) {
+      throw new NullPointerException("keyExtractor");
+    }
+    this.keyExtractor = keyExtractor;
+  }
+
+  /**
+   * Compares two objects by the versions they denote, as described in the documentation of {@link Version}.
+   *
+   * @param o1 The first object to be compared.
+   * @param o2 The second object to be compared.
+   * @return -1, 0, or 1 as the first argument is less than, equal to, or greater than the second.
+   * @throws NullPointerException if an argument (i.e. {@code o1} or {@code o2}) or its key is null.
+   * @throws de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException if a key is not a valid
+   * version string.
+   */
+  @Override
+  public int compare(T o1, T o2) {
+    return new Version(keyExtractor.apply(o1)).compareTo(new Version(keyExtractor.apply(o2)));
+  }
+
+  /**
+   * Sorts the given {@link List} by version, parsing the version string of each element only once. The sort is stable.
+   *
+   * @param list The list to be sorted.
+   * @throws NullPointerException if an element of {@code list} or its key is null.
+   * @throws de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException if a key is not a valid
+   * version string.
+   * @throws UnsupportedOperationException if the {@code list}'s iterator does not support the {@code set}-operation.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public void sort(List<T> list) {
+    Object[] array = list.toArray();
+    sort((T[]) array);
+
+    ListIterator<T> iterator = list.listIterator();
+    for (Object element : array) {
+      iterator.next();
+      iterator.set((T) element);
+    }
+  }
+
+  /**
+   * Sorts the given array by version, parsing the version string of each element only once. The sort is stable.
+   *
+   * @param array The array to be sorted.
+   * @throws NullPointerException if an element of {@code array} or its key is null.
+   * @throws de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException if a key is not a valid
+   * version string.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  public void sort(T[] array) {
+    DecoratedElement.<Version, T>sort(array, element -> new Version(keyExtractor.apply(element)), Version::compareTo);
+  }
+
+  /**
+   * Returns a shared {@code VersionComparator} instance, which compares objects by their {@link Object#toString()}
+   * representation.
+   *
+   * @param <T> The type of objects that may be compared by the comparator.
+   * @return The shared {@code VersionComparator} instance.
+   *
+   * @since Class 1.0
+   * @since API 2.2.0
+   */
+  @SuppressWarnings("unchecked")
+  public static final <T> VersionComparator<T> getInstance() {
+    if (INSTANCE == null) {
+      INSTANCE = new VersionComparator<Object>();
+    }
+    // the shared instance only relies on Object.toString(), so it can compare any type of objects.
+    return (VersionComparator<T>) INSTANCE;
+  }
+}
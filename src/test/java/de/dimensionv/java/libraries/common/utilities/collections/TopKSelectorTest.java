@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.collections;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.utilities.strings.NaturalSortComparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class TopKSelectorTest {
+
+  @Test
+  public void testSmallest() {
+    System.out.println("Test TopKSelector.smallest() in natural order");
+    List<String> data = createNames(10000);
+    List<String> expected = new ArrayList<String>(data);
+    Collections.sort(expected, NaturalSortComparator.<String>getInstance());
+
+    for (int k : new int[]{0, 1, 10, 100, 10000, 20000}) {
+      List<String> result = TopKSelector.smallest(data, k, NaturalSortComparator.<String>getInstance());
+      Assert.assertEquals(expected.subList(0, Math.min(k, data.size())), result);
+    }
+  }
+
+  @Test
+  public void testLargest() {
+    System.out.println("Test TopKSelector.largest()");
+    List<Long> sizes = Arrays.asList(5L, 1024L, 17L, 1L << 40, 0L, 1024L, 99L);
+    Assert.assertEquals(Arrays.asList(1L << 40, 1024L, 1024L),
+        TopKSelector.largest(sizes, 3, Comparator.<Long>naturalOrder()));
+  }
+
+  @Test
+  public void testStable() {
+    System.out.println("Test TopKSelector for stability");
+    TopKSelector<String> instance = new TopKSelector<String>(3, NaturalSortComparator.<String>getInstance());
+    for (String name : new String[]{"item5", "item 5", "item6", "item 5 ", "item  5", "item4"}) {
+      instance.accept(name);
+    }
+    Assert.assertEquals(3, instance.size());
+    Assert.assertEquals(Arrays.asList("item4", "item5", "item 5"), instance.getResult());
+  }
+
+  @Test
+  public void testLargeK() {
+    System.out.println("Test TopKSelector with a k much larger than the input");
+    List<String> data = createNames(100);
+    List<String> expected = new ArrayList<String>(data);
+    Collections.sort(expected, NaturalSortComparator.<String>getInstance());
+
+    Assert.assertEquals(expected,
+        TopKSelector.smallest(data, Integer.MAX_VALUE, NaturalSortComparator.<String>getInstance()));
+    Assert.assertEquals(expected, data.parallelStream()
+        .collect(TopKSelector.collector(Integer.MAX_VALUE, NaturalSortComparator.<String>getInstance())));
+  }
+
+  @Test
+  public void testGetLargest() {
+    System.out.println("Test TopKSelector.getLargest()");
+    TopKSelector<Integer> instance = new TopKSelector<Integer>(2, Comparator.<Integer>naturalOrder());
+    Assert.assertNull(instance.getLargest());
+    instance.add(5);
+    Assert.assertEquals(Integer.valueOf(5), instance.getLargest());
+    instance.add(9);
+    Assert.assertEquals(Integer.valueOf(9), instance.getLargest());
+    instance.add(7);
+    Assert.assertEquals(Integer.valueOf(7), instance.getLargest());
+    instance.add(8);
+    Assert.assertEquals(Integer.valueOf(7), instance.getLargest());
+  }
+
+  @Test
+  public void testCollector() {
+    System.out.println("Test TopKSelector.collector() with a parallel stream");
+    List<String> data = createNames(50000);
+    List<String> expected = new ArrayList<String>(data);
+    Collections.sort(expected, NaturalSortComparator.<String>getInstance());
+
+    List<String> result = data.parallelStream()
+        .collect(TopKSelector.collector(100, NaturalSortComparator.<String>getInstance()));
+    Assert.assertEquals(expected.subList(0, 100), result);
+
+    Assert.assertEquals(expected.subList(0, 10), data.stream()
+        .collect(TopKSelector.collector(10, NaturalSortComparator.<String>getInstance())));
+  }
+
+  @Test
+  public void testSelect() {
+    System.out.println("Test TopKSelector.select() on arrays");
+    Random random = new Random(7);
+    for (int k : new int[]{0, 1, 2, 50, 999, 1000, 1001}) {
+      Integer[] array = new Integer[1000];
+      for (int i = 0; i < array.length; i++) {
+        array[i] = random.nextInt(300);
+      }
+      Integer[] expected = array.clone();
+      Arrays.sort(expected);
+
+      TopKSelector.select(array, k, Comparator.<Integer>naturalOrder());
+      int count = Math.min(k, array.length);
+      Assert.assertArrayEquals(Arrays.copyOf(expected, count), Arrays.copyOf(array, count));
+      Arrays.sort(array);
+      Assert.assertArrayEquals(expected, array);
+    }
+  }
+
+  @Test
+  public void testSelectSortedInput() {
+    System.out.println("Test TopKSelector.select() on sorted and equal arrays");
+    Integer[] sorted = new Integer[10000];
+    Integer[] equal = new Integer[10000];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = sorted.length - i;
+      equal[i] = 42;
+    }
+    TopKSelector.select(sorted, 3, Comparator.<Integer>naturalOrder());
+    Assert.assertArrayEquals(new Integer[]{1, 2, 3}, Arrays.copyOf(sorted, 3));
+    TopKSelector.select(equal, 3, Comparator.<Integer>naturalOrder());
+    Assert.assertArrayEquals(new Integer[]{42, 42, 42}, Arrays.copyOf(equal, 3));
+  }
+
+  @Test(expected = InvalidIntegerValueException.class)
+  public void testNegativeK() {
+    System.out.println("Test TopKSelector constructor with negative k");
+    new TopKSelector<String>(-1, NaturalSortComparator.<String>getInstance());
+  }
+
+  private static List<String> createNames(int count) {
+    Random random = new Random(42);
+    List<String> names = new ArrayList<String>(count);
+    for (int i = 0; i < count; i++) {
+      names.add("file" + random.nextInt(count) + ((random.nextInt(4) == 0) ? " copy" : ""));
+    }
+    return names;
+  }
+}
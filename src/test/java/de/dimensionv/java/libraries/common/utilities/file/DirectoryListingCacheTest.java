@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class DirectoryListingCacheTest {
+
+  private static final long EVENT_TIMEOUT = 10000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File directory;
+  private DirectoryListingCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = folder.newFolder("listing");
+    new File(directory, "sub").mkdir();
+    Files.write(new File(directory, "B.txt").toPath(), new byte[3]);
+    Files.write(new File(directory, "a.txt").toPath(), new byte[5]);
+    Files.write(new File(directory, ".hidden").toPath(), new byte[0]);
+    cache = new DirectoryListingCache(100);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    cache.close();
+  }
+
+  @Test
+  public void testGetFileList() {
+    System.out.println("Test DirectoryListingCache.getFileList()");
+    String path = directory.getPath();
+    List<File> expected = absolute(FileUtils.getFileList(path, false));
+    Assert.assertEquals(3, expected.size());
+    Assert.assertEquals(expected, cache.getFileList(path, false));
+    Assert.assertEquals(absolute(FileUtils.getFileList(path, true)), cache.getFileList(path, true));
+    Assert.assertEquals(4, cache.size());
+    // served from the cache
+    Assert.assertSame(cache.getFileList(path, false), cache.getFileList(path, false));
+    Assert.assertTrue(cache.getFileList(new File(directory, "missing").getPath(), true).isEmpty());
+  }
+
+  @Test
+  public void testGetAttributes() {
+    System.out.println("Test DirectoryListingCache.getAttributes()");
+    File file = new File(directory, "a.txt");
+    Assert.assertNull(cache.getAttributes(file));
+    cache.getFileList(directory.getPath(), false);
+    Assert.assertEquals(5, cache.getAttributes(file).size());
+    Assert.assertTrue(cache.getAttributes(new File(directory, "sub")).isDirectory());
+    Assert.assertNull(cache.getAttributes(new File(directory, "c.txt")));
+  }
+
+  @Test
+  public void testPatch() throws IOException, InterruptedException {
+    System.out.println("Test DirectoryListingCache patching on events");
+    String path = directory.getPath();
+    cache.getFileList(path, true);
+
+    Files.write(new File(directory, "c.txt").toPath(), new byte[1]);
+    Files.delete(new File(directory, "a.txt").toPath());
+    awaitListing(path);
+
+    Files.write(new File(directory, "B.txt").toPath(), new byte[7]);
+    long deadline = System.currentTimeMillis() + EVENT_TIMEOUT;
+    while ((cache.getAttributes(new File(directory, "B.txt")).size() != 7)
+        && (System.currentTimeMillis() < deadline)) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(7, cache.getAttributes(new File(directory, "B.txt")).size());
+  }
+
+  @Test
+  public void testPatchAfterInvalidate() throws IOException, InterruptedException {
+    System.out.println("Test DirectoryListingCache patching after invalidating a watched directory");
+    File other = folder.newFolder("other");
+    for (int i = 0; i < 20; i++) {
+      // events of a directory dropped meanwhile must not stop the watcher
+      cache.getFileList(other.getPath(), true);
+      Files.write(new File(other, "x" + i + ".txt").toPath(), new byte[0]);
+      cache.invalidate(other.getPath());
+    }
+    Files.delete(new File(other, "x0.txt").toPath());
+    Files.delete(other.toPath().resolve("x1.txt"));
+
+    String path = directory.getPath();
+    cache.getFileList(path, true);
+    Files.write(new File(directory, "c.txt").toPath(), new byte[1]);
+    awaitListing(path);
+  }
+
+  @Test
+  public void testPatchSymbolicLink() throws IOException, InterruptedException {
+    System.out.println("Test DirectoryListingCache patching a directory listed through a symbolic link");
+    File link = new File(folder.getRoot(), "link");
+    try {
+      Files.createSymbolicLink(link.toPath(), directory.toPath());
+    } catch (UnsupportedOperationException | IOException e) {
+      Assume.assumeNoException(e);
+    }
+    String path = directory.getPath();
+    String linkPath = link.getPath();
+    cache.getFileList(path, true);
+    cache.getFileList(linkPath, true);
+    Assert.assertEquals(8, cache.size());
+
+    // both listings are patched by the same events
+    Files.write(new File(directory, "c.txt").toPath(), new byte[1]);
+    awaitListing(path);
+    awaitListing(linkPath);
+    Assert.assertTrue(cache.getFileList(linkPath, true).contains(new File(link, "c.txt").getAbsoluteFile()));
+
+    // dropping one of them keeps the other one watched
+    cache.invalidate(linkPath);
+    Files.write(new File(directory, "d.txt").toPath(), new byte[1]);
+    awaitListing(path);
+  }
+
+  @Test
+  public void testInvalidate() throws IOException {
+    System.out.println("Test DirectoryListingCache.invalidate()");
+    String path = directory.getPath();
+    cache.getFileList(path, true);
+    Assert.assertEquals(4, cache.size());
+    cache.invalidate(path);
+    Assert.assertEquals(0, cache.size());
+    Assert.assertNull(cache.getAttributes(new File(directory, "a.txt")));
+    Assert.assertEquals(absolute(FileUtils.getFileList(path, true)), cache.getFileList(path, true));
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    System.out.println("Test DirectoryListingCache eviction");
+    File other = folder.newFolder("other");
+    Files.write(new File(other, "x.txt").toPath(), new byte[0]);
+    Files.write(new File(other, "y.txt").toPath(), new byte[0]);
+
+    try (DirectoryListingCache small = new DirectoryListingCache(5)) {
+      small.getFileList(directory.getPath(), true);
+      Assert.assertEquals(4, small.size());
+      small.getFileList(other.getPath(), true);
+      // the listing used least recently has been evicted
+      Assert.assertEquals(2, small.size());
+      Assert.assertNull(small.getAttributes(new File(directory, "a.txt")));
+      Assert.assertNotNull(small.getAttributes(new File(other, "x.txt")));
+      // listings exceeding the maximum alone are not cached, but listed nevertheless
+      try (DirectoryListingCache tiny = new DirectoryListingCache(1)) {
+        Assert.assertEquals(4, tiny.getFileList(directory.getPath(), true).size());
+        Assert.assertEquals(0, tiny.size());
+      }
+    }
+  }
+
+  @Test(expected = InvalidIntegerValueException.class)
+  public void testInvalidMaxEntries() throws IOException {
+    System.out.println("Test DirectoryListingCache with an invalid maximum");
+    new DirectoryListingCache(0).close();
+  }
+
+  private void awaitListing(String path) throws InterruptedException {
+    List<File> expected = absolute(FileUtils.getFileList(path, true));
+    long deadline = System.currentTimeMillis() + EVENT_TIMEOUT;
+    while (!expected.equals(cache.getFileList(path, true)) && (System.currentTimeMillis() < deadline)) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(expected, cache.getFileList(path, true));
+  }
+
+  private static List<File> absolute(List<File> files) {
+    List<File> result = new ArrayList<File>(files.size());
+    for (File file : files) {
+      result.add(file.getAbsoluteFile());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.utilities.concurrent.Flow;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class DirectoryPublisherTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * A subscriber recording all signals, which requests a given number of entries up front.
+   */
+  private static final class RecordingSubscriber implements Flow.Subscriber<File> {
+
+    final List<File> items = new ArrayList<File>();
+    final CountDownLatch terminated = new CountDownLatch(1);
+    final long initialRequest;
+    Flow.Subscription subscription;
+    Throwable error;
+    boolean completed;
+
+    RecordingSubscriber(long initialRequest) {
+      this.initialRequest = initialRequest;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (initialRequest != 0) {
+        subscription.request(initialRequest);
+      }
+    }
+
+    @Override
+    public void onNext(File item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+      terminated.countDown();
+    }
+  }
+
+  @Test
+  public void testDemand() throws IOException {
+    System.out.println("Test DirectoryPublisher with limited demand");
+    File root = createDirectory();
+    RecordingSubscriber subscriber = new RecordingSubscriber(2);
+    new DirectoryPublisher(root, false, 10, Runnable::run).subscribe(subscriber);
+    Assert.assertEquals(Arrays.asList(new File(root, "dir"), new File(root, "a.txt")), subscriber.items);
+    Assert.assertFalse(subscriber.completed);
+
+    subscriber.subscription.request(1);
+    Assert.assertEquals(3, subscriber.items.size());
+    Assert.assertFalse(subscriber.completed);
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    Assert.assertEquals(FileUtils.getFileList(root.getPath(), false), subscriber.items);
+    Assert.assertTrue(subscriber.completed);
+    Assert.assertNull(subscriber.error);
+  }
+
+  @Test
+  public void testCancel() throws IOException {
+    System.out.println("Test DirectoryPublisher with cancellation");
+    File root = createDirectory();
+    RecordingSubscriber subscriber = new RecordingSubscriber(1);
+    new DirectoryPublisher(root, false, 10, Runnable::run).subscribe(subscriber);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(10);
+    Assert.assertEquals(1, subscriber.items.size());
+    Assert.assertFalse(subscriber.completed);
+    Assert.assertNull(subscriber.error);
+  }
+
+  @Test
+  public void testErrors() throws IOException {
+    System.out.println("Test DirectoryPublisher with errors");
+    File root = createDirectory();
+    RecordingSubscriber subscriber = new RecordingSubscriber(0);
+    new DirectoryPublisher(root, false, 0, Runnable::run).subscribe(subscriber);
+    subscriber.subscription.request(0);
+    Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+    Assert.assertTrue(subscriber.items.isEmpty());
+
+    subscriber = new RecordingSubscriber(1);
+    new DirectoryPublisher(new File(root, "missing"), false, 0, Runnable::run).subscribe(subscriber);
+    Assert.assertTrue(subscriber.error instanceof NoSuchFileException);
+
+    try {
+      new DirectoryPublisher(root, false, -1, Runnable::run);
+      Assert.fail();
+    } catch (InvalidIntegerValueException e) {
+      Assert.assertEquals(-1, e.getIntegerValue());
+    }
+  }
+
+  @Test
+  public void testAsynchronous() throws Exception {
+    System.out.println("Test DirectoryPublisher on the common pool");
+    File root = createDirectory();
+    RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+    new DirectoryPublisher(root, true).subscribe(subscriber);
+    Assert.assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+    Assert.assertTrue(subscriber.completed);
+    Assert.assertEquals(6, subscriber.items.size());
+    Assert.assertTrue(subscriber.items.containsAll(FileUtils.getFileList(root.getPath(), true)));
+  }
+
+  private File createDirectory() throws IOException {
+    File root = folder.newFolder("publisher");
+    for (String name : new String[]{"c.txt", "a.txt", "b.txt", ".hidden"}) {
+      Assert.assertTrue(new File(root, name).createNewFile());
+    }
+    Assert.assertTrue(new File(root, "dir").mkdir());
+    Assert.assertTrue(new File(root, ".git").mkdir());
+    return root;
+  }
+}
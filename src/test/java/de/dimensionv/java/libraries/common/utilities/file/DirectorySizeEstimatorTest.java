@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidDoubleValueException;
+import de.dimensionv.java.libraries.common.exceptions.InvalidLongValueException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class DirectorySizeEstimatorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static void createFile(File directory, String name, int size) throws IOException {
+    directory.mkdirs();
+    Files.write(new File(directory, name).toPath(), new byte[size]);
+  }
+
+  /**
+   * Creates a tree, in which each directory contains the given number of files and subdirectories, down to the given
+   * depth.
+   */
+  private static void createUniformTree(File directory, int depth, int files, int subdirectories) throws IOException {
+    for (int index = 0; index < files; index++) {
+      createFile(directory, "file" + index, 100);
+    }
+    if (depth > 0) {
+      for (int index = 0; index < subdirectories; index++) {
+        createUniformTree(new File(directory, "dir" + index), depth - 1, files, subdirectories);
+      }
+    }
+  }
+
+  @Test
+  public void testEstimateUniform() throws IOException {
+    System.out.println("Test DirectorySizeEstimator.estimate() uniform");
+    File root = folder.newFolder("uniform");
+    // 1 + 3 + 9 + 27 directories with 2 files each
+    createUniformTree(root, 3, 2, 3);
+    DirectorySizeEstimator estimator = new DirectorySizeEstimator();
+    estimator.setRandom(new Random(42));
+    DirectorySizeEstimator.Estimate estimate = estimator.estimate(root);
+    // each probe sees the exact total in a uniform tree, so the estimation stops early
+    Assert.assertEquals(80, estimate.getFileCount());
+    Assert.assertEquals(8000, estimate.getSize());
+    Assert.assertEquals(8000, estimate.getSizeLow());
+    Assert.assertEquals(8000, estimate.getSizeHigh());
+    Assert.assertEquals(0, estimate.getRelativeError(), 0);
+    Assert.assertEquals(30, estimate.getProbes());
+    Assert.assertTrue(estimate.getDirectoriesRead() <= 40);
+    String size = FileUtils.getReadableFileSize(8000);
+    Assert.assertEquals(size + " (" + size + " - " + size + "), 80 files (80 - 80)", estimate.format());
+  }
+
+  @Test
+  public void testEstimateIrregular() throws IOException {
+    System.out.println("Test DirectorySizeEstimator.estimate() irregular");
+    File root = folder.newFolder("irregular");
+    createFile(root, "a.bin", 1000);
+    createFile(new File(root, "small"), "b.bin", 10);
+    createFile(new File(root, "large"), "c.bin", 2000);
+    createFile(new File(root, "large/deep"), "d.bin", 3000);
+    createFile(new File(root, "large/deep"), "e.bin", 500);
+    createFile(new File(root, "large/other"), "f.bin", 200);
+    new File(root, "empty").mkdirs();
+
+    DirectorySizeEstimator estimator = new DirectorySizeEstimator();
+    estimator.setRandom(new Random(7));
+    estimator.setTimeBudget(200);
+    estimator.setTargetPrecision(0.05);
+    DirectorySizeEstimator.Estimate estimate = estimator.estimate(root);
+    Assert.assertTrue(estimate.getProbes() >= 30);
+    Assert.assertTrue(estimate.getDirectoriesRead() <= 6);
+    Assert.assertTrue(estimate.getSizeLow() <= 6710);
+    Assert.assertTrue(estimate.getSizeHigh() >= 6710);
+    Assert.assertTrue(estimate.getFileCountLow() <= 6);
+    Assert.assertTrue(estimate.getFileCountHigh() >= 6);
+    Assert.assertEquals(6710, estimate.getSize(), 6710 * 0.1);
+  }
+
+  @Test
+  public void testEstimateProgress() throws IOException {
+    System.out.println("Test DirectorySizeEstimator.estimate() progress");
+    File root = folder.newFolder("progress");
+    createFile(root, "a.bin", 10);
+    createFile(new File(root, "x"), "b.bin", 20);
+    createFile(new File(root, "y/z"), "c.bin", 30);
+
+    final List<DirectorySizeEstimator.Estimate> estimates = new ArrayList<>();
+    DirectorySizeEstimator estimator = new DirectorySizeEstimator();
+    estimator.setTimeBudget(300);
+    estimator.setProgressInterval(50);
+    estimator.setTargetPrecision(0);
+    DirectorySizeEstimator.Estimate estimate = estimator.estimate(root, estimates::add);
+    Assert.assertTrue(estimates.size() > 1);
+    Assert.assertSame(estimate, estimates.get(estimates.size() - 1));
+    for (int index = 1; index < estimates.size(); index++) {
+      Assert.assertTrue(estimates.get(index - 1).getProbes() < estimates.get(index).getProbes());
+    }
+    Assert.assertTrue(estimate.getElapsedMillis() >= 300);
+  }
+
+  @Test
+  public void testEstimateErrors() throws IOException {
+    System.out.println("Test DirectorySizeEstimator.estimate() errors");
+    DirectorySizeEstimator estimator = new DirectorySizeEstimator();
+    try {
+      estimator.estimate(folder.newFile("file.txt"));
+      Assert.fail("NotDirectoryException expected");
+    } catch (NotDirectoryException e) {
+      // expected
+    }
+    try {
+      estimator.setTimeBudget(0);
+      Assert.fail("InvalidLongValueException expected");
+    } catch (InvalidLongValueException e) {
+      // expected
+    }
+    try {
+      estimator.setConfidence(1);
+      Assert.fail("InvalidDoubleValueException expected");
+    } catch (InvalidDoubleValueException e) {
+      // expected
+    }
+    try {
+      estimator.setTargetPrecision(Double.NaN);
+      Assert.fail("InvalidDoubleValueException expected");
+    } catch (InvalidDoubleValueException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testQuantile() {
+    System.out.println("Test DirectorySizeEstimator.quantile()");
+    Assert.assertEquals(1.960, DirectorySizeEstimator.quantile(0.975), 1e-3);
+    Assert.assertEquals(2.576, DirectorySizeEstimator.quantile(0.995), 1e-3);
+    Assert.assertEquals(-1.645, DirectorySizeEstimator.quantile(0.05), 1e-3);
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.utilities.file.comparators.FileNameComparator;
+import de.dimensionv.java.libraries.common.utilities.file.filefilters.FileFileFilter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class DirectoryWalkerTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File root;
+
+  @Before
+  public void setUp() throws IOException {
+    root = folder.newFolder("tree");
+    createFiles(root, "b.txt", "a.txt", ".hidden");
+    createFiles(new File(root, "dir2"), "y.txt", "x.txt");
+    createFiles(new File(root, "dir1"), "c.txt");
+    createFiles(new File(root, "dir1/deep"), "d.txt");
+  }
+
+  @Test
+  public void testWalkSorted() throws IOException {
+    System.out.println("Test DirectoryWalker.walk() with a comparator");
+    DirectoryWalker walker = new DirectoryWalker();
+    walker.setComparator(new FileNameComparator());
+    Assert.assertEquals(files(".hidden", "a.txt", "b.txt", "dir1", "dir1/c.txt", "dir1/deep", "dir1/deep/d.txt", "dir2",
+        "dir2/x.txt", "dir2/y.txt"), walker.walk(root));
+  }
+
+  @Test
+  public void testWalkUnsorted() throws IOException {
+    System.out.println("Test DirectoryWalker.walk() without a comparator");
+    List<File> result = new ArrayList<File>(new DirectoryWalker().walk(root));
+    Collections.sort(result);
+    List<File> expResult = new ArrayList<File>(files(".hidden", "a.txt", "b.txt", "dir1", "dir1/c.txt", "dir1/deep",
+        "dir1/deep/d.txt", "dir2", "dir2/x.txt", "dir2/y.txt"));
+    Collections.sort(expResult);
+    Assert.assertEquals(expResult, result);
+  }
+
+  @Test
+  public void testWalkFiltered() throws IOException {
+    System.out.println("Test DirectoryWalker.walk() with filters");
+    DirectoryWalker walker = new DirectoryWalker();
+    walker.setComparator(new FileNameComparator());
+    walker.setFilter(new FileFileFilter(false));
+    Assert.assertEquals(files("a.txt", "b.txt", "dir1/c.txt", "dir1/deep/d.txt", "dir2/x.txt", "dir2/y.txt"),
+        walker.walk(root));
+
+    walker.setFilter(null);
+    walker.setAttributeFilter((file, attributes) -> attributes.isDirectory());
+    Assert.assertEquals(files("dir1", "dir1/deep", "dir2"), walker.walk(root));
+
+    walker.setAttributeFilter(null);
+    walker.setDirectoryFilter((file, attributes) -> !"dir1".equals(file.getName()));
+    Assert.assertEquals(files(".hidden", "a.txt", "b.txt", "dir1", "dir2", "dir2/x.txt", "dir2/y.txt"),
+        walker.walk(root));
+  }
+
+  @Test
+  public void testWalkMaxDepth() throws IOException {
+    System.out.println("Test DirectoryWalker.walk() with a maximum depth");
+    DirectoryWalker walker = new DirectoryWalker();
+    walker.setComparator(new FileNameComparator());
+    walker.setMaxDepth(1);
+    Assert.assertEquals(files(".hidden", "a.txt", "b.txt", "dir1", "dir2"), walker.walk(root));
+    walker.setMaxDepth(2);
+    Assert.assertEquals(files(".hidden", "a.txt", "b.txt", "dir1", "dir1/c.txt", "dir1/deep", "dir2", "dir2/x.txt",
+        "dir2/y.txt"), walker.walk(root));
+    try {
+      walker.setMaxDepth(0);
+      Assert.fail();
+    } catch (InvalidIntegerValueException e) {
+      Assert.assertEquals(0, e.getIntegerValue());
+    }
+  }
+
+  @Test
+  public void testWalkSymbolicLinkCycle() throws IOException {
+    System.out.println("Test DirectoryWalker.walk() with a symbolic link cycle");
+    try {
+      Files.createSymbolicLink(new File(root, "dir1/deep/up").toPath(), Paths.get(".."));
+    } catch (UnsupportedOperationException | IOException e) {
+      Assume.assumeNoException(e);
+    }
+    DirectoryWalker walker = new DirectoryWalker();
+    walker.setComparator(new FileNameComparator());
+    walker.setAttributeFilter((file, attributes) -> file.getPath().startsWith(new File(root, "dir1").getPath()));
+
+    List<File> expResult = files("dir1", "dir1/c.txt", "dir1/deep", "dir1/deep/d.txt", "dir1/deep/up");
+    Assert.assertEquals(expResult, walker.walk(root));
+
+    walker.setFollowLinks(true);
+    Assert.assertEquals(expResult, walker.walk(root));
+    Assert.assertTrue(walker.isFollowLinks());
+  }
+
+  @Test
+  public void testWalkVisitor() throws IOException {
+    System.out.println("Test DirectoryWalker.walk() with a visitor");
+    DirectoryWalker walker = new DirectoryWalker();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      walker.setPool(pool);
+      final ConcurrentHashMap<File, Long> sizes = new ConcurrentHashMap<File, Long>();
+      walker.walk(root, (file, attributes) -> sizes.put(file, attributes.size()));
+      Assert.assertEquals(10, sizes.size());
+      Assert.assertEquals(Long.valueOf(1), sizes.get(new File(root, "dir1/deep/d.txt")));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expected = NotDirectoryException.class)
+  public void testWalkNotDirectory() throws IOException {
+    System.out.println("Test DirectoryWalker.walk() with a file");
+    new DirectoryWalker().walk(new File(root, "a.txt"));
+  }
+
+  private List<File> files(String... names) {
+    List<File> files = new ArrayList<File>();
+    for (String name : names) {
+      files.add(new File(root, name));
+    }
+    return files;
+  }
+
+  private static void createFiles(File directory, String... names) throws IOException {
+    Assert.assertTrue(directory.isDirectory() || directory.mkdirs());
+    for (String name : names) {
+      Files.write(new File(directory, name).toPath(), new byte[]{1});
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class DiskUsageTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File root;
+
+  @Before
+  public void setUp() throws IOException {
+    root = folder.newFolder("tree");
+    createFile(root, "a.bin", 100);
+    createFile(new File(root, "small"), "b.bin", 10);
+    createFile(new File(root, "large"), "c.bin", 2000);
+    createFile(new File(root, "large/deep"), "d.bin", 3000);
+    createFile(new File(root, "large/deep"), "e.bin", 48);
+  }
+
+  private static void createFile(File directory, String name, int size) throws IOException {
+    directory.mkdirs();
+    Files.write(new File(directory, name).toPath(), new byte[size]);
+  }
+
+  @Test
+  public void testAnalyze() throws IOException {
+    System.out.println("Test DiskUsage.analyze()");
+    DiskUsage.Report report = new DiskUsage().analyze(root);
+    Assert.assertEquals(4, report.getDirectoryCount());
+    Assert.assertEquals(5158, report.getTotalSize());
+    Assert.assertEquals(5, report.getTotalFileCount());
+    Assert.assertEquals(root, report.getDirectory(0));
+    Assert.assertEquals(-1, report.getParent(0));
+    Assert.assertEquals(3, report.getSubdirectoryCount(0));
+
+    for (int index = 1; index < report.getDirectoryCount(); index++) {
+      File directory = report.getDirectory(index);
+      Assert.assertEquals(directory.getParentFile(), report.getDirectory(report.getParent(index)));
+      Assert.assertEquals(report.getDepth(report.getParent(index)) + 1, report.getDepth(index));
+      if (directory.getName().equals("large")) {
+        Assert.assertEquals(5048, report.getSize(index));
+        Assert.assertEquals(3, report.getFileCount(index));
+        Assert.assertEquals(1, report.getSubdirectoryCount(index));
+      } else if (directory.getName().equals("deep")) {
+        Assert.assertEquals(3048, report.getSize(index));
+        Assert.assertEquals(2, report.getFileCount(index));
+      }
+    }
+  }
+
+  @Test
+  public void testReport() throws IOException {
+    System.out.println("Test DiskUsage.Report.format()");
+    DiskUsage usage = new DiskUsage();
+    usage.setPool(new ForkJoinPool(2));
+    DiskUsage.Report report = usage.analyze(root);
+
+    int[] indices = report.getIndicesBySize();
+    Assert.assertEquals(0, indices[0]);
+    for (int i = 1; i < indices.length; i++) {
+      Assert.assertTrue(report.getSize(indices[i - 1]) >= report.getSize(indices[i]));
+    }
+
+    String[] lines = report.format(2).split("\n");
+    Assert.assertEquals(2, lines.length);
+    Assert.assertEquals(FileUtils.getReadableFileSize(5158) + "\t5\t" + root.getPath(), lines[0]);
+    Assert.assertEquals(FileUtils.getReadableFileSize(5048) + "\t3\t" + new File(root, "large").getPath(), lines[1]);
+    Assert.assertEquals(4, report.toString().split("\n").length);
+  }
+
+  @Test
+  public void testReportDepth() throws IOException {
+    System.out.println("Test DiskUsage.setReportDepth()");
+    DiskUsage usage = new DiskUsage();
+    usage.setReportDepth(1);
+    DiskUsage.Report report = usage.analyze(root);
+    Assert.assertEquals(3, report.getDirectoryCount());
+    // deeper directories are counted nevertheless
+    Assert.assertEquals(5158, report.getTotalSize());
+
+    usage.setReportDepth(0);
+    Assert.assertEquals(1, usage.analyze(root).getDirectoryCount());
+  }
+
+  @Test
+  public void testHardLinks() throws IOException {
+    System.out.println("Test DiskUsage.analyze() with hard links");
+    Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("unix"));
+    Files.createLink(new File(root, "small/link.bin").toPath(), new File(root, "large/c.bin").toPath());
+    DiskUsage.Report report = new DiskUsage().analyze(root);
+    Assert.assertEquals(5158, report.getTotalSize());
+    Assert.assertEquals(5, report.getTotalFileCount());
+  }
+
+  @Test(expected = NotDirectoryException.class)
+  public void testNotDirectory() throws IOException {
+    System.out.println("Test DiskUsage.analyze() with a file");
+    new DiskUsage().analyze(new File(root, "a.bin"));
+  }
+
+  @Test(expected = InvalidIntegerValueException.class)
+  public void testInvalidReportDepth() {
+    System.out.println("Test DiskUsage.setReportDepth() with a negative depth");
+    new DiskUsage().setReportDepth(-1);
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.exceptions.InvalidLongValueException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class DuplicateFinderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File root;
+
+  @Before
+  public void setUp() throws IOException {
+    root = folder.newFolder("tree");
+    byte[] large = content(100000, 1);
+    createFile(root, "large1.bin", large);
+    createFile(new File(root, "sub"), "large2.bin", large);
+    createFile(new File(root, "sub/deep"), "large3.bin", large);
+    // same size, same first and last chunk, but a different middle
+    byte[] middle = large.clone();
+    middle[50000]++;
+    createFile(root, "middle.bin", middle);
+    // same size, but a different first chunk
+    byte[] head = large.clone();
+    head[0]++;
+    createFile(root, "head.bin", head);
+
+    byte[] small = content(1000, 2);
+    createFile(root, "small1.txt", small);
+    createFile(new File(root, "sub"), "small2.txt", small);
+    createFile(root, "unique.txt", content(1234, 3));
+    createFile(root, "empty1.txt", new byte[0]);
+    createFile(root, "empty2.txt", new byte[0]);
+  }
+
+  private static byte[] content(int size, int seed) {
+    byte[] content = new byte[size];
+    for (int index = 0; index < size; index++) {
+      content[index] = (byte) (index * seed + (index >>> 8));
+    }
+    return content;
+  }
+
+  private static void createFile(File directory, String name, byte[] content) throws IOException {
+    directory.mkdirs();
+    Files.write(new File(directory, name).toPath(), content);
+  }
+
+  private static List<String> names(List<FileEntry> group) {
+    List<String> names = new ArrayList<>();
+    for (FileEntry entry : group) {
+      names.add(entry.getName());
+    }
+    return names;
+  }
+
+  @Test
+  public void testFind() throws IOException {
+    System.out.println("Test DuplicateFinder.find()");
+    DuplicateFinder.Result result = new DuplicateFinder().find(root);
+    // sorted by path, so sub/deep/large3.bin comes before sub/large2.bin
+    List<List<FileEntry>> groups = result.getGroups();
+    Assert.assertEquals(2, groups.size());
+    Assert.assertEquals(Arrays.asList("large1.bin", "large3.bin", "large2.bin"), names(groups.get(0)));
+    Assert.assertEquals(Arrays.asList("small1.txt", "small2.txt"), names(groups.get(1)));
+    Assert.assertEquals(2 * 100000 + 1000, result.getWastedSize());
+    Assert.assertEquals(5 * 100000 + 3 * 1000 + 234, result.getTotalSize());
+    // unique.txt is never read, head.bin only partially, the other large files completely
+    Assert.assertEquals(5 * 8192 + 4 * 100000 + 2 * 1000, result.getBytesRead());
+    Assert.assertTrue(result.toString().contains("large3.bin"));
+  }
+
+  @Test
+  public void testFindSmallChunks() throws IOException {
+    System.out.println("Test DuplicateFinder.find() small chunks");
+    DuplicateFinder finder = new DuplicateFinder();
+    finder.setChunkSize(16);
+    finder.setMinSize(0);
+    DuplicateFinder.Result result = finder.find(root);
+    List<List<FileEntry>> groups = result.getGroups();
+    Assert.assertEquals(3, groups.size());
+    Assert.assertEquals(3, groups.get(0).size());
+    Assert.assertEquals(Arrays.asList("empty1.txt", "empty2.txt"), names(groups.get(2)));
+    Assert.assertEquals(5 * 32 + 2 * 32 + 4 * 100000 + 2 * 1000, result.getBytesRead());
+  }
+
+  @Test
+  public void testFindEntries() throws IOException {
+    System.out.println("Test DuplicateFinder.find() entries");
+    FileEntry small1 = FileEntry.of(new File(root, "small1.txt"));
+    FileEntry small2 = FileEntry.of(new File(root, "sub/small2.txt"));
+    FileEntry directory = FileEntry.of(new File(root, "sub"));
+    DuplicateFinder finder = new DuplicateFinder();
+    // the same entry twice is no duplicate
+    Assert.assertTrue(finder.find(Arrays.asList(small1, small1, directory)).getGroups().isEmpty());
+    DuplicateFinder.Result result = finder.find(Arrays.asList(small2, small1, small1));
+    Assert.assertEquals(1, result.getGroups().size());
+    Assert.assertEquals(Arrays.asList(small1, small2), result.getGroups().get(0));
+
+    // files that vanished are left out
+    Files.delete(small2.getPath());
+    Assert.assertTrue(finder.find(Arrays.asList(small1, small2)).getGroups().isEmpty());
+  }
+
+  @Test
+  public void testFindHardLinks() throws IOException {
+    System.out.println("Test DuplicateFinder.find() hard links");
+    File unique = new File(root, "unique.txt");
+    File link = new File(root, "sub/unique-link.txt");
+    try {
+      Files.createLink(link.toPath(), unique.toPath());
+    } catch (UnsupportedOperationException e) {
+      Assume.assumeNoException(e);
+    }
+    Assume.assumeNotNull(FileEntry.of(unique).getFileKey());
+
+    // links to the same file take no extra space, so they are no duplicates
+    DuplicateFinder.Result result = new DuplicateFinder().find(root);
+    Assert.assertEquals(2, result.getGroups().size());
+    Assert.assertEquals(2 * 100000 + 1000, result.getWastedSize());
+
+    // a copy is a duplicate of the link with the smallest path only
+    createFile(root, "unique-copy.txt", content(1234, 3));
+    result = new DuplicateFinder().find(root);
+    Assert.assertEquals(3, result.getGroups().size());
+    Assert.assertEquals(Arrays.asList("unique-link.txt", "unique-copy.txt"), names(result.getGroups().get(1)));
+    Assert.assertEquals(2 * 100000 + 1000 + 1234, result.getWastedSize());
+  }
+
+  @Test
+  public void testFindErrors() throws IOException {
+    System.out.println("Test DuplicateFinder.find() errors");
+    DuplicateFinder finder = new DuplicateFinder();
+    try {
+      finder.find(new File(root, "unique.txt"));
+      Assert.fail("NotDirectoryException expected");
+    } catch (NotDirectoryException e) {
+      // expected
+    }
+    try {
+      finder.setChunkSize(0);
+      Assert.fail("InvalidIntegerValueException expected");
+    } catch (InvalidIntegerValueException e) {
+      // expected
+    }
+    try {
+      finder.setMinSize(-1);
+      Assert.fail("InvalidLongValueException expected");
+    } catch (InvalidLongValueException e) {
+      // expected
+    }
+  }
+}
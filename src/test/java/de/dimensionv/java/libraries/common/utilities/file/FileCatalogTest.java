@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.utilities.strings.StringUtils;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class FileCatalogTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File root;
+  private File catalogFile;
+
+  @Before
+  public void setUp() throws IOException {
+    root = folder.newFolder("tree");
+    catalogFile = new File(folder.getRoot(), "tree.catalog");
+    // more than one block of entries in a single directory
+    for (int index = 0; index < 40; index++) {
+      createFile("many/file" + index + ".txt", "content " + index);
+    }
+    createFile("sub/a.txt", "a");
+    createFile("sub/deep/b.txt", "bb");
+    createFile("sub-x.txt", "x");
+    createFile("sub0", "0");
+    createFile("~tilde.txt", "~");
+    new File(root, "empty").mkdirs();
+  }
+
+  private void createFile(String path, String content) throws IOException {
+    File file = new File(root, path);
+    file.getParentFile().mkdirs();
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String hash(String content) throws Exception {
+    return StringUtils.sha1Hash(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testCreate() throws Exception {
+    System.out.println("Test FileCatalog.create()");
+    FileCatalog catalog = FileCatalog.create(root, catalogFile, false);
+    Assert.assertEquals(root.getAbsoluteFile(), catalog.getRoot());
+    Assert.assertFalse(catalog.hasHashes());
+    // 40 + many, sub, a.txt, deep, b.txt, sub-x.txt, sub0, ~tilde.txt, empty
+    Assert.assertEquals(49, catalog.size());
+
+    List<String> paths = new ArrayList<>();
+    for (int index = 0; index < catalog.size(); index++) {
+      paths.add(catalog.getPath(index));
+    }
+    // sorted by UTF-8 bytes, and each path is found again
+    for (int index = 0; index < catalog.size(); index++) {
+      Assert.assertEquals(index, catalog.indexOf(paths.get(index)));
+      Assert.assertTrue(index == 0 || compareUtf8(paths.get(index - 1), paths.get(index)) < 0);
+    }
+
+    int index = catalog.indexOf("sub/deep/b.txt");
+    Assert.assertEquals(2, catalog.getSize(index));
+    Assert.assertEquals(FileEntry.Type.REGULAR_FILE, catalog.getType(index));
+    Assert.assertEquals(new File(root, "sub/deep/b.txt").lastModified(), catalog.getLastModified(index));
+    Assert.assertEquals(new File(root, "sub/deep/b.txt").getAbsoluteFile(), catalog.getFile(index));
+    Assert.assertNull(catalog.getHash(index));
+    Assert.assertEquals(FileEntry.Type.DIRECTORY, catalog.getType(catalog.indexOf("sub/deep")));
+    Assert.assertTrue(catalog.indexOf("~tilde.txt") >= 0);
+
+    // not found: the insertion point is returned
+    Assert.assertEquals(-1, catalog.indexOf(""));
+    Assert.assertEquals(-catalog.indexOf("sub") - 1, catalog.indexOf("sua"));
+    Assert.assertEquals(-catalog.size() - 1, catalog.indexOf("\u00ff"));
+  }
+
+  private static int[] toUnsigned(String path) {
+    byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+    int[] result = new int[bytes.length];
+    for (int index = 0; index < bytes.length; index++) {
+      result[index] = bytes[index] & 0xff;
+    }
+    return result;
+  }
+
+  private static int compareUtf8(String pathA, String pathB) {
+    int[] bytesA = toUnsigned(pathA);
+    int[] bytesB = toUnsigned(pathB);
+    for (int index = 0; index < Math.min(bytesA.length, bytesB.length); index++) {
+      if (bytesA[index] != bytesB[index]) {
+        return bytesA[index] - bytesB[index];
+      }
+    }
+    return bytesA.length - bytesB.length;
+  }
+
+  @Test
+  public void testList() throws IOException {
+    System.out.println("Test FileCatalog.list()");
+    FileCatalog catalog = FileCatalog.create(root, catalogFile, false);
+    Assert.assertEquals(Arrays.asList("empty", "many", "sub", "sub-x.txt", "sub0", "~tilde.txt"), catalog.list(""));
+    Assert.assertEquals(Arrays.asList("sub/a.txt", "sub/deep"), catalog.list("sub"));
+    Assert.assertEquals(Arrays.asList("sub/deep/b.txt"), catalog.list("sub/deep"));
+    Assert.assertEquals(40, catalog.list("many").size());
+    Assert.assertTrue(catalog.list("empty").isEmpty());
+    Assert.assertTrue(catalog.list("missing").isEmpty());
+  }
+
+  @Test
+  public void testRefresh() throws Exception {
+    System.out.println("Test FileCatalog.refresh()");
+    FileCatalog catalog = FileCatalog.create(root, catalogFile, true);
+    Assert.assertTrue(catalog.hasHashes());
+    Assert.assertEquals(hash("a"), catalog.getHash(catalog.indexOf("sub/a.txt")));
+    Assert.assertNull(catalog.getHash(catalog.indexOf("sub")));
+
+    // same size and time of modification: the hash is taken from the catalog, without reading the file
+    File a = new File(root, "sub/a.txt");
+    FileTime lastModified = Files.getLastModifiedTime(a.toPath());
+    Files.write(a.toPath(), "A".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(a.toPath(), lastModified);
+    // changed files are hashed again
+    createFile("sub/deep/b.txt", "bbb");
+    createFile("new.txt", "new");
+    Files.delete(new File(root, "sub0").toPath());
+
+    FileCatalog refreshed = catalog.refresh();
+    Assert.assertEquals(49, refreshed.size());
+    Assert.assertEquals(hash("a"), refreshed.getHash(refreshed.indexOf("sub/a.txt")));
+    Assert.assertEquals(hash("bbb"), refreshed.getHash(refreshed.indexOf("sub/deep/b.txt")));
+    Assert.assertEquals(hash("new"), refreshed.getHash(refreshed.indexOf("new.txt")));
+    Assert.assertTrue(refreshed.indexOf("sub0") < 0);
+    Assert.assertTrue(refreshed.getScanTime() >= catalog.getScanTime());
+
+    // the previous catalog stays unchanged, and the catalog file holds the refreshed one
+    Assert.assertTrue(catalog.indexOf("sub0") >= 0);
+    Assert.assertEquals(hash("bb"), catalog.getHash(catalog.indexOf("sub/deep/b.txt")));
+    Assert.assertTrue(FileCatalog.open(catalogFile).indexOf("new.txt") >= 0);
+  }
+
+  @Test
+  public void testErrors() throws IOException {
+    System.out.println("Test FileCatalog errors");
+    try {
+      FileCatalog.create(new File(root, "sub0"), catalogFile, false);
+      Assert.fail("NotDirectoryException expected");
+    } catch (NotDirectoryException e) {
+      // expected
+    }
+    File invalid = folder.newFile("invalid.catalog");
+    Files.write(invalid.toPath(), new byte[100]);
+    try {
+      FileCatalog.open(invalid);
+      Assert.fail("IOException expected");
+    } catch (IOException e) {
+      // expected
+    }
+    FileCatalog catalog = FileCatalog.create(folder.newFolder("nothing"), catalogFile, false);
+    Assert.assertEquals(0, catalog.size());
+    Assert.assertEquals(-1, catalog.indexOf("a"));
+    Assert.assertTrue(catalog.list("").isEmpty());
+    try {
+      catalog.getPath(0);
+      Assert.fail("IndexOutOfBoundsException expected");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+}
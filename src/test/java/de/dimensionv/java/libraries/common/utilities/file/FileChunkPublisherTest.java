@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.utilities.concurrent.Flow;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class FileChunkPublisherTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * A subscriber recording all signals, which requests one chunk after the other.
+   */
+  private static final class RecordingSubscriber implements Flow.Subscriber<ByteBuffer> {
+
+    final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+    final CountDownLatch terminated = new CountDownLatch(1);
+    final int limit;
+    Flow.Subscription subscription;
+    Throwable error;
+    boolean completed;
+
+    RecordingSubscriber(int limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(ByteBuffer item) {
+      chunks.add(item);
+      if (chunks.size() < limit) {
+        subscription.request(1);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      terminated.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+      terminated.countDown();
+    }
+
+    byte[] getContent() {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      for (ByteBuffer chunk : chunks) {
+        output.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+      }
+      return output.toByteArray();
+    }
+  }
+
+  @Test
+  public void testChunks() throws Exception {
+    System.out.println("Test FileChunkPublisher with a chunk at a time");
+    byte[] content = new byte[10000];
+    new Random(3).nextBytes(content);
+    File file = folder.newFile("content.bin");
+    Files.write(file.toPath(), content);
+
+    RecordingSubscriber subscriber = new RecordingSubscriber(Integer.MAX_VALUE);
+    new FileChunkPublisher(file, 4096, Runnable::run).subscribe(subscriber);
+    Assert.assertTrue(subscriber.completed);
+    Assert.assertEquals(3, subscriber.chunks.size());
+    Assert.assertEquals(4096, subscriber.chunks.get(0).remaining());
+    Assert.assertEquals(10000 - 8192, subscriber.chunks.get(2).remaining());
+    Assert.assertArrayEquals(content, subscriber.getContent());
+
+    subscriber = new RecordingSubscriber(Integer.MAX_VALUE);
+    new FileChunkPublisher(file).subscribe(subscriber);
+    Assert.assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+    Assert.assertTrue(subscriber.completed);
+    Assert.assertArrayEquals(content, subscriber.getContent());
+  }
+
+  @Test
+  public void testDemandAndCancel() throws IOException {
+    System.out.println("Test FileChunkPublisher with limited demand and cancellation");
+    File file = folder.newFile("content.txt");
+    Files.write(file.toPath(), new byte[100]);
+
+    RecordingSubscriber subscriber = new RecordingSubscriber(2);
+    new FileChunkPublisher(file, 10, Runnable::run).subscribe(subscriber);
+    Assert.assertEquals(2, subscriber.chunks.size());
+    Assert.assertFalse(subscriber.completed);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(100);
+    Assert.assertEquals(2, subscriber.chunks.size());
+    Assert.assertFalse(subscriber.completed);
+    Assert.assertNull(subscriber.error);
+  }
+
+  @Test
+  public void testEmptyAndMissingFile() throws IOException {
+    System.out.println("Test FileChunkPublisher with an empty and a missing file");
+    RecordingSubscriber subscriber = new RecordingSubscriber(Integer.MAX_VALUE);
+    new FileChunkPublisher(folder.newFile("empty.txt"), 10, Runnable::run).subscribe(subscriber);
+    Assert.assertTrue(subscriber.completed);
+    Assert.assertTrue(subscriber.chunks.isEmpty());
+
+    subscriber = new RecordingSubscriber(Integer.MAX_VALUE);
+    new FileChunkPublisher(new File(folder.getRoot(), "missing.txt"), 10, Runnable::run).subscribe(subscriber);
+    Assert.assertTrue(subscriber.error instanceof NoSuchFileException);
+
+    try {
+      new FileChunkPublisher(folder.getRoot(), 0, Runnable::run);
+      Assert.fail();
+    } catch (InvalidIntegerValueException e) {
+      Assert.assertEquals(0, e.getIntegerValue());
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.FileTime;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class FileEntryTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSnapshot() throws IOException {
+    System.out.println("Test FileEntry.of()");
+    File file = folder.newFile("Archive.TAR.gz");
+    Files.write(file.toPath(), new byte[42]);
+    Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(1234567890000L));
+
+    FileEntry entry = FileEntry.of(file);
+    Assert.assertEquals(file.toPath(), entry.getPath());
+    Assert.assertEquals(file, entry.toFile());
+    Assert.assertEquals("Archive.TAR.gz", entry.getName());
+    Assert.assertEquals("archive.tar.gz", entry.getSortKey());
+    Assert.assertEquals("gz", entry.getExtension());
+    Assert.assertEquals(42, entry.getSize());
+    Assert.assertEquals(1234567890000L, entry.getLastModified());
+    Assert.assertEquals(FileEntry.Type.REGULAR_FILE, entry.getType());
+    Assert.assertTrue(entry.isRegularFile());
+    Assert.assertFalse(entry.isDirectory());
+
+    // the snapshot does not change with the file
+    Files.write(file.toPath(), new byte[1]);
+    Assert.assertEquals(42, entry.getSize());
+    Assert.assertNotEquals(entry, FileEntry.of(file));
+  }
+
+  @Test
+  public void testDirectory() throws IOException {
+    System.out.println("Test FileEntry.of() with a directory");
+    File directory = folder.newFolder(".config");
+    FileEntry entry = FileEntry.of(directory.toPath());
+    Assert.assertTrue(entry.isDirectory());
+    Assert.assertEquals("", entry.getExtension());
+    Assert.assertEquals(entry, FileEntry.of(directory));
+    Assert.assertEquals(entry.hashCode(), FileEntry.of(directory).hashCode());
+  }
+
+  @Test(expected = NoSuchFileException.class)
+  public void testMissing() throws IOException {
+    System.out.println("Test FileEntry.of() with a missing file");
+    FileEntry.of(new File(folder.getRoot(), "missing"));
+  }
+}
@@ -25,17 +25,28 @@
  */
 package de.dimensionv.java.libraries.common.utilities.file;
 
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
 import de.dimensionv.java.libraries.common.exceptions.InvalidValueException;
+import de.dimensionv.java.libraries.common.utilities.file.comparators.FileEntryComparators;
+import de.dimensionv.java.libraries.common.utilities.file.filefilters.ExtensionSet;
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  *
@@ -67,6 +78,9 @@ public class FileUtilsTest {
   public URI uriHttps;
   public URI uriEmpty;
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   public FileUtilsTest() {
   }
 
@@ -123,6 +137,18 @@ public class FileUtilsTest {
     Assert.assertEquals("", result);
   }
 
+  /**
+   * Test of hasExtension method, of class FileUtils.
+   */
+  @Test
+  public void testHasExtension() {
+    System.out.println("hasExtension");
+    ExtensionSet extensions = new ExtensionSet("jpg", EXTENSION);
+    Assert.assertTrue(FileUtils.hasExtension(URI_STRING_HTTPS, extensions));
+    Assert.assertTrue(FileUtils.hasExtension(FILE_NAME_BASE + ".JPG", extensions));
+    Assert.assertFalse(FileUtils.hasExtension(FILE_NAME_BASE, extensions));
+  }
+
   /**
    * Test of getPathWithoutFilename method, of class FileUtils.
    */
@@ -262,4 +288,152 @@ public class FileUtilsTest {
     Assert.assertEquals(FILE_LIST, result);
   }
 
+  /**
+   * Test of getFileList method, of class FileUtils, with a directory of known content.
+   */
+  @Test
+  public void testGetFileListOrderAndHidden() throws IOException {
+    System.out.println("getFileList order and hidden entries");
+    File root = createListingDirectory();
+
+    List<File> expResult = Arrays.asList(new File(root, "alpha"), new File(root, "Beta"), new File(root, "a.txt"),
+        new File(root, "B.txt"), new File(root, "c.txt"));
+    Assert.assertEquals(expResult, FileUtils.getFileList(root.getPath(), false));
+
+    expResult = Arrays.asList(new File(root, ".hidden"), new File(root, "alpha"), new File(root, "Beta"),
+        new File(root, ".hidden.txt"), new File(root, "a.txt"), new File(root, "B.txt"), new File(root, "c.txt"));
+    Assert.assertEquals(expResult, FileUtils.getFileList(root.getPath(), true));
+  }
+
+  /**
+   * Test of getFileList method, of class FileUtils, with paths that are not directories.
+   */
+  @Test
+  public void testGetFileListNoDirectory() throws IOException {
+    System.out.println("getFileList no directory");
+    File root = createListingDirectory();
+    Assert.assertTrue(FileUtils.getFileList(new File(root, "a.txt").getPath(), true).isEmpty());
+    Assert.assertTrue(FileUtils.getFileList(new File(root, "missing").getPath(), true).isEmpty());
+  }
+
+  /**
+   * Test of getFileList method, of class FileUtils, called concurrently with different flags.
+   */
+  @Test
+  public void testGetFileListConcurrently() throws Exception {
+    System.out.println("getFileList concurrently");
+    final File root = createListingDirectory();
+    final List<File> withoutHidden = FileUtils.getFileList(root.getPath(), false);
+    final List<File> withHidden = FileUtils.getFileList(root.getPath(), true);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+      for (int i = 0; i < 400; i++) {
+        final boolean includeHidden = (i % 2 == 0);
+        results.add(executor.submit(() -> (includeHidden ? withHidden : withoutHidden).equals(
+            FileUtils.getFileList(root.getPath(), includeHidden))));
+      }
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Test of getFileEntries method, of class FileUtils.
+   */
+  @Test
+  public void testGetFileEntries() throws IOException {
+    System.out.println("getFileEntries");
+    File root = createListingDirectory();
+    for (boolean includeHidden : new boolean[]{false, true}) {
+      List<FileEntry> entries = FileUtils.getFileEntries(root.getPath(), includeHidden);
+      entries.sort(FileEntryComparators.comparing(FileEntryComparators.byType(), FileEntryComparators.byName()));
+      List<File> result = new ArrayList<File>();
+      for (FileEntry entry : entries) {
+        result.add(entry.toFile());
+      }
+      Assert.assertEquals(FileUtils.getFileList(root.getPath(), includeHidden), result);
+    }
+    Assert.assertTrue(FileUtils.getFileEntries(new File(root, "missing").getPath(), true).isEmpty());
+  }
+
+  /**
+   * Test of streamFileList method, of class FileUtils.
+   */
+  @Test
+  public void testStreamFileList() throws IOException {
+    System.out.println("streamFileList");
+    File root = createListingDirectory();
+    for (boolean includeHidden : new boolean[]{false, true}) {
+      List<File> expResult = FileUtils.getFileList(root.getPath(), includeHidden);
+      List<File> result;
+      try (Stream<File> stream = FileUtils.streamFileList(root.getPath(), includeHidden)) {
+        result = stream.collect(Collectors.toList());
+      }
+      Assert.assertEquals(expResult.size(), result.size());
+      Assert.assertTrue(result.containsAll(expResult));
+      int directories = includeHidden ? 3 : 2;
+      for (int i = 0; i < result.size(); i++) {
+        Assert.assertEquals(result.get(i).getPath(), i < directories, result.get(i).isDirectory());
+      }
+    }
+  }
+
+  /**
+   * Test of streamSortedFileList method, of class FileUtils.
+   */
+  @Test
+  public void testStreamSortedFileList() throws IOException {
+    System.out.println("streamSortedFileList");
+    File root = createListingDirectory();
+    for (boolean includeHidden : new boolean[]{false, true}) {
+      List<File> expResult = FileUtils.getFileList(root.getPath(), includeHidden);
+      for (int batchSize : new int[]{1, 2, 3, 100}) {
+        try (Stream<File> stream = FileUtils.streamSortedFileList(root.getPath(), includeHidden, batchSize)) {
+          Assert.assertEquals("batch size " + batchSize, expResult, stream.collect(Collectors.toList()));
+        }
+      }
+    }
+    try (Stream<File> stream = FileUtils.streamSortedFileList(root.getPath(), false, 2)) {
+      Assert.assertEquals(Arrays.asList(new File(root, "alpha"), new File(root, "Beta"), new File(root, "a.txt")),
+          stream.limit(3).collect(Collectors.toList()));
+    }
+  }
+
+  /**
+   * Test of streamFileList and streamSortedFileList methods, of class FileUtils, with invalid arguments.
+   */
+  @Test
+  public void testStreamFileListInvalid() throws IOException {
+    System.out.println("streamFileList invalid");
+    File root = createListingDirectory();
+    try {
+      FileUtils.streamSortedFileList(root.getPath(), false, 0);
+      Assert.fail();
+    } catch (InvalidIntegerValueException e) {
+      Assert.assertEquals(0, e.getIntegerValue());
+    }
+    try {
+      FileUtils.streamFileList(new File(root, "missing").getPath(), false);
+      Assert.fail();
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  private File createListingDirectory() throws IOException {
+    File root = folder.newFolder("listing");
+    for (String name : new String[]{"c.txt", "a.txt", "B.txt", ".hidden.txt"}) {
+      Assert.assertTrue(new File(root, name).createNewFile());
+    }
+    for (String name : new String[]{"Beta", "alpha", ".hidden"}) {
+      Assert.assertTrue(new File(root, name).mkdir());
+    }
+    return root;
+  }
+
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.utilities.strings.StringUtils;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class FingerprintCacheTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File createFile(String name, String content) throws IOException {
+    File file = new File(folder.getRoot(), name);
+    Files.write(file.toPath(), content.getBytes("UTF-8"));
+    return file;
+  }
+
+  private static String hash(String content) throws Exception {
+    return StringUtils.sha1Hash(new ByteArrayInputStream(content.getBytes("UTF-8")));
+  }
+
+  @Test
+  public void testGetFingerprint() throws Exception {
+    System.out.println("Test FingerprintCache.getFingerprint()");
+    File file = createFile("a.txt", "The quick brown fox");
+    try (FingerprintCache cache = new FingerprintCache(10, 2)) {
+      Assert.assertEquals(hash("The quick brown fox"), cache.getFingerprint(file));
+      Assert.assertEquals(hash("The quick brown fox"), cache.getFingerprint(file));
+      Assert.assertEquals(1, cache.getMissCount());
+      Assert.assertEquals(1, cache.getHitCount());
+      Assert.assertEquals(1, cache.size());
+
+      // same size, but a different time of modification
+      FileTime lastModified = Files.getLastModifiedTime(file.toPath());
+      Files.write(file.toPath(), "The quick brown cat".getBytes("UTF-8"));
+      Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(lastModified.toMillis() + 10000));
+      Assert.assertEquals(hash("The quick brown cat"), cache.getFingerprint(file));
+      Assert.assertEquals(2, cache.getMissCount());
+
+      // a different size
+      Files.write(file.toPath(), "The quick brown fox jumps".getBytes("UTF-8"));
+      Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(lastModified.toMillis() + 10000));
+      Assert.assertEquals(hash("The quick brown fox jumps"), cache.getFingerprint(file));
+      Assert.assertEquals(3, cache.getMissCount());
+
+      cache.invalidate(file);
+      Assert.assertEquals(0, cache.size());
+      try {
+        cache.getFingerprint(folder.getRoot());
+        Assert.fail("IOException expected");
+      } catch (IOException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testGetFingerprintConcurrent() throws Exception {
+    System.out.println("Test FingerprintCache.getFingerprintAsync() concurrent");
+    char[] content = new char[1 << 20];
+    Arrays.fill(content, 'x');
+    File file = createFile("large.txt", new String(content));
+    try (FingerprintCache cache = new FingerprintCache(10, 1)) {
+      List<CompletableFuture<String>> futures = new ArrayList<>();
+      for (int index = 0; index < 20; index++) {
+        futures.add(cache.getFingerprintAsync(file));
+      }
+      String expected = hash(new String(content));
+      for (CompletableFuture<String> future : futures) {
+        Assert.assertEquals(expected, future.get());
+      }
+      // the file is hashed once, regardless of whether the requests found it running or finished
+      Assert.assertEquals(1, cache.getMissCount());
+      Assert.assertEquals(19, cache.getHitCount());
+    }
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    System.out.println("Test FingerprintCache eviction");
+    File a = createFile("a.txt", "a");
+    File b = createFile("b.txt", "b");
+    File c = createFile("c.txt", "c");
+    try (FingerprintCache cache = new FingerprintCache(2, 1)) {
+      cache.getFingerprint(a);
+      cache.getFingerprint(b);
+      // a is used more recently than b now, so b is evicted
+      cache.getFingerprint(a);
+      cache.getFingerprint(c);
+      Assert.assertEquals(2, cache.size());
+      Assert.assertEquals(3, cache.getMissCount());
+      cache.getFingerprint(a);
+      cache.getFingerprint(c);
+      Assert.assertEquals(3, cache.getMissCount());
+      cache.getFingerprint(b);
+      Assert.assertEquals(4, cache.getMissCount());
+    }
+  }
+
+  @Test
+  public void testGetFingerprints() throws Exception {
+    System.out.println("Test FingerprintCache.getFingerprints()");
+    File a = createFile("a.txt", "a");
+    File b = createFile("b.txt", "b");
+    File missing = new File(folder.getRoot(), "missing.txt");
+    FingerprintCache cache = new FingerprintCache(10);
+    Map<File, String> fingerprints = cache.getFingerprints(Arrays.asList(b, missing, folder.getRoot(), a));
+    Assert.assertEquals(Arrays.asList(b, a), new ArrayList<>(fingerprints.keySet()));
+    Assert.assertEquals(hash("a"), fingerprints.get(a));
+    Assert.assertEquals(hash("b"), fingerprints.get(b));
+
+    // computed, but no longer cached after closing
+    cache.close();
+    Assert.assertEquals(0, cache.size());
+    Assert.assertEquals(hash("a"), cache.getFingerprint(a));
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testConstructorErrors() {
+    System.out.println("Test FingerprintCache() errors");
+    try {
+      new FingerprintCache(0);
+      Assert.fail("InvalidIntegerValueException expected");
+    } catch (InvalidIntegerValueException e) {
+      // expected
+    }
+    try {
+      new FingerprintCache(1, 0);
+      Assert.fail("InvalidIntegerValueException expected");
+    } catch (InvalidIntegerValueException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.comparators;
+
+import de.dimensionv.java.libraries.common.utilities.file.FileEntry;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class FileEntryComparatorsTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private List<FileEntry> entries;
+
+  @Before
+  public void setUp() throws IOException {
+    entries = new ArrayList<FileEntry>();
+    entries.add(entry("file10.txt", 300, 3000));
+    entries.add(entry("File2.PNG", 100, 1000));
+    entries.add(entry("notes", 200, 2000));
+    entries.add(entry("file1.txt", 100, 4000));
+    entries.add(FileEntry.of(folder.newFolder("zeta").toPath()));
+  }
+
+  private FileEntry entry(String name, int size, long lastModified) throws IOException {
+    File file = folder.newFile(name);
+    Files.write(file.toPath(), new byte[size]);
+    Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(lastModified));
+    return FileEntry.of(file);
+  }
+
+  private List<String> sortedNames(Comparator<FileEntry> comparator) {
+    List<FileEntry> sorted = new ArrayList<FileEntry>(entries);
+    sorted.sort(comparator);
+    List<String> names = new ArrayList<String>();
+    for (FileEntry entry : sorted) {
+      names.add(entry.getName());
+    }
+    return names;
+  }
+
+  @Test
+  public void testByName() {
+    System.out.println("Test FileEntryComparators.byName() and byNaturalName()");
+    Assert.assertEquals(Arrays.asList("file1.txt", "file10.txt", "File2.PNG", "notes", "zeta"),
+        sortedNames(FileEntryComparators.byName()));
+    Assert.assertEquals(Arrays.asList("file1.txt", "File2.PNG", "file10.txt", "notes", "zeta"),
+        sortedNames(FileEntryComparators.byNaturalName()));
+  }
+
+  @Test
+  public void testBySizeAndLastModified() {
+    System.out.println("Test FileEntryComparators.bySize() and byLastModified()");
+    List<String> names = sortedNames(FileEntryComparators.comparing(FileEntryComparators.byType(),
+        FileEntryComparators.bySize(), FileEntryComparators.byName()));
+    Assert.assertEquals(Arrays.asList("zeta", "file1.txt", "File2.PNG", "notes", "file10.txt"), names);
+    names = sortedNames(FileEntryComparators.comparing(FileEntryComparators.byType(),
+        FileEntryComparators.byLastModified().reversed()));
+    Assert.assertEquals(Arrays.asList("zeta", "file1.txt", "file10.txt", "notes", "File2.PNG"), names);
+  }
+
+  @Test
+  public void testByExtension() {
+    System.out.println("Test FileEntryComparators.byExtension()");
+    Assert.assertEquals(Arrays.asList("notes", "zeta", "File2.PNG", "file1.txt", "file10.txt"),
+        sortedNames(FileEntryComparators.comparing(FileEntryComparators.byExtension(),
+            FileEntryComparators.byNaturalName())));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testComparingNull() {
+    System.out.println("Test FileEntryComparators.comparing() with null");
+    FileEntryComparators.comparing(FileEntryComparators.byName(), null);
+  }
+}
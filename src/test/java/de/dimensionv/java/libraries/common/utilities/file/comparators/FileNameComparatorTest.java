@@ -91,4 +91,50 @@ public class FileNameComparatorTest {
     int result = instance.compare(testFileB, testFileA);
     Assert.assertEquals(expResult, result);
   }
+
+  /**
+   * Test of compare method, of class FileNameComparator, in case-folded mode.
+   */
+  @Test
+  public void testCompareCaseFolded() {
+    System.out.println("compare case-folded");
+    FileNameComparator instance = new FileNameComparator(FileNameComparator.Mode.CASE_FOLDED);
+    Assert.assertEquals(FileNameComparator.Mode.CASE_FOLDED, instance.getMode());
+    Assert.assertTrue(instance.compare(testFileA, testFileB) < 0);
+    Assert.assertTrue(instance.compare(testFileB, testFileA) > 0);
+    Assert.assertEquals(0, instance.compare(new File("/x/README"), new File("y/readme")));
+    Assert.assertTrue(instance.compare(new File("z/file"), new File("a/FILE.txt")) < 0);
+    Assert.assertTrue(instance.compare(new File("a_b"), new File("AB")) < 0);
+
+    String[] names = {"b.txt", "A.txt", "a_1", "\u00c4rger", "\u00e4b", "Zebra", "zebra2", ".hidden", "10", "9"};
+    for (String nameOne : names) {
+      for (String nameTwo : names) {
+        Assert.assertEquals(nameOne + " / " + nameTwo,
+            Integer.signum(String.CASE_INSENSITIVE_ORDER.compare(nameOne, nameTwo)),
+            Integer.signum(instance.compare(new File("dir", nameOne), new File(nameTwo))));
+      }
+    }
+  }
+
+  /**
+   * Test of compare method, of class FileNameComparator, in natural mode.
+   */
+  @Test
+  public void testCompareNatural() {
+    System.out.println("compare natural");
+    FileNameComparator instance = new FileNameComparator(FileNameComparator.Mode.NATURAL);
+    Assert.assertTrue(instance.compare(new File("file2.txt"), new File("File10.txt")) < 0);
+    Assert.assertTrue(new FileNameComparator().compare(new File("file2.txt"), new File("File10.txt")) > 0);
+    Assert.assertEquals(0, instance.compare(new File("a/IMG1.jpg"), new File("b/img1.JPG")));
+    Assert.assertEquals(-1, instance.compare(testFileA, testFileB));
+  }
+
+  /**
+   * Test of the constructor of class FileNameComparator, with a null mode.
+   */
+  @Test(expected = NullPointerException.class)
+  public void testNullMode() {
+    System.out.println("FileNameComparator null mode");
+    new FileNameComparator(null);
+  }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.filefilters;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class ExtensionSetTest {
+
+  @Test
+  public void testMatches() {
+    System.out.println("Test ExtensionSet.matches()");
+    ExtensionSet extensions = new ExtensionSet("jpg", ".PNG", "tar.gz");
+    Assert.assertTrue(extensions.matches("photo.jpg"));
+    Assert.assertTrue(extensions.matches("PHOTO.JPG"));
+    Assert.assertTrue(extensions.matches("image.png"));
+    Assert.assertTrue(extensions.matches("backup.TAR.gz"));
+    Assert.assertTrue(extensions.matches("dir.d/photo.jpg"));
+    Assert.assertFalse(extensions.matches("backup.gz"));
+    Assert.assertFalse(extensions.matches("photo.jpeg"));
+    Assert.assertFalse(extensions.matches("photojpg"));
+    Assert.assertFalse(extensions.matches(".jpg"));
+    Assert.assertFalse(extensions.matches("dir/.jpg"));
+    Assert.assertFalse(extensions.matches("photo.jpg/"));
+    Assert.assertFalse(extensions.matches("photo."));
+    Assert.assertFalse(extensions.matches(""));
+    Assert.assertFalse(new ExtensionSet().matches("photo.jpg"));
+  }
+
+  @Test
+  public void testIndexOfExtension() {
+    System.out.println("Test ExtensionSet.indexOfExtension()");
+    ExtensionSet extensions = new ExtensionSet("gz", "tar.gz");
+    Assert.assertEquals(6, extensions.indexOfExtension("backup.tar.gz"));
+    Assert.assertEquals(6, extensions.indexOfExtension("backup.gz"));
+    Assert.assertEquals(2, extensions.indexOfExtension(".a.tar.gz"));
+    Assert.assertEquals(-1, extensions.indexOfExtension("backup.tar"));
+  }
+
+  @Test
+  public void testManyExtensions() {
+    System.out.println("Test ExtensionSet with many extensions");
+    String[] values = new String[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = "ext" + i;
+    }
+    ExtensionSet extensions = new ExtensionSet(values);
+    Assert.assertEquals(1000, extensions.size());
+    for (int i = 0; i < values.length; i++) {
+      Assert.assertTrue(extensions.matches("file.EXT" + i));
+    }
+    Assert.assertFalse(extensions.matches("file.ext1000"));
+    Assert.assertEquals(Arrays.asList("a", "b"), new ExtensionSet("A", ".a", "b").getExtensions());
+  }
+
+  @Test
+  public void testInvalidExtensions() {
+    System.out.println("Test ExtensionSet with invalid extensions");
+    for (String extension : new String[]{"", ".", "..gz", "a/b"}) {
+      try {
+        new ExtensionSet(extension);
+        Assert.fail(extension);
+      } catch (InvalidStringValueException e) {
+        // expected
+      }
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.filefilters;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidLongValueException;
+import de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class FilePredicateTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File text;
+  private File archive;
+  private File hidden;
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    text = folder.newFile("Notes.TXT");
+    Files.write(text.toPath(), new byte[10]);
+    archive = folder.newFile("backup.tar.gz");
+    Files.write(archive.toPath(), new byte[1000]);
+    hidden = folder.newFile(".profile");
+    directory = folder.newFolder("docs.txt");
+    Files.setLastModifiedTime(text.toPath(), FileTime.fromMillis(1000000000000L));
+  }
+
+  @Test
+  public void testNamePredicates() {
+    System.out.println("Test FilePredicate name predicates");
+    FilePredicate extension = FilePredicate.extension("txt", ".tar.gz");
+    Assert.assertTrue(extension.accept(text));
+    Assert.assertTrue(extension.accept(archive));
+    Assert.assertFalse(extension.accept(hidden));
+    Assert.assertFalse(extension.accept(new File(folder.getRoot(), ".txt")));
+    Assert.assertFalse(FilePredicate.extension("gz.tar").accept(archive));
+
+    Assert.assertTrue(FilePredicate.glob("*.{TXT,gz}").accept(text));
+    Assert.assertTrue(FilePredicate.glob("backup.*").accept(archive.toPath()));
+    Assert.assertFalse(FilePredicate.glob("*.txt").accept(text));
+
+    Assert.assertTrue(FilePredicate.nameMatches("[A-Z]\\w+\\.TXT").accept(text));
+    Assert.assertFalse(FilePredicate.nameMatches("Notes").accept(text));
+
+    Assert.assertTrue(FilePredicate.hidden().accept(hidden));
+    Assert.assertFalse(FilePredicate.hidden().accept(text));
+    Assert.assertFalse(extension.requiresAttributes());
+    // name checks do not need the file to exist
+    Assert.assertTrue(extension.accept(new File(folder.getRoot(), "missing.txt")));
+  }
+
+  @Test
+  public void testAttributePredicates() {
+    System.out.println("Test FilePredicate attribute predicates");
+    Assert.assertTrue(FilePredicate.regularFile().accept(text));
+    Assert.assertFalse(FilePredicate.regularFile().accept(directory));
+    Assert.assertTrue(FilePredicate.directory().accept(directory.toPath()));
+    Assert.assertTrue(FilePredicate.sizeBetween(10, 10).accept(text));
+    Assert.assertFalse(FilePredicate.sizeBetween(11, Long.MAX_VALUE).accept(text));
+    Assert.assertTrue(FilePredicate.modifiedBetween(999999999000L, 1000000001000L).accept(text));
+    Assert.assertFalse(FilePredicate.modifiedBetween(0, 999999999000L).accept(text));
+    Assert.assertTrue(FilePredicate.regularFile().requiresAttributes());
+    // files that vanished are never accepted, even if negated
+    File missing = new File(folder.getRoot(), "missing.txt");
+    Assert.assertFalse(FilePredicate.not(FilePredicate.sizeBetween(0, 10)).accept(missing));
+  }
+
+  @Test
+  public void testAlgebra() {
+    System.out.println("Test FilePredicate and(), or(), not()");
+    FilePredicate textFiles = FilePredicate.and(FilePredicate.regularFile(), FilePredicate.extension("txt"));
+    Assert.assertTrue(textFiles.accept(text));
+    Assert.assertFalse(textFiles.accept(directory));
+    Assert.assertFalse(textFiles.accept(archive));
+
+    FilePredicate visible = FilePredicate.not(FilePredicate.hidden());
+    FilePredicate filter = textFiles.or(FilePredicate.sizeBetween(500, 2000)).and(visible);
+    Assert.assertTrue(filter.accept(text));
+    Assert.assertTrue(filter.accept(archive));
+    Assert.assertFalse(filter.accept(hidden));
+    Assert.assertFalse(filter.accept(directory));
+    Assert.assertFalse(filter.negate().accept(text));
+    Assert.assertSame(textFiles, FilePredicate.not(FilePredicate.not(textFiles)));
+
+    Assert.assertSame(FilePredicate.none(), FilePredicate.and(textFiles, FilePredicate.none()));
+    Assert.assertSame(FilePredicate.all(), FilePredicate.or(textFiles, FilePredicate.all()));
+    Assert.assertSame(visible, FilePredicate.and(visible, FilePredicate.all()));
+    Assert.assertTrue(FilePredicate.and().accept(text));
+    Assert.assertFalse(FilePredicate.or().accept(text));
+  }
+
+  @Test
+  public void testAttributesReadOnce() throws IOException {
+    System.out.println("Test FilePredicate reads the attributes once, after the names");
+    final BasicFileAttributes attributes = Files.readAttributes(text.toPath(), BasicFileAttributes.class);
+    final AtomicInteger calls = new AtomicInteger();
+    BasicFileAttributes counting = (BasicFileAttributes) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[]{BasicFileAttributes.class}, (proxy, method, arguments) -> {
+          calls.incrementAndGet();
+          return method.invoke(attributes, arguments);
+        });
+
+    FilePredicate filter = FilePredicate.and(FilePredicate.sizeBetween(0, 100), FilePredicate.regularFile(),
+        FilePredicate.extension("txt"));
+    Assert.assertTrue(filter.test(text, counting));
+    Assert.assertEquals(2, calls.get());
+    // the name check comes first, so no attributes are needed at all
+    Assert.assertFalse(filter.test(archive, counting));
+    Assert.assertEquals(2, calls.get());
+  }
+
+  @Test(expected = InvalidStringValueException.class)
+  public void testEmptyExtension() {
+    System.out.println("Test FilePredicate.extension() with an empty extension");
+    FilePredicate.extension("txt", "");
+  }
+
+  @Test(expected = InvalidLongValueException.class)
+  public void testInvalidRange() {
+    System.out.println("Test FilePredicate.sizeBetween() with an invalid range");
+    FilePredicate.sizeBetween(10, 9);
+  }
+}
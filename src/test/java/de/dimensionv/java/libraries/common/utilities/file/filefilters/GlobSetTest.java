@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.filefilters;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class GlobSetTest {
+
+  @Test
+  public void testMatches() {
+    System.out.println("Test GlobSet.matches()");
+    GlobSet globs = new GlobSet("Makefile", "README*", "*.txt", "*.tar.gz", "docs/**", "**.md", "img?.{png,jpg}",
+        "a*b*c");
+    Assert.assertTrue(globs.matches("Makefile"));
+    Assert.assertFalse(globs.matches("Makefile.am"));
+    Assert.assertTrue(globs.matches("README"));
+    Assert.assertTrue(globs.matches("README.old"));
+    Assert.assertFalse(globs.matches("README/x"));
+    Assert.assertTrue(globs.matches("notes.txt"));
+    Assert.assertFalse(globs.matches("dir/notes.txt"));
+    Assert.assertTrue(globs.matches("backup.tar.gz"));
+    Assert.assertTrue(globs.matches("docs/api/index.html"));
+    Assert.assertTrue(globs.matches("dir/notes.md"));
+    Assert.assertTrue(globs.matches("img1.jpg"));
+    Assert.assertFalse(globs.matches("img12.jpg"));
+    Assert.assertTrue(globs.matches("axbxc"));
+    Assert.assertFalse(globs.matches("notes.tx"));
+    Assert.assertFalse(new GlobSet().matches("anything"));
+  }
+
+  @Test
+  public void testManyPatterns() {
+    System.out.println("Test GlobSet.matches() with many patterns");
+    String[] patterns = new String[500];
+    for (int i = 0; i < patterns.length; i++) {
+      patterns[i] = (i % 2 == 0) ? "*.ext" + i : "prefix" + i + "*";
+    }
+    GlobSet globs = new GlobSet(patterns);
+    for (int i = 0; i < patterns.length; i++) {
+      String name = (i % 2 == 0) ? "file.ext" + i : "prefix" + i + ".dat";
+      Assert.assertEquals(name, true, globs.matches(name));
+      Assert.assertEquals(name, globs.matches(name), Glob.compile(patterns[i]).matches(name));
+    }
+    Assert.assertFalse(globs.matches("file.ext1"));
+    Assert.assertFalse(globs.matches("prefix0.dat"));
+    Assert.assertEquals(Arrays.asList(patterns), globs.getPatterns());
+  }
+
+  @Test
+  public void testIgnoreCase() {
+    System.out.println("Test GlobSet.matches() ignoring case");
+    GlobSet globs = new GlobSet(true, "*.JPG", "thumbs.db", "Read*");
+    Assert.assertTrue(globs.isIgnoreCase());
+    Assert.assertTrue(globs.matches("photo.jpg"));
+    Assert.assertTrue(globs.matches("Thumbs.DB"));
+    Assert.assertTrue(globs.matches("README"));
+    Assert.assertFalse(new GlobSet("*.JPG").matches("photo.jpg"));
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.file.filefilters;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class GlobTest {
+
+  @Test
+  public void testLiteralsAndStars() {
+    System.out.println("Test Glob.matches() with literals and stars");
+    Assert.assertTrue(Glob.compile("README").matches("README"));
+    Assert.assertFalse(Glob.compile("README").matches("README.md"));
+    Assert.assertTrue(Glob.compile("*.txt").matches("notes.txt"));
+    Assert.assertTrue(Glob.compile("*.txt").matches(".txt"));
+    Assert.assertFalse(Glob.compile("*.txt").matches("dir/notes.txt"));
+    Assert.assertTrue(Glob.compile("**.txt").matches("dir/notes.txt"));
+    Assert.assertTrue(Glob.compile("src/**/*.java").matches("src/main/java/Glob.java"));
+    Assert.assertFalse(Glob.compile("src/**/*.java").matches("src/Glob.java"));
+    Assert.assertTrue(Glob.compile("a*b*c").matches("abc"));
+    Assert.assertTrue(Glob.compile("a*b*c").matches("axxbyybc"));
+    Assert.assertFalse(Glob.compile("a*b*c").matches("axxbyycb"));
+    Assert.assertFalse(Glob.compile("a*a").matches("a"));
+    Assert.assertTrue(Glob.compile("*").matches(""));
+  }
+
+  @Test
+  public void testClassesAndAlternatives() {
+    System.out.println("Test Glob.matches() with classes, alternatives and escapes");
+    Assert.assertTrue(Glob.compile("file?.[ch]").matches("file1.c"));
+    Assert.assertFalse(Glob.compile("file?.[ch]").matches("file1.o"));
+    Assert.assertFalse(Glob.compile("a?b").matches("a/b"));
+    Assert.assertTrue(Glob.compile("[!a-c]*").matches("dog"));
+    Assert.assertFalse(Glob.compile("[^a-c]*").matches("cat"));
+    Assert.assertTrue(Glob.compile("[]]").matches("]"));
+    Assert.assertTrue(Glob.compile("[a-]").matches("-"));
+    Assert.assertTrue(Glob.compile("*.{jpg,png,tar.{gz,bz2}}").matches("photo.png"));
+    Assert.assertTrue(Glob.compile("*.{jpg,png,tar.{gz,bz2}}").matches("backup.tar.bz2"));
+    Assert.assertFalse(Glob.compile("*.{jpg,png,tar.{gz,bz2}}").matches("backup.tar"));
+    Assert.assertTrue(Glob.compile("a{,b}c").matches("ac"));
+    Assert.assertTrue(Glob.compile("\\*\\?").matches("*?"));
+    Assert.assertFalse(Glob.compile("\\*").matches("x"));
+    Assert.assertTrue(Glob.compile("a,b}").matches("a,b}"));
+  }
+
+  @Test
+  public void testIgnoreCase() {
+    System.out.println("Test Glob.matches() ignoring case");
+    Glob glob = Glob.compile("Read*.{MD,txt}", true);
+    Assert.assertTrue(glob.isIgnoreCase());
+    Assert.assertTrue(glob.matches("README.md"));
+    Assert.assertTrue(glob.matches("readme.TXT"));
+    Assert.assertTrue(Glob.compile("[a-c]?", true).matches("Bx"));
+    Assert.assertFalse(Glob.compile("Read*").matches("README"));
+  }
+
+  @Test
+  public void testLongPattern() {
+    System.out.println("Test Glob.matches() with a pattern of more than 64 constructs");
+    StringBuilder pattern = new StringBuilder("x");
+    StringBuilder name = new StringBuilder("x");
+    for (int i = 0; i < 40; i++) {
+      pattern.append("?*");
+      name.append("ab");
+    }
+    pattern.append("y");
+    Assert.assertTrue(Glob.compile(pattern.toString()).matches(name + "y"));
+    Assert.assertFalse(Glob.compile(pattern.toString()).matches(name.substring(0, 40) + "y"));
+    Assert.assertEquals(pattern.toString(), Glob.compile(pattern.toString()).getPattern());
+  }
+
+  @Test
+  public void testMalformed() {
+    System.out.println("Test Glob.compile() with malformed patterns");
+    for (String pattern : new String[]{"[ab", "{a,b", "a\\", "[z-a]"}) {
+      try {
+        Glob.compile(pattern);
+        Assert.fail(pattern);
+      } catch (InvalidStringValueException e) {
+        // expected
+      }
+    }
+  }
+}
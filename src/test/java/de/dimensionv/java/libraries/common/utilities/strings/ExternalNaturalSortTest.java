@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import de.dimensionv.java.libraries.common.exceptions.InvalidLongValueException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author vseifert
+ */
+public class ExternalNaturalSortTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testSortInMemory() throws IOException {
+    System.out.println("Test ExternalNaturalSort.sort() with input fitting into memory");
+    List<String> lines = Arrays.asList("item10", "item2", "item 1", "Alice", "item02", "");
+    Path input = writeInput(lines);
+    Path output = folder.getRoot().toPath().resolve("output.txt");
+    Path temporaryDirectory = folder.newFolder("temp").toPath();
+
+    ExternalNaturalSort instance = new ExternalNaturalSort();
+    instance.setTemporaryDirectory(temporaryDirectory);
+    instance.sort(input, output);
+
+    Assert.assertEquals(Arrays.asList("", "Alice", "item 1", "item02", "item2", "item10"),
+        Files.readAllLines(output, StandardCharsets.UTF_8));
+    Assert.assertEquals(0, temporaryDirectory.toFile().list().length);
+  }
+
+  @Test
+  public void testSortWithRuns() throws IOException {
+    System.out.println("Test ExternalNaturalSort.sort() with multiple runs and merge passes");
+    List<String> lines = createLines(5000);
+    Path input = writeInput(lines);
+    Path output = folder.getRoot().toPath().resolve("output.txt");
+    Path temporaryDirectory = folder.newFolder("temp").toPath();
+
+    ExternalNaturalSort instance = new ExternalNaturalSort();
+    instance.setMemoryLimit(16 * 1024);
+    instance.setBufferSize(256);
+    instance.setMergeFactor(3);
+    instance.setTemporaryDirectory(temporaryDirectory);
+    instance.sort(input, output);
+
+    List<String> expected = new ArrayList<String>(lines);
+    Collections.sort(expected, NaturalSortComparator.<String>getInstance());
+    Assert.assertEquals(expected, Files.readAllLines(output, StandardCharsets.UTF_8));
+    Assert.assertEquals(0, temporaryDirectory.toFile().list().length);
+  }
+
+  @Test
+  public void testSortInPlace() throws IOException {
+    System.out.println("Test ExternalNaturalSort.sort() with input and output being the same file");
+    List<String> lines = createLines(2000);
+    Path file = writeInput(lines);
+
+    ExternalNaturalSort instance = new ExternalNaturalSort();
+    instance.setMemoryLimit(8 * 1024);
+    instance.setTemporaryDirectory(folder.newFolder("temp").toPath());
+    instance.sort(file, file);
+
+    List<String> expected = new ArrayList<String>(lines);
+    Collections.sort(expected, NaturalSortComparator.<String>getInstance());
+    Assert.assertEquals(expected, Files.readAllLines(file, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testSortStable() throws IOException {
+    System.out.println("Test ExternalNaturalSort.sort() for stability");
+    List<String> lines = new ArrayList<String>();
+    for (int i = 0; i < 1000; i++) {
+      lines.add((i % 2 == 0) ? "item 5" : "item5");
+    }
+    Path input = writeInput(lines);
+    Path output = folder.getRoot().toPath().resolve("output.txt");
+
+    ExternalNaturalSort instance = new ExternalNaturalSort();
+    instance.setMemoryLimit(2048);
+    instance.setMergeFactor(2);
+    instance.setTemporaryDirectory(folder.newFolder("temp").toPath());
+    instance.sort(input, output);
+
+    Assert.assertEquals(lines, Files.readAllLines(output, StandardCharsets.UTF_8));
+  }
+
+  @Test(expected = IOException.class)
+  public void testSortMissingInput() throws IOException {
+    System.out.println("Test ExternalNaturalSort.sort() with missing input");
+    new ExternalNaturalSort().sort(new File(folder.getRoot(), "missing.txt").toPath(),
+        folder.getRoot().toPath().resolve("output.txt"));
+  }
+
+  @Test(expected = InvalidLongValueException.class)
+  public void testInvalidMemoryLimit() {
+    System.out.println("Test ExternalNaturalSort.setMemoryLimit() with invalid value");
+    new ExternalNaturalSort().setMemoryLimit(0);
+  }
+
+  @Test(expected = InvalidIntegerValueException.class)
+  public void testInvalidMergeFactor() {
+    System.out.println("Test ExternalNaturalSort.setMergeFactor() with invalid value");
+    new ExternalNaturalSort().setMergeFactor(1);
+  }
+
+  private Path writeInput(List<String> lines) throws IOException {
+    return Files.write(folder.newFile().toPath(), lines, StandardCharsets.UTF_8);
+  }
+
+  private static List<String> createLines(int count) {
+    Random random = new Random(42);
+    List<String> lines = new ArrayList<String>(count);
+    for (int i = 0; i < count; i++) {
+      lines.add("dir" + random.nextInt(20) + "/file" + random.nextInt(1000) + (random.nextBoolean() ? ".txt" : ""));
+    }
+    return lines;
+  }
+}
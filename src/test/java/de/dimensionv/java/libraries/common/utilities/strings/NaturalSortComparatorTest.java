@@ -25,9 +25,14 @@
  */
 package de.dimensionv.java.libraries.common.utilities.strings;
 
+import java.text.Collator;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -198,4 +203,129 @@ public class NaturalSortComparatorTest {
     // now check if the result as as we expect it to be...
     Assert.assertArrayEquals(originalData, result);
   }
+
+  @Test
+  public void testCompareWithKeyExtractor() {
+    System.out.println("Test NaturalSortComparator.compare() with a key extractor");
+    NaturalSortComparator<StringBuilder> instance = new NaturalSortComparator<StringBuilder>(builder -> builder);
+    Assert.assertEquals(-1, instance.compare(new StringBuilder("Bla9"), new StringBuilder("Bla10")));
+    Assert.assertEquals(1, instance.compare(new StringBuilder("Bla000110 oh!"), new StringBuilder("Bla000110 hm!")));
+    Assert.assertEquals(0, instance.compare(new StringBuilder("Bla10"), new StringBuilder("Bla10")));
+    Assert.assertFalse(instance.isDecorating());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullKeyExtractor() {
+    System.out.println("Test NaturalSortComparator with a null key extractor");
+    new NaturalSortComparator<Object>(null, true);
+  }
+
+  @Test
+  public void testSortDecorating() {
+    System.out.println("Test NaturalSortComparator.sort() in decorating mode");
+    String[] originalData = new String[]{
+      "1-04", "1-4", "1-40", "10-40", "Alice", "item01", "item02", "item02a", "item2", "item00004", "item4",
+      "item 4 else", "item05", "item 5", "item128", "item04096 test 2a", "item04096 test 3", "x2-y08"
+    };
+    final AtomicInteger extractions = new AtomicInteger();
+    NaturalSortComparator<StringBuilder> instance = new NaturalSortComparator<StringBuilder>(builder -> {
+      extractions.incrementAndGet();
+      return builder.toString();
+    }, true);
+    Assert.assertTrue(instance.isDecorating());
+
+    List<StringBuilder> data = new ArrayList<StringBuilder>();
+    for (String string : originalData) {
+      data.add(new StringBuilder(string));
+    }
+    Collections.shuffle(data);
+    instance.sort(data);
+
+    Assert.assertEquals(originalData.length, extractions.get());
+    for (int i = 0; i < originalData.length; i++) {
+      Assert.assertEquals(originalData[i], data.get(i).toString());
+    }
+  }
+
+  @Test
+  public void testSortNonDecorating() {
+    System.out.println("Test NaturalSortComparator.sort() without decorating mode");
+    String[] originalData = new String[]{"item01", "item2", "item3", "item00004", "item10"};
+    String[] result = new String[]{"item10", "item3", "item00004", "item01", "item2"};
+    NaturalSortComparator<String> instance = NaturalSortComparator.getInstance();
+    instance.sort(result);
+    Assert.assertArrayEquals(originalData, result);
+
+    List<String> list = new ArrayList<String>(Arrays.asList("item3", "item10", "item2"));
+    instance.sort(list);
+    Assert.assertEquals(Arrays.asList("item2", "item3", "item10"), list);
+  }
+
+  @Test
+  public void testCompareIgnoreCase() {
+    System.out.println("Test NaturalSortComparator.compare() ignoring case");
+    NaturalSortComparator<String> instance = NaturalSortComparator.getCaseInsensitiveInstance();
+    Assert.assertTrue(instance.isIgnoringCase());
+    Assert.assertFalse(NaturalSortComparator.getInstance().isIgnoringCase());
+
+    Assert.assertEquals(1, NaturalSortComparator.getInstance().compare("apple", "Zebra"));
+    Assert.assertEquals(-1, instance.compare("apple", "Zebra"));
+    Assert.assertEquals(1, instance.compare("ITEM10", "item9"));
+    Assert.assertEquals(0, instance.compare("Item 5", "iTEM5"));
+    Assert.assertEquals(-1, instance.compare("item_", "ITEMA"));
+    Assert.assertEquals(0, instance.compare("\u00c4rger", "\u00e4RGER"));
+    Assert.assertEquals(-1, instance.compare("\u00e4rger 2", "\u00c4RGER 10"));
+  }
+
+  @Test
+  public void testSortCollator() {
+    System.out.println("Test NaturalSortComparator.sort() with a collator");
+    String[] originalData = new String[]{"apfel 9", "Apfel 10", "\u00e4pfel 10", "\u00c4pfel 2", "b", "Zebra"};
+    String[] result = new String[]{"Zebra", "\u00c4pfel 2", "b", "Apfel 10", "apfel 9", "\u00e4pfel 10"};
+    NaturalSortComparator<String> instance = NaturalSortComparator.getInstance(Locale.GERMAN);
+    Assert.assertNotNull(instance.getCollator());
+    Assert.assertNull(NaturalSortComparator.getInstance().getCollator());
+    instance.sort(result);
+    Assert.assertArrayEquals(originalData, result);
+
+    // numbers sort before text, spaces are ignored
+    Assert.assertEquals(-1, instance.compare("item 10", "item_"));
+    Assert.assertEquals(0, instance.compare("item 10", "item10"));
+    Assert.assertEquals(-1, instance.compare("a 2 b", "a 2 c"));
+  }
+
+  @Test
+  public void testCompareCollatorConsistency() {
+    System.out.println("Test NaturalSortComparator.compare() with a collator for consistency with the collator");
+    String characters = "aAbBeEzZ-_'.,;!?()[]{}@#$%&*+/\\|\u0001\u007f\u00e4\u00c4\u00e9";
+    for (Locale locale : new Locale[]{Locale.ROOT, Locale.ENGLISH, Locale.GERMAN, Locale.CANADA_FRENCH}) {
+      for (int strength : new int[]{Collator.PRIMARY, Collator.SECONDARY, Collator.TERTIARY, Collator.IDENTICAL}) {
+        Collator collator = Collator.getInstance(locale);
+        collator.setStrength(strength);
+        NaturalSortComparator<String> instance = new NaturalSortComparator<String>(string -> string, false, collator);
+
+        Random random = new Random(strength);
+        for (int i = 0; i < 10000; i++) {
+          String stringOne = createText(random, characters);
+          String stringTwo = createText(random, characters);
+          Assert.assertEquals(stringOne + " <=> " + stringTwo, Integer.signum(collator.compare(stringOne, stringTwo)),
+              instance.compare(stringOne, stringTwo));
+        }
+      }
+    }
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullCollator() {
+    System.out.println("Test NaturalSortComparator constructor with null collator");
+    new NaturalSortComparator<String>(string -> string, false, (Collator) null);
+  }
+
+  private static String createText(Random random, String characters) {
+    char[] text = new char[1 + random.nextInt(5)];
+    for (int i = 0; i < text.length; i++) {
+      text[i] = characters.charAt(random.nextInt(characters.length()));
+    }
+    return new String(text);
+  }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class NaturalSortKeyTest {
+
+  private static final String[] SORTED_DATA = new String[]{
+    "1-04", "1-4", "1-40", "10-40", "Alice", "Bob", "Charly",
+    "a6-b6", "h2-i7", "item01", "item02", "item02a", "item2", "item3",
+    "item00004", "item00004", "item4", "item 4 else", "item05", "item 5", "item 5",
+    "item 5 something", "item 6", "item    8", "item128", "item128a",
+    "item255", "item256", "item04096", "item04096 test 1",
+    "item04096 test 2", "item04096 test 2a", "item04096 test 2b",
+    "item04096 test 3", "item04096 test 3a", "item04096 test 3b",
+    "x2-y08", "z3-f6"
+  };
+
+  @Test
+  public void testCompareNormalString() {
+    System.out.println("Test NaturalSortKey.compareTo() with simple strings");
+    Assert.assertEquals(-1, new NaturalSortKey("Bla").compareTo(new NaturalSortKey("Blu")));
+    Assert.assertEquals(1, new NaturalSortKey("Blu").compareTo(new NaturalSortKey("Bla")));
+    Assert.assertEquals(0, new NaturalSortKey("Bla").compareTo(new NaturalSortKey("Bla")));
+  }
+
+  @Test
+  public void testCompareNumberedString() {
+    System.out.println("Test NaturalSortKey.compareTo() with numbers");
+    Assert.assertEquals(-1, new NaturalSortKey("Bla9").compareTo(new NaturalSortKey("Bla10")));
+    Assert.assertEquals(1, new NaturalSortKey("Bla10").compareTo(new NaturalSortKey("Bla9")));
+    Assert.assertEquals(0, new NaturalSortKey("Bla10").compareTo(new NaturalSortKey("Bla10")));
+  }
+
+  @Test
+  public void testCompareNumberedWithLZString() {
+    System.out.println("Test NaturalSortKey.compareTo() with leading zeroed numbers");
+    Assert.assertEquals(-1, new NaturalSortKey("Bla000109").compareTo(new NaturalSortKey("Bla000110")));
+    Assert.assertEquals(-1, new NaturalSortKey("Bla0010").compareTo(new NaturalSortKey("Bla010")));
+    Assert.assertEquals(1, new NaturalSortKey("Bla10").compareTo(new NaturalSortKey("Bla010")));
+  }
+
+  @Test
+  public void testCompareLongNumbers() {
+    System.out.println("Test NaturalSortKey.compareTo() with numbers longer than a long");
+    String nines = repeat('9', 300);
+    String ones = "1" + repeat('0', 300);
+    Assert.assertEquals(-1, new NaturalSortKey(nines).compareTo(new NaturalSortKey(ones)));
+    Assert.assertEquals(1, new NaturalSortKey("x" + repeat('0', 300) + "1").compareTo(
+        new NaturalSortKey("x" + repeat('0', 400) + "1")));
+  }
+
+  @Test
+  public void testConsistentWithComparator() {
+    System.out.println("Test NaturalSortKey.compare() against NaturalSortComparator.compare()");
+    List<String> data = new ArrayList<String>(Arrays.asList(SORTED_DATA));
+    Collections.addAll(data, "", " ", "0", "00", "a0", "a00", "a 0b", "ab", "\u00e9", "\u4e00", "a 7", "a:",
+        "x\u0000y");
+    NaturalSortComparator<String> comparator = NaturalSortComparator.getInstance();
+    for (String one : data) {
+      for (String two : data) {
+        int expResult = comparator.compare(one, two);
+        int result = NaturalSortKey.compare(NaturalSortKey.encode(one), NaturalSortKey.encode(two));
+        Assert.assertEquals("[" + one + "] <=> [" + two + "]", expResult, result);
+      }
+    }
+  }
+
+  @Test
+  public void testCompareNonAsciiDigits() {
+    System.out.println("Test NaturalSortKey.compareTo() with arabic-indic digits");
+    Assert.assertEquals(-1, new NaturalSortKey("\u0662").compareTo(new NaturalSortKey("\u0661\u0660")));
+    Assert.assertEquals(1, new NaturalSortKey("a\u0661\u0660").compareTo(new NaturalSortKey("a\u0669")));
+  }
+
+  @Test
+  public void testEqualsAndHashCode() {
+    System.out.println("Test NaturalSortKey.equals() and NaturalSortKey.hashCode()");
+    NaturalSortKey keyOne = new NaturalSortKey("item 5");
+    NaturalSortKey keyTwo = new NaturalSortKey("item    5");
+    Assert.assertEquals(keyOne, keyTwo);
+    Assert.assertEquals(keyOne.hashCode(), keyTwo.hashCode());
+    Assert.assertFalse(keyOne.equals(new NaturalSortKey("item05")));
+    Assert.assertFalse(keyOne.equals("item 5"));
+    Assert.assertEquals("item    5", keyTwo.getString());
+    Assert.assertEquals("item    5", keyTwo.toString());
+  }
+
+  @Test
+  public void testGetKeyReturnsCopy() {
+    System.out.println("Test NaturalSortKey.getKey()");
+    NaturalSortKey key = new NaturalSortKey("item 5");
+    byte[] bytes = key.getKey();
+    Assert.assertArrayEquals(NaturalSortKey.encode("item 5"), bytes);
+    bytes[0]++;
+    Assert.assertArrayEquals(NaturalSortKey.encode("item 5"), key.getKey());
+  }
+
+  @Test
+  public void testSortArray() {
+    System.out.println("Test NaturalSortKey.sort() with an array");
+    List<String> shuffledData = Arrays.asList(SORTED_DATA.clone());
+    Collections.shuffle(shuffledData);
+    String[] result = shuffledData.toArray(new String[shuffledData.size()]);
+    NaturalSortKey.sort(result);
+    Assert.assertArrayEquals(SORTED_DATA, result);
+  }
+
+  @Test
+  public void testSortList() {
+    System.out.println("Test NaturalSortKey.sort() with a list");
+    List<String> shuffledData = new ArrayList<String>(Arrays.asList(SORTED_DATA));
+    Collections.shuffle(shuffledData);
+    NaturalSortKey.sort(shuffledData);
+    Assert.assertEquals(Arrays.asList(SORTED_DATA), shuffledData);
+  }
+
+  private static String repeat(char character, int count) {
+    char[] chars = new char[count];
+    Arrays.fill(chars, character);
+    return new String(chars);
+  }
+}
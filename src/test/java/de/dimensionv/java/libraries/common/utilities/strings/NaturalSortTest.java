@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class NaturalSortTest {
+
+  private static final String[] SORTED_DATA = new String[]{
+    "1-04", "1-4", "1-40", "10-40", "Alice", "Bob", "Charly",
+    "a6-b6", "h2-i7", "item01", "item02", "item02a", "item2", "item3",
+    "item00004", "item4", "item 4 else", "item05", "item 5",
+    "item 5 something", "item 6", "item    8", "item128", "item128a",
+    "item255", "item256", "item04096", "item04096 test 1",
+    "item04096 test 2", "item04096 test 2a", "x2-y08", "z3-f6"
+  };
+
+  /**
+   * Creates a list of random file-name like strings, that is large enough to be sorted in parallel.
+   */
+  private static List<String> createLargeData() {
+    Random random = new Random(4711);
+    String[] prefixes = new String[]{"img", "IMG_", "file ", "report-", "v", "track0"};
+    List<String> data = new ArrayList<String>();
+    for (int i = 0; i < NaturalSort.PARALLEL_THRESHOLD * 3; i++) {
+      StringBuilder builder = new StringBuilder(prefixes[random.nextInt(prefixes.length)]);
+      for (int j = random.nextInt(3); j >= 0; j--) {
+        builder.append(random.nextInt(2000)).append(random.nextBoolean() ? "." : "-");
+      }
+      data.add(builder.append("jpg").toString());
+    }
+    return data;
+  }
+
+  @Test
+  public void testParallelSortSmallArray() {
+    System.out.println("Test NaturalSort.parallelSort() with a small array");
+    List<String> shuffledData = Arrays.asList(SORTED_DATA.clone());
+    Collections.shuffle(shuffledData);
+    String[] result = shuffledData.toArray(new String[shuffledData.size()]);
+    NaturalSort.parallelSort(result);
+    Assert.assertArrayEquals(SORTED_DATA, result);
+  }
+
+  @Test
+  public void testParallelSortLargeArray() {
+    System.out.println("Test NaturalSort.parallelSort() with a large array");
+    List<String> data = createLargeData();
+    String[] result = data.toArray(new String[data.size()]);
+    NaturalSort.parallelSort(result);
+    Collections.sort(data, NaturalSortComparator.<String>getInstance());
+    Assert.assertArrayEquals(data.toArray(), result);
+  }
+
+  @Test
+  public void testParallelSortLargeList() {
+    System.out.println("Test NaturalSort.parallelSort() with a large list");
+    List<String> data = createLargeData();
+    List<String> result = new ArrayList<String>(data);
+    NaturalSort.parallelSort(result);
+    Collections.sort(data, NaturalSortComparator.<String>getInstance());
+    Assert.assertEquals(data, result);
+  }
+
+  @Test
+  public void testParallelSortWithKeyExtractor() {
+    System.out.println("Test NaturalSort.parallelSort() with a key extractor");
+    List<StringBuilder> data = new ArrayList<StringBuilder>();
+    for (String string : SORTED_DATA) {
+      data.add(new StringBuilder(string));
+    }
+    Collections.shuffle(data);
+    NaturalSort.parallelSort(data, builder -> builder);
+    for (int i = 0; i < SORTED_DATA.length; i++) {
+      Assert.assertEquals(SORTED_DATA[i], data.get(i).toString());
+    }
+  }
+
+  @Test
+  public void testRadixSortSmallArray() {
+    System.out.println("Test NaturalSort.radixSort() with a small array");
+    List<String> shuffledData = Arrays.asList(SORTED_DATA.clone());
+    Collections.shuffle(shuffledData);
+    String[] result = shuffledData.toArray(new String[shuffledData.size()]);
+    NaturalSort.radixSort(result);
+    Assert.assertArrayEquals(SORTED_DATA, result);
+  }
+
+  @Test
+  public void testRadixSortLargeArray() {
+    System.out.println("Test NaturalSort.radixSort() with a large array");
+    List<String> data = createLargeData();
+    String[] result = data.toArray(new String[data.size()]);
+    NaturalSort.radixSort(result);
+    Collections.sort(data, NaturalSortComparator.<String>getInstance());
+    Assert.assertArrayEquals(data.toArray(), result);
+  }
+
+  @Test
+  public void testRadixSortLongCommonPrefix() {
+    System.out.println("Test NaturalSort.radixSort() with long common prefixes and duplicates");
+    char[] prefix = new char[5000];
+    Arrays.fill(prefix, 'x');
+    List<String> data = new ArrayList<String>();
+    for (int i = 0; i < 200; i++) {
+      data.add(new String(prefix) + (i % 50) + ((i % 3 == 0) ? " copy" : ""));
+    }
+    Collections.shuffle(data);
+    List<String> result = new ArrayList<String>(data);
+    NaturalSort.radixSort(result);
+    Collections.sort(data, NaturalSortComparator.<String>getInstance());
+    Assert.assertEquals(data, result);
+  }
+
+  @Test
+  public void testRadixSortWithKeyExtractor() {
+    System.out.println("Test NaturalSort.radixSort() with a key extractor");
+    List<StringBuilder> data = new ArrayList<StringBuilder>();
+    for (String string : SORTED_DATA) {
+      data.add(new StringBuilder(string));
+    }
+    Collections.shuffle(data);
+    NaturalSort.radixSort(data, builder -> builder);
+    for (int i = 0; i < SORTED_DATA.length; i++) {
+      Assert.assertEquals(SORTED_DATA[i], data.get(i).toString());
+    }
+  }
+}
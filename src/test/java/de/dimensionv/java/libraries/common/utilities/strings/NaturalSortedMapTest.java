@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class NaturalSortedMapTest {
+
+  private static final String[] SORTED_KEYS = new String[]{
+    "1-04", "1-4", "1-40", "10-40", "Alice", "Bob", "Charly", "a6-b6", "h2-i7", "item01", "item02", "item02a", "item2",
+    "item3", "item00004", "item4", "item 4 else", "item05", "item 5 something", "item128", "item128a", "item255",
+    "item256", "item04096", "item04096 test 1", "item04096 test 2", "x2-y08", "z3-f6"
+  };
+
+  @Test
+  public void testPutAndGet() {
+    System.out.println("Test NaturalSortedMap.put() and get()");
+    NaturalSortedMap<Integer> instance = createMap();
+
+    Assert.assertEquals(SORTED_KEYS.length, instance.size());
+    for (int i = 0; i < SORTED_KEYS.length; i++) {
+      Assert.assertTrue(instance.containsKey(SORTED_KEYS[i]));
+      Assert.assertEquals(Integer.valueOf(i), instance.get(SORTED_KEYS[i]));
+    }
+    Assert.assertNull(instance.get("item6"));
+    Assert.assertFalse(instance.containsKey("item6"));
+
+    // keys equal in natural order are the same key, and the first key is kept
+    Assert.assertEquals(Integer.valueOf(12), instance.put("item 2", 42));
+    Assert.assertEquals(Integer.valueOf(42), instance.get("item2"));
+    Assert.assertEquals(SORTED_KEYS.length, instance.size());
+    Assert.assertTrue(instance.keySet().contains("item2"));
+  }
+
+  @Test
+  public void testOrder() {
+    System.out.println("Test NaturalSortedMap iteration order");
+    NaturalSortedMap<Integer> instance = createMap();
+
+    Assert.assertEquals(Arrays.asList(SORTED_KEYS), new ArrayList<String>(instance.keySet()));
+    Assert.assertEquals(SORTED_KEYS[0], instance.firstKey());
+    Assert.assertEquals(SORTED_KEYS[SORTED_KEYS.length - 1], instance.lastKey());
+
+    int i = 0;
+    for (Map.Entry<String, Integer> entry : instance.entrySet()) {
+      Assert.assertEquals(SORTED_KEYS[i], entry.getKey());
+      Assert.assertEquals(Integer.valueOf(i), entry.getValue());
+      i++;
+    }
+  }
+
+  @Test
+  public void testOrderLikeTreeMap() {
+    System.out.println("Test NaturalSortedMap iteration order against TreeMap with NaturalSortComparator");
+    TreeMap<String, Integer> expected = new TreeMap<String, Integer>(NaturalSortComparator.getInstance());
+    NaturalSortedMap<Integer> instance = new NaturalSortedMap<Integer>();
+
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      String key = "file" + random.nextInt(500) + (random.nextBoolean() ? "-part" : " part ") + random.nextInt(50);
+      Assert.assertEquals(expected.put(key, i), instance.put(key, i));
+    }
+
+    Assert.assertEquals(expected.size(), instance.size());
+    Assert.assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(instance.keySet()));
+    Assert.assertEquals(expected, instance);
+  }
+
+  @Test
+  public void testRemove() {
+    System.out.println("Test NaturalSortedMap.remove() and clear()");
+    NaturalSortedMap<Integer> instance = createMap();
+
+    Assert.assertEquals(Integer.valueOf(4), instance.remove("Alice"));
+    Assert.assertNull(instance.remove("Alice"));
+    Assert.assertEquals(SORTED_KEYS.length - 1, instance.size());
+
+    Iterator<String> iterator = instance.keySet().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().startsWith("item")) {
+        iterator.remove();
+      }
+    }
+    Assert.assertEquals(Arrays.asList("1-04", "1-4", "1-40", "10-40", "Bob", "Charly", "a6-b6", "h2-i7", "x2-y08",
+        "z3-f6"), new ArrayList<String>(instance.keySet()));
+    Assert.assertEquals(10, instance.size());
+
+    instance.clear();
+    Assert.assertTrue(instance.isEmpty());
+    Assert.assertEquals(0, instance.size());
+  }
+
+  @Test
+  public void testRangeViews() {
+    System.out.println("Test NaturalSortedMap.subMap(), headMap() and tailMap()");
+    NaturalSortedMap<Integer> instance = createMap();
+
+    Assert.assertEquals(Arrays.asList("item2", "item3", "item00004", "item4", "item 4 else", "item05"),
+        new ArrayList<String>(instance.subMap("item2", "item5").keySet()));
+    Assert.assertEquals(Arrays.asList("1-04", "1-4", "1-40", "10-40"),
+        new ArrayList<String>(instance.headMap("A").keySet()));
+    Assert.assertEquals(Arrays.asList("x2-y08", "z3-f6"), new ArrayList<String>(instance.tailMap("x").keySet()));
+
+    NaturalSortedMap<Integer> view = instance.subMap("item2", "item5");
+    Assert.assertEquals(6, view.size());
+    view.put("item3a", 100);
+    Assert.assertEquals(Integer.valueOf(100), instance.get("item3a"));
+    Assert.assertEquals(SORTED_KEYS.length + 1, instance.size());
+    view.clear();
+    Assert.assertEquals(SORTED_KEYS.length - 6, instance.size());
+    Assert.assertFalse(instance.containsKey("item3"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRangeViewOutOfRange() {
+    System.out.println("Test NaturalSortedMap.subMap() with a key out of range");
+    createMap().headMap("item").put("item1", 1);
+  }
+
+  @Test
+  public void testPrefixMap() {
+    System.out.println("Test NaturalSortedMap.prefixMap()");
+    NaturalSortedMap<Integer> instance = createMap();
+
+    Assert.assertEquals(Arrays.asList("item04096", "item04096 test 1", "item04096 test 2"),
+        new ArrayList<String>(instance.prefixMap("item04096").keySet()));
+    Assert.assertEquals(Arrays.asList("item04096 test 1", "item04096 test 2"),
+        new ArrayList<String>(instance.prefixMap("item04096 test").keySet()));
+    Assert.assertEquals(Arrays.asList("item2"), new ArrayList<String>(instance.prefixMap("item 2").keySet()));
+    Assert.assertEquals(Arrays.asList("item128", "item128a"),
+        new ArrayList<String>(instance.prefixMap("item128").keySet()));
+    Assert.assertEquals(Arrays.asList("1-04", "1-4", "1-40"),
+        new ArrayList<String>(instance.prefixMap("1-").keySet()));
+    Assert.assertEquals(17, instance.prefixMap("item").size());
+    Assert.assertEquals(SORTED_KEYS.length, instance.prefixMap("").size());
+    Assert.assertTrue(instance.prefixMap("item6").isEmpty());
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullKey() {
+    System.out.println("Test NaturalSortedMap.put() with null key");
+    new NaturalSortedMap<Integer>().put(null, 1);
+  }
+
+  private static NaturalSortedMap<Integer> createMap() {
+    List<Integer> indices = new ArrayList<Integer>();
+    for (int i = 0; i < SORTED_KEYS.length; i++) {
+      indices.add(i);
+    }
+    Collections.shuffle(indices, new Random(1));
+
+    NaturalSortedMap<Integer> map = new NaturalSortedMap<Integer>();
+    for (Integer index : indices) {
+      map.put(SORTED_KEYS[index], index);
+    }
+    return map;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class NaturalSortedSetTest {
+
+  private static final List<String> DATA = Arrays.asList(
+      "item10", "item2", "Item1", "item1", "item 1a", "item01", "item1-3", "items", "item");
+
+  @Test
+  public void testAddAndContains() {
+    System.out.println("Test NaturalSortedSet.add() and contains()");
+    NaturalSortedSet instance = new NaturalSortedSet(DATA);
+
+    Assert.assertEquals(DATA.size(), instance.size());
+    for (String element : DATA) {
+      Assert.assertTrue(instance.contains(element));
+    }
+    Assert.assertFalse(instance.add("item 2"));
+    Assert.assertTrue(instance.add("item3"));
+    Assert.assertTrue(instance.remove("item3"));
+    Assert.assertFalse(instance.remove("item3"));
+    Assert.assertEquals(DATA.size(), instance.size());
+  }
+
+  @Test
+  public void testOrder() {
+    System.out.println("Test NaturalSortedSet iteration order");
+    NaturalSortedSet instance = new NaturalSortedSet(DATA);
+
+    Assert.assertEquals(Arrays.asList("Item1", "item", "item01", "item1", "item1-3", "item 1a", "item2", "item10",
+        "items"), new ArrayList<String>(instance));
+    Assert.assertEquals("Item1", instance.first());
+    Assert.assertEquals("items", instance.last());
+  }
+
+  @Test
+  public void testViews() {
+    System.out.println("Test NaturalSortedSet views");
+    NaturalSortedSet instance = new NaturalSortedSet(DATA);
+
+    Assert.assertEquals(Arrays.asList("item1", "item1-3", "item 1a"),
+        new ArrayList<String>(instance.prefixSet("item1")));
+    Assert.assertEquals(Arrays.asList("item2", "item10"), new ArrayList<String>(instance.subSet("item2", "items")));
+    Assert.assertEquals(Arrays.asList("Item1", "item"), new ArrayList<String>(instance.headSet("item01")));
+    Assert.assertEquals(Arrays.asList("item10", "items"), new ArrayList<String>(instance.tailSet("item3")));
+
+    instance.prefixSet("item1").clear();
+    Assert.assertEquals(DATA.size() - 3, instance.size());
+    Assert.assertFalse(instance.contains("item1-3"));
+  }
+}
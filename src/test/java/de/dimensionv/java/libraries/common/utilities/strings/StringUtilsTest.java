@@ -38,6 +38,8 @@
 package de.dimensionv.java.libraries.common.utilities.strings;
 
 import de.dimensionv.java.libraries.common.exceptions.InvalidIntegerValueException;
+import java.io.ByteArrayInputStream;
+import java.security.MessageDigest;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -175,6 +177,34 @@ public class StringUtilsTest {
     Assert.assertEquals(TEST_HASH_MD5.toUpperCase(), result.toUpperCase());
   }
 
+  /**
+   * Test of sha1Hash method on streams, of class StringUtils.
+   */
+  @Test
+  public void testSha1HashStream() throws Exception {
+    System.out.println("sha1Hash stream");
+    String result = StringUtils.sha1Hash(new ByteArrayInputStream(TEST_STRING.getBytes("UTF-8")));
+    Assert.assertEquals(TEST_HASH_SHA1.toUpperCase(), result.toUpperCase());
+    // larger than the buffer, so the content is hashed in several chunks
+    byte[] content = new byte[200000];
+    for (int index = 0; index < content.length; index++) {
+      content[index] = (byte) index;
+    }
+    MessageDigest digest = MessageDigest.getInstance("SHA-1");
+    Assert.assertEquals(StringUtils.bytesToHex(digest.digest(content)),
+        StringUtils.sha1Hash(new ByteArrayInputStream(content)));
+  }
+
+  /**
+   * Test of md5Hash method on streams, of class StringUtils.
+   */
+  @Test
+  public void testMd5HashStream() throws Exception {
+    System.out.println("md5Hash stream");
+    String result = StringUtils.md5Hash(new ByteArrayInputStream(TEST_STRING.getBytes("UTF-8")));
+    Assert.assertEquals(TEST_HASH_MD5.toUpperCase(), result.toUpperCase());
+  }
+
   /**
    * Test of sha1HashInt method, of class StringUtils.
    */
@@ -403,4 +433,20 @@ public class StringUtilsTest {
     String[] result = StringUtils.simpleSplit(TEST_COLON_SEP_STRING, ':', 4);
     Assert.assertArrayEquals(expectedResult, result);
   }
+
+  @Test
+  public void testFoldCase() {
+    System.out.println("Testing foldCase() method against String.CASE_INSENSITIVE_ORDER");
+    Assert.assertEquals('a', StringUtils.foldCase('A'));
+    Assert.assertEquals('z', StringUtils.foldCase('z'));
+    Assert.assertEquals('[', StringUtils.foldCase('['));
+    for (int i = 0; i <= Character.MAX_VALUE; i++) {
+      for (char other : new char[]{(char) i, Character.toUpperCase((char) i), Character.toLowerCase((char) i)}) {
+        String one = String.valueOf((char) i);
+        String two = String.valueOf(other);
+        Assert.assertEquals(one + " <=> " + two, String.CASE_INSENSITIVE_ORDER.compare(one, two) == 0,
+            StringUtils.foldCase((char) i) == StringUtils.foldCase(other));
+      }
+    }
+  }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class Utf8NaturalSortComparatorTest {
+
+  private static final String[] SORTED_DATA = new String[]{
+    "1-04", "1-4", "1-40", "10-40", "Alice", "Bob", "Charly",
+    "a6-b6", "h2-i7", "item01", "item02", "item02a", "item2", "item3",
+    "item00004", "item00004", "item4", "item 4 else", "item05", "item 5", "item 5",
+    "item 5 something", "item 6", "item    8", "item128", "item128a",
+    "item255", "item256", "item04096", "item04096 test 1",
+    "item04096 test 2", "item04096 test 2a", "item04096 test 2b",
+    "item04096 test 3", "item04096 test 3a", "item04096 test 3b",
+    "x2-y08", "z3-f6"
+  };
+
+  private static final String[] SPECIAL_DATA = new String[]{
+    "", " ", "0", "00", "a0", "a00", "a 0b", "ab", "\u00e9", "\u00e910", "\u4e00", "\u4e00 9",
+    "\ud83d\ude00", "\ud83d\ude002", "\ufb01", "\u3000x", "\u0662", "\u0661\u0660", "a\u0669", "a\u0661\u0660",
+    "a 7", "a:", "x\u0000y", "\uffff"
+  };
+
+  @Test
+  public void testConsistentWithComparator() {
+    System.out.println("Test Utf8NaturalSortComparator.compare() against NaturalSortComparator.compare()");
+    List<String> data = new ArrayList<String>(Arrays.asList(SORTED_DATA));
+    Collections.addAll(data, SPECIAL_DATA);
+    NaturalSortComparator<String> comparator = NaturalSortComparator.getInstance();
+    Utf8NaturalSortComparator utf8Comparator = Utf8NaturalSortComparator.getInstance();
+    for (String one : data) {
+      for (String two : data) {
+        int expResult = comparator.compare(one, two);
+        int result = utf8Comparator.compare(utf8(one), utf8(two));
+        Assert.assertEquals("[" + one + "] <=> [" + two + "]", expResult, result);
+      }
+    }
+  }
+
+  @Test
+  public void testCompareRanges() {
+    System.out.println("Test Utf8NaturalSortComparator.compare() with ranges of arrays");
+    byte[] bytes = utf8("xxitem10|item9\u00e9|item010");
+    Utf8NaturalSortComparator comparator = Utf8NaturalSortComparator.getInstance();
+    Assert.assertEquals(1, comparator.compare(bytes, 2, 6, bytes, 9, 5));
+    Assert.assertEquals(-1, comparator.compare(bytes, 9, 5, bytes, 2, 6));
+    Assert.assertEquals(1, comparator.compare(bytes, 9, 7, bytes, 9, 5));
+    Assert.assertEquals(1, comparator.compare(bytes, 2, 6, bytes, 17, 7));
+    Assert.assertEquals(0, comparator.compare(bytes, 4, 0, bytes, 0, 0));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testCompareInvalidRange() {
+    System.out.println("Test Utf8NaturalSortComparator.compare() with an invalid range");
+    byte[] bytes = utf8("item1");
+    Utf8NaturalSortComparator.getInstance().compare(bytes, 2, 4, bytes, 0, 5);
+  }
+
+  @Test
+  public void testCompareByteBuffers() {
+    System.out.println("Test Utf8NaturalSortComparator.compare() with heap and direct buffers");
+    Utf8NaturalSortComparator comparator = Utf8NaturalSortComparator.getInstance();
+    ByteBuffer heap = ByteBuffer.wrap(utf8("--item 9\u4e00"));
+    heap.position(2);
+    ByteBuffer direct = ByteBuffer.allocateDirect(16);
+    direct.put(utf8("item10\u4e00"));
+    direct.flip();
+    Assert.assertEquals(-1, comparator.compare(heap, direct));
+    Assert.assertEquals(1, comparator.compare(direct, heap));
+    Assert.assertEquals(0, comparator.compare(heap, heap.duplicate()));
+    Assert.assertEquals(2, heap.position());
+    Assert.assertEquals(0, direct.position());
+    direct.position(6);
+    heap.position(8);
+    Assert.assertEquals(0, comparator.compare(heap, direct));
+  }
+
+  @Test
+  public void testMalformedInput() {
+    System.out.println("Test Utf8NaturalSortComparator.compare() with malformed input");
+    Utf8NaturalSortComparator comparator = Utf8NaturalSortComparator.getInstance();
+    byte[] truncated = new byte[]{'a', (byte) 0xe4, (byte) 0xb8};
+    byte[] replaced = utf8("a\ufffd");
+    Assert.assertEquals(0, comparator.compare(truncated, replaced));
+    Assert.assertEquals(0, comparator.compare(new byte[]{'1', (byte) 0x80, '2'}, utf8("1\ufffd2")));
+    Assert.assertEquals(-1, comparator.compare(new byte[]{(byte) 0xff}, utf8("\uffff")));
+  }
+
+  @Test
+  public void testEncodeUtf8() {
+    System.out.println("Test NaturalSortKey.encodeUtf8() against NaturalSortKey.encode()");
+    List<String> data = new ArrayList<String>(Arrays.asList(SORTED_DATA));
+    Collections.addAll(data, SPECIAL_DATA);
+    for (String string : data) {
+      byte[] bytes = utf8("##" + string + "##");
+      Assert.assertArrayEquals(string, NaturalSortKey.encode(string),
+          NaturalSortKey.encodeUtf8(bytes, 2, bytes.length - 4));
+      ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+      buffer.put(bytes);
+      buffer.position(2);
+      buffer.limit(bytes.length - 2);
+      Assert.assertArrayEquals(string, NaturalSortKey.encode(string), NaturalSortKey.encodeUtf8(buffer));
+      Assert.assertEquals(2, buffer.position());
+    }
+  }
+
+  @Test
+  public void testSortList() {
+    System.out.println("Test Utf8NaturalSortComparator with Collections.sort()");
+    List<String> shuffledData = new ArrayList<String>(Arrays.asList(SORTED_DATA));
+    Collections.shuffle(shuffledData);
+    List<byte[]> data = new ArrayList<byte[]>();
+    for (String string : shuffledData) {
+      data.add(utf8(string));
+    }
+    Collections.sort(data, Utf8NaturalSortComparator.getInstance());
+    String[] result = new String[data.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new String(data.get(i), StandardCharsets.UTF_8);
+    }
+    Assert.assertArrayEquals(SORTED_DATA, result);
+  }
+
+  private static byte[] utf8(String string) {
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class VersionComparatorTest {
+
+  private static final String[] SORTED_VERSIONS = new String[]{
+    "1.0-alpha-1", "1.0-beta", "1.0-rc1", "1.0-SNAPSHOT", "1.0", "1.0.1", "1.9.3", "1.10.0-rc2", "1.10.0", "2.0"
+  };
+
+  @Test
+  public void testCompare() {
+    System.out.println("Test VersionComparator.compare()");
+    VersionComparator<String> comparator = VersionComparator.getInstance();
+    Assert.assertEquals(-1, comparator.compare("1.9.3", "1.10.0-rc2"));
+    Assert.assertEquals(1, comparator.compare("1.0", "1.0-rc1"));
+    Assert.assertEquals(0, comparator.compare("1.0-GA", "1.0"));
+  }
+
+  @Test
+  public void testSortList() {
+    System.out.println("Test VersionComparator.sort() with a list");
+    List<String> list = new ArrayList<String>(Arrays.asList(SORTED_VERSIONS));
+    Collections.shuffle(list);
+    VersionComparator.<String>getInstance().sort(list);
+    Assert.assertEquals(Arrays.asList(SORTED_VERSIONS), list);
+  }
+
+  @Test
+  public void testSortArrayWithKeyExtractor() {
+    System.out.println("Test VersionComparator.sort() with an array and a key extractor");
+    String[][] artifacts = new String[SORTED_VERSIONS.length][];
+    for (int i = 0; i < artifacts.length; i++) {
+      artifacts[i] = new String[]{"artifact", SORTED_VERSIONS[artifacts.length - 1 - i]};
+    }
+    new VersionComparator<String[]>(artifact -> artifact[1]).sort(artifacts);
+    for (int i = 0; i < artifacts.length; i++) {
+      Assert.assertEquals(SORTED_VERSIONS[i], artifacts[i][1]);
+    }
+  }
+
+  @Test
+  public void testSortIsStable() {
+    System.out.println("Test VersionComparator.sort() with equal versions");
+    String[] versions = new String[]{"2.0", "1.0-GA", "1.0", "1.0.final", "0.1"};
+    VersionComparator.<String>getInstance().sort(versions);
+    Assert.assertArrayEquals(new String[]{"0.1", "1.0-GA", "1.0", "1.0.final", "2.0"}, versions);
+  }
+}
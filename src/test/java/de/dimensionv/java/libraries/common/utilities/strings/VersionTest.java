@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2014, Volkmar Seifert, DimensionV.de
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package de.dimensionv.java.libraries.common.utilities.strings;
+
+import de.dimensionv.java.libraries.common.exceptions.InvalidStringValueException;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author vseifert
+ */
+public class VersionTest {
+
+  private static final String[] SORTED_VERSIONS = new String[]{
+    "0.9", "1", "1.0-alpha", "1.0-alpha-1", "1.0-a2", "1.0-beta", "1.0-b2", "1.0-M1", "1.0-milestone-2", "1.0-rc1",
+    "1.0-CR2", "1.0-rc.10", "1.0-SNAPSHOT", "1.0", "1.0-1", "1.0-sp", "1.0-sp1", "1.0-abc", "1.0-xyz", "1.0.0",
+    "1.0.1", "1.9.3", "1.10.0-rc2", "v1.10.0", "1.10.0.1", "2.0.0-beta.2", "2.0.0-beta.11", "2.0.0", "65535.1",
+    "65536", "70000.0.0.0.1", "9223372036854775807"
+  };
+
+  @Test
+  public void testParse() {
+    System.out.println("Test Version.parse()");
+    Version version = Version.parse("v1.10.0-rc2+build.7");
+    Assert.assertEquals(3, version.getComponentCount());
+    Assert.assertEquals(1, version.getMajor());
+    Assert.assertEquals(10, version.getMinor());
+    Assert.assertEquals(0, version.getPatch());
+    Assert.assertEquals(10, version.getComponent(1));
+    Assert.assertTrue(version.isPreRelease());
+    Assert.assertEquals("build.7", version.getBuildMetadata());
+    Assert.assertEquals("v1.10.0-rc2+build.7", version.toString());
+
+    version = Version.parse("3");
+    Assert.assertEquals(1, version.getComponentCount());
+    Assert.assertEquals(0, version.getMinor());
+    Assert.assertEquals(0, version.getPatch());
+    Assert.assertFalse(version.isPreRelease());
+    Assert.assertNull(version.getBuildMetadata());
+    Assert.assertFalse(Version.parse("1.0-sp2").isPreRelease());
+  }
+
+  @Test
+  public void testParseInvalid() {
+    System.out.println("Test Version.parse() with invalid version strings");
+    String[] strings = new String[]{"", "v", "alpha", ".1", "1.0-", "1.0.", "1.0-!", "1.0--rc", "99999999999999999999"};
+    for (String string : strings) {
+      try {
+        Version.parse(string);
+        Assert.fail(string);
+      } catch (InvalidStringValueException e) {
+        Assert.assertEquals(string, e.getStringValue());
+      }
+    }
+  }
+
+  @Test
+  public void testCompareTo() {
+    System.out.println("Test Version.compareTo()");
+    for (int i = 0; i < SORTED_VERSIONS.length; i++) {
+      Version one = new Version(SORTED_VERSIONS[i]);
+      for (int j = 0; j < SORTED_VERSIONS.length; j++) {
+        int expResult = Integer.compare(i, j);
+        int result = one.compareTo(new Version(SORTED_VERSIONS[j]));
+        Assert.assertEquals(SORTED_VERSIONS[i] + " <=> " + SORTED_VERSIONS[j], expResult, result);
+      }
+    }
+  }
+
+  @Test
+  public void testConsistentWithNaturalSortComparator() {
+    System.out.println("Test Version.compareTo() against NaturalSortComparator.compare() for numeric versions");
+    Random random = new Random(42);
+    NaturalSortComparator<String> comparator = NaturalSortComparator.getInstance();
+    for (int i = 0; i < 10000; i++) {
+      String one = createNumericVersion(random);
+      String two = createNumericVersion(random);
+      // the values decide first, and only versions with equal values are ordered by their leading zeros
+      int expResult = comparator.compare(stripLeadingZeros(one), stripLeadingZeros(two));
+      if (expResult == 0) {
+        expResult = comparator.compare(one, two);
+      }
+      Assert.assertEquals(one + " <=> " + two, expResult, new Version(one).compareTo(new Version(two)));
+    }
+  }
+
+  @Test
+  public void testCompareToLeadingZeros() {
+    System.out.println("Test Version.compareTo() with leading zeros");
+    NaturalSortComparator<String> comparator = NaturalSortComparator.getInstance();
+    String[][] pairs = new String[][]{
+      {"1.0.1", "1.00.2"}, {"1.00.5", "1.0.5"}, {"1.0.01", "1.00.1"}, {"1.0", "1.00"}, {"1.01", "1.1"},
+      {"1.01.5", "1.1.5"}, {"1.001.3", "1.01.3"}, {"1.00", "1.0.0"}, {"00", "0"}, {"1.000.0", "1.0.00"}
+    };
+    for (String[] pair : pairs) {
+      Assert.assertEquals(pair[0] + " <=> " + pair[1], comparator.compare(pair[0], pair[1]),
+          new Version(pair[0]).compareTo(new Version(pair[1])));
+      Assert.assertEquals(pair[1] + " <=> " + pair[0], comparator.compare(pair[1], pair[0]),
+          new Version(pair[1]).compareTo(new Version(pair[0])));
+    }
+    Assert.assertEquals(new Version("1.0.5"), new Version("1.00.5"));
+    Assert.assertEquals(new Version("1.0.5").hashCode(), new Version("1.00.5").hashCode());
+    // the values decide before the leading zeros, unlike in the NaturalSortComparator
+    Assert.assertEquals(1, new Version("1.01.2").compareTo(new Version("1.1.1")));
+    Assert.assertEquals(-1, new Version("1.01-rc1").compareTo(new Version("1.1")));
+  }
+
+  private static String stripLeadingZeros(String version) {
+    return version.replaceAll("(?<![0-9])0+(?=[0-9])", "");
+  }
+
+  @Test
+  public void testEqualsAndHashCode() {
+    System.out.println("Test Version.equals() and Version.hashCode()");
+    Version version = new Version("1.0");
+    for (String string : new String[]{"1.0-GA", "1.0.final", "v1.0", "1.0+build.5", "1.0-RELEASE"}) {
+      Assert.assertEquals(string, version, new Version(string));
+      Assert.assertEquals(string, version.hashCode(), new Version(string).hashCode());
+    }
+    Assert.assertEquals(new Version("1.0-rc1"), new Version("1.0-CR1"));
+    Assert.assertEquals(new Version("1.0-rc1").hashCode(), new Version("1.0-CR1").hashCode());
+    Assert.assertEquals(new Version("1.0-Foo-Bar"), new Version("1.0-foo-bar"));
+    Assert.assertEquals(new Version("1.0-Foo-Bar").hashCode(), new Version("1.0-foo-bar").hashCode());
+    Assert.assertFalse(version.equals(new Version("1.0.0")));
+    Assert.assertFalse(version.equals(new Version("1.00")));
+    Assert.assertFalse(version.equals("1.0"));
+  }
+
+  @Test
+  public void testSort() {
+    System.out.println("Test Arrays.sort() with versions");
+    Version[] versions = new Version[SORTED_VERSIONS.length];
+    for (int i = 0; i < versions.length; i++) {
+      versions[i] = new Version(SORTED_VERSIONS[versions.length - 1 - i]);
+    }
+    Arrays.sort(versions);
+    for (int i = 0; i < versions.length; i++) {
+      Assert.assertEquals(SORTED_VERSIONS[i], versions[i].toString());
+    }
+  }
+
+  private static String createNumericVersion(Random random) {
+    StringBuilder builder = new StringBuilder();
+    int count = 1 + random.nextInt(6);
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        builder.append('.');
+      }
+      switch (random.nextInt(5)) {
+        case 0:
+          builder.append(random.nextInt(70000));
+          break;
+        case 1:
+          builder.append('0').append(1 + random.nextInt(9));
+          break;
+        case 2:
+          builder.append(random.nextBoolean() ? "00" : "000");
+          break;
+        default:
+          builder.append(random.nextInt(4));
+      }
+    }
+    return builder.toString();
+  }
+}